@@ -0,0 +1,2390 @@
+import org.luaj.vm2.*;
+import org.luaj.vm2.lib.*;
+public class string extends VarArgFunction {
+   public Varargs onInvoke(Varargs $arg) {
+      final LuaValue[] f1 = {NIL};
+      f1[0] = new ZeroArgFunction(env) {
+         public LuaValue call() {
+            return ONE;
+         }
+      };
+      final LuaValue[] f2 = {NIL};
+      f2[0] = new ZeroArgFunction(env) {
+         public LuaValue call() {
+            return ONE;
+         }
+      };
+      final LuaValue[] f3 = {NIL};
+      {
+         final LuaValue[] result = {NIL};
+         f3[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result[0].toboolean()) ) {
+                  result[0] = valueOf(f1[0].call().checkdouble()+f2[0].call().checkdouble());
+               }
+               return result[0];
+            }
+         };
+      }
+      final LuaValue[] f4 = {NIL};
+      {
+         final LuaValue[] result$1 = {NIL};
+         f4[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$1[0].toboolean()) ) {
+                  result$1[0] = valueOf(f2[0].call().checkdouble()+f3[0].call().checkdouble());
+               }
+               return result$1[0];
+            }
+         };
+      }
+      final LuaValue[] f5 = {NIL};
+      {
+         final LuaValue[] result$2 = {NIL};
+         f5[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$2[0].toboolean()) ) {
+                  result$2[0] = valueOf(f3[0].call().checkdouble()+f4[0].call().checkdouble());
+               }
+               return result$2[0];
+            }
+         };
+      }
+      final LuaValue[] f6 = {NIL};
+      {
+         final LuaValue[] result$3 = {NIL};
+         f6[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$3[0].toboolean()) ) {
+                  result$3[0] = valueOf(f4[0].call().checkdouble()+f5[0].call().checkdouble());
+               }
+               return result$3[0];
+            }
+         };
+      }
+      final LuaValue[] f7 = {NIL};
+      {
+         final LuaValue[] result$4 = {NIL};
+         f7[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$4[0].toboolean()) ) {
+                  result$4[0] = valueOf(f5[0].call().checkdouble()+f6[0].call().checkdouble());
+               }
+               return result$4[0];
+            }
+         };
+      }
+      final LuaValue[] f8 = {NIL};
+      {
+         final LuaValue[] result$5 = {NIL};
+         f8[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$5[0].toboolean()) ) {
+                  result$5[0] = valueOf(f6[0].call().checkdouble()+f7[0].call().checkdouble());
+               }
+               return result$5[0];
+            }
+         };
+      }
+      final LuaValue[] f9 = {NIL};
+      {
+         final LuaValue[] result$6 = {NIL};
+         f9[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$6[0].toboolean()) ) {
+                  result$6[0] = valueOf(f7[0].call().checkdouble()+f8[0].call().checkdouble());
+               }
+               return result$6[0];
+            }
+         };
+      }
+      final LuaValue[] f10 = {NIL};
+      {
+         final LuaValue[] result$7 = {NIL};
+         f10[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$7[0].toboolean()) ) {
+                  result$7[0] = valueOf(f8[0].call().checkdouble()+f9[0].call().checkdouble());
+               }
+               return result$7[0];
+            }
+         };
+      }
+      final LuaValue[] f11 = {NIL};
+      {
+         final LuaValue[] result$8 = {NIL};
+         f11[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$8[0].toboolean()) ) {
+                  result$8[0] = valueOf(f9[0].call().checkdouble()+f10[0].call().checkdouble());
+               }
+               return result$8[0];
+            }
+         };
+      }
+      final LuaValue[] f12 = {NIL};
+      {
+         final LuaValue[] result$9 = {NIL};
+         f12[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$9[0].toboolean()) ) {
+                  result$9[0] = valueOf(f10[0].call().checkdouble()+f11[0].call().checkdouble());
+               }
+               return result$9[0];
+            }
+         };
+      }
+      final LuaValue[] f13 = {NIL};
+      {
+         final LuaValue[] result$10 = {NIL};
+         f13[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$10[0].toboolean()) ) {
+                  result$10[0] = valueOf(f11[0].call().checkdouble()+f12[0].call().checkdouble());
+               }
+               return result$10[0];
+            }
+         };
+      }
+      final LuaValue[] f14 = {NIL};
+      {
+         final LuaValue[] result$11 = {NIL};
+         f14[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$11[0].toboolean()) ) {
+                  result$11[0] = valueOf(f12[0].call().checkdouble()+f13[0].call().checkdouble());
+               }
+               return result$11[0];
+            }
+         };
+      }
+      final LuaValue[] f15 = {NIL};
+      {
+         final LuaValue[] result$12 = {NIL};
+         f15[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$12[0].toboolean()) ) {
+                  result$12[0] = valueOf(f13[0].call().checkdouble()+f14[0].call().checkdouble());
+               }
+               return result$12[0];
+            }
+         };
+      }
+      final LuaValue[] f16 = {NIL};
+      {
+         final LuaValue[] result$13 = {NIL};
+         f16[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$13[0].toboolean()) ) {
+                  result$13[0] = valueOf(f14[0].call().checkdouble()+f15[0].call().checkdouble());
+               }
+               return result$13[0];
+            }
+         };
+      }
+      final LuaValue[] f17 = {NIL};
+      {
+         final LuaValue[] result$14 = {NIL};
+         f17[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$14[0].toboolean()) ) {
+                  result$14[0] = valueOf(f15[0].call().checkdouble()+f16[0].call().checkdouble());
+               }
+               return result$14[0];
+            }
+         };
+      }
+      final LuaValue[] f18 = {NIL};
+      {
+         final LuaValue[] result$15 = {NIL};
+         f18[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$15[0].toboolean()) ) {
+                  result$15[0] = valueOf(f16[0].call().checkdouble()+f17[0].call().checkdouble());
+               }
+               return result$15[0];
+            }
+         };
+      }
+      final LuaValue[] f19 = {NIL};
+      {
+         final LuaValue[] result$16 = {NIL};
+         f19[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$16[0].toboolean()) ) {
+                  result$16[0] = valueOf(f17[0].call().checkdouble()+f18[0].call().checkdouble());
+               }
+               return result$16[0];
+            }
+         };
+      }
+      final LuaValue[] f20 = {NIL};
+      {
+         final LuaValue[] result$17 = {NIL};
+         f20[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$17[0].toboolean()) ) {
+                  result$17[0] = valueOf(f18[0].call().checkdouble()+f19[0].call().checkdouble());
+               }
+               return result$17[0];
+            }
+         };
+      }
+      final LuaValue[] f21 = {NIL};
+      {
+         final LuaValue[] result$18 = {NIL};
+         f21[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$18[0].toboolean()) ) {
+                  result$18[0] = valueOf(f19[0].call().checkdouble()+f20[0].call().checkdouble());
+               }
+               return result$18[0];
+            }
+         };
+      }
+      final LuaValue[] f22 = {NIL};
+      {
+         final LuaValue[] result$19 = {NIL};
+         f22[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$19[0].toboolean()) ) {
+                  result$19[0] = valueOf(f20[0].call().checkdouble()+f21[0].call().checkdouble());
+               }
+               return result$19[0];
+            }
+         };
+      }
+      final LuaValue[] f23 = {NIL};
+      {
+         final LuaValue[] result$20 = {NIL};
+         f23[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$20[0].toboolean()) ) {
+                  result$20[0] = valueOf(f21[0].call().checkdouble()+f22[0].call().checkdouble());
+               }
+               return result$20[0];
+            }
+         };
+      }
+      final LuaValue[] f24 = {NIL};
+      {
+         final LuaValue[] result$21 = {NIL};
+         f24[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$21[0].toboolean()) ) {
+                  result$21[0] = valueOf(f22[0].call().checkdouble()+f23[0].call().checkdouble());
+               }
+               return result$21[0];
+            }
+         };
+      }
+      final LuaValue[] f25 = {NIL};
+      {
+         final LuaValue[] result$22 = {NIL};
+         f25[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$22[0].toboolean()) ) {
+                  result$22[0] = valueOf(f23[0].call().checkdouble()+f24[0].call().checkdouble());
+               }
+               return result$22[0];
+            }
+         };
+      }
+      final LuaValue[] f26 = {NIL};
+      {
+         final LuaValue[] result$23 = {NIL};
+         f26[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$23[0].toboolean()) ) {
+                  result$23[0] = valueOf(f24[0].call().checkdouble()+f25[0].call().checkdouble());
+               }
+               return result$23[0];
+            }
+         };
+      }
+      final LuaValue[] f27 = {NIL};
+      {
+         final LuaValue[] result$24 = {NIL};
+         f27[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$24[0].toboolean()) ) {
+                  result$24[0] = valueOf(f25[0].call().checkdouble()+f26[0].call().checkdouble());
+               }
+               return result$24[0];
+            }
+         };
+      }
+      final LuaValue[] f28 = {NIL};
+      {
+         final LuaValue[] result$25 = {NIL};
+         f28[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$25[0].toboolean()) ) {
+                  result$25[0] = valueOf(f26[0].call().checkdouble()+f27[0].call().checkdouble());
+               }
+               return result$25[0];
+            }
+         };
+      }
+      final LuaValue[] f29 = {NIL};
+      {
+         final LuaValue[] result$26 = {NIL};
+         f29[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$26[0].toboolean()) ) {
+                  result$26[0] = valueOf(f27[0].call().checkdouble()+f28[0].call().checkdouble());
+               }
+               return result$26[0];
+            }
+         };
+      }
+      final LuaValue[] f30 = {NIL};
+      {
+         final LuaValue[] result$27 = {NIL};
+         f30[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$27[0].toboolean()) ) {
+                  result$27[0] = valueOf(f28[0].call().checkdouble()+f29[0].call().checkdouble());
+               }
+               return result$27[0];
+            }
+         };
+      }
+      final LuaValue[] f31 = {NIL};
+      {
+         final LuaValue[] result$28 = {NIL};
+         f31[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$28[0].toboolean()) ) {
+                  result$28[0] = valueOf(f29[0].call().checkdouble()+f30[0].call().checkdouble());
+               }
+               return result$28[0];
+            }
+         };
+      }
+      final LuaValue[] f32 = {NIL};
+      {
+         final LuaValue[] result$29 = {NIL};
+         f32[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$29[0].toboolean()) ) {
+                  result$29[0] = valueOf(f30[0].call().checkdouble()+f31[0].call().checkdouble());
+               }
+               return result$29[0];
+            }
+         };
+      }
+      final LuaValue[] f33 = {NIL};
+      {
+         final LuaValue[] result$30 = {NIL};
+         f33[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$30[0].toboolean()) ) {
+                  result$30[0] = valueOf(f31[0].call().checkdouble()+f32[0].call().checkdouble());
+               }
+               return result$30[0];
+            }
+         };
+      }
+      final LuaValue[] f34 = {NIL};
+      {
+         final LuaValue[] result$31 = {NIL};
+         f34[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$31[0].toboolean()) ) {
+                  result$31[0] = valueOf(f32[0].call().checkdouble()+f33[0].call().checkdouble());
+               }
+               return result$31[0];
+            }
+         };
+      }
+      final LuaValue[] f35 = {NIL};
+      {
+         final LuaValue[] result$32 = {NIL};
+         f35[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$32[0].toboolean()) ) {
+                  result$32[0] = valueOf(f33[0].call().checkdouble()+f34[0].call().checkdouble());
+               }
+               return result$32[0];
+            }
+         };
+      }
+      final LuaValue[] f36 = {NIL};
+      {
+         final LuaValue[] result$33 = {NIL};
+         f36[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$33[0].toboolean()) ) {
+                  result$33[0] = valueOf(f34[0].call().checkdouble()+f35[0].call().checkdouble());
+               }
+               return result$33[0];
+            }
+         };
+      }
+      final LuaValue[] f37 = {NIL};
+      {
+         final LuaValue[] result$34 = {NIL};
+         f37[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$34[0].toboolean()) ) {
+                  result$34[0] = valueOf(f35[0].call().checkdouble()+f36[0].call().checkdouble());
+               }
+               return result$34[0];
+            }
+         };
+      }
+      final LuaValue[] f38 = {NIL};
+      {
+         final LuaValue[] result$35 = {NIL};
+         f38[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$35[0].toboolean()) ) {
+                  result$35[0] = valueOf(f36[0].call().checkdouble()+f37[0].call().checkdouble());
+               }
+               return result$35[0];
+            }
+         };
+      }
+      final LuaValue[] f39 = {NIL};
+      {
+         final LuaValue[] result$36 = {NIL};
+         f39[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$36[0].toboolean()) ) {
+                  result$36[0] = valueOf(f37[0].call().checkdouble()+f38[0].call().checkdouble());
+               }
+               return result$36[0];
+            }
+         };
+      }
+      final LuaValue[] f40 = {NIL};
+      {
+         final LuaValue[] result$37 = {NIL};
+         f40[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$37[0].toboolean()) ) {
+                  result$37[0] = valueOf(f38[0].call().checkdouble()+f39[0].call().checkdouble());
+               }
+               return result$37[0];
+            }
+         };
+      }
+      final LuaValue[] f41 = {NIL};
+      {
+         final LuaValue[] result$38 = {NIL};
+         f41[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$38[0].toboolean()) ) {
+                  result$38[0] = valueOf(f39[0].call().checkdouble()+f40[0].call().checkdouble());
+               }
+               return result$38[0];
+            }
+         };
+      }
+      final LuaValue[] f42 = {NIL};
+      {
+         final LuaValue[] result$39 = {NIL};
+         f42[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$39[0].toboolean()) ) {
+                  result$39[0] = valueOf(f40[0].call().checkdouble()+f41[0].call().checkdouble());
+               }
+               return result$39[0];
+            }
+         };
+      }
+      final LuaValue[] f43 = {NIL};
+      {
+         final LuaValue[] result$40 = {NIL};
+         f43[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$40[0].toboolean()) ) {
+                  result$40[0] = valueOf(f41[0].call().checkdouble()+f42[0].call().checkdouble());
+               }
+               return result$40[0];
+            }
+         };
+      }
+      final LuaValue[] f44 = {NIL};
+      {
+         final LuaValue[] result$41 = {NIL};
+         f44[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$41[0].toboolean()) ) {
+                  result$41[0] = valueOf(f42[0].call().checkdouble()+f43[0].call().checkdouble());
+               }
+               return result$41[0];
+            }
+         };
+      }
+      final LuaValue[] f45 = {NIL};
+      {
+         final LuaValue[] result$42 = {NIL};
+         f45[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$42[0].toboolean()) ) {
+                  result$42[0] = valueOf(f43[0].call().checkdouble()+f44[0].call().checkdouble());
+               }
+               return result$42[0];
+            }
+         };
+      }
+      final LuaValue[] f46 = {NIL};
+      {
+         final LuaValue[] result$43 = {NIL};
+         f46[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$43[0].toboolean()) ) {
+                  result$43[0] = valueOf(f44[0].call().checkdouble()+f45[0].call().checkdouble());
+               }
+               return result$43[0];
+            }
+         };
+      }
+      final LuaValue[] f47 = {NIL};
+      {
+         final LuaValue[] result$44 = {NIL};
+         f47[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$44[0].toboolean()) ) {
+                  result$44[0] = valueOf(f45[0].call().checkdouble()+f46[0].call().checkdouble());
+               }
+               return result$44[0];
+            }
+         };
+      }
+      final LuaValue[] f48 = {NIL};
+      {
+         final LuaValue[] result$45 = {NIL};
+         f48[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$45[0].toboolean()) ) {
+                  result$45[0] = valueOf(f46[0].call().checkdouble()+f47[0].call().checkdouble());
+               }
+               return result$45[0];
+            }
+         };
+      }
+      final LuaValue[] f49 = {NIL};
+      {
+         final LuaValue[] result$46 = {NIL};
+         f49[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$46[0].toboolean()) ) {
+                  result$46[0] = valueOf(f47[0].call().checkdouble()+f48[0].call().checkdouble());
+               }
+               return result$46[0];
+            }
+         };
+      }
+      final LuaValue[] f50 = {NIL};
+      {
+         final LuaValue[] result$47 = {NIL};
+         f50[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$47[0].toboolean()) ) {
+                  result$47[0] = valueOf(f48[0].call().checkdouble()+f49[0].call().checkdouble());
+               }
+               return result$47[0];
+            }
+         };
+      }
+      final LuaValue[] f51 = {NIL};
+      {
+         final LuaValue[] result$48 = {NIL};
+         f51[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$48[0].toboolean()) ) {
+                  result$48[0] = valueOf(f49[0].call().checkdouble()+f50[0].call().checkdouble());
+               }
+               return result$48[0];
+            }
+         };
+      }
+      final LuaValue[] f52 = {NIL};
+      {
+         final LuaValue[] result$49 = {NIL};
+         f52[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$49[0].toboolean()) ) {
+                  result$49[0] = valueOf(f50[0].call().checkdouble()+f51[0].call().checkdouble());
+               }
+               return result$49[0];
+            }
+         };
+      }
+      final LuaValue[] f53 = {NIL};
+      {
+         final LuaValue[] result$50 = {NIL};
+         f53[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$50[0].toboolean()) ) {
+                  result$50[0] = valueOf(f51[0].call().checkdouble()+f52[0].call().checkdouble());
+               }
+               return result$50[0];
+            }
+         };
+      }
+      final LuaValue[] f54 = {NIL};
+      {
+         final LuaValue[] result$51 = {NIL};
+         f54[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$51[0].toboolean()) ) {
+                  result$51[0] = valueOf(f52[0].call().checkdouble()+f53[0].call().checkdouble());
+               }
+               return result$51[0];
+            }
+         };
+      }
+      final LuaValue[] f55 = {NIL};
+      {
+         final LuaValue[] result$52 = {NIL};
+         f55[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$52[0].toboolean()) ) {
+                  result$52[0] = valueOf(f53[0].call().checkdouble()+f54[0].call().checkdouble());
+               }
+               return result$52[0];
+            }
+         };
+      }
+      final LuaValue[] f56 = {NIL};
+      {
+         final LuaValue[] result$53 = {NIL};
+         f56[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$53[0].toboolean()) ) {
+                  result$53[0] = valueOf(f54[0].call().checkdouble()+f55[0].call().checkdouble());
+               }
+               return result$53[0];
+            }
+         };
+      }
+      final LuaValue[] f57 = {NIL};
+      {
+         final LuaValue[] result$54 = {NIL};
+         f57[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$54[0].toboolean()) ) {
+                  result$54[0] = valueOf(f55[0].call().checkdouble()+f56[0].call().checkdouble());
+               }
+               return result$54[0];
+            }
+         };
+      }
+      final LuaValue[] f58 = {NIL};
+      {
+         final LuaValue[] result$55 = {NIL};
+         f58[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$55[0].toboolean()) ) {
+                  result$55[0] = valueOf(f56[0].call().checkdouble()+f57[0].call().checkdouble());
+               }
+               return result$55[0];
+            }
+         };
+      }
+      final LuaValue[] f59 = {NIL};
+      {
+         final LuaValue[] result$56 = {NIL};
+         f59[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$56[0].toboolean()) ) {
+                  result$56[0] = valueOf(f57[0].call().checkdouble()+f58[0].call().checkdouble());
+               }
+               return result$56[0];
+            }
+         };
+      }
+      final LuaValue[] f60 = {NIL};
+      {
+         final LuaValue[] result$57 = {NIL};
+         f60[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$57[0].toboolean()) ) {
+                  result$57[0] = valueOf(f58[0].call().checkdouble()+f59[0].call().checkdouble());
+               }
+               return result$57[0];
+            }
+         };
+      }
+      final LuaValue[] f61 = {NIL};
+      {
+         final LuaValue[] result$58 = {NIL};
+         f61[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$58[0].toboolean()) ) {
+                  result$58[0] = valueOf(f59[0].call().checkdouble()+f60[0].call().checkdouble());
+               }
+               return result$58[0];
+            }
+         };
+      }
+      final LuaValue[] f62 = {NIL};
+      {
+         final LuaValue[] result$59 = {NIL};
+         f62[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$59[0].toboolean()) ) {
+                  result$59[0] = valueOf(f60[0].call().checkdouble()+f61[0].call().checkdouble());
+               }
+               return result$59[0];
+            }
+         };
+      }
+      final LuaValue[] f63 = {NIL};
+      {
+         final LuaValue[] result$60 = {NIL};
+         f63[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$60[0].toboolean()) ) {
+                  result$60[0] = valueOf(f61[0].call().checkdouble()+f62[0].call().checkdouble());
+               }
+               return result$60[0];
+            }
+         };
+      }
+      final LuaValue[] f64 = {NIL};
+      {
+         final LuaValue[] result$61 = {NIL};
+         f64[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$61[0].toboolean()) ) {
+                  result$61[0] = valueOf(f62[0].call().checkdouble()+f63[0].call().checkdouble());
+               }
+               return result$61[0];
+            }
+         };
+      }
+      final LuaValue[] f65 = {NIL};
+      {
+         final LuaValue[] result$62 = {NIL};
+         f65[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$62[0].toboolean()) ) {
+                  result$62[0] = valueOf(f63[0].call().checkdouble()+f64[0].call().checkdouble());
+               }
+               return result$62[0];
+            }
+         };
+      }
+      final LuaValue[] f66 = {NIL};
+      {
+         final LuaValue[] result$63 = {NIL};
+         f66[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$63[0].toboolean()) ) {
+                  result$63[0] = valueOf(f64[0].call().checkdouble()+f65[0].call().checkdouble());
+               }
+               return result$63[0];
+            }
+         };
+      }
+      final LuaValue[] f67 = {NIL};
+      {
+         final LuaValue[] result$64 = {NIL};
+         f67[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$64[0].toboolean()) ) {
+                  result$64[0] = valueOf(f65[0].call().checkdouble()+f66[0].call().checkdouble());
+               }
+               return result$64[0];
+            }
+         };
+      }
+      final LuaValue[] f68 = {NIL};
+      {
+         final LuaValue[] result$65 = {NIL};
+         f68[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$65[0].toboolean()) ) {
+                  result$65[0] = valueOf(f66[0].call().checkdouble()+f67[0].call().checkdouble());
+               }
+               return result$65[0];
+            }
+         };
+      }
+      final LuaValue[] f69 = {NIL};
+      {
+         final LuaValue[] result$66 = {NIL};
+         f69[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$66[0].toboolean()) ) {
+                  result$66[0] = valueOf(f67[0].call().checkdouble()+f68[0].call().checkdouble());
+               }
+               return result$66[0];
+            }
+         };
+      }
+      final LuaValue[] f70 = {NIL};
+      {
+         final LuaValue[] result$67 = {NIL};
+         f70[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$67[0].toboolean()) ) {
+                  result$67[0] = valueOf(f68[0].call().checkdouble()+f69[0].call().checkdouble());
+               }
+               return result$67[0];
+            }
+         };
+      }
+      final LuaValue[] f71 = {NIL};
+      {
+         final LuaValue[] result$68 = {NIL};
+         f71[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$68[0].toboolean()) ) {
+                  result$68[0] = valueOf(f69[0].call().checkdouble()+f70[0].call().checkdouble());
+               }
+               return result$68[0];
+            }
+         };
+      }
+      final LuaValue[] f72 = {NIL};
+      {
+         final LuaValue[] result$69 = {NIL};
+         f72[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$69[0].toboolean()) ) {
+                  result$69[0] = valueOf(f70[0].call().checkdouble()+f71[0].call().checkdouble());
+               }
+               return result$69[0];
+            }
+         };
+      }
+      final LuaValue[] f73 = {NIL};
+      {
+         final LuaValue[] result$70 = {NIL};
+         f73[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$70[0].toboolean()) ) {
+                  result$70[0] = valueOf(f71[0].call().checkdouble()+f72[0].call().checkdouble());
+               }
+               return result$70[0];
+            }
+         };
+      }
+      final LuaValue[] f74 = {NIL};
+      {
+         final LuaValue[] result$71 = {NIL};
+         f74[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$71[0].toboolean()) ) {
+                  result$71[0] = valueOf(f72[0].call().checkdouble()+f73[0].call().checkdouble());
+               }
+               return result$71[0];
+            }
+         };
+      }
+      final LuaValue[] f75 = {NIL};
+      {
+         final LuaValue[] result$72 = {NIL};
+         f75[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$72[0].toboolean()) ) {
+                  result$72[0] = valueOf(f73[0].call().checkdouble()+f74[0].call().checkdouble());
+               }
+               return result$72[0];
+            }
+         };
+      }
+      final LuaValue[] f76 = {NIL};
+      {
+         final LuaValue[] result$73 = {NIL};
+         f76[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$73[0].toboolean()) ) {
+                  result$73[0] = valueOf(f74[0].call().checkdouble()+f75[0].call().checkdouble());
+               }
+               return result$73[0];
+            }
+         };
+      }
+      final LuaValue[] f77 = {NIL};
+      {
+         final LuaValue[] result$74 = {NIL};
+         f77[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$74[0].toboolean()) ) {
+                  result$74[0] = valueOf(f75[0].call().checkdouble()+f76[0].call().checkdouble());
+               }
+               return result$74[0];
+            }
+         };
+      }
+      final LuaValue[] f78 = {NIL};
+      {
+         final LuaValue[] result$75 = {NIL};
+         f78[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$75[0].toboolean()) ) {
+                  result$75[0] = valueOf(f76[0].call().checkdouble()+f77[0].call().checkdouble());
+               }
+               return result$75[0];
+            }
+         };
+      }
+      final LuaValue[] f79 = {NIL};
+      {
+         final LuaValue[] result$76 = {NIL};
+         f79[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$76[0].toboolean()) ) {
+                  result$76[0] = valueOf(f77[0].call().checkdouble()+f78[0].call().checkdouble());
+               }
+               return result$76[0];
+            }
+         };
+      }
+      final LuaValue[] f80 = {NIL};
+      {
+         final LuaValue[] result$77 = {NIL};
+         f80[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$77[0].toboolean()) ) {
+                  result$77[0] = valueOf(f78[0].call().checkdouble()+f79[0].call().checkdouble());
+               }
+               return result$77[0];
+            }
+         };
+      }
+      final LuaValue[] f81 = {NIL};
+      {
+         final LuaValue[] result$78 = {NIL};
+         f81[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$78[0].toboolean()) ) {
+                  result$78[0] = valueOf(f79[0].call().checkdouble()+f80[0].call().checkdouble());
+               }
+               return result$78[0];
+            }
+         };
+      }
+      final LuaValue[] f82 = {NIL};
+      {
+         final LuaValue[] result$79 = {NIL};
+         f82[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$79[0].toboolean()) ) {
+                  result$79[0] = valueOf(f80[0].call().checkdouble()+f81[0].call().checkdouble());
+               }
+               return result$79[0];
+            }
+         };
+      }
+      final LuaValue[] f83 = {NIL};
+      {
+         final LuaValue[] result$80 = {NIL};
+         f83[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$80[0].toboolean()) ) {
+                  result$80[0] = valueOf(f81[0].call().checkdouble()+f82[0].call().checkdouble());
+               }
+               return result$80[0];
+            }
+         };
+      }
+      final LuaValue[] f84 = {NIL};
+      {
+         final LuaValue[] result$81 = {NIL};
+         f84[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$81[0].toboolean()) ) {
+                  result$81[0] = valueOf(f82[0].call().checkdouble()+f83[0].call().checkdouble());
+               }
+               return result$81[0];
+            }
+         };
+      }
+      final LuaValue[] f85 = {NIL};
+      {
+         final LuaValue[] result$82 = {NIL};
+         f85[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$82[0].toboolean()) ) {
+                  result$82[0] = valueOf(f83[0].call().checkdouble()+f84[0].call().checkdouble());
+               }
+               return result$82[0];
+            }
+         };
+      }
+      final LuaValue[] f86 = {NIL};
+      {
+         final LuaValue[] result$83 = {NIL};
+         f86[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$83[0].toboolean()) ) {
+                  result$83[0] = valueOf(f84[0].call().checkdouble()+f85[0].call().checkdouble());
+               }
+               return result$83[0];
+            }
+         };
+      }
+      final LuaValue[] f87 = {NIL};
+      {
+         final LuaValue[] result$84 = {NIL};
+         f87[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$84[0].toboolean()) ) {
+                  result$84[0] = valueOf(f85[0].call().checkdouble()+f86[0].call().checkdouble());
+               }
+               return result$84[0];
+            }
+         };
+      }
+      final LuaValue[] f88 = {NIL};
+      {
+         final LuaValue[] result$85 = {NIL};
+         f88[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$85[0].toboolean()) ) {
+                  result$85[0] = valueOf(f86[0].call().checkdouble()+f87[0].call().checkdouble());
+               }
+               return result$85[0];
+            }
+         };
+      }
+      final LuaValue[] f89 = {NIL};
+      {
+         final LuaValue[] result$86 = {NIL};
+         f89[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$86[0].toboolean()) ) {
+                  result$86[0] = valueOf(f87[0].call().checkdouble()+f88[0].call().checkdouble());
+               }
+               return result$86[0];
+            }
+         };
+      }
+      final LuaValue[] f90 = {NIL};
+      {
+         final LuaValue[] result$87 = {NIL};
+         f90[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$87[0].toboolean()) ) {
+                  result$87[0] = valueOf(f88[0].call().checkdouble()+f89[0].call().checkdouble());
+               }
+               return result$87[0];
+            }
+         };
+      }
+      final LuaValue[] f91 = {NIL};
+      {
+         final LuaValue[] result$88 = {NIL};
+         f91[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$88[0].toboolean()) ) {
+                  result$88[0] = valueOf(f89[0].call().checkdouble()+f90[0].call().checkdouble());
+               }
+               return result$88[0];
+            }
+         };
+      }
+      final LuaValue[] f92 = {NIL};
+      {
+         final LuaValue[] result$89 = {NIL};
+         f92[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$89[0].toboolean()) ) {
+                  result$89[0] = valueOf(f90[0].call().checkdouble()+f91[0].call().checkdouble());
+               }
+               return result$89[0];
+            }
+         };
+      }
+      final LuaValue[] f93 = {NIL};
+      {
+         final LuaValue[] result$90 = {NIL};
+         f93[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$90[0].toboolean()) ) {
+                  result$90[0] = valueOf(f91[0].call().checkdouble()+f92[0].call().checkdouble());
+               }
+               return result$90[0];
+            }
+         };
+      }
+      final LuaValue[] f94 = {NIL};
+      {
+         final LuaValue[] result$91 = {NIL};
+         f94[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$91[0].toboolean()) ) {
+                  result$91[0] = valueOf(f92[0].call().checkdouble()+f93[0].call().checkdouble());
+               }
+               return result$91[0];
+            }
+         };
+      }
+      final LuaValue[] f95 = {NIL};
+      {
+         final LuaValue[] result$92 = {NIL};
+         f95[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$92[0].toboolean()) ) {
+                  result$92[0] = valueOf(f93[0].call().checkdouble()+f94[0].call().checkdouble());
+               }
+               return result$92[0];
+            }
+         };
+      }
+      final LuaValue[] f96 = {NIL};
+      {
+         final LuaValue[] result$93 = {NIL};
+         f96[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$93[0].toboolean()) ) {
+                  result$93[0] = valueOf(f94[0].call().checkdouble()+f95[0].call().checkdouble());
+               }
+               return result$93[0];
+            }
+         };
+      }
+      final LuaValue[] f97 = {NIL};
+      {
+         final LuaValue[] result$94 = {NIL};
+         f97[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$94[0].toboolean()) ) {
+                  result$94[0] = valueOf(f95[0].call().checkdouble()+f96[0].call().checkdouble());
+               }
+               return result$94[0];
+            }
+         };
+      }
+      final LuaValue[] f98 = {NIL};
+      {
+         final LuaValue[] result$95 = {NIL};
+         f98[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$95[0].toboolean()) ) {
+                  result$95[0] = valueOf(f96[0].call().checkdouble()+f97[0].call().checkdouble());
+               }
+               return result$95[0];
+            }
+         };
+      }
+      final LuaValue[] f99 = {NIL};
+      {
+         final LuaValue[] result$96 = {NIL};
+         f99[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$96[0].toboolean()) ) {
+                  result$96[0] = valueOf(f97[0].call().checkdouble()+f98[0].call().checkdouble());
+               }
+               return result$96[0];
+            }
+         };
+      }
+      final LuaValue[] f100 = {NIL};
+      {
+         final LuaValue[] result$97 = {NIL};
+         f100[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$97[0].toboolean()) ) {
+                  result$97[0] = valueOf(f98[0].call().checkdouble()+f99[0].call().checkdouble());
+               }
+               return result$97[0];
+            }
+         };
+      }
+      final LuaValue[] f101 = {NIL};
+      {
+         final LuaValue[] result$98 = {NIL};
+         f101[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$98[0].toboolean()) ) {
+                  result$98[0] = valueOf(f99[0].call().checkdouble()+f100[0].call().checkdouble());
+               }
+               return result$98[0];
+            }
+         };
+      }
+      final LuaValue[] f102 = {NIL};
+      {
+         final LuaValue[] result$99 = {NIL};
+         f102[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$99[0].toboolean()) ) {
+                  result$99[0] = valueOf(f100[0].call().checkdouble()+f101[0].call().checkdouble());
+               }
+               return result$99[0];
+            }
+         };
+      }
+      final LuaValue[] f103 = {NIL};
+      {
+         final LuaValue[] result$100 = {NIL};
+         f103[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$100[0].toboolean()) ) {
+                  result$100[0] = valueOf(f101[0].call().checkdouble()+f102[0].call().checkdouble());
+               }
+               return result$100[0];
+            }
+         };
+      }
+      final LuaValue[] f104 = {NIL};
+      {
+         final LuaValue[] result$101 = {NIL};
+         f104[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$101[0].toboolean()) ) {
+                  result$101[0] = valueOf(f102[0].call().checkdouble()+f103[0].call().checkdouble());
+               }
+               return result$101[0];
+            }
+         };
+      }
+      final LuaValue[] f105 = {NIL};
+      {
+         final LuaValue[] result$102 = {NIL};
+         f105[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$102[0].toboolean()) ) {
+                  result$102[0] = valueOf(f103[0].call().checkdouble()+f104[0].call().checkdouble());
+               }
+               return result$102[0];
+            }
+         };
+      }
+      final LuaValue[] f106 = {NIL};
+      {
+         final LuaValue[] result$103 = {NIL};
+         f106[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$103[0].toboolean()) ) {
+                  result$103[0] = valueOf(f104[0].call().checkdouble()+f105[0].call().checkdouble());
+               }
+               return result$103[0];
+            }
+         };
+      }
+      final LuaValue[] f107 = {NIL};
+      {
+         final LuaValue[] result$104 = {NIL};
+         f107[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$104[0].toboolean()) ) {
+                  result$104[0] = valueOf(f105[0].call().checkdouble()+f106[0].call().checkdouble());
+               }
+               return result$104[0];
+            }
+         };
+      }
+      final LuaValue[] f108 = {NIL};
+      {
+         final LuaValue[] result$105 = {NIL};
+         f108[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$105[0].toboolean()) ) {
+                  result$105[0] = valueOf(f106[0].call().checkdouble()+f107[0].call().checkdouble());
+               }
+               return result$105[0];
+            }
+         };
+      }
+      final LuaValue[] f109 = {NIL};
+      {
+         final LuaValue[] result$106 = {NIL};
+         f109[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$106[0].toboolean()) ) {
+                  result$106[0] = valueOf(f107[0].call().checkdouble()+f108[0].call().checkdouble());
+               }
+               return result$106[0];
+            }
+         };
+      }
+      final LuaValue[] f110 = {NIL};
+      {
+         final LuaValue[] result$107 = {NIL};
+         f110[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$107[0].toboolean()) ) {
+                  result$107[0] = valueOf(f108[0].call().checkdouble()+f109[0].call().checkdouble());
+               }
+               return result$107[0];
+            }
+         };
+      }
+      final LuaValue[] f111 = {NIL};
+      {
+         final LuaValue[] result$108 = {NIL};
+         f111[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$108[0].toboolean()) ) {
+                  result$108[0] = valueOf(f109[0].call().checkdouble()+f110[0].call().checkdouble());
+               }
+               return result$108[0];
+            }
+         };
+      }
+      final LuaValue[] f112 = {NIL};
+      {
+         final LuaValue[] result$109 = {NIL};
+         f112[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$109[0].toboolean()) ) {
+                  result$109[0] = valueOf(f110[0].call().checkdouble()+f111[0].call().checkdouble());
+               }
+               return result$109[0];
+            }
+         };
+      }
+      final LuaValue[] f113 = {NIL};
+      {
+         final LuaValue[] result$110 = {NIL};
+         f113[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$110[0].toboolean()) ) {
+                  result$110[0] = valueOf(f111[0].call().checkdouble()+f112[0].call().checkdouble());
+               }
+               return result$110[0];
+            }
+         };
+      }
+      final LuaValue[] f114 = {NIL};
+      {
+         final LuaValue[] result$111 = {NIL};
+         f114[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$111[0].toboolean()) ) {
+                  result$111[0] = valueOf(f112[0].call().checkdouble()+f113[0].call().checkdouble());
+               }
+               return result$111[0];
+            }
+         };
+      }
+      final LuaValue[] f115 = {NIL};
+      {
+         final LuaValue[] result$112 = {NIL};
+         f115[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$112[0].toboolean()) ) {
+                  result$112[0] = valueOf(f113[0].call().checkdouble()+f114[0].call().checkdouble());
+               }
+               return result$112[0];
+            }
+         };
+      }
+      final LuaValue[] f116 = {NIL};
+      {
+         final LuaValue[] result$113 = {NIL};
+         f116[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$113[0].toboolean()) ) {
+                  result$113[0] = valueOf(f114[0].call().checkdouble()+f115[0].call().checkdouble());
+               }
+               return result$113[0];
+            }
+         };
+      }
+      final LuaValue[] f117 = {NIL};
+      {
+         final LuaValue[] result$114 = {NIL};
+         f117[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$114[0].toboolean()) ) {
+                  result$114[0] = valueOf(f115[0].call().checkdouble()+f116[0].call().checkdouble());
+               }
+               return result$114[0];
+            }
+         };
+      }
+      final LuaValue[] f118 = {NIL};
+      {
+         final LuaValue[] result$115 = {NIL};
+         f118[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$115[0].toboolean()) ) {
+                  result$115[0] = valueOf(f116[0].call().checkdouble()+f117[0].call().checkdouble());
+               }
+               return result$115[0];
+            }
+         };
+      }
+      final LuaValue[] f119 = {NIL};
+      {
+         final LuaValue[] result$116 = {NIL};
+         f119[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$116[0].toboolean()) ) {
+                  result$116[0] = valueOf(f117[0].call().checkdouble()+f118[0].call().checkdouble());
+               }
+               return result$116[0];
+            }
+         };
+      }
+      final LuaValue[] f120 = {NIL};
+      {
+         final LuaValue[] result$117 = {NIL};
+         f120[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$117[0].toboolean()) ) {
+                  result$117[0] = valueOf(f118[0].call().checkdouble()+f119[0].call().checkdouble());
+               }
+               return result$117[0];
+            }
+         };
+      }
+      final LuaValue[] f121 = {NIL};
+      {
+         final LuaValue[] result$118 = {NIL};
+         f121[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$118[0].toboolean()) ) {
+                  result$118[0] = valueOf(f119[0].call().checkdouble()+f120[0].call().checkdouble());
+               }
+               return result$118[0];
+            }
+         };
+      }
+      final LuaValue[] f122 = {NIL};
+      {
+         final LuaValue[] result$119 = {NIL};
+         f122[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$119[0].toboolean()) ) {
+                  result$119[0] = valueOf(f120[0].call().checkdouble()+f121[0].call().checkdouble());
+               }
+               return result$119[0];
+            }
+         };
+      }
+      final LuaValue[] f123 = {NIL};
+      {
+         final LuaValue[] result$120 = {NIL};
+         f123[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$120[0].toboolean()) ) {
+                  result$120[0] = valueOf(f121[0].call().checkdouble()+f122[0].call().checkdouble());
+               }
+               return result$120[0];
+            }
+         };
+      }
+      final LuaValue[] f124 = {NIL};
+      {
+         final LuaValue[] result$121 = {NIL};
+         f124[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$121[0].toboolean()) ) {
+                  result$121[0] = valueOf(f122[0].call().checkdouble()+f123[0].call().checkdouble());
+               }
+               return result$121[0];
+            }
+         };
+      }
+      final LuaValue[] f125 = {NIL};
+      {
+         final LuaValue[] result$122 = {NIL};
+         f125[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$122[0].toboolean()) ) {
+                  result$122[0] = valueOf(f123[0].call().checkdouble()+f124[0].call().checkdouble());
+               }
+               return result$122[0];
+            }
+         };
+      }
+      final LuaValue[] f126 = {NIL};
+      {
+         final LuaValue[] result$123 = {NIL};
+         f126[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$123[0].toboolean()) ) {
+                  result$123[0] = valueOf(f124[0].call().checkdouble()+f125[0].call().checkdouble());
+               }
+               return result$123[0];
+            }
+         };
+      }
+      final LuaValue[] f127 = {NIL};
+      {
+         final LuaValue[] result$124 = {NIL};
+         f127[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$124[0].toboolean()) ) {
+                  result$124[0] = valueOf(f125[0].call().checkdouble()+f126[0].call().checkdouble());
+               }
+               return result$124[0];
+            }
+         };
+      }
+      final LuaValue[] f128 = {NIL};
+      {
+         final LuaValue[] result$125 = {NIL};
+         f128[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$125[0].toboolean()) ) {
+                  result$125[0] = valueOf(f126[0].call().checkdouble()+f127[0].call().checkdouble());
+               }
+               return result$125[0];
+            }
+         };
+      }
+      final LuaValue[] f129 = {NIL};
+      {
+         final LuaValue[] result$126 = {NIL};
+         f129[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$126[0].toboolean()) ) {
+                  result$126[0] = valueOf(f127[0].call().checkdouble()+f128[0].call().checkdouble());
+               }
+               return result$126[0];
+            }
+         };
+      }
+      final LuaValue[] f130 = {NIL};
+      {
+         final LuaValue[] result$127 = {NIL};
+         f130[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$127[0].toboolean()) ) {
+                  result$127[0] = valueOf(f128[0].call().checkdouble()+f129[0].call().checkdouble());
+               }
+               return result$127[0];
+            }
+         };
+      }
+      final LuaValue[] f131 = {NIL};
+      {
+         final LuaValue[] result$128 = {NIL};
+         f131[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$128[0].toboolean()) ) {
+                  result$128[0] = valueOf(f129[0].call().checkdouble()+f130[0].call().checkdouble());
+               }
+               return result$128[0];
+            }
+         };
+      }
+      final LuaValue[] f132 = {NIL};
+      {
+         final LuaValue[] result$129 = {NIL};
+         f132[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$129[0].toboolean()) ) {
+                  result$129[0] = valueOf(f130[0].call().checkdouble()+f131[0].call().checkdouble());
+               }
+               return result$129[0];
+            }
+         };
+      }
+      final LuaValue[] f133 = {NIL};
+      {
+         final LuaValue[] result$130 = {NIL};
+         f133[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$130[0].toboolean()) ) {
+                  result$130[0] = valueOf(f131[0].call().checkdouble()+f132[0].call().checkdouble());
+               }
+               return result$130[0];
+            }
+         };
+      }
+      final LuaValue[] f134 = {NIL};
+      {
+         final LuaValue[] result$131 = {NIL};
+         f134[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$131[0].toboolean()) ) {
+                  result$131[0] = valueOf(f132[0].call().checkdouble()+f133[0].call().checkdouble());
+               }
+               return result$131[0];
+            }
+         };
+      }
+      final LuaValue[] f135 = {NIL};
+      {
+         final LuaValue[] result$132 = {NIL};
+         f135[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$132[0].toboolean()) ) {
+                  result$132[0] = valueOf(f133[0].call().checkdouble()+f134[0].call().checkdouble());
+               }
+               return result$132[0];
+            }
+         };
+      }
+      final LuaValue[] f136 = {NIL};
+      {
+         final LuaValue[] result$133 = {NIL};
+         f136[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$133[0].toboolean()) ) {
+                  result$133[0] = valueOf(f134[0].call().checkdouble()+f135[0].call().checkdouble());
+               }
+               return result$133[0];
+            }
+         };
+      }
+      final LuaValue[] f137 = {NIL};
+      {
+         final LuaValue[] result$134 = {NIL};
+         f137[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$134[0].toboolean()) ) {
+                  result$134[0] = valueOf(f135[0].call().checkdouble()+f136[0].call().checkdouble());
+               }
+               return result$134[0];
+            }
+         };
+      }
+      final LuaValue[] f138 = {NIL};
+      {
+         final LuaValue[] result$135 = {NIL};
+         f138[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$135[0].toboolean()) ) {
+                  result$135[0] = valueOf(f136[0].call().checkdouble()+f137[0].call().checkdouble());
+               }
+               return result$135[0];
+            }
+         };
+      }
+      final LuaValue[] f139 = {NIL};
+      {
+         final LuaValue[] result$136 = {NIL};
+         f139[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$136[0].toboolean()) ) {
+                  result$136[0] = valueOf(f137[0].call().checkdouble()+f138[0].call().checkdouble());
+               }
+               return result$136[0];
+            }
+         };
+      }
+      final LuaValue[] f140 = {NIL};
+      {
+         final LuaValue[] result$137 = {NIL};
+         f140[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$137[0].toboolean()) ) {
+                  result$137[0] = valueOf(f138[0].call().checkdouble()+f139[0].call().checkdouble());
+               }
+               return result$137[0];
+            }
+         };
+      }
+      final LuaValue[] f141 = {NIL};
+      {
+         final LuaValue[] result$138 = {NIL};
+         f141[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$138[0].toboolean()) ) {
+                  result$138[0] = valueOf(f139[0].call().checkdouble()+f140[0].call().checkdouble());
+               }
+               return result$138[0];
+            }
+         };
+      }
+      final LuaValue[] f142 = {NIL};
+      {
+         final LuaValue[] result$139 = {NIL};
+         f142[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$139[0].toboolean()) ) {
+                  result$139[0] = valueOf(f140[0].call().checkdouble()+f141[0].call().checkdouble());
+               }
+               return result$139[0];
+            }
+         };
+      }
+      final LuaValue[] f143 = {NIL};
+      {
+         final LuaValue[] result$140 = {NIL};
+         f143[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$140[0].toboolean()) ) {
+                  result$140[0] = valueOf(f141[0].call().checkdouble()+f142[0].call().checkdouble());
+               }
+               return result$140[0];
+            }
+         };
+      }
+      final LuaValue[] f144 = {NIL};
+      {
+         final LuaValue[] result$141 = {NIL};
+         f144[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$141[0].toboolean()) ) {
+                  result$141[0] = valueOf(f142[0].call().checkdouble()+f143[0].call().checkdouble());
+               }
+               return result$141[0];
+            }
+         };
+      }
+      final LuaValue[] f145 = {NIL};
+      {
+         final LuaValue[] result$142 = {NIL};
+         f145[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$142[0].toboolean()) ) {
+                  result$142[0] = valueOf(f143[0].call().checkdouble()+f144[0].call().checkdouble());
+               }
+               return result$142[0];
+            }
+         };
+      }
+      final LuaValue[] f146 = {NIL};
+      {
+         final LuaValue[] result$143 = {NIL};
+         f146[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$143[0].toboolean()) ) {
+                  result$143[0] = valueOf(f144[0].call().checkdouble()+f145[0].call().checkdouble());
+               }
+               return result$143[0];
+            }
+         };
+      }
+      final LuaValue[] f147 = {NIL};
+      {
+         final LuaValue[] result$144 = {NIL};
+         f147[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$144[0].toboolean()) ) {
+                  result$144[0] = valueOf(f145[0].call().checkdouble()+f146[0].call().checkdouble());
+               }
+               return result$144[0];
+            }
+         };
+      }
+      final LuaValue[] f148 = {NIL};
+      {
+         final LuaValue[] result$145 = {NIL};
+         f148[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$145[0].toboolean()) ) {
+                  result$145[0] = valueOf(f146[0].call().checkdouble()+f147[0].call().checkdouble());
+               }
+               return result$145[0];
+            }
+         };
+      }
+      final LuaValue[] f149 = {NIL};
+      {
+         final LuaValue[] result$146 = {NIL};
+         f149[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$146[0].toboolean()) ) {
+                  result$146[0] = valueOf(f147[0].call().checkdouble()+f148[0].call().checkdouble());
+               }
+               return result$146[0];
+            }
+         };
+      }
+      final LuaValue[] f150 = {NIL};
+      {
+         final LuaValue[] result$147 = {NIL};
+         f150[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$147[0].toboolean()) ) {
+                  result$147[0] = valueOf(f148[0].call().checkdouble()+f149[0].call().checkdouble());
+               }
+               return result$147[0];
+            }
+         };
+      }
+      final LuaValue[] f151 = {NIL};
+      {
+         final LuaValue[] result$148 = {NIL};
+         f151[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$148[0].toboolean()) ) {
+                  result$148[0] = valueOf(f149[0].call().checkdouble()+f150[0].call().checkdouble());
+               }
+               return result$148[0];
+            }
+         };
+      }
+      final LuaValue[] f152 = {NIL};
+      {
+         final LuaValue[] result$149 = {NIL};
+         f152[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$149[0].toboolean()) ) {
+                  result$149[0] = valueOf(f150[0].call().checkdouble()+f151[0].call().checkdouble());
+               }
+               return result$149[0];
+            }
+         };
+      }
+      final LuaValue[] f153 = {NIL};
+      {
+         final LuaValue[] result$150 = {NIL};
+         f153[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$150[0].toboolean()) ) {
+                  result$150[0] = valueOf(f151[0].call().checkdouble()+f152[0].call().checkdouble());
+               }
+               return result$150[0];
+            }
+         };
+      }
+      final LuaValue[] f154 = {NIL};
+      {
+         final LuaValue[] result$151 = {NIL};
+         f154[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$151[0].toboolean()) ) {
+                  result$151[0] = valueOf(f152[0].call().checkdouble()+f153[0].call().checkdouble());
+               }
+               return result$151[0];
+            }
+         };
+      }
+      final LuaValue[] f155 = {NIL};
+      {
+         final LuaValue[] result$152 = {NIL};
+         f155[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$152[0].toboolean()) ) {
+                  result$152[0] = valueOf(f153[0].call().checkdouble()+f154[0].call().checkdouble());
+               }
+               return result$152[0];
+            }
+         };
+      }
+      final LuaValue[] f156 = {NIL};
+      {
+         final LuaValue[] result$153 = {NIL};
+         f156[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$153[0].toboolean()) ) {
+                  result$153[0] = valueOf(f154[0].call().checkdouble()+f155[0].call().checkdouble());
+               }
+               return result$153[0];
+            }
+         };
+      }
+      final LuaValue[] f157 = {NIL};
+      {
+         final LuaValue[] result$154 = {NIL};
+         f157[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$154[0].toboolean()) ) {
+                  result$154[0] = valueOf(f155[0].call().checkdouble()+f156[0].call().checkdouble());
+               }
+               return result$154[0];
+            }
+         };
+      }
+      final LuaValue[] f158 = {NIL};
+      {
+         final LuaValue[] result$155 = {NIL};
+         f158[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$155[0].toboolean()) ) {
+                  result$155[0] = valueOf(f156[0].call().checkdouble()+f157[0].call().checkdouble());
+               }
+               return result$155[0];
+            }
+         };
+      }
+      final LuaValue[] f159 = {NIL};
+      {
+         final LuaValue[] result$156 = {NIL};
+         f159[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$156[0].toboolean()) ) {
+                  result$156[0] = valueOf(f157[0].call().checkdouble()+f158[0].call().checkdouble());
+               }
+               return result$156[0];
+            }
+         };
+      }
+      final LuaValue[] f160 = {NIL};
+      {
+         final LuaValue[] result$157 = {NIL};
+         f160[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$157[0].toboolean()) ) {
+                  result$157[0] = valueOf(f158[0].call().checkdouble()+f159[0].call().checkdouble());
+               }
+               return result$157[0];
+            }
+         };
+      }
+      final LuaValue[] f161 = {NIL};
+      {
+         final LuaValue[] result$158 = {NIL};
+         f161[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$158[0].toboolean()) ) {
+                  result$158[0] = valueOf(f159[0].call().checkdouble()+f160[0].call().checkdouble());
+               }
+               return result$158[0];
+            }
+         };
+      }
+      final LuaValue[] f162 = {NIL};
+      {
+         final LuaValue[] result$159 = {NIL};
+         f162[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$159[0].toboolean()) ) {
+                  result$159[0] = valueOf(f160[0].call().checkdouble()+f161[0].call().checkdouble());
+               }
+               return result$159[0];
+            }
+         };
+      }
+      final LuaValue[] f163 = {NIL};
+      {
+         final LuaValue[] result$160 = {NIL};
+         f163[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$160[0].toboolean()) ) {
+                  result$160[0] = valueOf(f161[0].call().checkdouble()+f162[0].call().checkdouble());
+               }
+               return result$160[0];
+            }
+         };
+      }
+      final LuaValue[] f164 = {NIL};
+      {
+         final LuaValue[] result$161 = {NIL};
+         f164[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$161[0].toboolean()) ) {
+                  result$161[0] = valueOf(f162[0].call().checkdouble()+f163[0].call().checkdouble());
+               }
+               return result$161[0];
+            }
+         };
+      }
+      final LuaValue[] f165 = {NIL};
+      {
+         final LuaValue[] result$162 = {NIL};
+         f165[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$162[0].toboolean()) ) {
+                  result$162[0] = valueOf(f163[0].call().checkdouble()+f164[0].call().checkdouble());
+               }
+               return result$162[0];
+            }
+         };
+      }
+      final LuaValue[] f166 = {NIL};
+      {
+         final LuaValue[] result$163 = {NIL};
+         f166[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$163[0].toboolean()) ) {
+                  result$163[0] = valueOf(f164[0].call().checkdouble()+f165[0].call().checkdouble());
+               }
+               return result$163[0];
+            }
+         };
+      }
+      final LuaValue[] f167 = {NIL};
+      {
+         final LuaValue[] result$164 = {NIL};
+         f167[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$164[0].toboolean()) ) {
+                  result$164[0] = valueOf(f165[0].call().checkdouble()+f166[0].call().checkdouble());
+               }
+               return result$164[0];
+            }
+         };
+      }
+      final LuaValue[] f168 = {NIL};
+      {
+         final LuaValue[] result$165 = {NIL};
+         f168[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$165[0].toboolean()) ) {
+                  result$165[0] = valueOf(f166[0].call().checkdouble()+f167[0].call().checkdouble());
+               }
+               return result$165[0];
+            }
+         };
+      }
+      final LuaValue[] f169 = {NIL};
+      {
+         final LuaValue[] result$166 = {NIL};
+         f169[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$166[0].toboolean()) ) {
+                  result$166[0] = valueOf(f167[0].call().checkdouble()+f168[0].call().checkdouble());
+               }
+               return result$166[0];
+            }
+         };
+      }
+      final LuaValue[] f170 = {NIL};
+      {
+         final LuaValue[] result$167 = {NIL};
+         f170[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$167[0].toboolean()) ) {
+                  result$167[0] = valueOf(f168[0].call().checkdouble()+f169[0].call().checkdouble());
+               }
+               return result$167[0];
+            }
+         };
+      }
+      final LuaValue[] f171 = {NIL};
+      {
+         final LuaValue[] result$168 = {NIL};
+         f171[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$168[0].toboolean()) ) {
+                  result$168[0] = valueOf(f169[0].call().checkdouble()+f170[0].call().checkdouble());
+               }
+               return result$168[0];
+            }
+         };
+      }
+      final LuaValue[] f172 = {NIL};
+      {
+         final LuaValue[] result$169 = {NIL};
+         f172[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$169[0].toboolean()) ) {
+                  result$169[0] = valueOf(f170[0].call().checkdouble()+f171[0].call().checkdouble());
+               }
+               return result$169[0];
+            }
+         };
+      }
+      final LuaValue[] f173 = {NIL};
+      {
+         final LuaValue[] result$170 = {NIL};
+         f173[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$170[0].toboolean()) ) {
+                  result$170[0] = valueOf(f171[0].call().checkdouble()+f172[0].call().checkdouble());
+               }
+               return result$170[0];
+            }
+         };
+      }
+      final LuaValue[] f174 = {NIL};
+      {
+         final LuaValue[] result$171 = {NIL};
+         f174[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$171[0].toboolean()) ) {
+                  result$171[0] = valueOf(f172[0].call().checkdouble()+f173[0].call().checkdouble());
+               }
+               return result$171[0];
+            }
+         };
+      }
+      final LuaValue[] f175 = {NIL};
+      {
+         final LuaValue[] result$172 = {NIL};
+         f175[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$172[0].toboolean()) ) {
+                  result$172[0] = valueOf(f173[0].call().checkdouble()+f174[0].call().checkdouble());
+               }
+               return result$172[0];
+            }
+         };
+      }
+      final LuaValue[] f176 = {NIL};
+      {
+         final LuaValue[] result$173 = {NIL};
+         f176[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$173[0].toboolean()) ) {
+                  result$173[0] = valueOf(f174[0].call().checkdouble()+f175[0].call().checkdouble());
+               }
+               return result$173[0];
+            }
+         };
+      }
+      final LuaValue[] f177 = {NIL};
+      {
+         final LuaValue[] result$174 = {NIL};
+         f177[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$174[0].toboolean()) ) {
+                  result$174[0] = valueOf(f175[0].call().checkdouble()+f176[0].call().checkdouble());
+               }
+               return result$174[0];
+            }
+         };
+      }
+      final LuaValue[] f178 = {NIL};
+      {
+         final LuaValue[] result$175 = {NIL};
+         f178[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$175[0].toboolean()) ) {
+                  result$175[0] = valueOf(f176[0].call().checkdouble()+f177[0].call().checkdouble());
+               }
+               return result$175[0];
+            }
+         };
+      }
+      final LuaValue[] f179 = {NIL};
+      {
+         final LuaValue[] result$176 = {NIL};
+         f179[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$176[0].toboolean()) ) {
+                  result$176[0] = valueOf(f177[0].call().checkdouble()+f178[0].call().checkdouble());
+               }
+               return result$176[0];
+            }
+         };
+      }
+      final LuaValue[] f180 = {NIL};
+      {
+         final LuaValue[] result$177 = {NIL};
+         f180[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$177[0].toboolean()) ) {
+                  result$177[0] = valueOf(f178[0].call().checkdouble()+f179[0].call().checkdouble());
+               }
+               return result$177[0];
+            }
+         };
+      }
+      final LuaValue[] f181 = {NIL};
+      {
+         final LuaValue[] result$178 = {NIL};
+         f181[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$178[0].toboolean()) ) {
+                  result$178[0] = valueOf(f179[0].call().checkdouble()+f180[0].call().checkdouble());
+               }
+               return result$178[0];
+            }
+         };
+      }
+      final LuaValue[] f182 = {NIL};
+      {
+         final LuaValue[] result$179 = {NIL};
+         f182[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$179[0].toboolean()) ) {
+                  result$179[0] = valueOf(f180[0].call().checkdouble()+f181[0].call().checkdouble());
+               }
+               return result$179[0];
+            }
+         };
+      }
+      final LuaValue[] f183 = {NIL};
+      {
+         final LuaValue[] result$180 = {NIL};
+         f183[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$180[0].toboolean()) ) {
+                  result$180[0] = valueOf(f181[0].call().checkdouble()+f182[0].call().checkdouble());
+               }
+               return result$180[0];
+            }
+         };
+      }
+      final LuaValue[] f184 = {NIL};
+      {
+         final LuaValue[] result$181 = {NIL};
+         f184[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$181[0].toboolean()) ) {
+                  result$181[0] = valueOf(f182[0].call().checkdouble()+f183[0].call().checkdouble());
+               }
+               return result$181[0];
+            }
+         };
+      }
+      final LuaValue[] f185 = {NIL};
+      {
+         final LuaValue[] result$182 = {NIL};
+         f185[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$182[0].toboolean()) ) {
+                  result$182[0] = valueOf(f183[0].call().checkdouble()+f184[0].call().checkdouble());
+               }
+               return result$182[0];
+            }
+         };
+      }
+      final LuaValue[] f186 = {NIL};
+      {
+         final LuaValue[] result$183 = {NIL};
+         f186[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$183[0].toboolean()) ) {
+                  result$183[0] = valueOf(f184[0].call().checkdouble()+f185[0].call().checkdouble());
+               }
+               return result$183[0];
+            }
+         };
+      }
+      final LuaValue[] f187 = {NIL};
+      {
+         final LuaValue[] result$184 = {NIL};
+         f187[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$184[0].toboolean()) ) {
+                  result$184[0] = valueOf(f185[0].call().checkdouble()+f186[0].call().checkdouble());
+               }
+               return result$184[0];
+            }
+         };
+      }
+      final LuaValue[] f188 = {NIL};
+      {
+         final LuaValue[] result$185 = {NIL};
+         f188[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$185[0].toboolean()) ) {
+                  result$185[0] = valueOf(f186[0].call().checkdouble()+f187[0].call().checkdouble());
+               }
+               return result$185[0];
+            }
+         };
+      }
+      final LuaValue[] f189 = {NIL};
+      {
+         final LuaValue[] result$186 = {NIL};
+         f189[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$186[0].toboolean()) ) {
+                  result$186[0] = valueOf(f187[0].call().checkdouble()+f188[0].call().checkdouble());
+               }
+               return result$186[0];
+            }
+         };
+      }
+      final LuaValue[] f190 = {NIL};
+      {
+         final LuaValue[] result$187 = {NIL};
+         f190[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$187[0].toboolean()) ) {
+                  result$187[0] = valueOf(f188[0].call().checkdouble()+f189[0].call().checkdouble());
+               }
+               return result$187[0];
+            }
+         };
+      }
+      final LuaValue[] f191 = {NIL};
+      {
+         final LuaValue[] result$188 = {NIL};
+         f191[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$188[0].toboolean()) ) {
+                  result$188[0] = valueOf(f189[0].call().checkdouble()+f190[0].call().checkdouble());
+               }
+               return result$188[0];
+            }
+         };
+      }
+      final LuaValue[] f192 = {NIL};
+      {
+         final LuaValue[] result$189 = {NIL};
+         f192[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$189[0].toboolean()) ) {
+                  result$189[0] = valueOf(f190[0].call().checkdouble()+f191[0].call().checkdouble());
+               }
+               return result$189[0];
+            }
+         };
+      }
+      final LuaValue[] f193 = {NIL};
+      {
+         final LuaValue[] result$190 = {NIL};
+         f193[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$190[0].toboolean()) ) {
+                  result$190[0] = valueOf(f191[0].call().checkdouble()+f192[0].call().checkdouble());
+               }
+               return result$190[0];
+            }
+         };
+      }
+      final LuaValue[] f194 = {NIL};
+      {
+         final LuaValue[] result$191 = {NIL};
+         f194[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$191[0].toboolean()) ) {
+                  result$191[0] = valueOf(f192[0].call().checkdouble()+f193[0].call().checkdouble());
+               }
+               return result$191[0];
+            }
+         };
+      }
+      final LuaValue[] f195 = {NIL};
+      {
+         final LuaValue[] result$192 = {NIL};
+         f195[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$192[0].toboolean()) ) {
+                  result$192[0] = valueOf(f193[0].call().checkdouble()+f194[0].call().checkdouble());
+               }
+               return result$192[0];
+            }
+         };
+      }
+      final LuaValue[] f196 = {NIL};
+      {
+         final LuaValue[] result$193 = {NIL};
+         f196[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$193[0].toboolean()) ) {
+                  result$193[0] = valueOf(f194[0].call().checkdouble()+f195[0].call().checkdouble());
+               }
+               return result$193[0];
+            }
+         };
+      }
+      final LuaValue[] f197 = {NIL};
+      {
+         final LuaValue[] result$194 = {NIL};
+         f197[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$194[0].toboolean()) ) {
+                  result$194[0] = valueOf(f195[0].call().checkdouble()+f196[0].call().checkdouble());
+               }
+               return result$194[0];
+            }
+         };
+      }
+      final LuaValue[] f198 = {NIL};
+      {
+         final LuaValue[] result$195 = {NIL};
+         f198[0] = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$195[0].toboolean()) ) {
+                  result$195[0] = valueOf(f196[0].call().checkdouble()+f197[0].call().checkdouble());
+               }
+               return result$195[0];
+            }
+         };
+      }
+      LuaValue f199 = NIL;
+      {
+         final LuaValue[] result$196 = {NIL};
+         f199 = new ZeroArgFunction(env) {
+            public LuaValue call() {
+               if ( (!result$196[0].toboolean()) ) {
+                  result$196[0] = valueOf(f197[0].call().checkdouble()+f198[0].call().checkdouble());
+               }
+               return result$196[0];
+            }
+         };
+      }
+      env.get(print).invoke(varargsOf(_5th_fibo,f5[0].invoke()));
+      env.get(print).invoke(varargsOf(_10th_fib,f10[0].invoke()));
+      env.get(print).invoke(varargsOf(_199th_fi,f199.invoke()));
+      return NONE;
+   }
+   static final LuaValue print = valueOf("print");
+   static final LuaValue _5th_fibo = valueOf("5th fibonacci number is");
+   static final LuaValue _10th_fib = valueOf("10th fibonacci number is");
+   static final LuaValue _199th_fi = valueOf("199th fibonacci number is");
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+import org.luaj.vm2.*;
+import org.luaj.vm2.lib.*;
+public class testNumericArithmetic extends VarArgFunction {
+   public Varargs onInvoke(Varargs $arg) {
+      final LuaValue nan = LuaDouble.ddiv(0,0);
+      return varargsOf(new LuaValue[] {valueOf(1.25+3),valueOf(1.25*2),valueOf((-1.25)-2),LuaDouble.ddiv(7,2),LuaDouble.dmod(7,(-3)),MathLib.dpow(2,10),ONE.lt(_1_5),_2.lteq(_2),_3.eq(_3),nan.eq(nan),},valueOf(_1.checkdouble()+2));
+   }
+   static final LuaValue _1_5 = valueOf(1.5);
+   static final LuaValue _2 = valueOf(2);
+   static final LuaValue _3 = valueOf(3);
+   static final LuaValue _1 = valueOf("1");
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+import org.luaj.vm2.*;
+import org.luaj.vm2.lib.*;
+public class testNumericForLoopLimits extends VarArgFunction {
+   public Varargs onInvoke(Varargs $arg) {
+      LuaValue n = ZERO;
+      for ( double i$0=_21474836.checkdouble(), i$limit=_21474836$1.checkdouble(); i$0<=i$limit; ++i$0 ) {
+         final LuaValue i = valueOf(i$0);
+         n = valueOf(n.checkdouble()+1);
+      }
+      for ( double i$1$0=_21474836.neg().checkdouble(), i$1$limit=_2_147483.neg().checkdouble(), i$1$step=ONE.neg().checkdouble(); i$1$step>0? (i$1$0<=i$1$limit): (i$1$0>=i$1$limit); i$1$0+=i$1$step ) {
+         final LuaValue i$1 = valueOf(i$1$0);
+         n = valueOf(n.checkdouble()+1);
+      }
+      for ( double i$2$0=ONE.checkdouble(), i$2$limit=_3.checkdouble(), i$2$step=_0_5.checkdouble(); i$2$step>0? (i$2$0<=i$2$limit): (i$2$0>=i$2$limit); i$2$0+=i$2$step ) {
+         final LuaValue i$2 = valueOf(i$2$0);
+         n = valueOf(n.checkdouble()+1);
+      }
+      for ( double i$3$0=_1_5.checkdouble(), i$3$limit=ZERO.checkdouble(), i$3$step=_0_5.neg().checkdouble(); i$3$step>0? (i$3$0<=i$3$limit): (i$3$0>=i$3$limit); i$3$0+=i$3$step ) {
+         final LuaValue i$3 = valueOf(i$3$0);
+         n = valueOf(n.checkdouble()+1);
+      }
+      for ( double i$4$0=_3.checkdouble(), i$4$limit=ONE.checkdouble(); i$4$0<=i$4$limit; ++i$4$0 ) {
+         final LuaValue i$4 = valueOf(i$4$0);
+         n = valueOf(n.checkdouble()+1);
+      }
+      return n;
+   }
+   static final LuaValue _21474836 = valueOf(2147483640);
+   static final LuaValue _21474836$1 = valueOf(2147483647);
+   static final LuaValue _2_147483 = valueOf(2.147483648E9);
+   static final LuaValue _3 = valueOf(3);
+   static final LuaValue _0_5 = valueOf(0.5);
+   static final LuaValue _1_5 = valueOf(1.5);
+}
\ No newline at end of file
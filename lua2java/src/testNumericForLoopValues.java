@@ -0,0 +1,18 @@
+import org.luaj.vm2.*;
+import org.luaj.vm2.lib.*;
+public class testNumericForLoopValues extends VarArgFunction {
+   public Varargs onInvoke(Varargs $arg) {
+      LuaValue n = ZERO;
+      for ( double i$0=_1.checkdouble(), i$limit=_3.checkdouble(); i$0<=i$limit; ++i$0 ) {
+         final LuaValue i = valueOf(i$0);
+         n = valueOf(n.checkdouble()+i.checkdouble());
+      }
+      return varargsOf(n,env.get(pcall).invoke(env.get(loadstri).invoke(for_i___)).arg1(),env.get(pcall).invoke(env.get(loadstri).invoke(for_i_1_)).arg1());
+   }
+   static final LuaValue _1 = valueOf("1");
+   static final LuaValue _3 = valueOf("3");
+   static final LuaValue pcall = valueOf("pcall");
+   static final LuaValue loadstri = valueOf("loadstring");
+   static final LuaValue for_i___ = valueOf("for i={},2 do end");
+   static final LuaValue for_i_1_ = valueOf("for i=1,2,{} do end");
+}
\ No newline at end of file
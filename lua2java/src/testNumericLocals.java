@@ -0,0 +1,41 @@
+import org.luaj.vm2.*;
+import org.luaj.vm2.lib.*;
+public class testNumericLocals extends VarArgFunction {
+   public Varargs onInvoke(Varargs $arg) {
+      final LuaValue t = LuaValue.tableOf();
+      LuaValue s = ZERO;
+      LuaValue n = ZERO;
+      for ( double i$0=ONE.checkdouble(), i$limit=_10.checkdouble(); i$0<=i$limit; ++i$0 ) {
+         final LuaValue i = valueOf(i$0);
+         t.set(i,valueOf(i.checkdouble()*0.5));
+      }
+      for ( double i$1$0=ONE.checkdouble(), i$1$limit=t.len().checkdouble(); i$1$0<=i$1$limit; ++i$1$0 ) {
+         final LuaValue i$1 = valueOf(i$1$0);
+         s = valueOf(s.checkdouble()+t.get(i$1).checkdouble());
+      }
+      for ( double i$2$0=_10.checkdouble(), i$2$limit=ONE.checkdouble(), i$2$step=_2.neg().checkdouble(); i$2$step>0? (i$2$0<=i$2$limit): (i$2$0>=i$2$limit); i$2$0+=i$2$step ) {
+         final LuaValue i$2 = valueOf(i$2$0);
+         n = valueOf((n.checkdouble()*2)+i$2.checkdouble());
+      }
+      LuaValue j = ZERO;
+      while (j.lt_b(_3)) {
+         j = valueOf(j.checkdouble()+1);
+      }
+      LuaValue c$1 = c;
+      for ( double i$3$0=ONE.checkdouble(), i$3$limit=_5.checkdouble(); i$3$0<=i$3$limit; ++i$3$0 ) {
+         final LuaValue i$3 = valueOf(i$3$0);
+         c$1 = c$1.concat(i$3);
+      }
+      LuaValue k = ONE;
+      for ( double i$4$0=ONE.checkdouble(), i$4$limit=_3.checkdouble(); i$4$0<=i$4$limit; ++i$4$0 ) {
+         final LuaValue i$4 = valueOf(i$4$0);
+         k = valueOf(k.checkdouble()*i$4.checkdouble());
+      }
+      return varargsOf(new LuaValue[] {s,n,j,c$1,},k);
+   }
+   static final LuaValue _10 = valueOf(10);
+   static final LuaValue _2 = valueOf(2);
+   static final LuaValue _3 = valueOf(3);
+   static final LuaValue c = valueOf("c");
+   static final LuaValue _5 = valueOf(5);
+}
\ No newline at end of file
@@ -29,6 +29,10 @@ package org.luaj.vm2;
  * The buffer can begin initially as a wrapped {@link LuaValue} 
  * and only when concatenation actually occurs are the bytes first copied.
  * <p> 
+ * Long strings produced by the buffer share its byte array rather than copying it, 
+ * and may later be extended in place by concatenation, as may long strings 
+ * that the buffer is concatenated onto.  
+ * <p> 
  * To convert back to a {@link LuaValue} again, 
  * the function {@link Buffer#value()} is used.
  * @see LuaValue
@@ -108,6 +112,15 @@ public final class Buffer {
 	 * @return the value as a {@link LuaString}
 	 */
 	public final LuaString tostring() {
+		if ( value instanceof LuaString )
+			return (LuaString) value;
+		if ( length >= LuaString.EXTEND_MIN_LENGTH ) {
+			if ( bytes.length - length > length )
+				realloc( length + (length>>1), 0 );
+			LuaString s = LuaString.extensible( bytes, offset, length );
+			setvalue( s );
+			return s;
+		}
 		realloc( length, 0 );
 		return LuaString.valueOf( bytes, offset, length );
 	}
@@ -187,7 +200,11 @@ public final class Buffer {
 	 * @return {@link Buffer} for use in call chaining.
 	 */
 	public Buffer concatTo(LuaString lhs) {
-		return value!=null&&!value.isstring()? setvalue(lhs.concat(value)): prepend(lhs);
+		if ( value != null && (!value.isstring() || lhs.m_length >= LuaString.EXTEND_MIN_LENGTH) )
+			return setvalue(lhs.concat(value));
+		if ( lhs.m_length >= LuaString.EXTEND_MIN_LENGTH )
+			return setvalue(lhs.extend(bytes, offset, length));
+		return prepend(lhs);
 	}
 
 	/** Concatenate this buffer onto a {@link LuaNumber}
@@ -223,6 +240,11 @@ public final class Buffer {
 			LuaString s = value.strvalue();
 			value = null;
 			length = s.m_length;
+			if ( nbefore == 0 && s.claim(nafter) ) {
+				bytes = s.m_bytes;
+				offset = s.m_offset;
+				return;
+			}
 			offset = nbefore;
 			bytes = new byte[nbefore+length+nafter];
 			System.arraycopy(s.m_bytes, s.m_offset, bytes, offset, length);
@@ -0,0 +1,89 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.InputStream;
+
+/**
+ * Chunk that is compiled once, and from which functions are created
+ * for any number of environments without parsing or compiling it again.
+ * <p>
+ * Chunks compiled to lua bytecode share a single {@link Prototype},
+ * from which a new {@link LuaClosure} is created for each environment,
+ * so inline caches and code compiled by a {@link LuaClosure.HotspotCompiler} are shared as well.
+ * Chunks compiled to java bytecode, such as by {@link org.luaj.vm2.luajc.LuaJC},
+ * share the generated classes, of which a new instance is created for each environment.
+ * <p>
+ * Instances are immutable and may be shared between threads,
+ * each function created running in the {@link Globals} of its own environment:
+ * <pre> {@code
+ * CompiledChunk chunk = LoadState.compile(new FileInputStream("main.lua"), "main.lua");
+ * for ( int i=0; i<n; i++ )
+ *     chunk.instantiate(JsePlatform.standardGlobals()).call();
+ * } </pre>
+ * @see LoadState#compile(InputStream, String)
+ */
+public abstract class CompiledChunk {
+
+	/**
+	 * Create a function for the chunk with an environment.
+	 * @param env the environment of the function, normally a {@link Globals}
+	 * @return new {@link LuaFunction} for the main function of the chunk
+	 */
+	public abstract LuaFunction instantiate(LuaValue env);
+
+	/**
+	 * Get the compiled chunk for a prototype.
+	 * @param p the prototype of the main function of the chunk
+	 * @return {@link CompiledChunk} creating closures of the prototype
+	 */
+	public static CompiledChunk valueOf(final Prototype p) {
+		return new CompiledChunk() {
+			public LuaFunction instantiate(LuaValue env) {
+				return new LuaClosure(p, env);
+			}
+		};
+	}
+
+	/**
+	 * Get the compiled chunk from which a function was created.
+	 * @param f the main function of a chunk, as returned by {@link LoadState#load(InputStream, String, LuaValue)}
+	 * @return {@link CompiledChunk} creating closures of the same prototype if {@code f} is a {@link LuaClosure},
+	 * or else new instances of the class of {@code f}
+	 */
+	public static CompiledChunk valueOf(LuaFunction f) {
+		if ( f.isclosure() )
+			return valueOf(f.checkclosure().p);
+		final Class c = f.getClass();
+		return new CompiledChunk() {
+			public LuaFunction instantiate(LuaValue env) {
+				try {
+					LuaFunction g = (LuaFunction) c.newInstance();
+					g.setfenv(env);
+					return g;
+				} catch ( Exception e ) {
+					throw new LuaError("instantiation failed: "+e);
+				}
+			}
+		};
+	}
+}
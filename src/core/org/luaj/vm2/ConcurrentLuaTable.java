@@ -0,0 +1,319 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2;
+
+/**
+ * Subclass of {@link LuaTable} that may be shared between Java threads,
+ * such as a module used by lua states running in several threads.
+ * <p>
+ * Functions stored in the table are still closures of the lua state that loaded them, 
+ * but record their calls on the thread of the lua state calling them, 
+ * see {@link LuaThread#running(Globals)}, so they may be called from several Java threads at once. 
+ * Any upvalues they share are not synchronized.
+ * <p>
+ * Reads never lock: the contents are held in a {@link LuaTable}
+ * whose keys are never changed once it is published,
+ * so a read sees the table either before or after any write.
+ * Writes are serialized.
+ * Changing the value of an existing key stores the value in place,
+ * while adding or removing keys copies the contents and publishes the copy,
+ * so tables should be populated before they are shared,
+ * or constructed from a populated {@link LuaTable} via {@link #ConcurrentLuaTable(LuaTable)}.
+ * <p>
+ * Removing a key other than an integer also leaves the keys unchanged, 
+ * replacing the value by a marker that reads as nil, 
+ * so traversals with {@link #next(LuaValue)} in other threads may continue past it.
+ * The markers are dropped when a key is next added.
+ * As for any lua table, a traversal while keys are added may miss or repeat keys,
+ * and one whose last key was dropped continues from where that key would be. 
+ * Removing an integer key from the hash part may also move nearby keys, 
+ * so a traversal in another thread may see them again. 
+ * <p>
+ * Numbers in an array part held as {@code double} values are not changed in place, 
+ * since writes of {@code double} values need not be atomic.
+ * <p>
+ * Each operation is atomic, but sequences of operations such as
+ * {@code t[k] = t[k] + 1} are not.
+ * <p>
+ * Weak keys and values are not supported.
+ * Lookups in these tables are not inline cached,
+ * since the cache reads the hash part of a table directly.
+ * @see LuaTable
+ * @see Globals
+ */
+public class ConcurrentLuaTable extends LuaTable {
+
+	/** Value of removed keys that are still in the hash part of {@link #table} */
+	private static final LuaValue REMOVED = new LuaUserdata(new Object());
+
+	/** Current contents, to which keys are never added or removed once published */
+	private volatile LuaTable table;
+
+	/** Number of keys in {@link #table} whose value is {@link #REMOVED} */
+	private int removed;
+
+	/** Construct an empty table */
+	public ConcurrentLuaTable() {
+		table = new LuaTable();
+	}
+
+	/**
+	 * Construct an empty table with preset capacity.
+	 * @param narray capacity of array part
+	 * @param nhash capacity of hash part
+	 */
+	public ConcurrentLuaTable(int narray, int nhash) {
+		table = new LuaTable(narray, nhash);
+	}
+
+	/**
+	 * Construct a table with the contents and metatable of another table.
+	 * @param source {@link LuaTable} containing the initial elements
+	 */
+	public ConcurrentLuaTable(LuaTable source) {
+		LuaTable t = new LuaTable(source.getArrayLength(), source.getHashLength());
+		Varargs n;
+		LuaValue k = NIL;
+		while ( !(k = ((n = source.next(k)).arg1())).isnil() )
+			t.rawset(k, n.arg(2));
+		m_metatable = source.getmetatable();
+		table = t;
+	}
+
+	/** 
+	 * Copy the current contents to be changed before they are published,
+	 * dropping removed keys if a key is about to be added.
+	 * @param adding true if a key is about to be added to the copy
+	 */
+	private LuaTable copy(boolean adding) {
+		LuaTable t = table;
+		if ( adding && removed > 0 ) {
+			LuaTable c = new LuaTable(0, t.hashEntries - removed);
+			copyarray(t, c);
+			for ( int i=0; i<t.hashKeys.length; i++ )
+				if ( t.hashKeys[i] != null && t.hashValues[i] != REMOVED )
+					c.hashset(t.hashKeys[i], t.hashValues[i]);
+			removed = 0;
+			return c;
+		}
+		LuaTable c = new LuaTable();
+		copyarray(t, c);
+		c.hashKeys = (LuaValue[]) t.hashKeys.clone();
+		c.hashValues = (LuaValue[]) t.hashValues.clone();
+		c.hashCodes = (int[]) t.hashCodes.clone();
+		c.hashEntries = t.hashEntries;
+		return c;
+	}
+
+	/** Copy the array part of one table to another */
+	private static void copyarray(LuaTable from, LuaTable to) {
+		to.array = (from.array!=null? (LuaValue[]) from.array.clone(): null);
+		to.intArray = (from.intArray!=null? (int[]) from.intArray.clone(): null);
+		to.doubleArray = (from.doubleArray!=null? (double[]) from.doubleArray.clone(): null);
+		to.numericLength = from.numericLength;
+		to.numberValues = (from.numberValues!=null? (LuaValue[]) from.numberValues.clone(): null);
+	}
+
+	protected int getArrayLength() {
+		return table.getArrayLength();
+	}
+
+	protected int getHashLength() {
+		return table.getHashLength();
+	}
+
+	public synchronized void presize(int narray) {
+		if ( narray > table.getArrayLength() ) {
+			LuaTable c = copy(false);
+			c.presize(narray);
+			table = c;
+		}
+	}
+
+	public synchronized void presize(int narray, int nhash) {
+		table = new LuaTable(narray, nhash);
+		removed = 0;
+	}
+
+	public synchronized LuaValue setmetatable(LuaValue metatable) {
+		LuaValue t = super.setmetatable(metatable);
+		table = table; // publish the metatable to readers
+		return t;
+	}
+
+	protected LuaTable changemode(boolean weakkeys, boolean weakvalues) {
+		if ( weakkeys || weakvalues )
+			error("weak keys or values not supported in concurrent tables");
+		return this;
+	}
+
+	public LuaValue rawget(int key) {
+		return table.rawget(key);
+	}
+
+	public LuaValue rawget(LuaValue key) {
+		LuaValue v = table.rawget(key);
+		return v != REMOVED? v: NIL;
+	}
+
+	protected LuaValue hashget(LuaValue key) {
+		LuaValue v = table.hashget(key);
+		return v != REMOVED? v: NIL;
+	}
+
+	int hashSlot(LuaValue key) {
+		return -2;
+	}
+
+	/** 
+	 * Check if setting a key to a value leaves the keys of a table 
+	 * and how its array part is held unchanged,
+	 * so the value can be stored in place while other threads read the table. 
+	 * An integer stored in place in an int array part needs no new array 
+	 * to keep the value it was stored as. 
+	 */
+	private static boolean inplace(LuaTable t, int key, LuaValue value) {
+		int n = t.getArrayLength();
+		if ( value.isnil() || key == n+1 || t.rawget(key).isnil() )
+			return false;
+		return key < 1 || key > n || t.array != null || 
+			(t.intArray != null && value.isinttype() && 
+				(t.numberValues != null || value instanceof LuaInteger && LuaInteger.isCached(value.toint())));
+	}
+
+	public synchronized void rawset(int key, LuaValue value) {
+		LuaTable t = table;
+		if ( inplace(t, key, value) ) {
+			t.rawset(key, value);
+		} else {
+			boolean adding = !value.isnil() && t.rawget(key).isnil();
+			t = copy(adding);
+			t.rawset(key, value);
+		}
+		table = t;
+	}
+
+	public synchronized void rawset(LuaValue key, LuaValue value) {
+		if ( key.isinttype() ) {
+			rawset(key.toint(), value);
+			return;
+		}
+		LuaTable t = table;
+		LuaValue v = t.hashget(key);
+		if ( !v.isnil() ) {
+			if ( value.isnil() ) {
+				if ( v == REMOVED )
+					return;
+				value = REMOVED;
+				++removed;
+			} else if ( v == REMOVED ) {
+				--removed;
+			}
+			t.hashset(key, value);
+		} else if ( !value.isnil() ) {
+			t = copy(true);
+			t.hashset(key, value);
+		}
+		table = t;
+	}
+
+	public synchronized void hashset(LuaValue key, LuaValue value) {
+		if ( !key.isinttype() ) {
+			rawset(key, value);
+			return;
+		}
+		LuaTable t = table;
+		t = copy(!value.isnil() && t.hashget(key).isnil());
+		t.hashset(key, value);
+		table = t;
+	}
+
+	public synchronized LuaValue remove(int pos) {
+		LuaTable t = copy(false);
+		LuaValue v = t.remove(pos);
+		table = t;
+		return v;
+	}
+
+	public synchronized void insert(int pos, LuaValue value) {
+		LuaTable t = copy(true);
+		t.insert(pos, value);
+		table = t;
+	}
+
+	public synchronized void sort(LuaValue comparator) {
+		LuaTable t = copy(false);
+		t.sort(comparator);
+		table = t;
+	}
+
+	public LuaValue getn() {
+		return table.getn();
+	}
+
+	public int length() {
+		return table.length();
+	}
+
+	public int maxn() {
+		return table.maxn();
+	}
+
+	/**
+	 * Get the next element after a particular key in the table,
+	 * skipping removed keys.
+	 * <p>
+	 * Unlike {@link LuaTable#next(LuaValue)}, a key that is no longer in the table
+	 * is not an error, since another thread may have removed it during the traversal.
+	 * The traversal continues from where the key would be.
+	 * @return key,value or nil
+	 */
+	public Varargs next(LuaValue key) {
+		LuaTable t = table;
+		final int n = t.getArrayLength();
+		final LuaValue[] keys = t.hashKeys;
+		int i = 0;
+		if ( !key.isnil() ) {
+			int k = key.isinttype()? key.toint(): 0;
+			if ( k > 0 && k <= n ) {
+				i = k;
+			} else if ( keys.length > 0 ) {
+				int slot = t.hashFindSlot(key);
+				i = n + (keys[slot] != null? slot+1: key.hashCode() & (keys.length-1));
+			} else {
+				i = n;
+			}
+		}
+		for ( ; i<n; ++i ) {
+			LuaValue v = t.rawget(i+1);
+			if ( !v.isnil() )
+				return varargsOf(LuaInteger.valueOf(i+1), v);
+		}
+		final LuaValue[] values = t.hashValues;
+		for ( i-=n; i<keys.length; ++i ) {
+			LuaValue v = values[i];
+			if ( keys[i] != null && v != REMOVED )
+				return varargsOf(keys[i], v);
+		}
+		return NIL;
+	}
+}
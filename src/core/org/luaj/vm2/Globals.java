@@ -0,0 +1,97 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2;
+
+/**
+ * Global environment and per-VM state for a single lua state.
+ * <p>
+ * A {@link Globals} is the table of global variables for a lua state,
+ * and also owns the interpreter state that must not be shared with
+ * any other lua state: the main {@link LuaThread}, the currently running coroutine,
+ * and through them the call stack and debug state.
+ * <p>
+ * Closures loaded with a {@link Globals} as their environment,
+ * and the libraries loaded into it,
+ * record calls on the thread of this instance that the calling Java thread is inside, 
+ * see {@link LuaThread#running(Globals)}.
+ * Separate instances therefore may be used concurrently from separate Java threads
+ * without any locking.
+ * A single instance should only be used by one Java thread at a time, 
+ * except for calls to functions stored in tables shared with other lua states.
+ * <p>
+ * Typically an instance is created and populated via
+ * {@link org.luaj.vm2.lib.jse.JsePlatform#standardGlobals()} 
+ * or {@link org.luaj.vm2.lib.jme.JmePlatform#standardGlobals()}:
+ * <pre> {@code
+ * Globals _G = JsePlatform.standardGlobals();
+ * LoadState.load( new ByteArrayInputStream("print 'hello'".getBytes()), "main.lua", _G ).call();
+ * } </pre>
+ * <p>
+ * Functions whose environment is not a {@link Globals}, 
+ * such as chunks loaded into a sandbox table, 
+ * get an instance of their own from {@link #forEnv(LuaValue)}, 
+ * which the closures created by them share. 
+ * A default instance remains only for the deprecated static methods of {@link LuaThread}.
+ *
+ * @see LuaThread
+ * @see org.luaj.vm2.lib.jse.JsePlatform
+ * @see org.luaj.vm2.lib.jme.JmePlatform
+ */
+public class Globals extends LuaTable {
+
+	/** State for the deprecated static methods of {@link LuaThread} */
+	private static final Globals DEFAULT = new Globals(null);
+
+	/** The main thread of this lua state */
+	public final LuaThread main_thread;
+
+	/** The currently running thread, which is {@link #main_thread} when no coroutine is running */
+	public LuaThread running_thread;
+
+	/** Construct an empty set of globals with its own main thread. */
+	public Globals() {
+		running_thread = main_thread = new LuaThread(this, this);
+	}
+
+	/** Construct the state for functions whose environment is not a {@link Globals} */
+	private Globals(LuaValue env) {
+		running_thread = main_thread = new LuaThread(this, env);
+	}
+
+	/**
+	 * Get the {@link Globals} holding the state for an environment.
+	 * @param env the environment of a function, normally its global table
+	 * @return {@code env} if it is a {@link Globals}, otherwise a new instance 
+	 * with {@code env} as the environment of its main thread, which the caller should keep
+	 */
+	public static Globals forEnv(LuaValue env) {
+		return env instanceof Globals? (Globals) env: new Globals(env);
+	}
+
+	/**
+	 * Get the default instance used by the deprecated static methods of {@link LuaThread}
+	 * @return the default {@link Globals}
+	 */
+	public static Globals getDefault() {
+		return DEFAULT;
+	}
+}
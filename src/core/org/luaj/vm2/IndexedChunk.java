@@ -0,0 +1,207 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.IOException;
+
+/**
+ * Prototypes of a binary chunk in {@link LoadState#LUAC_FORMAT_INDEXED} format,
+ * decoded from a {@link LoadState.ChunkSource} when first used.
+ * <p>
+ * Following the usual header, the chunk holds the number of prototypes,
+ * then an index entry for each prototype with its line numbers,
+ * numbers of upvalues and parameters, vararg flag and maximum stack size,
+ * and the offset and length of its body and of its debug information.
+ * The body holds the source name, code and constants as in the official format,
+ * followed by the number of nested prototypes and the index of each.
+ * The debug information is as in the official format.
+ * Offsets are relative to the start of the index, and prototype 0 is the main function.
+ * <p>
+ * Each {@link Prototype} is created from its index entry alone
+ * when the body of the enclosing prototype is decoded.
+ * Its body is decoded by {@link Prototype#decode()} when it is first executed or inspected,
+ * and its debug information by {@link Prototype#decodeDebug()} when first needed.
+ * @see LoadState#loadBinaryChunk(LoadState.ChunkSource, String)
+ * @see org.luaj.vm2.compiler.DumpState#dumpIndexed(Prototype, java.io.OutputStream, boolean)
+ */
+final class IndexedChunk {
+
+	/** Number of bytes in each index entry */
+	static final int ENTRY_SIZE = 28;
+
+	/** Offset within an index entry of the offset and length of the body */
+	private static final int BODY = 12;
+
+	/** Offset within an index entry of the offset and length of the debug information */
+	private static final int DEBUG = 20;
+
+	private static final Prototype[] NOPROTOS = {};
+
+	/** {@link ChunkSource} for a chunk held in an array */
+	static final class ArraySource implements LoadState.ChunkSource {
+		final byte[] bytes;
+		ArraySource(byte[] bytes) {
+			this.bytes = bytes;
+		}
+		public int length() {
+			return bytes.length;
+		}
+		public void read(int position, byte[] b, int offset, int length) {
+			System.arraycopy(bytes, position, b, offset, length);
+		}
+	}
+
+	/** Load state holding the header of the chunk */
+	private final LoadState header;
+
+	/** Source of the bytes of the chunk */
+	private final LoadState.ChunkSource source;
+
+	/** Position of the index in the source */
+	private final int position;
+
+	/** Index entries */
+	private final byte[] index;
+
+	/** Number of prototypes */
+	private final int count;
+
+	/** Buffer for reading sections from the source */
+	private byte[] buf;
+
+	/**
+	 * Read the index of a chunk.
+	 * @param header load state holding the header of the chunk
+	 * @param source source of the bytes of the chunk
+	 * @param position position of the index in the source
+	 */
+	IndexedChunk(LoadState header, LoadState.ChunkSource source, int position) throws IOException {
+		this.header = header;
+		this.source = source;
+		this.position = position;
+		byte[] b = new byte[4];
+		if ( position + 4 > source.length() )
+			throw new IllegalArgumentException("bad indexed chunk");
+		source.read(position, b, 0, 4);
+		this.count = new LoadState(header, b, 0, 4).loadInt();
+		if ( count <= 0 || count > (source.length() - position - 4) / ENTRY_SIZE )
+			throw new IllegalArgumentException("bad indexed chunk");
+		this.index = new byte[count * ENTRY_SIZE];
+		source.read(position + 4, index, 0, index.length);
+	}
+
+	/**
+	 * Create a prototype from its index entry, to be decoded when first used.
+	 * @param i index of the prototype
+	 * @param source source name of the enclosing prototype
+	 * @return {@link Prototype} with the fields in the index entry
+	 */
+	Prototype prototype(int i, LuaString source) throws IOException {
+		if ( i < 0 || i >= count )
+			throw new IllegalStateException("bad prototype index");
+		LoadState s = new LoadState(header, index, i * ENTRY_SIZE, ENTRY_SIZE);
+		Prototype p = new Prototype();
+		p.source = source;
+		p.linedefined = s.loadInt();
+		p.lastlinedefined = s.loadInt();
+		p.nups = 0xff & s.loadByte();
+		p.numparams = 0xff & s.loadByte();
+		p.is_vararg = 0xff & s.loadByte();
+		p.maxstacksize = 0xff & s.loadByte();
+		p.index = i;
+		p.debugchunk = this;
+		p.chunk = this;
+		return p;
+	}
+
+	/**
+	 * Read a section of a prototype.
+	 * @param i index of the prototype
+	 * @param field offset in the index entry of the offset and length of the section
+	 * @return {@link LoadState} reading the section, or null if it is empty
+	 */
+	private LoadState section(int i, int field) throws IOException {
+		LoadState e = new LoadState(header, index, i * ENTRY_SIZE + field, 8);
+		int offset = e.loadInt();
+		int length = e.loadInt();
+		if ( length == 0 )
+			return null;
+		if ( offset < 0 || length < 0 || offset > source.length() - position - length )
+			throw new IllegalStateException("bad section in indexed chunk");
+		if ( source instanceof ArraySource )
+			return new LoadState(header, ((ArraySource) source).bytes, position + offset, length);
+		if ( buf == null || buf.length < length )
+			buf = new byte[Math.max(length, 256)];
+		source.read(position + offset, buf, 0, length);
+		return new LoadState(header, buf, 0, length);
+	}
+
+	/**
+	 * Decode the body of a prototype if it has not yet been decoded,
+	 * creating its nested prototypes from their index entries.
+	 * @param p the prototype
+	 */
+	synchronized void decode(Prototype p) {
+		if ( p.chunk == null )
+			return;
+		try {
+			LoadState s = section(p.index, BODY);
+			if ( s == null )
+				throw new IllegalStateException("missing body in indexed chunk");
+			LuaString src = s.loadString();
+			if ( src != null )
+				p.source = src;
+			p.code = s.loadIntArray();
+			p.k = s.loadValues();
+			int n = s.loadInt();
+			Prototype[] protos = n>0? new Prototype[n]: NOPROTOS;
+			for ( int i=0; i<n; i++ )
+				protos[i] = prototype(s.loadInt(), p.source);
+			p.p = protos;
+		} catch ( IOException e ) {
+			throw new LuaError("cannot decode "+p+": "+e);
+		}
+		p.chunk = null;
+	}
+
+	/**
+	 * Decode the debug information of a prototype if it has not yet been decoded.
+	 * @param p the prototype
+	 */
+	synchronized void decodeDebug(Prototype p) {
+		if ( p.debugchunk == null )
+			return;
+		try {
+			LoadState s = header.debuglevel < LoadState.DEBUGINFO_NONE? section(p.index, DEBUG): null;
+			if ( s != null ) {
+				s.loadDebug(p);
+			} else {
+				p.lineinfo = new int[0];
+				p.locvars = new LocVars[0];
+				p.upvalues = new LuaString[0];
+			}
+		} catch ( IOException e ) {
+			throw new LuaError("cannot decode "+p+": "+e);
+		}
+		p.debugchunk = null;
+	}
+}
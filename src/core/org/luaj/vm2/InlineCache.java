@@ -0,0 +1,232 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2;
+
+/**
+ * Inline cache for a field lookup with a constant string key
+ * at a single instruction of a {@link Prototype}.
+ * <p>
+ * Used by {@link LuaClosure} for {@link Lua#OP_GETGLOBAL}, and for
+ * {@link Lua#OP_GETTABLE} and {@link Lua#OP_SELF} with a constant key.
+ * Each entry records where the key was last found:
+ * <ul>
+ * <li>directly in the table indexed, at a particular slot of its hash part, 
+ * which also matches other tables built the same way, or</li>
+ * <li>in a table reached through one or more {@link LuaValue#INDEX} metatables,
+ * such as a class table shared by all instances with the same metatable.</li>
+ * </ul>
+ * A lookup that matches the entry is a few identity checks and an array load,
+ * rather than a hash probe for each table in the chain.
+ * <p>
+ * Slots are validated by checking that they still hold the key,
+ * and the absence of the key in intermediate tables by {@link LuaTable#version},
+ * so changing values of existing fields does not invalidate an entry.
+ * <p>
+ * Entries are immutable, so a {@link Prototype} may be shared by closures
+ * running in different threads.  A site that misses too often stops being cached.
+ * @see LuaClosure
+ * @see LuaTable#version
+ */
+final class InlineCache {
+
+	/** Maximum number of {@link LuaValue#INDEX} tables followed */
+	private static final int MAX_DEPTH = 4;
+
+	/** Number of misses after which a site is no longer cached */
+	private static final int MAX_MISSES = 16;
+
+	/** Entry for sites that are not cached */
+	private static final InlineCache MEGAMORPHIC = new InlineCache(MAX_MISSES);
+
+	/** Class of the value looked up in, or null for entries that never match */
+	private final Class receiver;
+
+	/** Metatables of the value and each index table except the last, or null if found directly */
+	private final LuaTable[] meta;
+
+	/** Slot of {@link LuaValue#INDEX} in each metatable */
+	private final int[] metaslot;
+
+	/** Index tables, the last of which holds the key */
+	private final LuaTable[] index;
+
+	/** Versions of each index table except the last, which do not hold the key */
+	private final int[] version;
+
+	/** Slot holding the key */
+	private final int slot;
+
+	/** Number of times this site missed */
+	private final int misses;
+
+	private InlineCache(int misses) {
+		this(null, 0, misses);
+	}
+
+	private InlineCache(Class receiver, int slot, int misses) {
+		this.receiver = receiver;
+		this.meta = null;
+		this.metaslot = null;
+		this.index = null;
+		this.version = null;
+		this.slot = slot;
+		this.misses = misses;
+	}
+
+	private InlineCache(Class receiver, LuaTable[] meta, int[] metaslot, LuaTable[] index, int n, int slot, int misses) {
+		this.receiver = receiver;
+		this.meta = new LuaTable[n];
+		this.metaslot = new int[n];
+		this.index = new LuaTable[n];
+		this.version = new int[n];
+		for ( int i=0; i<n; i++ ) {
+			this.meta[i] = meta[i];
+			this.metaslot[i] = metaslot[i];
+			this.index[i] = index[i];
+			this.version[i] = index[i].version;
+		}
+		this.slot = slot;
+		this.misses = misses;
+	}
+
+	/**
+	 * Look up a field using the inline cache for an instruction.
+	 * @param p the {@link Prototype} containing the instruction
+	 * @param pc index of the instruction
+	 * @param o the value to index
+	 * @param key the constant key
+	 * @return the same value as {@code o.get(key)}
+	 */
+	static LuaValue get(Prototype p, int pc, LuaValue o, LuaValue key) {
+		InlineCache[] caches = p.caches;
+		InlineCache c;
+		if ( caches != null && (c = caches[pc]) != null ) {
+			if ( c == MEGAMORPHIC )
+				return o.get(key);
+			LuaValue v = c.lookup(o, key);
+			if ( v != null )
+				return v;
+			return miss(p, pc, o, key, c.misses+1);
+		}
+		return miss(p, pc, o, key, 0);
+	}
+
+	/** Check if a slot of a table holds a key */
+	private static boolean holds(LuaTable t, int slot, LuaValue key) {
+		LuaValue[] keys = t.hashKeys;
+		LuaValue k;
+		return slot < keys.length && ((k = keys[slot]) == key || (k != null && k.raweq(key)));
+	}
+
+	/**
+	 * Look up a field if this entry applies.
+	 * @return the value, or null if the entry does not apply
+	 */
+	private LuaValue lookup(LuaValue o, LuaValue key) {
+		if ( o.getClass() != receiver )
+			return null;
+		if ( meta == null ) {
+			LuaTable t = (LuaTable) o;
+			return holds(t, slot, key)? t.hashValues[slot]: null;
+		}
+		if ( o.istable() && !o.rawget(key).isnil() )
+			return null;
+		LuaValue m = o.getmetatable();
+		LuaTable t = null;
+		for ( int i=0, n=meta.length; i<n; i++ ) {
+			LuaTable mt = meta[i];
+			int s = metaslot[i];
+			if ( m != mt || !holds(mt, s, LuaValue.INDEX) )
+				return null;
+			t = index[i];
+			if ( mt.hashValues[s] != t )
+				return null;
+			if ( i < n-1 ) {
+				if ( t.version != version[i] )
+					return null;
+				m = t.m_metatable;
+			}
+		}
+		return holds(t, slot, key)? t.hashValues[slot]: null;
+	}
+
+	/**
+	 * Look up a field without the cache, and try to create a new entry for the instruction.
+	 */
+	private static LuaValue miss(Prototype p, int pc, LuaValue o, LuaValue key, int misses) {
+		LuaValue v = o.get(key);
+		InlineCache c = misses >= MAX_MISSES || !(key instanceof LuaString)? MEGAMORPHIC: create(o, key, v, misses);
+		if ( c == null )
+			c = new InlineCache(misses);
+		InlineCache[] caches = p.caches;
+		if ( caches == null )
+			p.caches = caches = new InlineCache[p.code.length];
+		caches[pc] = c;
+		return v;
+	}
+
+	/**
+	 * Create an entry describing where a key is found.
+	 * @param o the value indexed
+	 * @param key the key
+	 * @param v the value found by {@link LuaValue#get(LuaValue)}
+	 * @param misses number of misses so far at the site
+	 * @return new entry, or null if the lookup cannot be cached
+	 */
+	private static InlineCache create(LuaValue o, LuaValue key, LuaValue v, int misses) {
+		if ( v.isnil() )
+			return null;
+		int s;
+		if ( o instanceof LuaTable ) {
+			s = ((LuaTable) o).hashSlot(key);
+			if ( s >= 0 )
+				return ((LuaTable) o).hashValues[s] == v? new InlineCache(o.getClass(), s, misses): null;
+			if ( s < -1 )
+				return null;
+		} else if ( !(o instanceof LuaString) ) {
+			return null;
+		}
+		LuaTable[] meta = new LuaTable[MAX_DEPTH];
+		int[] metaslot = new int[MAX_DEPTH];
+		LuaTable[] index = new LuaTable[MAX_DEPTH];
+		LuaValue m = o.getmetatable();
+		for ( int n=0; n<MAX_DEPTH; n++ ) {
+			if ( !(m instanceof LuaTable) || (s = ((LuaTable) m).hashSlot(LuaValue.INDEX)) < 0 )
+				return null;
+			LuaTable mt = (LuaTable) m;
+			LuaValue t = mt.hashValues[s];
+			if ( !(t instanceof LuaTable) )
+				return null;
+			meta[n] = mt;
+			metaslot[n] = s;
+			index[n] = (LuaTable) t;
+			if ( (s = index[n].hashSlot(key)) >= 0 )
+				return index[n].hashValues[s] == v?
+					new InlineCache(o.getClass(), meta, metaslot, index, n+1, s, misses):
+					null;
+			if ( s < -1 )
+				return null;
+			m = index[n].m_metatable;
+		}
+		return null;
+	}
+}
@@ -21,7 +21,7 @@
 ******************************************************************************/
 package org.luaj.vm2;
 
-import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -102,9 +102,55 @@ public class LoadState {
 		public LuaFunction load(InputStream stream, String filename, LuaValue env) throws IOException;
 	}
 
+	/** 
+	 * Random access to the bytes of a binary chunk, such as a memory mapped file, 
+	 * from which prototypes of a chunk in {@link #LUAC_FORMAT_INDEXED} format 
+	 * are decoded when they are first used.  
+	 * <p>
+	 * Reads are never concurrent, and the bytes must not change while any prototype loaded from them is in use.
+	 * @see #loadBinaryChunk(ChunkSource, String)
+	 */
+	public interface ChunkSource {
+		
+		/** Get the number of bytes in the chunk 
+		 * @return number of bytes */
+		public int length();
+		
+		/** Read bytes from the chunk 
+		 * @param position position in the chunk of the first byte to read
+		 * @param bytes array to read into
+		 * @param offset offset in the array of the first byte to read 
+		 * @param length number of bytes to read 
+		 * @throws IOException if the bytes cannot be read */
+		public void read(int position, byte[] bytes, int offset, int length) throws IOException;
+	}
+
 	/** Compiler instance, if installed */
 	public static LuaCompiler compiler = null;
 
+	/** Debug information level keeping line numbers, locals and upvalue names as loaded */
+	public static final int DEBUGINFO_FULL    = 0;
+
+	/** Debug information level with delta-encoded line numbers and names shared between prototypes */
+	public static final int DEBUGINFO_COMPACT = 1;
+
+	/** Debug information level keeping only delta-encoded line numbers, enough for error messages */
+	public static final int DEBUGINFO_LINES   = 2;
+
+	/** Debug information level without any debug information */
+	public static final int DEBUGINFO_NONE    = 3;
+
+	/** 
+	 * Debug information kept for prototypes compiled or loaded from then on, 
+	 * one of {@link #DEBUGINFO_FULL}, {@link #DEBUGINFO_COMPACT}, {@link #DEBUGINFO_LINES} or {@link #DEBUGINFO_NONE}.
+	 * <p>
+	 * Levels other than {@link #DEBUGINFO_FULL} reduce the memory held by each {@link Prototype}, 
+	 * which adds up when many chunks are loaded but {@link org.luaj.vm2.lib.DebugLib} is not used.
+	 * The level applies to the {@link org.luaj.vm2.compiler.LuaC} compiler as well as to binary chunks.
+	 * @see Prototype#compactDebug(int) 
+	 */
+	public static int debuginfo = DEBUGINFO_FULL;
+
 	/** Signature byte indicating the file is a compiled binary chunk */
 	private static final byte[] LUA_SIGNATURE	= { '\033', 'L', 'u', 'a' };
 
@@ -118,6 +164,9 @@ public class LoadState {
 	/** for header of binary files -- this is the official format */
 	public static final int LUAC_FORMAT		= 0;
 
+	/** for header of binary files -- luaj format with an index of prototypes, which are loaded when first used */
+	public static final int LUAC_FORMAT_INDEXED	= 0x4a;
+
 	/** size of header of binary files */
 	public static final int LUAC_HEADERSIZE		= 12;
 
@@ -131,8 +180,11 @@ public class LoadState {
 	private int     luacSizeofLuaNumber;
 	private int 	luacNumberFormat;
 
-	/** input stream from which we are loading */
-	public final DataInputStream is;
+	/** debug information level for prototypes loaded */
+	int debuglevel;
+
+	/** input stream from which more bytes are read, or null when all input is in {@link #buf} */
+	private final InputStream is;
 
 	/** Name of what is being loaded? */
 	String name;
@@ -143,18 +195,61 @@ public class LoadState {
 	private static final LuaString[]  NOSTRVALUES = {};
 	private static final int[]       NOINTS      = {};
 	
-	/** Read buffer */
-	private byte[] buf = new byte[512];
+	/** Default size of the read buffer when loading from a stream */
+	private static final int BUFSIZE = 4096;
+
+	/** Read buffer, or the bytes being loaded when loading from an array */
+	private byte[] buf;
+	
+	/** Position of the next byte to load in {@link #buf} */
+	private int pos;
+	
+	/** End of the bytes available in {@link #buf} */
+	private int limit;
+	
+	/** Make at least {@code n} bytes available in {@link #buf} starting at {@link #pos}
+	 * @throws EOFException if the input ends first  
+	 **/
+	private void fill(int n) throws IOException {
+		if ( limit - pos >= n )
+			return;
+		if ( is == null )
+			throw new EOFException();
+		int m = limit - pos;
+		byte[] b = buf.length >= n? buf: new byte[Math.max(n, buf.length*2)];
+		System.arraycopy(buf, pos, b, 0, m);
+		buf = b;
+		pos = 0;
+		limit = m;
+		while ( limit < n ) {
+			int r = is.read(b, limit, b.length - limit);
+			if ( r < 0 )
+				throw new EOFException();
+			limit += r;
+		}
+	}
 	
+	/** Load a single byte from the input 
+	 * @return the byte value loaded, sign extended
+	 **/
+	int loadByte() throws IOException {
+		if ( pos >= limit )
+			fill(1);
+		return buf[pos++];
+	}
 	
 	/** Load a 4-byte int value from the input stream
 	 * @return the int value laoded.  
 	 **/
 	int loadInt() throws IOException {
-		is.readFully(buf,0,4);
+		if ( limit - pos < 4 )
+			fill(4);
+		final byte[] buf = this.buf;
+		final int j = pos;
+		pos += 4;
 		return luacLittleEndian? 
-				(buf[3] << 24) | ((0xff & buf[2]) << 16) | ((0xff & buf[1]) << 8) | (0xff & buf[0]):
-				(buf[0] << 24) | ((0xff & buf[1]) << 16) | ((0xff & buf[2]) << 8) | (0xff & buf[3]);
+				(buf[j+3] << 24) | ((0xff & buf[j+2]) << 16) | ((0xff & buf[j+1]) << 8) | (0xff & buf[j]):
+				(buf[j] << 24) | ((0xff & buf[j+1]) << 16) | ((0xff & buf[j+2]) << 8) | (0xff & buf[j+3]);
 	}
 	
 	/** Load an array of int values from the input stream
@@ -167,15 +262,14 @@ public class LoadState {
 		
 		// read all data at once
 		int m = n << 2;
-		if ( buf.length < m )
-			buf = new byte[m];
-		is.readFully(buf,0,m);
+		fill(m);
+		final byte[] buf = this.buf;
 		int[] array = new int[n];
-		for ( int i=0, j=0; i<n; ++i, j+=4 )
+		for ( int i=0, j=pos; i<n; ++i, j+=4 )
 			array[i] = luacLittleEndian? 
 					(buf[j+3] << 24) | ((0xff & buf[j+2]) << 16) | ((0xff & buf[j+1]) << 8) | (0xff & buf[j+0]):
 					(buf[j+0] << 24) | ((0xff & buf[j+1]) << 16) | ((0xff & buf[j+2]) << 8) | (0xff & buf[j+3]);
-
+		pos += m;
 		return array;
 	}
 	
@@ -201,9 +295,11 @@ public class LoadState {
 		int size = loadInt();
 		if ( size == 0 )
 			return null;
-		byte[] bytes = new byte[size];
-		is.readFully( bytes, 0, size );
-		return LuaString.valueOf( bytes, 0, bytes.length - 1 );
+		fill( size );
+		byte[] bytes = new byte[size - 1];
+		System.arraycopy( buf, pos, bytes, 0, size - 1 );
+		pos += size;
+		return LuaString.valueOf( bytes, 0, bytes.length );
 	}
 	
 	/**
@@ -250,15 +346,30 @@ public class LoadState {
 	 * @throws IOException if an i/o exception occurs
 	 */
 	void loadConstants(Prototype f) throws IOException {
+		f.k = loadValues();
+		
+		int n = loadInt();
+		Prototype[] protos = n>0? new Prototype[n]: NOPROTOS;
+		for ( int i=0; i<n; i++ )
+			protos[i] = loadFunction(f.source);
+		f.p = protos;
+	}
+
+	/**
+	 * Load the constant values of a function from a binary chunk
+	 * @return the values loaded
+	 * @throws IOException if an i/o exception occurs
+	 */
+	LuaValue[] loadValues() throws IOException {
 		int n = loadInt();
 		LuaValue[] values = n>0? new LuaValue[n]: NOVALUES;
 		for ( int i=0; i<n; i++ ) {
-			switch ( is.readByte() ) {
+			switch ( loadByte() ) {
 			case LUA_TNIL:
 				values[i] = LuaValue.NIL;
 				break;
 			case LUA_TBOOLEAN:
-				values[i] = (0 != is.readUnsignedByte()? LuaValue.TRUE: LuaValue.FALSE);
+				values[i] = (0 != (0xff & loadByte())? LuaValue.TRUE: LuaValue.FALSE);
 				break;
 			case LUA_TINT:
 				values[i] = LuaInteger.valueOf( loadInt() );
@@ -273,13 +384,7 @@ public class LoadState {
 				throw new IllegalStateException("bad constant");
 			}
 		}
-		f.k = values;
-		
-		n = loadInt();
-		Prototype[] protos = n>0? new Prototype[n]: NOPROTOS;
-		for ( int i=0; i<n; i++ )
-			protos[i] = loadFunction(f.source);
-		f.p = protos;
+		return values;
 	}
 
 	/**
@@ -303,6 +408,7 @@ public class LoadState {
 		for ( int i=0; i<n; i++ ) {
 			f.upvalues[i] = loadString();
 		}
+		f.compact(debuglevel);
 	}
 
 	/** 
@@ -319,10 +425,10 @@ public class LoadState {
 			f.source = p;
 		f.linedefined = loadInt();
 		f.lastlinedefined = loadInt();
-		f.nups = is.readUnsignedByte();
-		f.numparams = is.readUnsignedByte();
-		f.is_vararg = is.readUnsignedByte();
-		f.maxstacksize = is.readUnsignedByte();
+		f.nups = (0xff & loadByte());
+		f.numparams = (0xff & loadByte());
+		f.is_vararg = (0xff & loadByte());
+		f.maxstacksize = (0xff & loadByte());
 		f.code = loadIntArray();
 		loadConstants(f);
 		loadDebug(f);
@@ -340,14 +446,14 @@ public class LoadState {
 	 * @throws IOException if an i/o exception occurs. 
 	 */
 	public void loadHeader() throws IOException {
-		luacVersion = is.readByte();
-		luacFormat = is.readByte();
-		luacLittleEndian = (0 != is.readByte());
-		luacSizeofInt = is.readByte();
-		luacSizeofSizeT = is.readByte();
-		luacSizeofInstruction = is.readByte();
-		luacSizeofLuaNumber = is.readByte();
-		luacNumberFormat = is.readByte();
+		luacVersion = loadByte();
+		luacFormat = loadByte();
+		luacLittleEndian = (0 != loadByte());
+		luacSizeofInt = loadByte();
+		luacSizeofSizeT = loadByte();
+		luacSizeofInstruction = loadByte();
+		luacSizeofLuaNumber = loadByte();
+		luacNumberFormat = loadByte();
 	}
 
 	/**
@@ -371,6 +477,22 @@ public class LoadState {
 		}
 	}
 
+	/**
+	 * Compile lua in either binary or text form from an input stream once, 
+	 * for use in any number of environments.
+	 * <p>
+	 * The compiler in {@link #compiler} is used if installed, 
+	 * so the chunk is compiled to java bytecode if {@link org.luaj.vm2.luajc.LuaJC} is installed.
+	 * @param stream InputStream to read
+	 * @param name Name to apply to the loaded chunk
+	 * @return {@link CompiledChunk} from which functions are created for each environment
+	 * @throws IOException if an IOException occurs
+	 * @see CompiledChunk#instantiate(LuaValue)
+	 */
+	public static CompiledChunk compile( InputStream stream, String name ) throws IOException {
+		return CompiledChunk.valueOf( load( stream, name, null ) );
+	}
+
 	/**
 	 * Load lua thought to be a binary chunk from its first byte from an input stream.
 	 * @param firstByte the first byte of the input stream
@@ -390,12 +512,108 @@ public class LoadState {
 			throw new IllegalArgumentException("bad signature");
 		
 		// load file as a compiled chunk
-		String sname = getSourceName(name);
-		LoadState s = new LoadState( stream, sname );
+		return load( new LoadState( stream, getSourceName(name) ) );
+	}
+
+	/**
+	 * Load a binary chunk from bytes already in memory, without wrapping them in a stream.
+	 * <p>
+	 * The bytes are not modified. They are retained, and must not be changed, if the chunk is in 
+	 * {@link #LUAC_FORMAT_INDEXED} format, whose prototypes are decoded from them when first used.
+	 * @param bytes array containing the binary chunk, starting with its signature
+	 * @param offset offset of the first byte in the array
+	 * @param length number of bytes
+	 * @param name Name to apply to the loaded chunk
+	 * @return {@link Prototype} that was loaded
+	 * @throws IllegalArgumentException if the signature is bac
+	 * @throws IOException if the chunk is truncated
+	 */
+	public static Prototype loadBinaryChunk( byte[] bytes, int offset, int length, String name ) throws IOException {
+		
+		// check signature
+		if ( length < LUA_SIGNATURE.length 
+		   || bytes[offset] != LUA_SIGNATURE[0] 
+		   || bytes[offset+1] != LUA_SIGNATURE[1]
+	       || bytes[offset+2] != LUA_SIGNATURE[2]
+		   || bytes[offset+3] != LUA_SIGNATURE[3] )
+			throw new IllegalArgumentException("bad signature");
+
+		return load( new LoadState( bytes, offset+4, length-4, getSourceName(name) ) );
+	}
+
+	/**
+	 * Load a binary chunk from a {@link ChunkSource}.
+	 * <p>
+	 * For a chunk in {@link #LUAC_FORMAT_INDEXED} format, only the main function is decoded, 
+	 * and the code and constants of each nested prototype, and the debug information of every prototype, 
+	 * are read from the source and decoded when first used, so the time taken and memory used 
+	 * depend on the functions actually used rather than the size of the chunk. 
+	 * Chunks in other formats are read and decoded in full.
+	 * @param source the source of the bytes of the chunk, starting with its signature
+	 * @param name Name to apply to the loaded chunk
+	 * @return {@link Prototype} that was loaded
+	 * @throws IllegalArgumentException if the signature is bac
+	 * @throws IOException if an IOException occurs
+	 * @see org.luaj.vm2.compiler.DumpState#dumpIndexed(Prototype, java.io.OutputStream, boolean)
+	 */
+	public static Prototype loadBinaryChunk( ChunkSource source, String name ) throws IOException {
+		int n = source.length();
+		byte[] bytes = new byte[Math.min(n, LUAC_HEADERSIZE)];
+		source.read(0, bytes, 0, bytes.length);
+		if ( bytes.length == LUAC_HEADERSIZE && bytes[5] == LUAC_FORMAT_INDEXED ) {
+			LoadState s = new LoadState( bytes, 4, LUAC_HEADERSIZE-4, getSourceName(name) );
+			if ( !s.checkHeader( bytes, 0, bytes.length ) )
+				throw new IllegalArgumentException("bad signature");
+			return s.loadIndexed( source, LUAC_HEADERSIZE );
+		}
+		bytes = new byte[n];
+		source.read(0, bytes, 0, n);
+		return loadBinaryChunk(bytes, 0, n, name);
+	}
+
+	/** Check that bytes start with the signature, and load the header following it */
+	private boolean checkHeader( byte[] bytes, int offset, int length ) throws IOException {
+		if ( length < LUA_SIGNATURE.length 
+		   || bytes[offset] != LUA_SIGNATURE[0] 
+		   || bytes[offset+1] != LUA_SIGNATURE[1]
+	       || bytes[offset+2] != LUA_SIGNATURE[2]
+		   || bytes[offset+3] != LUA_SIGNATURE[3] )
+			return false;
+		loadHeader();
+		return true;
+	}
+
+	/** Load the header and main function following the signature */
+	private static Prototype load( LoadState s ) throws IOException {
 		s.loadHeader();
+		if ( s.luacFormat == LUAC_FORMAT_INDEXED ) {
+			if ( s.is == null )
+				return s.loadIndexed( new IndexedChunk.ArraySource( s.buf ), s.pos );
+			
+			// read the rest of the stream, keeping the bytes until prototypes are decoded
+			byte[] b = s.buf;
+			int n = s.limit - s.pos;
+			System.arraycopy( b, s.pos, b, 0, n );
+			for ( int r; (r = s.is.read(b, n, b.length - n)) >= 0; ) {
+				n += r;
+				if ( n == b.length ) {
+					byte[] c = new byte[n * 2];
+					System.arraycopy( b, 0, c, 0, n );
+					b = c;
+				}
+			}
+			byte[] c = new byte[n];
+			System.arraycopy( b, 0, c, 0, n );
+			return s.loadIndexed( new IndexedChunk.ArraySource( c ), 0 );
+		}
+
+		s.checkNumberFormat();
+		return s.loadFunction( LuaString.valueOf(s.name) );
+	}
 
-		// check format
-		switch ( s.luacNumberFormat ) {
+	/** Check that the number format read from the header is supported */
+	private void checkNumberFormat() {
+		switch ( luacNumberFormat ) {
 		case NUMBER_FORMAT_FLOATS_OR_DOUBLES:
 		case NUMBER_FORMAT_INTS_ONLY:
 		case NUMBER_FORMAT_NUM_PATCH_INT32:
@@ -403,7 +621,6 @@ public class LoadState {
 		default:
 			throw new LuaError("unsupported int size");
 		}
-		return s.loadFunction( LuaString.valueOf(sname) );
 	}
 	
 	/**
@@ -423,6 +640,40 @@ public class LoadState {
 	/** Private constructor for create a load state */
 	private LoadState( InputStream stream, String name ) {
 		this.name = name;
-		this.is = new DataInputStream( stream );
+		this.debuglevel = debuginfo;
+		this.is = stream;
+		this.buf = new byte[BUFSIZE];
+	}
+
+	/** Private constructor for create a load state reading from an array */
+	private LoadState( byte[] bytes, int offset, int length, String name ) {
+		this.name = name;
+		this.debuglevel = debuginfo;
+		this.is = null;
+		this.buf = bytes;
+		this.pos = offset;
+		this.limit = offset + length;
+	}
+
+	/** Construct a load state reading part of a chunk from an array, using the header of another load state */
+	LoadState( LoadState header, byte[] bytes, int offset, int length ) {
+		this( bytes, offset, length, header.name );
+		this.luacVersion = header.luacVersion;
+		this.luacFormat = header.luacFormat;
+		this.luacLittleEndian = header.luacLittleEndian;
+		this.luacSizeofInt = header.luacSizeofInt;
+		this.luacSizeofSizeT = header.luacSizeofSizeT;
+		this.luacSizeofInstruction = header.luacSizeofInstruction;
+		this.luacSizeofLuaNumber = header.luacSizeofLuaNumber;
+		this.luacNumberFormat = header.luacNumberFormat;
+		this.debuglevel = header.debuglevel;
+	}
+
+	/** Load the main function of a chunk in indexed format, whose index is at a position in a source */
+	private Prototype loadIndexed( ChunkSource source, int position ) throws IOException {
+		checkNumberFormat();
+		Prototype p = new IndexedChunk( this, source, position ).prototype( 0, LuaString.valueOf(name) );
+		p.decode();
+		return p;
 	}
 }
@@ -27,6 +27,7 @@ import java.io.InputStream;
 import org.luaj.vm2.LoadState.LuaCompiler;
 import org.luaj.vm2.compiler.LuaC;
 import org.luaj.vm2.lib.DebugLib;
+import org.luaj.vm2.lib.MathLib;
 
 /**
  * Extension of {@link LuaFunction} which executes lua bytecode. 
@@ -81,6 +82,14 @@ import org.luaj.vm2.lib.DebugLib;
  * <li>{@link LuaValue#invokemethod(String,Varargs)}</li>
  * <li> ...</li> 
  * </ul>
+ * <p>
+ * When a {@link HotspotCompiler} is installed via {@link #hotspot}, 
+ * calls and backward branches are counted per {@link Prototype}, 
+ * and a prototype is handed to the compiler once the count reaches {@link #hotspotThreshold}. 
+ * When the compiler publishes a {@link CompiledCode} in {@link Prototype#compiled}, 
+ * each closure of the prototype switches to it on its next call. 
+ * Prototypes are not compiled while the debug library is in use, 
+ * since compiled code does not report calls or line events. 
  * @see LuaValue
  * @see LuaFunction
  * @see LuaValue#isclosure()
@@ -92,24 +101,74 @@ import org.luaj.vm2.lib.DebugLib;
 public class LuaClosure extends LuaFunction {
 	private static final UpValue[] NOUPVALUES = new UpValue[0];
 	
+	/** Interface for a compiler of frequently executed prototypes, if one is installed. 
+	 * @see #hotspot
+	 */
+	public interface HotspotCompiler {
+		
+		/** 
+		 * Compile a prototype that has become hot.  
+		 * This is called on the thread running the prototype, so it should return quickly, 
+		 * typically queueing the prototype to be compiled in the background, 
+		 * and set {@link Prototype#compiled} when done. 
+		 * It may be called more than once for the same prototype.
+		 * @param p the prototype to compile
+		 */
+		public void compile(Prototype p);
+	}
+	
+	/** Compiled form of a {@link Prototype}, from which each closure of it gets its own function. 
+	 * @see Prototype#compiled 
+	 */
+	public interface CompiledCode {
+		
+		/** 
+		 * Create the compiled function for a closure, 
+		 * which shares the closure's upvalues and has the same environment.
+		 * @param closure the closure of the compiled prototype
+		 * @return function to call in place of interpreting the closure
+		 */
+		public LuaFunction bind(LuaClosure closure);
+	}
+	
+	/** Compiler for hot prototypes, if installed, or null to only interpret */
+	public static HotspotCompiler hotspot = null;
+	
+	/** Number of calls plus backward branches after which a prototype is given to {@link #hotspot} */
+	public static int hotspotThreshold = 1000;
+	
 	public final Prototype p;
 	public final UpValue[] upValues;
 	
+	/** The lua state this closure belongs to, whose threads record calls to it */
+	public final Globals globals;
+	
+	/** The compiled form of this closure, once its prototype has been compiled */
+	private LuaFunction compiled;
+	
 	LuaClosure() {
 		p = null;
 		upValues = null;
+		globals = Globals.forEnv(env);
 	}
 	/** Supply the initial environment */
 	public LuaClosure(Prototype p, LuaValue env) {
+		this( p, env, Globals.forEnv(env) );
+	}
+	
+	/** Supply the initial environment and the {@link Globals} this closure runs in */
+	public LuaClosure(Prototype p, LuaValue env, Globals globals) {
 		super( env );
 		this.p = p;
 		this.upValues = p.nups>0? new UpValue[p.nups]: NOUPVALUES;
+		this.globals = globals;
 	}
 	
 	protected LuaClosure(int nupvalues, LuaValue env) {
 		super( env );
 		this.p = null;
 		this.upValues = nupvalues>0? new UpValue[nupvalues]: NOUPVALUES;
+		this.globals = Globals.forEnv(env);
 	}
 	
 	public boolean isclosure() {
@@ -128,39 +187,49 @@ public class LuaClosure extends LuaFunction {
 		return s_metatable; 
 	}
 	
+	public void setfenv(LuaValue env) {
+		super.setfenv(env);
+		if ( compiled != null )
+			compiled.setfenv(env);
+	}
+	
 	public final LuaValue call() {
-		LuaValue[] stack = new LuaValue[p.maxstacksize];
-		System.arraycopy(NILS, 0, stack, 0, p.maxstacksize);
-		return execute(stack,NONE).arg1();
+		if ( compiled != null || hotspot != null && tierup() )
+			return compiled.call();
+		LuaValue[] stack = globals.running_thread.getFrame(p.maxstacksize);
+		return execute(stack,NONE,true).arg1();
 	}
 
 	public final LuaValue call(LuaValue arg) {
-		LuaValue[] stack = new LuaValue[p.maxstacksize];
-		System.arraycopy(NILS, 0, stack, 0, p.maxstacksize);
+		if ( compiled != null || hotspot != null && tierup() )
+			return compiled.call(arg);
+		LuaValue[] stack = globals.running_thread.getFrame(p.maxstacksize);
 		switch ( p.numparams ) {
-		default: stack[0]=arg; return execute(stack,NONE).arg1();
-		case 0: return execute(stack,arg).arg1();
+		default: stack[0]=arg; return execute(stack,NONE,true).arg1();
+		case 0: return execute(stack,arg,true).arg1();
 		}
 	}
 	
 	public final LuaValue call(LuaValue arg1, LuaValue arg2) {
-		LuaValue[] stack = new LuaValue[p.maxstacksize];
-		System.arraycopy(NILS, 0, stack, 0, p.maxstacksize);
+		if ( compiled != null || hotspot != null && tierup() )
+			return compiled.call(arg1,arg2);
+		LuaValue[] stack = globals.running_thread.getFrame(p.maxstacksize);
 		switch ( p.numparams ) {
-		default: stack[0]=arg1; stack[1]=arg2; return execute(stack,NONE).arg1();
-		case 1: stack[0]=arg1; return execute(stack,arg2).arg1();
-		case 0: return execute(stack,p.is_vararg!=0? varargsOf(arg1,arg2): NONE).arg1();
+		default: stack[0]=arg1; stack[1]=arg2; return execute(stack,NONE,true).arg1();
+		case 1: stack[0]=arg1; return execute(stack,arg2,true).arg1();
+		case 0: return execute(stack,p.is_vararg!=0? varargsOf(arg1,arg2): NONE,true).arg1();
 		}
 	}
 
 	public final LuaValue call(LuaValue arg1, LuaValue arg2, LuaValue arg3) {
-		LuaValue[] stack = new LuaValue[p.maxstacksize];
-		System.arraycopy(NILS, 0, stack, 0, p.maxstacksize);
+		if ( compiled != null || hotspot != null && tierup() )
+			return compiled.call(arg1,arg2,arg3);
+		LuaValue[] stack = globals.running_thread.getFrame(p.maxstacksize);
 		switch ( p.numparams ) {
-		default: stack[0]=arg1; stack[1]=arg2; stack[2]=arg3; return execute(stack,NONE).arg1();
-		case 2: stack[0]=arg1; stack[1]=arg2; return execute(stack,arg3).arg1();
-		case 1: stack[0]=arg1; return execute(stack,p.is_vararg!=0? varargsOf(arg2,arg3): NONE).arg1();
-		case 0: return execute(stack,p.is_vararg!=0? varargsOf(arg1,arg2,arg3): NONE).arg1();
+		default: stack[0]=arg1; stack[1]=arg2; stack[2]=arg3; return execute(stack,NONE,true).arg1();
+		case 2: stack[0]=arg1; stack[1]=arg2; return execute(stack,arg3,true).arg1();
+		case 1: stack[0]=arg1; return execute(stack,p.is_vararg!=0? varargsOf(arg2,arg3): NONE,true).arg1();
+		case 0: return execute(stack,p.is_vararg!=0? varargsOf(arg1,arg2,arg3): NONE,true).arg1();
 		}
 	}
 
@@ -169,39 +238,87 @@ public class LuaClosure extends LuaFunction {
 	}
 	
 	public Varargs onInvoke(Varargs varargs) {
-		LuaValue[] stack = new LuaValue[p.maxstacksize];
-		System.arraycopy(NILS, 0, stack, 0, p.maxstacksize);
+		if ( compiled != null || hotspot != null && tierup() )
+			return compiled.onInvoke(varargs);
+		LuaValue[] stack = globals.running_thread.getFrame(p.maxstacksize);
 		for ( int i=0; i<p.numparams; i++ )
 			stack[i] = varargs.arg(i+1);		
-		return execute(stack,p.is_vararg!=0? varargs.subargs(p.numparams+1): NONE);
+		return execute(stack,p.is_vararg!=0? varargs.subargs(p.numparams+1): NONE,true);
 	}
 	
 	
 	protected Varargs execute( LuaValue[] stack, Varargs varargs ) {
+		return execute( stack, varargs, false );
+	}
+	
+	/**
+	 * Switch to the compiled form of the prototype if it has been compiled, 
+	 * otherwise count the call.
+	 * @return true if {@link #compiled} has been set
+	 */
+	private boolean tierup() {
+		CompiledCode c = p.compiled;
+		if ( c == null || DebugLib.DEBUG_ENABLED ) {
+			count();
+			return false;
+		}
+		compiled = c.bind(this);
+		return true;
+	}
+	
+	/** Count a call or backward branch, and hand the prototype to the hotspot compiler when it becomes hot */
+	private void count() {
+		HotspotCompiler h = hotspot;
+		if ( h != null && ++p.hotcount == hotspotThreshold && !DebugLib.DEBUG_ENABLED )
+			h.compile(p);
+	}
+	
+	/**
+	 * Execute the bytecode of this closure.
+	 * @param stack the value stack, with the fixed arguments in place 
+	 * @param varargs the variable arguments 
+	 * @param pooled true if the stack should be released to the running thread on return, 
+	 * unless it may still be referenced by an {@link UpValue} or {@link Varargs}.
+	 */
+	private Varargs execute( LuaValue[] stack, Varargs varargs, boolean pooled ) {
+		if ( p.chunk != null )
+			p.decode();
+		
 		// loop through instructions
 		int i,a,b,c,pc=0,top=0;
+		boolean orphaned = false;
+		boolean escaped = !pooled;
 		LuaValue o;
 		Varargs v = NONE;
 		int[] code = p.code;
 		LuaValue[] k = p.k;
 		
-		// upvalues are only possible when closures create closures
-		UpValue[] openups = p.p.length>0? new UpValue[stack.length]: null;
+		// upvalues are only created when a closure captures a local
+		UpValue[] openups = null;
 		
 		// create varargs "arg" table
 		if ( p.is_vararg >= Lua.VARARG_NEEDSARG )
 			stack[p.numparams] = new LuaTable(varargs);
 
+		// the outermost call on a Java thread enters a thread to record calls on, 
+		// which is otherwise not kept in a local during the call, so that a coroutine 
+		// suspended within this call does not keep its LuaThread reachable
+		LuaThread thread = globals.running_thread;
+		LuaThread entered = null;
+		if ( thread.owner != Thread.currentThread() && (thread = entered = LuaThread.enter(globals)) == null )
+			thread = LuaThread.running(globals);
+
 		// debug wants args to this function
 		if (DebugLib.DEBUG_ENABLED) 
-			DebugLib.debugSetupCall(varargs, stack);
+			DebugLib.debugSetupCall(thread, varargs, stack);
 
 		// process instructions
-		LuaThread.onCall( this ); 
+		thread.onCall( this ); 
+		thread = null;
 		try {
 			while ( true ) {
 				if (DebugLib.DEBUG_ENABLED) 
-					DebugLib.debugBytecode(pc, v, top);
+					DebugLib.debugBytecode(LuaThread.running(globals), pc, v, top);
 				
 				// pull out instruction
 				i = code[pc++];
@@ -234,11 +351,13 @@ public class LuaClosure extends LuaFunction {
 	                continue;
 					
 				case Lua.OP_GETGLOBAL: /*	A Bx	R(A):= Gbl[Kst(Bx)]				*/
-	                stack[a] = env.get(k[i>>>14]);
+	                stack[a] = InlineCache.get(p, pc-1, env, k[i>>>14]);
 					continue;
 					
 				case Lua.OP_GETTABLE: /*	A B C	R(A):= R(B)[RK(C)]				*/
-	                stack[a] = stack[i>>>23].get((c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
+	                stack[a] = (c=(i>>14)&0x1ff)>0xff? 
+	                		InlineCache.get(p, pc-1, stack[i>>>23], k[c&0x0ff]): 
+	                		stack[i>>>23].get(stack[c]);
 					continue;
 					
 				case Lua.OP_SETGLOBAL: /*	A Bx	Gbl[Kst(Bx)]:= R(A)				*/
@@ -259,31 +378,33 @@ public class LuaClosure extends LuaFunction {
 					
 				case Lua.OP_SELF: /*	A B C	R(A+1):= R(B): R(A):= R(B)[RK(C)]		*/
 					stack[a+1] = (o = stack[i>>>23]);
-					stack[a] = o.get((c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
+					stack[a] = (c=(i>>14)&0x1ff)>0xff? 
+							InlineCache.get(p, pc-1, o, k[c&0x0ff]): 
+							o.get(stack[c]);
 					continue;
 					
 				case Lua.OP_ADD: /*	A B C	R(A):= RK(B) + RK(C)				*/
-					stack[a] = ((b=i>>>23)>0xff? k[b&0x0ff]: stack[b]).add((c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
+					stack[a] = add((b=i>>>23)>0xff? k[b&0x0ff]: stack[b], (c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
 					continue;
 					
 				case Lua.OP_SUB: /*	A B C	R(A):= RK(B) - RK(C)				*/
-					stack[a] = ((b=i>>>23)>0xff? k[b&0x0ff]: stack[b]).sub((c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
+					stack[a] = sub((b=i>>>23)>0xff? k[b&0x0ff]: stack[b], (c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
 					continue;
 					
 				case Lua.OP_MUL: /*	A B C	R(A):= RK(B) * RK(C)				*/
-					stack[a] = ((b=i>>>23)>0xff? k[b&0x0ff]: stack[b]).mul((c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
+					stack[a] = mul((b=i>>>23)>0xff? k[b&0x0ff]: stack[b], (c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
 					continue;
 					
 				case Lua.OP_DIV: /*	A B C	R(A):= RK(B) / RK(C)				*/
-					stack[a] = ((b=i>>>23)>0xff? k[b&0x0ff]: stack[b]).div((c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
+					stack[a] = div((b=i>>>23)>0xff? k[b&0x0ff]: stack[b], (c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
 					continue;
 					
 				case Lua.OP_MOD: /*	A B C	R(A):= RK(B) % RK(C)				*/
-					stack[a] = ((b=i>>>23)>0xff? k[b&0x0ff]: stack[b]).mod((c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
+					stack[a] = mod((b=i>>>23)>0xff? k[b&0x0ff]: stack[b], (c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
 					continue;
 					
 				case Lua.OP_POW: /*	A B C	R(A):= RK(B) ^ RK(C)				*/
-					stack[a] = ((b=i>>>23)>0xff? k[b&0x0ff]: stack[b]).pow((c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
+					stack[a] = pow((b=i>>>23)>0xff? k[b&0x0ff]: stack[b], (c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]);
 					continue;
 					
 				case Lua.OP_UNM: /*	A B	R(A):= -R(B)					*/
@@ -314,21 +435,23 @@ public class LuaClosure extends LuaFunction {
 					continue;
 					
 				case Lua.OP_JMP: /*	sBx	pc+=sBx					*/
-					pc  += (i>>>14)-0x1ffff;
+					pc  += (b=(i>>>14)-0x1ffff);
+					if ( b < 0 && hotspot != null )
+						count();
 					continue;
 					
 				case Lua.OP_EQ: /*	A B C	if ((RK(B) == RK(C)) ~= A) then pc++		*/
-					if ( ((b=i>>>23)>0xff? k[b&0x0ff]: stack[b]).eq_b((c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]) != (a!=0) ) 
+					if ( eq((b=i>>>23)>0xff? k[b&0x0ff]: stack[b], (c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]) != (a!=0) ) 
 						++pc;
 					continue;
 					
 				case Lua.OP_LT: /*	A B C	if ((RK(B) <  RK(C)) ~= A) then pc++  		*/
-					if ( ((b=i>>>23)>0xff? k[b&0x0ff]: stack[b]).lt_b((c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]) != (a!=0) ) 
+					if ( lt((b=i>>>23)>0xff? k[b&0x0ff]: stack[b], (c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]) != (a!=0) ) 
 						++pc;
 					continue;
 					
 				case Lua.OP_LE: /*	A B C	if ((RK(B) <= RK(C)) ~= A) then pc++  		*/
-					if ( ((b=i>>>23)>0xff? k[b&0x0ff]: stack[b]).lteq_b((c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]) != (a!=0) ) 
+					if ( le((b=i>>>23)>0xff? k[b&0x0ff]: stack[b], (c=(i>>14)&0x1ff)>0xff? k[c&0x0ff]: stack[c]) != (a!=0) ) 
 						++pc;
 					continue;
 					
@@ -360,6 +483,7 @@ public class LuaClosure extends LuaFunction {
 					default:
 						b = i>>>23;
 						c = (i>>14)&0x1ff;
+						escaped |= b>3 || b==0; // args may wrap the stack rather than copy it
 						v = b>0? 
 							varargsOf(stack,a+1,b-1): // exact arg count
 							varargsOf(stack, a+1, top-v.narg()-(a+1), v); // from prev top 
@@ -382,6 +506,7 @@ public class LuaClosure extends LuaFunction {
 					case (4<<Lua.POS_B): return new TailcallVarargs(stack[a], varargsOf(stack[a+1],stack[a+2],stack[a+3]));
 					default:
 						b = i>>>23;
+						escaped = true;
 						v = b>0? 
 							varargsOf(stack,a+1,b-1): // exact arg count
 							varargsOf(stack, a+1, top-v.narg()-(a+1), v); // from prev top 
@@ -391,23 +516,39 @@ public class LuaClosure extends LuaFunction {
 				case Lua.OP_RETURN: /*	A B	return R(A), ... ,R(A+B-2)	(see note)	*/
 					b = i>>>23;
 					switch ( b ) {
-					case 0: return varargsOf(stack, a, top-v.narg()-a, v); 
+					case 0: escaped = true; return varargsOf(stack, a, top-v.narg()-a, v); 
 					case 1: return NONE;
 					case 2: return stack[a]; 
 					default:
+						escaped |= b>3;
 						return varargsOf(stack, a, b-1);
 					}
 					
 				case Lua.OP_FORLOOP: /*	A sBx	R(A)+=R(A+2): if R(A) <?= R(A+1) then { pc+=sBx: R(A+3)=R(A) }*/
 					{
+						LuaValue init  = stack[a];
 			            LuaValue limit = stack[a + 1];
 						LuaValue step  = stack[a + 2];
-						LuaValue idx   = step.add(stack[a]);
-			            if (step.gt_b(0)? idx.lteq_b(limit): idx.gteq_b(limit)) {
-		                    stack[a] = idx;
-		                    stack[a + 3] = idx;
-		                    pc += (i>>>14)-0x1ffff;
-			            }
+						LuaValue idx;
+						// integer loops are stepped without dispatch, and in range whenever they continue
+						if ( init instanceof LuaInteger && limit instanceof LuaInteger && step instanceof LuaInteger ) {
+							int s = ((LuaInteger) step).v;
+							long n = ((LuaInteger) init).v + (long) s;
+							if ( s > 0? n > ((LuaInteger) limit).v: n < ((LuaInteger) limit).v )
+								continue;
+							idx = LuaInteger.valueOf((int) n);
+						} else {
+							double s = step.todouble();
+							double n = init.todouble() + s;
+							if ( s > 0? !(n <= limit.todouble()): !(n >= limit.todouble()) )
+								continue;
+							idx = LuaDouble.valueOf(n);
+						}
+	                    stack[a] = idx;
+	                    stack[a + 3] = idx;
+	                    pc += (i>>>14)-0x1ffff;
+	                    if ( hotspot != null )
+	                    	count();
 					}
 					continue;
 					
@@ -416,7 +557,7 @@ public class LuaClosure extends LuaFunction {
 						LuaValue init  = stack[a].checknumber("'for' initial value must be a number");
 						LuaValue limit = stack[a + 1].checknumber("'for' limit must be a number");
 						LuaValue step  = stack[a + 2].checknumber("'for' step must be a number");
-						stack[a] = init.sub(step);
+						stack[a] = sub(init, step);
 						stack[a + 1] = limit;
 						stack[a + 2] = step;
 						pc += (i>>>14)-0x1ffff;
@@ -463,6 +604,7 @@ public class LuaClosure extends LuaFunction {
 					continue;
 					
 				case Lua.OP_CLOSE: /*	A 	close all variables in the stack up to (>=) R(A)*/
+					if ( openups != null )
 					for ( b=openups.length; --b>=a; )
 						if ( openups[b]!=null ) {
 							openups[b].close();
@@ -473,14 +615,18 @@ public class LuaClosure extends LuaFunction {
 				case Lua.OP_CLOSURE: /*	A Bx	R(A):= closure(KPROTO[Bx], R(A), ... ,R(A+n))	*/
 					{
 						Prototype newp = p.p[i>>>14];
-						LuaClosure newcl = new LuaClosure(newp, env);
+						LuaClosure newcl = new LuaClosure(newp, env, globals);
 						for ( int j=0, nup=newp.nups; j<nup; ++j ) {
 							i = code[pc++];
 							//b = B(i);
 							b = i>>>23;
-							newcl.upValues[j] = (i&4) != 0? 
-									upValues[b]:
-									openups[b]!=null? openups[b]: (openups[b]=new UpValue(stack,b));
+							if ( (i&4) != 0 )
+								newcl.upValues[j] = upValues[b];
+							else {
+								if ( openups == null )
+									openups = new UpValue[p.maxstacksize];
+								newcl.upValues[j] = openups[b]!=null? openups[b]: (openups[b]=new UpValue(stack,b));
+							}
 						}
 						stack[a] = newcl;
 					}
@@ -499,19 +645,103 @@ public class LuaClosure extends LuaFunction {
 				}
 			}
 		} catch ( LuaError le ) {
+			le.process(LuaThread.running(globals));
 			throw le;
+		} catch ( OrphanedThread ot ) {
+			orphaned = true;
+			throw ot;
 		} catch ( Throwable t ) {
 			LuaError le = new LuaError(t);
+			le.process(LuaThread.running(globals));
 			throw le;
 		} finally {
-			LuaThread.onReturn();
 			if ( openups != null )
 				for ( int u=openups.length; --u>=0; )
 					if ( openups[u] != null )
 						openups[u].close();
+			// an orphaned coroutine is unwound while another thread is running
+			if ( ! orphaned ) {
+				if ( (thread = globals.running_thread).owner != Thread.currentThread() )
+					thread = LuaThread.running(globals);
+				thread.onReturn();
+				// upvalues are closed, so the stack can be reused unless wrapped by a varargs
+				if ( ! escaped )
+					thread.releaseFrame(stack, p.maxstacksize);
+			}
+			if ( entered != null )
+				entered.exit();
 		}
 	}
 
+	// arithmetic and comparison of numbers without dispatch, 
+	// falling back to the metatag processing of LuaValue for other values.
+	// results are still boxed, since registers hold LuaValue, so they allocate 
+	// as much as the dispatched operations; InterpreterBenchmark "numeric" tracks this
+	
+	private static LuaValue add(LuaValue x, LuaValue y) {
+		if ( x instanceof LuaInteger && y instanceof LuaInteger )
+			return LuaInteger.valueOf(((LuaInteger) x).v + (long) ((LuaInteger) y).v);
+		if ( x instanceof LuaNumber && y instanceof LuaNumber )
+			return LuaDouble.valueOf(x.todouble() + y.todouble());
+		return x.add(y);
+	}
+
+	private static LuaValue sub(LuaValue x, LuaValue y) {
+		if ( x instanceof LuaInteger && y instanceof LuaInteger )
+			return LuaInteger.valueOf(((LuaInteger) x).v - (long) ((LuaInteger) y).v);
+		if ( x instanceof LuaNumber && y instanceof LuaNumber )
+			return LuaDouble.valueOf(x.todouble() - y.todouble());
+		return x.sub(y);
+	}
+
+	private static LuaValue mul(LuaValue x, LuaValue y) {
+		if ( x instanceof LuaInteger && y instanceof LuaInteger )
+			return LuaInteger.valueOf(((LuaInteger) x).v * (long) ((LuaInteger) y).v);
+		if ( x instanceof LuaNumber && y instanceof LuaNumber )
+			return LuaDouble.valueOf(x.todouble() * y.todouble());
+		return x.mul(y);
+	}
+
+	private static LuaValue div(LuaValue x, LuaValue y) {
+		if ( x instanceof LuaNumber && y instanceof LuaNumber )
+			return LuaDouble.ddiv(x.todouble(), y.todouble());
+		return x.div(y);
+	}
+
+	private static LuaValue mod(LuaValue x, LuaValue y) {
+		if ( x instanceof LuaNumber && y instanceof LuaNumber )
+			return LuaDouble.dmod(x.todouble(), y.todouble());
+		return x.mod(y);
+	}
+
+	private static LuaValue pow(LuaValue x, LuaValue y) {
+		if ( x instanceof LuaNumber && y instanceof LuaNumber )
+			return MathLib.dpow(x.todouble(), y.todouble());
+		return x.pow(y);
+	}
+
+	private static boolean eq(LuaValue x, LuaValue y) {
+		if ( x instanceof LuaNumber && y instanceof LuaNumber )
+			return x.todouble() == y.todouble();
+		return x.eq_b(y);
+	}
+
+	private static boolean lt(LuaValue x, LuaValue y) {
+		if ( x instanceof LuaInteger && y instanceof LuaInteger )
+			return ((LuaInteger) x).v < ((LuaInteger) y).v;
+		if ( x instanceof LuaNumber && y instanceof LuaNumber )
+			return x.todouble() < y.todouble();
+		return x.lt_b(y);
+	}
+
+	private static boolean le(LuaValue x, LuaValue y) {
+		if ( x instanceof LuaInteger && y instanceof LuaInteger )
+			return ((LuaInteger) x).v <= ((LuaInteger) y).v;
+		if ( x instanceof LuaNumber && y instanceof LuaNumber )
+			return x.todouble() <= y.todouble();
+		return x.lteq_b(y);
+	}
+
 	protected LuaValue getUpvalue(int i) {
 		return upValues[i].getValue();
 	}
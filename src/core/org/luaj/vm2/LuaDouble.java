@@ -86,7 +86,10 @@ public class LuaDouble extends LuaNumber {
 
 	public int hashCode() {
 		long l = Double.doubleToLongBits(v);
-		return ((int)(l>>32)) | (int) l;
+		int h = ((int)(l>>32)) + (int) l;
+		// fold the exponent and high mantissa bits into the low bits used by table slots 
+		h ^= (h >>> 20) ^ (h >>> 12);
+		return h ^ (h >>> 7) ^ (h >>> 4);
 	}
 	
 	public boolean islong() {
@@ -33,19 +33,33 @@ import org.luaj.vm2.lib.DebugLib;
  * Java method signatures do notdeclare this exception, althoug it can 
  * be thrown on almost any luaj Java operation.
  * This is analagous to the fact that any lua script can throw a lua error at any time.
+ * <p>
+ * File and line information, the traceback, and any error handler installed by {@code xpcall()} 
+ * depend on the thread the error is raised on, which is not known when the error is constructed.  
+ * They are applied via {@link #process(LuaThread)} by the first function on the call stack 
+ * that sees the error, typically the innermost {@link LuaClosure}. 
  * <p>   
  */
 public class LuaError extends RuntimeException {
 	private static final long serialVersionUID = 1L;
 	
+	/** level value used to add file and line info for the nearest enclosing closure */
+	private static final int NEAREST = -1;
+	
+	private String message;
+	
+	private int level;
+	
+	private boolean processed;
+	
 	private String traceback;
 
 	/**
 	 *  Run the error hook if there is one
+	 *  @param thread the thread on which the error occurred
 	 *  @param msg the message to use in error hook processing. 
 	 * */
-	private static String errorHook(String msg) {
-		LuaThread thread = LuaThread.getRunning();
+	private static String errorHook(LuaThread thread, String msg) {
 		if ( thread.err != null ) { 
 			LuaValue errfunc = thread.err;
 			thread.err = null;
@@ -68,9 +82,8 @@ public class LuaError extends RuntimeException {
 	 * @param cause the Throwable that caused the error, if known.  
 	 */
 	public LuaError(Throwable cause) {
-		super( errorHook( addFileLine( "vm error: "+cause ) ) );
+		this( "vm error: "+cause, NEAREST );
 		this.cause = cause;
-		this.traceback = DebugLib.traceback(1);
 	}
 
 	/**
@@ -79,8 +92,7 @@ public class LuaError extends RuntimeException {
 	 * @param message message to supply
 	 */
 	public LuaError(String message) {
-		super( errorHook( addFileLine( message ) ) );
-		this.traceback = DebugLib.traceback(1);
+		this( message, NEAREST );
 	}		
 
 	/**
@@ -89,31 +101,61 @@ public class LuaError extends RuntimeException {
 	 * @param level where to supply line info from in call stack
 	 */
 	public LuaError(String message, int level) {
-		super( errorHook( addFileLine( message, level ) ) );
-		this.traceback = DebugLib.traceback(1);
+		super( message );
+		this.message = message;
+		this.level = level;
 	}	
 
+	/**
+	 * Add file and line information, traceback, and run the error hook 
+	 * for the thread the error was raised on.  
+	 * <p>
+	 * This is called by the interpreter while the call stack of the thread 
+	 * still contains the frame that raised the error.  
+	 * Only the first call has any effect.
+	 * @param thread the {@link LuaThread} on which the error was raised
+	 */
+	public void process(LuaThread thread) {
+		if ( processed )
+			return;
+		processed = true;
+		String m = level == NEAREST? 
+			addFileLine( thread, message ):
+			addFileLine( thread, message, level );
+		message = errorHook( thread, m );
+		traceback = DebugLib.traceback(thread, 1);
+	}
+
 	/** 
 	 * Add file and line info to a message at a particular level 
+	 * @param thread the thread whose call stack supplies the line info
 	 * @param message the String message to use
 	 * @param level where to supply line info from in call stack
 	 * */
-	private static String addFileLine( String message, int level ) {
+	private static String addFileLine( LuaThread thread, String message, int level ) {
 		if ( message == null ) return null;
 		if ( level == 0 ) return message;
-		String fileline = DebugLib.fileline(level-1);
+		String fileline = DebugLib.fileline(thread, level-1);
 		return fileline!=null? fileline+": "+message: message;		
 	}
 
 	/** Add file and line info for the nearest enclosing closure
+	 * @param thread the thread whose call stack supplies the line info
 	 * @param message the String message to use
 	 * */
-	private static String addFileLine( String message ) {
+	private static String addFileLine( LuaThread thread, String message ) {
 		if ( message == null ) return null;
-		String fileline = DebugLib.fileline();
+		String fileline = DebugLib.fileline(thread);
 		return fileline!=null? fileline+": "+message: message;		
 	}
 	
+	/** 
+	 * Get the message, including file and line information once processed.
+	 */
+	public String getMessage() {
+		return message;
+	}
+	
 	/** Print the message and stack trace */
 	public void printStackTrace() {
 		System.out.println( toString() );
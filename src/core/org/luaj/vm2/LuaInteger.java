@@ -52,6 +52,11 @@ public class LuaInteger extends LuaNumber {
 		return i<=255 && i>=-256? intValues[i+256]: new LuaInteger(i);
 	};
 	
+	/** Check if {@link #valueOf(int)} returns a shared instance for a value rather than allocating one */
+	static boolean isCached(int i) {
+		return i<=255 && i>=-256;
+	}
+	
 	 // TODO consider moving this to LuaValue
 	/** Return a LuaNumber that represents the value provided
 	 * @param l long value to represent.
@@ -26,8 +26,6 @@ import java.io.ByteArrayInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.ref.WeakReference;
-import java.util.Hashtable;
 
 import org.luaj.vm2.lib.MathLib;
 import org.luaj.vm2.lib.StringLib;
@@ -42,11 +40,17 @@ import org.luaj.vm2.lib.StringLib;
  * {@link LuaString} values are generally not mutable once constructed, 
  * so multiple {@link LuaString} values can chare a single byte array.
  * <p>
- * Currently {@link LuaString}s are pooled via a centrally managed weak table.
+ * Short {@link LuaString}s are pooled via a centrally managed intern table, 
+ * so that equal short strings are usually the same instance and compare by reference.
+ * The table is a fixed size array indexed by hash that is read and written without locking, 
+ * so it may be used from any number of threads, and holds at most one string per slot.
+ * Its size may be changed or the table disabled via {@link #setInternTableSize(int)}.
  * To ensure that as many string values as possible take advantage of this, 
  * Constructors are not exposed directly.  As with number, booleans, and nil, 
  * instance construction should be via {@link LuaValue#valueOf(byte[])} or similar API.
  * <p>
+ * The hash code of each string is computed at most once and cached. 
+ * <p>
  * When Java Strings are used to initialize {@link LuaString} data, the UTF8 encoding is assumed. 
  * The functions 
  * {@link LuaString#lengthAsUtf8(char[]),
@@ -71,16 +75,75 @@ public class LuaString extends LuaValue {
 	
 	/** The number of bytes that comprise this string */
 	public final int    m_length;
+	
+	/** The hash code for this string, or 0 if not yet computed */
+	private int m_hashcode;
 
-	private static final Hashtable index_java = new Hashtable();
+	/** True if the bytes of m_bytes following this string are unused and may be claimed by one concatenation */
+	private boolean m_extensible;
+
+	/** Strings at most this long are looked up in the intern table */
+	public static final int INTERN_MAX_LENGTH = 32;
+	
+	/** Results of concatenation at least this long are allocated with room to be extended in place */
+	public static final int EXTEND_MIN_LENGTH = 128;
 
-	private final static LuaString index_get(Hashtable indextable, Object key) {
-		WeakReference w = (WeakReference) indextable.get(key);
-		return w!=null? (LuaString) w.get(): null;
+	/** Default number of slots in the intern table */
+	public static final int INTERN_TABLE_SIZE = 1024;
+
+	/** The intern table, indexed by hash, replaced as a whole when resized */
+	private static LuaString[] intern_table = new LuaString[INTERN_TABLE_SIZE];
+
+	/**
+	 * Set the number of slots in the table used to intern short strings. 
+	 * <p>
+	 * Strings of up to {@link #INTERN_MAX_LENGTH} bytes are looked up in this table 
+	 * when created via {@link #valueOf(String)}, {@link #valueOf(byte[], int, int)} or concatenation, 
+	 * so that equal short strings are usually represented by the same instance.
+	 * Each slot holds the most recently created string with its hash,  
+	 * so the table never holds more than {@code size} strings.   
+	 * @param size number of slots, which is rounded up to a power of 2, or 0 to disable interning 
+	 */
+	public static void setInternTableSize(int size) {
+		int n = 1;
+		while ( n < size )
+			n <<= 1;
+		intern_table = size > 0? new LuaString[n]: null;
 	}
 	
-	private final static void index_set(Hashtable indextable, Object key, LuaString value) {
-		indextable.put(key, new WeakReference(value));
+	/**
+	 * Find a string in the intern table
+	 * @param table the intern table
+	 * @param hash the hash of the bytes
+	 * @param bytes byte buffer
+	 * @param off offset into the byte buffer
+	 * @param len length of the string 
+	 * @return interned {@link LuaString} with the same bytes, or null if there is none
+	 */
+	private static LuaString intern_get(LuaString[] table, int hash, byte[] bytes, int off, int len) {
+		LuaString s = table[hash & (table.length-1)];
+		return s != null && s.m_length == len && s.m_hashcode == hash && 
+			equals(s.m_bytes, s.m_offset, bytes, off, len)? s: null;
+	}
+	
+	/**
+	 * Construct a string around a new byte array, using an equal interned string if there is one.
+	 * @param bytes byte array not referenced by any other object
+	 * @return {@link LuaString} with the same bytes
+	 */
+	private static LuaString valueUsing(byte[] bytes) {
+		final int len = bytes.length;
+		final LuaString[] table = intern_table;
+		if ( table == null || len > INTERN_MAX_LENGTH )
+			return new LuaString(bytes, 0, len);
+		final int hash = hashCode(bytes, 0, len);
+		LuaString s = intern_get(table, hash, bytes, 0, len);
+		if ( s == null ) {
+			s = new LuaString(bytes, 0, len);
+			s.m_hashcode = hash;
+			table[hash & (table.length-1)] = s;
+		}
+		return s;
 	}
 
 	/**
@@ -90,14 +153,10 @@ public class LuaString extends LuaValue {
 	 * @return {@link LuaString} with UTF8 bytes corresponding to the supplied String
 	 */
 	public static LuaString valueOf(String string) {
-		LuaString s = index_get( index_java, string );
-		if ( s != null ) return s;
 		char[] c = string.toCharArray();
 		byte[] b = new byte[lengthAsUtf8(c)];
 		encodeToUtf8(c, b, 0);
-		s = valueOf(b, 0, b.length);
-		index_set( index_java, string, s );
-		return s;
+		return valueUsing(b);
 	}
 
 	// TODO: should this be deprecated or made private?
@@ -105,13 +164,27 @@ public class LuaString extends LuaValue {
 	 * <p>
 	 * The array is used directly after this is called, so clients must not change contents.
 	 * <p>
+	 * Strings of up to {@link #INTERN_MAX_LENGTH} bytes are instead looked up in the intern table, 
+	 * and copied into it if not found, so the array is not retained.  
 	 * @param bytes byte buffer
 	 * @param off offset into the byte buffer
 	 * @param len length of the byte buffer
 	 * @return {@link LuaString} wrapping the byte buffer
 	 */
 	public static LuaString valueOf(byte[] bytes, int off, int len) { 
-		return new LuaString(bytes, off, len);
+		final LuaString[] table = intern_table;
+		if ( table == null || len > INTERN_MAX_LENGTH )
+			return new LuaString(bytes, off, len);
+		final int hash = hashCode(bytes, off, len);
+		LuaString s = intern_get(table, hash, bytes, off, len);
+		if ( s == null ) {
+			byte[] b = new byte[len];
+			System.arraycopy(bytes, off, b, 0, len);
+			s = new LuaString(b, 0, len);
+			s.m_hashcode = hash;
+			table[hash & (table.length-1)] = s;
+		}
+		return s;
 	}
 	
 	/** Construct a {@link LuaString} using the supplied characters as byte values.
@@ -127,7 +200,7 @@ public class LuaString extends LuaValue {
 		byte[] b = new byte[n];
 		for ( int i=0; i<n; i++ )
 			b[i] = (byte) bytes[i];
-		return valueOf(b, 0, n);
+		return valueUsing(b);
 	}
 	
 	
@@ -232,11 +305,60 @@ public class LuaString extends LuaValue {
 	public LuaValue concat(LuaValue rhs)      { return rhs.concatTo(this); }
 	public Buffer   concat(Buffer rhs)        { return rhs.concatTo(this); }
 	public LuaValue concatTo(LuaNumber lhs)   { return concatTo(lhs.strvalue()); }
-	public LuaValue concatTo(LuaString lhs)   { 
-		byte[] b = new byte[lhs.m_length+this.m_length];
-		System.arraycopy(lhs.m_bytes, lhs.m_offset, b, 0, lhs.m_length);
-		System.arraycopy(this.m_bytes, this.m_offset, b, lhs.m_length, this.m_length);
-		return new LuaString(b, 0, b.length);
+	public LuaValue concatTo(LuaString lhs)   { return lhs.extend(m_bytes, m_offset, m_length); }
+
+	/**
+	 * Concatenate bytes onto the end of this string.
+	 * <p>
+	 * When this string was itself produced by concatenation and the unused bytes
+	 * following it in its byte array have not yet been claimed, 
+	 * the bytes are copied there and the result shares the byte array with this string, 
+	 * so building a long string by repeated concatenation onto its end copies each byte 
+	 * a bounded number of times rather than once per step. 
+	 * Otherwise long results are allocated with room to be extended in the same way.
+	 * @param bytes byte buffer
+	 * @param off offset into the byte buffer
+	 * @param len number of bytes to append
+	 * @return {@link LuaString} containing the bytes of this string followed by the bytes supplied
+	 * @see #EXTEND_MIN_LENGTH
+	 */
+	LuaString extend(byte[] bytes, int off, int len) {
+		final int n = m_length + len;
+		if ( claim(len) ) {
+			System.arraycopy(bytes, off, m_bytes, m_offset+m_length, len);
+			return extensible(m_bytes, m_offset, n);
+		}
+		byte[] b = new byte[n < EXTEND_MIN_LENGTH? n: n + (n>>1)];
+		System.arraycopy(m_bytes, m_offset, b, 0, m_length);
+		System.arraycopy(bytes, off, b, m_length, len);
+		return n < EXTEND_MIN_LENGTH? valueUsing(b): extensible(b, 0, n);
+	}
+
+	/**
+	 * Claim the unused bytes following this string in its byte array, 
+	 * after which they belong to the caller and this string can no longer be extended in place.
+	 * @param len number of bytes needed
+	 * @return true if there were at least {@code len} unused bytes and they were claimed, otherwise false
+	 */
+	synchronized boolean claim(int len) {
+		if ( !m_extensible || m_offset + m_length + len > m_bytes.length )
+			return false;
+		m_extensible = false;
+		return true;
+	}
+
+	/**
+	 * Construct a string whose byte array may be extended in place by concatenation. 
+	 * @param bytes byte array, whose bytes after {@code off+len} are not used by any other object
+	 * @param off offset into the byte array
+	 * @param len length of the string
+	 * @return {@link LuaString} that may be extended in place
+	 * @see #extend(byte[], int, int)
+	 */
+	static LuaString extensible(byte[] bytes, int off, int len) {
+		LuaString s = new LuaString(bytes, off, len);
+		s.m_extensible = true;
+		return s;
 	}
 
 	// string comparison 
@@ -356,10 +478,24 @@ public class LuaString extends LuaValue {
 	}
 	
 	public int hashCode() {
-		int h = m_length;  /* seed */
-		int step = (m_length>>5)+1;  /* if string is too long, don't hash all its chars */
-		for (int l1=m_length; l1>=step; l1-=step)  /* compute hash */
-		    h = h ^ ((h<<5)+(h>>2)+(((int) m_bytes[m_offset+l1-1] ) & 0x0FF ));
+		int h = m_hashcode;
+		if ( h == 0 )
+			m_hashcode = h = hashCode(m_bytes, m_offset, m_length);
+		return h;
+	}
+	
+	/**
+	 * Compute the hash code of a sequence of bytes, as for a {@link LuaString} with those bytes.
+	 * @param bytes byte buffer
+	 * @param offset offset into the byte buffer
+	 * @param length number of bytes
+	 * @return hash code
+	 */
+	public static int hashCode(byte[] bytes, int offset, int length) {
+		int h = length;  /* seed */
+		int step = (length>>5)+1;  /* if string is too long, don't hash all its chars */
+		for (int l1=length; l1>=step; l1-=step)  /* compute hash */
+		    h = h ^ ((h<<5)+(h>>2)+(((int) bytes[offset+l1-1] ) & 0x0FF ));
 		return h;
 	}
 	
@@ -481,7 +617,7 @@ public class LuaString extends LuaValue {
 	 * @return index of first match found, or -1 if not found.
 	 */
 	public int indexOf( byte b, int start ) {
-		for ( int i=0, j=m_offset+start; i < m_length; ++i ) {
+		for ( int i=start, j=m_offset+start; i < m_length; ++i ) {
 			if ( m_bytes[j++] == b )
 				return i;
 		}
@@ -497,9 +633,12 @@ public class LuaString extends LuaValue {
 	public int indexOf( LuaString s, int start ) {
 		final int slen = s.length();
 		final int limit = m_offset + m_length - slen;
+		if ( slen == 0 )
+			return start <= m_length? start: -1;
+		final byte b = s.m_bytes[s.m_offset];
 		for ( int i = m_offset + start; i <= limit; ++i ) {
-			if ( equals( m_bytes, i, s.m_bytes, s.m_offset, slen ) ) {
-				return i;
+			if ( m_bytes[i] == b && equals( m_bytes, i+1, s.m_bytes, s.m_offset+1, slen-1 ) ) {
+				return i - m_offset;
 			}
 		}
 		return -1;
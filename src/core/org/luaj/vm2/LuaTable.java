@@ -67,24 +67,53 @@ import java.util.Vector;
  * <li>{@link LuaValue#tableOf(LuaValue[], LuaValue[])} initialize array and named parts</li>
  * <li>{@link LuaValue#tableOf(LuaValue[], LuaValue[], Varargs)} initialize array and named parts</li>
  * </ul>
+ * <p>
+ * While all values in the array part are numbers, they are held unboxed in an {@code int[]}
+ * or, once any of them is not an integer, in a {@code double[]}, 
+ * using less memory than boxed values.
+ * The array part changes to boxed values when any other value is stored in it, 
+ * or when a nil value would leave a hole before its last number.
  * @see LuaValue
  */
 public class LuaTable extends LuaValue {
 	private static final int      MIN_HASH_CAPACITY = 2;
 	private static final LuaString N = valueOf("n");
+	private static final int[]    NOHASHES = {};
 	
-	/** the array values */
+	/** the array values, or null while they are all numbers */
 	protected LuaValue[] array;
 	
+	/** the array values while they are all integers, or null */
+	protected int[] intArray;
+	
+	/** the array values while they are all numbers, not all integers, or null */
+	protected double[] doubleArray;
+	
+	/** the number of values in {@link #intArray} or {@link #doubleArray}, which fill its first slots */
+	protected int numericLength;
+	
+	/** 
+	 * the values in {@link #intArray} or {@link #doubleArray} as they were stored, 
+	 * for those {@link LuaInteger#valueOf(int)} does not cache, so reading them does not allocate; 
+	 * or null while there are none 
+	 */
+	protected LuaValue[] numberValues;
+	
 	/** the hash keys */
 	protected LuaValue[] hashKeys;
 	
 	/** the hash values */
 	protected LuaValue[] hashValues;
 	
+	/** the hash code of the key in each slot */
+	protected int[] hashCodes;
+	
 	/** the number of hash entries */
 	protected int hashEntries;
 	
+	/** incremented whenever a key is added to or removed from the hash part */
+	protected int version;
+	
 	/** metatable for this table, or null */
 	protected LuaValue m_metatable;
 	
@@ -93,6 +122,7 @@ public class LuaTable extends LuaValue {
 		array = NOVALS;
 		hashKeys = NOVALS;
 		hashValues = NOVALS;
+		hashCodes = NOHASHES;
 	}
 	
 	/** 
@@ -168,17 +198,35 @@ public class LuaTable extends LuaValue {
 	}
 	
 	public void presize( int narray ) {
-		if ( narray > array.length )
-			array = resize( array, narray );
+		if ( narray > capacity() )
+			resizearray( narray );
 	}
 
 	public void presize(int narray, int nhash) {
-		if ( nhash > 0 && nhash < MIN_HASH_CAPACITY )
-			nhash = MIN_HASH_CAPACITY;
-		array = (narray>0? new LuaValue[narray]: NOVALS);
+		if ( nhash > 0 )
+			nhash = hashCapacity(nhash);
+		array = (narray>0? null: NOVALS);
+		intArray = (narray>0? new int[narray]: null);
+		doubleArray = null;
+		numericLength = 0;
+		numberValues = null;
 		hashKeys = (nhash>0? new LuaValue[nhash]: NOVALS);
 		hashValues = (nhash>0? new LuaValue[nhash]: NOVALS);
+		hashCodes = (nhash>0? new int[nhash]: NOHASHES);
 		hashEntries = 0;
+		++version;
+	}
+
+	/** 
+	 * Get the hash part capacity needed to hold a number of entries without rehashing.
+	 * @param nentries number of entries
+	 * @return smallest power of two that holds {@code nentries} below the load factor
+	 */
+	private static int hashCapacity(int nentries) {
+		int n = MIN_HASH_CAPACITY;
+		while ( nentries >= n - (n>>2) )
+			n <<= 1;
+		return n;
 	}
 
 	/** Resize the table */
@@ -188,12 +236,34 @@ public class LuaTable extends LuaValue {
 		return v;
 	}
 	
+	/** Resize the array part, keeping its values and how they are held */
+	private void resizearray( int n ) {
+		if ( array != null ) {
+			array = resize( array, n );
+		} else if ( intArray != null ) {
+			int[] v = new int[n];
+			System.arraycopy(intArray, 0, v, 0, numericLength);
+			intArray = v;
+		} else {
+			double[] v = new double[n];
+			System.arraycopy(doubleArray, 0, v, 0, numericLength);
+			doubleArray = v;
+		}
+		if ( numberValues != null )
+			numberValues = resize( numberValues, n );
+	}
+	
+	/** Get the number of slots in the array part */
+	private int capacity() {
+		return array!=null? array.length: intArray!=null? intArray.length: doubleArray.length;
+	}
+	
 	/** 
 	 * Get the length of the array part of the table. 
 	 * @return length of the array part, does not relate to count of objects in the table. 
 	 */
 	protected int getArrayLength() {
-		return array.length;
+		return capacity();
 	}
 
 	/** 
@@ -243,19 +313,35 @@ public class LuaTable extends LuaValue {
 	}
 
 	public LuaValue rawget( int key ) {
-		if ( key>0 && key<=array.length ) 
-			return array[key-1]!=null? array[key-1]: NIL;
+		if ( key>0 && key<=capacity() ) {
+			LuaValue v = arrayget(key-1);
+			return v!=null? v: NIL;
+		}
 		return hashget( LuaInteger.valueOf(key) );
 	}
 	
 	public LuaValue rawget( LuaValue key ) {
 		if ( key.isinttype() ) {
 			int ikey = key.toint();
-			if ( ikey>0 && ikey<=array.length ) 
-				return array[ikey-1]!=null? array[ikey-1]: NIL;
+			if ( ikey>0 && ikey<=capacity() ) {
+				LuaValue v = arrayget(ikey-1);
+				return v!=null? v: NIL;
+			}
 		}
 		return hashget( key );
 	}
+	
+	/** Get the value in a slot of the array part, or null if it is nil */
+	private LuaValue arrayget( int i ) {
+		if ( array != null )
+			return array[i];
+		if ( i >= numericLength )
+			return null;
+		LuaValue v;
+		if ( numberValues != null && (v = numberValues[i]) != null )
+			return v;
+		return intArray!=null? LuaInteger.valueOf(intArray[i]): valueOf(doubleArray[i]);
+	}
 		
 	protected LuaValue hashget(LuaValue key) {
 		if ( hashEntries > 0 ) {
@@ -290,29 +376,101 @@ public class LuaTable extends LuaValue {
 
 	/** Set an array element */
 	private boolean arrayset( int key, LuaValue value ) {
-		if ( key>0 && key<=array.length ) {
-			array[key-1] = (value.isnil()? null: value);
+		int n = capacity();
+		if ( key>0 && key<=n ) {
+			arraystore(key-1, value);
 			return true;
-		} else if ( key==array.length+1 && !value.isnil() ) {
-			expandarray();
-			array[key-1] = value;
+		} else if ( key==n+1 && !value.isnil() ) {
+			expandarray(value);
 			return true;
 		}
 		return false;
 	}
 
-	/** Expand the array part */
-	private void expandarray() {
-		int n = array.length;
+	/** 
+	 * Store a value in a slot of the array part, 
+	 * changing to boxed values if the numeric array cannot hold it.
+	 */
+	private void arraystore( int i, LuaValue value ) {
+		if ( array == null ) {
+			if ( value.isnil() ) {
+				if ( i >= numericLength )
+					return;
+				if ( i == numericLength-1 ) {
+					--numericLength;
+					if ( numberValues != null )
+						numberValues[i] = null;
+					return;
+				}
+			} else if ( i <= numericLength && value.type() == TNUMBER ) {
+				if ( intArray != null && value.isinttype() ) {
+					intArray[i] = value.toint();
+				} else {
+					if ( intArray != null )
+						todoubles();
+					doubleArray[i] = value.todouble();
+				}
+				// keep the value itself unless reading it back would not allocate
+				if ( value instanceof LuaInteger && LuaInteger.isCached(((LuaInteger) value).v) ) {
+					if ( numberValues != null )
+						numberValues[i] = null;
+				} else {
+					if ( numberValues == null )
+						numberValues = new LuaValue[capacity()];
+					numberValues[i] = value;
+				}
+				if ( i == numericLength )
+					++numericLength;
+				return;
+			}
+			boxarray();
+		}
+		array[i] = (value.isnil()? null: value);
+	}
+	
+	/** Change the array part from integers to numbers */
+	private void todoubles() {
+		double[] v = new double[intArray.length];
+		for ( int i=0; i<numericLength; i++ )
+			v[i] = intArray[i];
+		doubleArray = v;
+		intArray = null;
+	}
+	
+	/** Change the array part from numbers to boxed values */
+	private void boxarray() {
+		LuaValue[] v = new LuaValue[capacity()];
+		for ( int i=0; i<numericLength; i++ )
+			v[i] = arrayget(i);
+		array = v;
+		intArray = null;
+		doubleArray = null;
+		numericLength = 0;
+		numberValues = null;
+	}
+
+	/** Expand the array part to hold a value after its last slot */
+	private void expandarray( LuaValue value ) {
+		int n = capacity();
 		int m = Math.max(2,n*2);
-		array = resize(array, m);
+		if ( n == 0 && value.type() == TNUMBER ) {
+			array = null;
+			intArray = (value.isinttype()? new int[m]: null);
+			doubleArray = (value.isinttype()? null: new double[m]);
+			numericLength = 0;
+			numberValues = null;
+		} else {
+			resizearray(m);
+		}
 		for ( int i=n; i<m; i++ ) {
 			LuaValue k = LuaInteger.valueOf(i+1);
 			LuaValue v = hashget(k);
-			if ( !v.isnil() ) {
+			if ( !v.isnil() )
 				hashset(k, NIL);
-				array[i] = v;
-			}
+			if ( i == n )
+				arraystore(i, value);
+			else if ( !v.isnil() )
+				arraystore(i, v);
 		}
 	}
 
@@ -400,10 +558,11 @@ public class LuaTable extends LuaValue {
 	 * @return value for maxn
 	 */
 	public int maxn() {
-		int n = 0;
-		for ( int i=0; i<array.length; i++ )
-			if ( array[i] != null )
-				n = i+1;
+		int n = numericLength;
+		if ( array != null )
+			for ( int i=0; i<array.length; i++ )
+				if ( array[i] != null )
+					n = i+1;
 		for ( int i=0; i<hashKeys.length; i++ ) {
 			LuaValue v = hashKeys[i];
 			if ( v!=null && v.isinttype() ) {
@@ -421,13 +580,14 @@ public class LuaTable extends LuaValue {
 	 */
 	public Varargs next( LuaValue key ) {
 		int i = 0;
+		final int n = capacity();
 		do {
 			// find current key index
 			if ( ! key.isnil() ) {
 				if ( key.isinttype() ) { 
 					i = key.toint();
-					if ( i>0 && i<=array.length ) {
-						if ( array[i-1] == null )
+					if ( i>0 && i<=n ) {
+						if ( arrayget(i-1) == null )
 							error( "invalid key to 'next'" );
 						break;
 					}
@@ -437,17 +597,19 @@ public class LuaTable extends LuaValue {
 				i = hashFindSlot(key);
 				if ( hashKeys[i] == null )
 					error( "invalid key to 'next'" );
-				i += 1+array.length;
+				i += 1+n;
 			}
 		} while ( false );
 		
 		// check array part
-		for ( ; i<array.length; ++i )
-			if ( array[i] != null )
-				return varargsOf(LuaInteger.valueOf(i+1),array[i]);
+		for ( ; i<n; ++i ) {
+			LuaValue v = arrayget(i);
+			if ( v != null )
+				return varargsOf(LuaInteger.valueOf(i+1),v);
+		}
 
 		// check hash part
-		for ( i-=array.length; i<hashKeys.length; ++i )
+		for ( i-=n; i<hashKeys.length; ++i )
 			if ( hashKeys[i] != null )
 				return varargsOf(hashKeys[i],hashValues[i]);
 		
@@ -508,12 +670,14 @@ public class LuaTable extends LuaValue {
 			if ( hashKeys.length == 0 ) {
 				hashKeys = new LuaValue[ MIN_HASH_CAPACITY ];
 				hashValues = new LuaValue[ MIN_HASH_CAPACITY ];
+				hashCodes = new int[ MIN_HASH_CAPACITY ];
 			}
-			int slot = hashFindSlot( key );
+			final int hash = key.hashCode();
+			int slot = hashFindSlot( key, hash );
 			if ( hashFillSlot( slot, value ) )
 				return;
 			hashKeys[slot] = key;
-			hashValues[slot] = value;
+			hashCodes[slot] = hash;
 			if ( checkLoadFactor() )
 				rehash();
 		}
@@ -524,89 +688,126 @@ public class LuaTable extends LuaValue {
 	 * @param key key to look for
 	 * @return slot to use
 	 */
-	public int hashFindSlot(LuaValue key) {		
-		int i = ( key.hashCode() & 0x7FFFFFFF ) % hashKeys.length;
+	public int hashFindSlot(LuaValue key) {
+		return hashFindSlot(key, key.hashCode());
+	}
+	
+	/** 
+	 * Find the hashtable slot to use
+	 * @param key key to look for
+	 * @param hash the {@link LuaValue#hashCode()} of the key
+	 * @return slot to use
+	 */
+	protected int hashFindSlot(LuaValue key, int hash) {
+		final int mask = hashKeys.length - 1;
+		int i = hash & mask;
 		
 		// This loop is guaranteed to terminate as long as we never allow the
-		// table to get 100% full.
+		// table to get 100% full.  Keys are only compared when their hashes match.
 		LuaValue k;
-		while ( ( k = hashKeys[i] ) != null && !k.raweq(key) ) {
-			i = ( i + 1 ) % hashKeys.length;
+		while ( ( k = hashKeys[i] ) != null && ( hashCodes[i] != hash || !k.raweq(key) ) ) {
+			i = ( i + 1 ) & mask;
 		}
 		return i;
 	}
 
+	/**
+	 * Get the slot holding a key in the hash part, for use by {@link InlineCache}.
+	 * <p>
+	 * Subclasses other than {@link Globals} may override {@link #rawget(LuaValue)}
+	 * or change their contents without changing {@link #version}, 
+	 * such as views of Java objects, so lookups in them are never cached.
+	 * @param key key to look for
+	 * @return slot holding the key, -1 if the key is not in the hash part, 
+	 * or -2 if lookups in this table must not bypass {@link #rawget(LuaValue)}
+	 */
+	int hashSlot(LuaValue key) {
+		Class c = getClass();
+		if ( c != LuaTable.class && c != Globals.class )
+			return -2;
+		if ( hashEntries == 0 )
+			return -1;
+		int slot = hashFindSlot(key);
+		return hashKeys[slot] != null? slot: -1;
+	}
+
 	private boolean hashFillSlot( int slot, LuaValue value ) {
 		hashValues[ slot ] = value;
 		if ( hashKeys[ slot ] != null ) {
 			return true;
 		} else {
 			++hashEntries;
+			++version;
 			return false;
 		}
 	}
 	
 	private void hashRemove( LuaValue key ) {
-		if ( hashKeys.length > 0 ) {
+		if ( hashEntries > 0 ) {
 			int slot = hashFindSlot( key );
 			hashClearSlot( slot );
 		}
 	}
 	
 	/**
-	 * Clear a particular slot in the table
+	 * Clear a particular slot in the table, moving back any entries 
+	 * that would no longer be found by a probe crossing the cleared slot.
 	 * @param i slot to clear.
 	 */
 	protected void hashClearSlot( int i ) {
 		if ( hashKeys[ i ] != null ) {
 			
 			int j = i;
-			int n = hashKeys.length; 
-			while ( hashKeys[ j = ( ( j + 1 ) % n ) ] != null ) {
-				final int k = ( ( hashKeys[ j ].hashCode() )& 0x7FFFFFFF ) % n;
+			final int mask = hashKeys.length - 1; 
+			while ( hashKeys[ j = ( ( j + 1 ) & mask ) ] != null ) {
+				final int k = hashCodes[ j ] & mask;
 				if ( ( j > i && ( k <= i || k > j ) ) ||
 					 ( j < i && ( k <= i && k > j ) ) ) {
 					hashKeys[ i ] = hashKeys[ j ];
 					hashValues[ i ] = hashValues[ j ];
+					hashCodes[ i ] = hashCodes[ j ];
 					i = j;
 				}
 			}
 			
 			--hashEntries;
+			++version;
 			hashKeys[ i ] = null;
 			hashValues[ i ] = null;
-			
-			if ( hashEntries == 0 ) {
-				hashKeys = NOVALS;
-				hashValues = NOVALS;
-			}
 		}
 	}
 
 	private boolean checkLoadFactor() {
-		// Using a load factor of (n+1) >= 7/8 because that is easy to compute without
-		// overflow or division.
+		// Using a load factor of 3/4 because that is easy to compute without
+		// overflow or division, and keeps linear probe sequences short.
 		final int hashCapacity = hashKeys.length;
-		return hashEntries >= (hashCapacity - (hashCapacity>>3));
+		return hashEntries >= (hashCapacity - (hashCapacity>>2));
 	}
 
 	private void rehash() {
 		final int oldCapacity = hashKeys.length;
-		final int newCapacity = oldCapacity+(oldCapacity>>2)+MIN_HASH_CAPACITY;
+		final int newCapacity = oldCapacity << 1;
+		final int mask = newCapacity - 1;
 		
 		final LuaValue[] oldKeys = hashKeys;
 		final LuaValue[] oldValues = hashValues;
+		final int[] oldHashes = hashCodes;
 		
 		hashKeys = new LuaValue[ newCapacity ];
 		hashValues = new LuaValue[ newCapacity ];
+		hashCodes = new int[ newCapacity ];
 		
+		// keys in the old table are distinct, so only empty slots need be found
 		for ( int i = 0; i < oldCapacity; ++i ) {
 			final LuaValue k = oldKeys[i];
 			if ( k != null ) {
-				final LuaValue v = oldValues[i];
-				final int slot = hashFindSlot( k );
+				final int hash = oldHashes[i];
+				int slot = hash & mask;
+				while ( hashKeys[slot] != null )
+					slot = ( slot + 1 ) & mask;
 				hashKeys[slot] = k;
-				hashValues[slot] = v;
+				hashValues[slot] = oldValues[i];
+				hashCodes[slot] = hash;
 			}
 		}
 	}
@@ -621,8 +822,8 @@ public class LuaTable extends LuaValue {
 	 * @param comparator {@link LuaValue} to be called to compare elements.
 	 */
 	public void sort(LuaValue comparator) {
-		int n = array.length;
-		while ( n > 0 && array[n-1] == null )
+		int n = (array!=null? array.length: numericLength);
+		while ( n > 0 && arrayget(n-1) == null )
 			--n;
 		if ( n > 1 ) 
 			heapSort(n, comparator);
@@ -655,8 +856,10 @@ public class LuaTable extends LuaValue {
 	}
 
 	private boolean compare(int i, int j, LuaValue cmpfunc) {
-		LuaValue a = array[i];
-		LuaValue b = array[j];
+		if ( array == null && cmpfunc.isnil() )
+			return intArray!=null? intArray[i] < intArray[j]: doubleArray[i] < doubleArray[j];
+		LuaValue a = arrayget(i);
+		LuaValue b = arrayget(j);
 		if ( a == null || b == null )
 			return false;
 		if ( ! cmpfunc.isnil() ) {
@@ -667,9 +870,24 @@ public class LuaTable extends LuaValue {
 	}
 	
 	private void swap(int i, int j) {
-		LuaValue a = array[i];
-		array[i] = array[j];
-		array[j] = a;
+		if ( array != null ) {
+			LuaValue a = array[i];
+			array[i] = array[j];
+			array[j] = a;
+		} else if ( intArray != null ) {
+			int a = intArray[i];
+			intArray[i] = intArray[j];
+			intArray[j] = a;
+		} else {
+			double a = doubleArray[i];
+			doubleArray[i] = doubleArray[j];
+			doubleArray[j] = a;
+		}
+		if ( array == null && numberValues != null ) {
+			LuaValue a = numberValues[i];
+			numberValues[i] = numberValues[j];
+			numberValues[j] = a;
+		}
 	}
 	
 	/** This may be deprecated in a future release.  
@@ -21,42 +21,60 @@
 ******************************************************************************/
 package org.luaj.vm2;
 
+import java.lang.ref.WeakReference;
+import java.util.Hashtable;
+
+import org.luaj.vm2.lib.CoroutineLib;
 import org.luaj.vm2.lib.DebugLib;
 
 /** 
  * Subclass of {@link LuaValue} that implements 
- * a lua coroutine thread using Java Threads.
+ * a lua coroutine thread.
  * <p>
  * A LuaThread is typically created in response to a scripted call to 
  * {@code coroutine.create()}
  * <p>
- * The threads must be initialized with the globals, so that 
- * the global environment may be passed along according to rules of lua. 
- * This is done via a call to {@link #setGlobals(LuaValue)} 
- * at some point during globals initialization.
- * See {@link BaseLib} for additional documentation and example code.  
+ * Each thread belongs to a {@link Globals}, which tracks the main thread 
+ * and the currently running thread for one lua state. 
+ * Call stacks and debug state are kept per thread, 
+ * so separate {@link Globals} instances do not share any mutable state
+ * and may be run concurrently on separate Java threads.  
+ * <p>
+ * Calls are recorded on the thread the calling Java thread is inside, 
+ * found by {@link #running(Globals)}, rather than on the running thread 
+ * of the lua state the function belongs to. 
+ * A Java thread enters the running thread of a lua state via {@link #enter(Globals)} 
+ * when it makes the outermost call, or a new main thread of that state 
+ * if another Java thread is already inside it, 
+ * so functions of a module shared between lua states may be called 
+ * from the Java threads of each of them at the same time.  
  * <p> 
  * The utility classes {@link JsePlatform} and {@link JmePlatform} 
- * see to it that this initialization is done properly.  
+ * create a {@link Globals} and load the standard libraries into it.
  * For this reason it is highly recommended to use one of these classes
  * when initializing globals. 
  * <p>
  * The behavior of coroutine threads matches closely the behavior 
- * of C coroutine library.  However, because of the use of Java threads 
- * to manage call state, it is possible to yield from anywhere in luaj. 
- * On the other hand, if a {@link LuaThread} is created, then yields 
- * without ever entering a completed state, then the garbage collector 
- * may not be able to determine that the thread needs to be collected, 
- * and this could cause a memory and resource leak.  It is recommended
- * that all coroutines that are created are resumed until they are in 
- * a completed state. 
+ * of C coroutine library.  The body of each coroutine is run on a stack of its own 
+ * by a {@link Coroutine} supplied by a {@link CoroutineFactory}, 
+ * so it is possible to yield from anywhere in luaj. 
+ * The default {@link #MONITOR_FACTORY} uses one Java thread per coroutine 
+ * and is available on all platforms, while {@link CoroutineLib} may be 
+ * constructed with a different factory, such as the one used by {@link JsePlatform}.
+ * <p> 
+ * A suspended coroutine that is no longer referenced is detected 
+ * after its {@link LuaThread} is garbage collected, 
+ * within {@link #orphan_check_interval} milliseconds for {@link #MONITOR_FACTORY}, 
+ * after which its stack is unwound with an {@link OrphanedThread} 
+ * and the Java resources it holds are released. 
  *   
  * @see LuaValue
+ * @see Globals
  * @see JsePlatform
  * @see JmePlatform
  * @see CoroutineLib
  */
-public class LuaThread extends LuaValue implements Runnable {
+public class LuaThread extends LuaValue {
 	
 	public static LuaValue s_metatable;
 	
@@ -64,36 +82,70 @@ public class LuaThread extends LuaValue implements Runnable {
 	private static final int STATUS_RUNNING       = 1;
 	private static final int STATUS_NORMAL        = 2;
 	private static final int STATUS_DEAD          = 3;
-	private static final int STATUS_ERROR         = 4;
 	private static final String[] STATUS_NAMES = { 
 		"suspended", 
 		"running", 
 		"normal", 
 		"dead" };
 	
+	/** Interval in milliseconds at which suspended coroutines check if they have been collected */
+	public static long orphan_check_interval = 5000;
+	
+	/** 
+	 * Thread each Java thread is inside, by Java thread, 
+	 * or a {@link WeakReference} to it while running the body of a coroutine, 
+	 * so that a suspended coroutine may still be collected 
+	 */
+	private static final Hashtable inside = new Hashtable();
+	
+	/** Main threads recently entered, by hash code of the Java thread inside them */
+	private static final LuaThread[] recent = new LuaThread[64];
+	
+	/** Factory for coroutines run on a Java thread each, handing off via {@code wait()} and {@code notify()} */
+	public static final CoroutineFactory MONITOR_FACTORY = new CoroutineFactory() {
+		public Coroutine newCoroutine(LuaThread thread, LuaValue func) {
+			return new MonitorCoroutine(thread, func);
+		}
+	};
+	
 	private int status = STATUS_SUSPENDED;
 	
-	private Thread thread;
+	private final Coroutine coroutine;
 	private LuaValue env;
-	private LuaValue func;
-	private Varargs args;
 	public LuaValue err;
 	
+	/** The lua state this thread belongs to */
+	public final Globals globals;
 	
 	public static final int        MAX_CALLSTACK = 256;
-	public final LuaFunction[]     callstack     = new LuaFunction[MAX_CALLSTACK];
+	private static final int       INITIAL_CALLSTACK = 8;
+	public LuaFunction[]           callstack     = new LuaFunction[INITIAL_CALLSTACK];
 	public int                     calls         = 0;
 
-	private static final LuaThread mainthread = new LuaThread();
-	
-	// state of running thread including call stack
-	private static LuaThread       running_thread    = mainthread;
+	/** Value stacks of returned {@link LuaClosure} calls, by call depth, kept for reuse */
+	private LuaValue[][]           frames        = new LuaValue[INITIAL_CALLSTACK][];
+
+	/** 
+	 * Java thread inside this thread, and the only one that may use {@link #frames}: 
+	 * the one that entered a main thread, or the one running the body of a coroutine, 
+	 * or null while no Java thread is inside it 
+	 */
+	Thread                         owner;
 
 	// thread-local used by DebugLib to store debugging state
 	public Object debugState;
 
 	
-	LuaThread() {		
+	/** 
+	 * Construct the main thread for a {@link Globals}
+	 * @param globals The lua state owning the thread
+	 * @param env The environment of the main thread
+	 */
+	LuaThread(Globals globals, LuaValue env) {
+		this.globals = globals;
+		this.env = env;
+		this.coroutine = null;
+		this.status = STATUS_RUNNING;
 	}
 	
 	/** 
@@ -102,8 +154,32 @@ public class LuaThread extends LuaValue implements Runnable {
 	 * @param env The environment to apply to the thread
 	 */
 	public LuaThread(LuaValue func, LuaValue env) {	
+		this(Globals.forEnv(env), func, env);
+	}
+
+	/** 
+	 * Create a LuaThread around a function and environment 
+	 * within a particular lua state
+	 * @param globals The lua state to run the thread in
+	 * @param func The function to execute
+	 * @param env The environment to apply to the thread
+	 */
+	public LuaThread(Globals globals, LuaValue func, LuaValue env) {	
+		this(globals, func, env, MONITOR_FACTORY);
+	}
+
+	/** 
+	 * Create a LuaThread around a function and environment 
+	 * within a particular lua state, using a specific coroutine implementation
+	 * @param globals The lua state to run the thread in
+	 * @param func The function to execute
+	 * @param env The environment to apply to the thread
+	 * @param factory The {@link CoroutineFactory} supplying the stack to run the function on
+	 */
+	public LuaThread(Globals globals, LuaValue func, LuaValue env, CoroutineFactory factory) {	
+		this.globals = globals;
 		this.env = env;
-		this.func = func;
+		this.coroutine = factory.newCoroutine(this, func);
 	}
 
 	public int type() {
@@ -143,58 +219,196 @@ public class LuaThread extends LuaValue implements Runnable {
 	}
 
 	/**
-	 * Get the currently running thread. 
+	 * Get the thread the current Java thread is inside, 
+	 * or the running thread of the default {@link Globals} if there is none. 
 	 * @return {@link LuaThread} that is currenly running
+	 * @deprecated use {@link #running(Globals)} with the lua state instead 
 	 */
 	public static LuaThread getRunning() {
-		return running_thread;
+		return running(Globals.getDefault());
 	}
 	
 	/**
-	 * Test if this is the main thread 
-	 * @return true if this is the main thread
+	 * Test if this is a main thread 
+	 * @return true if this is a main thread rather than a coroutine
 	 */
 	public static boolean isMainThread(LuaThread r) {		
-		return r == mainthread;
+		return r.coroutine == null;
 	}
 	
 	/** 
-	 * Set the globals of the current thread.
+	 * Set the globals of the current thread of the shared default {@link Globals}.
 	 * <p>
-	 * This must be done once before any other code executes.
+	 * This is only needed when the global table is not itself a {@link Globals}, 
+	 * and must be done once before any other code executes.
 	 * @param globals The global variables for the main ghread. 
+	 * @deprecated use a {@link Globals} as the global table instead
 	 */
 	public static void setGlobals(LuaValue globals) {
-		running_thread.env = globals;
+		Globals.getDefault().running_thread.env = globals;
 	}
 	
-	/** Get the current thread's environment 
+	/** Get the current thread's environment of the shared default {@link Globals}.
 	 * @return {@link LuaValue} containing the global variables of the current thread.
+	 * @deprecated use the {@link Globals} of the lua state instead
 	 */
 	public static LuaValue getGlobals() {
-		LuaValue e = running_thread.env;
+		LuaValue e = Globals.getDefault().running_thread.env;
 		return e!=null? e: LuaValue.error("LuaThread.setGlobals() not initialized");
 	}
 
+	/**
+	 * Get the thread that calls made on the current Java thread are recorded on.
+	 * <p>
+	 * This is the running thread of the lua state if the Java thread is inside it, 
+	 * otherwise the thread the Java thread is inside, which belongs to another lua state 
+	 * when a function shared between lua states is called. 
+	 * If the Java thread is not inside any thread, the running thread of the lua state 
+	 * is returned, but it should then only be read. 
+	 * <p>
+	 * The result should not be held across a call that may yield, 
+	 * so that a coroutine suspended within the call may still be collected.
+	 * @param globals the lua state of the function asking
+	 * @return the {@link LuaThread} of the current Java thread
+	 * @see #enter(Globals)
+	 */
+	public static LuaThread running(Globals globals) {
+		LuaThread t = globals.running_thread;
+		Thread j = Thread.currentThread();
+		if ( t.owner == j )
+			return t;
+		LuaThread r = inside(j);
+		return r != null? r: t;
+	}
+	
+	/** 
+	 * Enter a thread of a lua state on the current Java thread, 
+	 * unless the Java thread is already inside one.
+	 * <p>
+	 * The running thread of the lua state is entered if it is a main thread 
+	 * no other Java thread is inside, otherwise a new main thread of the state, 
+	 * so that calls made at the same time from several Java threads 
+	 * are recorded on separate call stacks.
+	 * @param globals the lua state of the function being called
+	 * @return the thread entered, which must be passed {@link #exit()} when the call returns, 
+	 * or null if the Java thread was already inside a thread 
+	 */
+	public static LuaThread enter(Globals globals) {
+		LuaThread t = globals.running_thread;
+		Thread j = Thread.currentThread();
+		if ( t.owner == j || inside(j) != null )
+			return null;
+		synchronized ( t ) {
+			if ( t.owner == null && t.coroutine == null )
+				t.owner = j;
+			else
+				t = null;
+		}
+		if ( t == null ) {
+			t = new LuaThread(globals, globals.main_thread.env);
+			t.owner = j;
+		}
+		inside.put(j, t);
+		recent[j.hashCode() & (recent.length-1)] = t;
+		return t;
+	}
+	
+	/** 
+	 * Leave a thread entered by {@link #enter(Globals)}, 
+	 * on the Java thread that entered it.
+	 */
+	public final void exit() {
+		inside.remove(Thread.currentThread());
+		synchronized ( this ) {
+			owner = null;
+		}
+	}
+	
+	/** Get the thread a Java thread is inside, or null if there is none */
+	private static LuaThread inside(Thread j) {
+		int h = j.hashCode() & (recent.length-1);
+		LuaThread r = recent[h];
+		if ( r != null && r.owner == j )
+			return r;
+		Object o = inside.get(j);
+		if ( o instanceof WeakReference )
+			return (LuaThread) ((WeakReference) o).get();
+		if ( o != null )
+			recent[h] = (LuaThread) o;
+		return (LuaThread) o;
+	}
+
 	/**
 	 * Callback used at the beginning of a call
 	 * @param function Function being called
 	 * @see DebugLib
 	 */
-	public static final void onCall(LuaFunction function) {
-		running_thread.callstack[running_thread.calls++] = function;
+	public final void onCall(LuaFunction function) {
+		if ( calls == callstack.length && calls < MAX_CALLSTACK ) {
+			LuaFunction[] s = new LuaFunction[Math.min(calls*2, MAX_CALLSTACK)];
+			System.arraycopy(callstack, 0, s, 0, calls);
+			callstack = s;
+		}
+		callstack[calls++] = function;
 		if (DebugLib.DEBUG_ENABLED) 
-			DebugLib.debugOnCall(running_thread, running_thread.calls, function);
+			DebugLib.debugOnCall(this, calls, function);
 	}
 	
 	/**
 	 * Callback used at the end of a call
 	 * @see DebugLib
 	 */
-	public static final void onReturn() {
-		running_thread.callstack[--running_thread.calls] = null;
+	public final void onReturn() {
+		callstack[--calls] = null;
 		if (DebugLib.DEBUG_ENABLED) 
-			DebugLib.debugOnReturn(running_thread, running_thread.calls);
+			DebugLib.debugOnReturn(this, calls);
+	}
+
+	/**
+	 * Get a value stack for a call about to be made at the current call depth.
+	 * <p>
+	 * The stack returned by the last call at this depth is reused if it is large enough, 
+	 * so that calls in loops do not allocate a new stack each time.
+	 * Stacks are only reused by the Java thread inside this thread,
+	 * so an outermost call made before entering it gets a new stack.
+	 * @param size the minimum number of slots needed
+	 * @return array of at least {@code size} slots, all {@link LuaValue#NIL}
+	 * @see #releaseFrame(LuaValue[], int)
+	 */
+	final LuaValue[] getFrame(int size) {
+		LuaValue[] f;
+		int c = calls;
+		if ( owner == Thread.currentThread() && c >= 0 && c < frames.length && (f = frames[c]) != null && f.length >= size ) {
+			frames[c] = null;
+			return f;
+		}
+		f = new LuaValue[size];
+		System.arraycopy(NILS, 0, f, 0, size);
+		return f;
+	}
+
+	/**
+	 * Return a value stack obtained from {@link #getFrame(int)} once the call has returned.
+	 * <p>
+	 * The caller must ensure no {@link UpValue} or {@link Varargs} still refers to the stack.
+	 * @param stack the stack to reuse
+	 * @param size the number of slots that may have been used
+	 */
+	final void releaseFrame(LuaValue[] stack, int size) {
+		int c = calls;
+		if ( owner != Thread.currentThread() || c < 0 )
+			return;
+		if ( c >= frames.length ) {
+			if ( c >= MAX_CALLSTACK )
+				return;
+			LuaValue[][] f = new LuaValue[Math.min(Math.max(c+1, frames.length*2), MAX_CALLSTACK)][];
+			System.arraycopy(frames, 0, f, 0, frames.length);
+			frames = f;
+		}
+		System.arraycopy(NILS, 0, stack, 0, size);
+		LuaValue[] f = frames[c];
+		if ( f == null || f.length < stack.length )
+			frames[c] = stack;
 	}
 
 	/**
@@ -202,8 +416,8 @@ public class LuaThread extends LuaValue implements Runnable {
 	 * @return number of calls in current call stack
 	 * @see DebugLib
 	 */
-	public static int getCallstackDepth() {
-		return running_thread.calls;
+	public int getCallstackDepth() {
+		return calls;
 	}
 
 	/**
@@ -211,49 +425,41 @@ public class LuaThread extends LuaValue implements Runnable {
 	 * @param level 1 for the function calling this one, 2 for the next one.
 	 * @return LuaFunction on the call stack, or null if outside of range of active stack
 	 */
-	public static final LuaFunction getCallstackFunction(int level) {
-		return level>0 && level<=running_thread.calls? 
-			running_thread.callstack[running_thread.calls-level]:
+	public final LuaFunction getCallstackFunction(int level) {
+		return level>0 && level<=calls? 
+			callstack[calls-level]:
 			null;
 	}
 
-	public void run() {
-		synchronized ( this ) {
-			try {
-				this.args = func.invoke(this.args);
-				status = STATUS_DEAD;
-			} catch ( Throwable t ) {
-				String msg = t.getMessage();
-				this.args = valueOf(msg!=null? msg: t.toString());
-				status = STATUS_ERROR;
-			} finally {
-				this.notify();
-			}
-		}
-	}
-	
 	/** Yield this thread with arguments 
+	 * <p>
+	 * The {@link LuaThread} remains reachable from the stack of the coroutine 
+	 * while it is suspended, so callers that may abandon the coroutine 
+	 * should use {@link #yield(Globals, Varargs)} instead.
 	 * 
 	 * @param args The arguments to send as return values to {@link #resume(Varargs)}
 	 * @return {@link Varargs} provided as arguments to {@link #resume(Varargs)}
 	 */
 	public Varargs yield(Varargs args) {
-		synchronized ( this ) {
-			if ( status != STATUS_RUNNING )
-				error(this+" not running");
-			status = STATUS_SUSPENDED;
-			this.args = args;
-			this.notify();
-			try {
-				this.wait();
-				status = STATUS_RUNNING;
-				return this.args;
-			} catch ( InterruptedException e ) {
-				status = STATUS_DEAD;
-				error( "thread interrupted" );
-				return NONE;
-			}
-		}
+		if ( status != STATUS_RUNNING || coroutine == null )
+			error(this+" not running");
+		return coroutine.yield(args);
+	}
+
+	/** Yield the thread the current Java thread is inside with arguments 
+	 * <p>
+	 * No reference to the {@link LuaThread} is kept while it is suspended, 
+	 * so it may be garbage collected if it is never resumed.
+	 * 
+	 * @param globals The lua state of the function yielding
+	 * @param args The arguments to send as return values to {@link #resume(Varargs)}
+	 * @return {@link Varargs} provided as arguments to {@link #resume(Varargs)}
+	 */
+	public static Varargs yield(Globals globals, Varargs args) {
+		Coroutine c = running(globals).coroutine;
+		if ( c == null )
+			error("main thread can't yield");
+		return c.yield(args);
 	}
 
 	/** Start or resume this thread 
@@ -262,55 +468,219 @@ public class LuaThread extends LuaValue implements Runnable {
 	 * @return {@link Varargs} provided as arguments to {@link #yield(Varargs)}
 	 */
 	public Varargs resume(Varargs args) {
-
-		synchronized ( this ) {
- 			if ( status == STATUS_DEAD ) {
- 				return varargsOf(FALSE, valueOf("cannot resume dead coroutine"));
-			}
+		if ( status == STATUS_DEAD )
+			return varargsOf(FALSE, valueOf("cannot resume dead coroutine"));
+		if ( status != STATUS_SUSPENDED || coroutine == null )
+			return varargsOf(FALSE, valueOf("cannot resume non-suspended coroutine"));
+		
+		// set prior thread to normal status while we are running
+		LuaThread prior = running(globals);
+		LuaThread previous = globals.running_thread;
+		try {
+			// set our status to running
+			prior.status = STATUS_NORMAL;
+			globals.running_thread = this;
+			this.status = STATUS_RUNNING;
 			
-			// set prior thread to normal status while we are running
-			LuaThread prior = running_thread;
-			try {
-				// set our status to running
-				prior.status = STATUS_NORMAL;
-				running_thread = this;
-				this.status = STATUS_RUNNING;
-				
-				// copy args in
-				this.args = args;
+			// run the coroutine until it yields or ends
+			Varargs result = coroutine.resume(args);
+			
+			// copy return values from yielding stack state
+			switch ( coroutine.outcome ) {
+			case Coroutine.YIELDED:
+				status = STATUS_SUSPENDED;
+				return varargsOf(TRUE, result);
+			case Coroutine.RETURNED:
+				status = STATUS_DEAD;
+				return varargsOf(TRUE, result);
+			default:
+				status = STATUS_DEAD;
+				return varargsOf(FALSE, result);
+			}
 
-				// start the thread
-				if ( thread == null ) { 
-					thread = new Thread(this);
-					thread.start();
-				}
-				
-				// run this vm until it yields
-				this.notify();
-				this.wait();
-				
-				// copy return values from yielding stack state
-				if ( status == STATUS_ERROR ) {
-					status = STATUS_DEAD;
-					return varargsOf(FALSE, this.args);
-				} else {
-					return varargsOf(TRUE, this.args);
-				}
+		} catch ( InterruptedException e ) {
+			status = STATUS_DEAD;
+			return varargsOf(FALSE, valueOf("thread: "+e));
+			
+		} finally {
+			// previous thread is now running again
+			globals.running_thread = previous;
+			prior.status = STATUS_RUNNING;
+		}
+	}
 	
+	/** 
+	 * Factory for the {@link Coroutine} that runs the body of each new {@link LuaThread}.
+	 * @see LuaThread#MONITOR_FACTORY
+	 * @see CoroutineLib
+	 */
+	public interface CoroutineFactory {
+		/** 
+		 * Create the coroutine to run a function for a thread.
+		 * @param thread the {@link LuaThread} being constructed
+		 * @param func the function the coroutine runs
+		 * @return {@link Coroutine} that will run the function when first resumed 
+		 */
+		public Coroutine newCoroutine(LuaThread thread, LuaValue func);
+	}
+	
+	/**
+	 * Stack on which the body of a {@link LuaThread} runs, 
+	 * and the mechanism that transfers control to and from it.
+	 * <p>
+	 * Control is always held by either the resuming side or the coroutine side, 
+	 * and subclasses only need to supply {@link #start()} and the four 
+	 * signal and await primitives that hand control from one side to the other. 
+	 * Arguments and results are passed through fields of this object, 
+	 * so the primitives must ensure that writes made before a signal 
+	 * are visible after the corresponding await returns.
+	 * <p>
+	 * Only a {@link WeakReference} to the {@link LuaThread} is kept, 
+	 * so that a suspended coroutine that is no longer referenced can be detected 
+	 * by {@link #awaitResumer(long)} timing out, and its stack unwound.
+	 */
+	public static abstract class Coroutine implements Runnable {
+		static final int YIELDED  = 0;
+		static final int RETURNED = 1;
+		static final int ERRORED  = 2;
+		
+		private final WeakReference lua_thread;
+		private LuaValue func;
+		private Varargs args = NONE;
+		private int outcome;
+		private boolean started;
+		
+		protected Coroutine(LuaThread thread, LuaValue func) {
+			this(new WeakReference(thread), func);
+		}
+		
+		/** 
+		 * Construct with a particular kind of reference to the thread, 
+		 * such as one registered with a reference queue.
+		 * @param lua_thread {@link WeakReference} to the {@link LuaThread} this runs the body of 
+		 * @param func the function to run
+		 */
+		protected Coroutine(WeakReference lua_thread, LuaValue func) {
+			this.lua_thread = lua_thread;
+			this.func = func;
+		}
+		
+		/** Begin running {@link #run()} on the coroutine side, leaving the resuming side to await it */
+		protected abstract void start();
+		
+		/** Called on the resuming side to hand control to the coroutine side */
+		protected abstract void signalCoroutine();
+
+		/** Called on the resuming side to wait until the coroutine side yields or ends */
+		protected abstract void awaitCoroutine() throws InterruptedException;
+		
+		/** Called on the coroutine side to hand control back to the resuming side */
+		protected abstract void signalResumer();
+		
+		/** 
+		 * Called on the coroutine side to wait until it is resumed again.
+		 * <p>
+		 * Returning false causes the coroutine to check whether its {@link LuaThread} 
+		 * has been collected, and to wait again if it has not.
+		 * @param timeout maximum time to wait in milliseconds, 
+		 * which may be ignored by implementations that detect collection by other means 
+		 * @return true if resumed, false if the wait timed out 
+		 */
+		protected abstract boolean awaitResumer(long timeout) throws InterruptedException;
+		
+		final Varargs resume(Varargs args) throws InterruptedException {
+			this.args = args;
+			if ( ! started ) {
+				started = true;
+				start();
+			} else {
+				signalCoroutine();
+			}
+			awaitCoroutine();
+			Varargs r = this.args;
+			this.args = NONE;
+			return r;
+		}
+		
+		final Varargs yield(Varargs args) {
+			this.args = args;
+			this.outcome = YIELDED;
+			signalResumer();
+			try {
+				while ( ! awaitResumer(orphan_check_interval) )
+					if ( lua_thread.get() == null )
+						throw new OrphanedThread();
+			} catch ( InterruptedException e ) {
+				error( "thread interrupted" );
+			}
+			Varargs r = this.args;
+			this.args = NONE;
+			return r;
+		}
+		
+		public final void run() {
+			Thread j = Thread.currentThread();
+			LuaThread self = (LuaThread) lua_thread.get();
+			if ( self != null ) {
+				self.owner = j;
+				inside.put(j, lua_thread);
+			}
+			self = null;
+			try {
+				Varargs a = args;
+				args = NONE;
+				args = func.invoke(a);
+				outcome = RETURNED;
+			} catch ( OrphanedThread o ) {
+				return;
 			} catch ( Throwable t ) {
-				status = STATUS_DEAD;
-				try {
-					return varargsOf(FALSE, valueOf("thread: "+t));
-				} finally {
-					this.notify();
-				}
-				
+				String msg = t.getMessage();
+				args = valueOf(msg!=null? msg: t.toString());
+				outcome = ERRORED;
 			} finally {
-				// previous thread is now running again
-				running_thread = prior;
-				prior.status = STATUS_RUNNING;
+				func = null;
+				inside.remove(j);
 			}
+			signalResumer();
+		}
+	}
+	
+	/** 
+	 * {@link Coroutine} that runs on a Java thread of its own 
+	 * and hands off control via {@code wait()} and {@code notify()}, 
+	 * which is available on all platforms.
+	 */
+	private static final class MonitorCoroutine extends Coroutine {
+		private boolean coroutine_turn;
+		
+		MonitorCoroutine(LuaThread thread, LuaValue func) {
+			super(thread, func);
 		}
 		
+		protected synchronized void start() {
+			coroutine_turn = true;
+			new Thread(this).start();
+		}
+		
+		protected synchronized void signalCoroutine() {
+			coroutine_turn = true;
+			notify();
+		}
+		
+		protected synchronized void awaitCoroutine() throws InterruptedException {
+			while ( coroutine_turn )
+				wait();
+		}
+		
+		protected synchronized void signalResumer() {
+			coroutine_turn = false;
+			notify();
+		}
+		
+		protected synchronized boolean awaitResumer(long timeout) throws InterruptedException {
+			if ( ! coroutine_turn )
+				wait(timeout);
+			return coroutine_turn;
+		}
 	}
 }
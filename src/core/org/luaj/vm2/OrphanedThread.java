@@ -0,0 +1,41 @@
+/*******************************************************************************
+* Copyright (c) 2012 LuaJ. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2;
+
+/**
+ * {@link java.lang.Error} thrown on the stack of a suspended coroutine 
+ * when its {@link LuaThread} has been garbage collected, 
+ * to unwind the stack and release the resources held by it.
+ * <p>
+ * This is not a {@link LuaError}, so it is not caught by {@code pcall()}, 
+ * and should not be caught by any code that may run within a coroutine.
+ * 
+ * @see LuaThread
+ * @see LuaThread.Coroutine
+ */
+public class OrphanedThread extends Error {
+	private static final long serialVersionUID = 1L;
+
+	public OrphanedThread() {
+		super("orphaned thread");
+	}
+}
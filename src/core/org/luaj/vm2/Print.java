@@ -141,6 +141,7 @@ public class Print extends Lua {
 	 * @param f the {@link Prototype}
 	 */
 	public static void printCode(Prototype f) {
+		f.decode();
 		int[] code = f.code;
 		int pc, n = code.length;
 		for (pc = 0; pc < n; pc++) {
@@ -165,6 +166,8 @@ public class Print extends Lua {
 	 * @param pc the program counter to look up and print
 	 */
 	public static void printOpCode(PrintStream ps, Prototype f, int pc) {
+		f.decode();
+		f.decodeDebug();
 		int[] code = f.code;
 		int i = code[pc];
 		int o = GET_OPCODE(i);
@@ -272,7 +275,7 @@ public class Print extends Lua {
 	}
 
 	private static int getline(Prototype f, int pc) {
-		return pc>0 && f.lineinfo!=null && pc<f.lineinfo.length? f.lineinfo[pc]: -1;
+		return pc>0? f.getline(pc): -1;
 	}
 
 	static void printHeader(Prototype f) {
@@ -324,6 +327,8 @@ public class Print extends Lua {
 	}
 	
 	public static void printFunction(Prototype f, boolean full) {
+		f.decode();
+		f.decodeDebug();
 		int i, n = f.p.length;
 		printHeader(f);
 		printCode(f);
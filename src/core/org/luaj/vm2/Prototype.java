@@ -21,6 +21,8 @@
 ******************************************************************************/
 package org.luaj.vm2;
 
+import java.util.Hashtable;
+
 /**
  * Prototype representing compiled lua code. 
  * <p>
@@ -33,6 +35,20 @@ package org.luaj.vm2;
  */
 
 public class Prototype {
+	
+	/** Maximum number of names kept in the pool shared by compacted prototypes */
+	public static final int NAME_POOL_SIZE = 4096;
+	
+	/** Byte preceding a line delta that does not fit in one byte */
+	private static final int LINE_ESCAPE = -128;
+
+	private static final int[]       NOINTS      = {};
+	private static final LocVars[]   NOLOCVARS   = {};
+	private static final LuaString[] NOSTRVALUES = {};
+	
+	/** Names of locals and upvalues shared by all compacted prototypes */
+	private static final Hashtable names = new Hashtable();
+	
 	/* constants used by the function */
 	public LuaValue[] k; 
 	public int[] code;
@@ -51,7 +67,176 @@ public class Prototype {
 	public int numparams;
 	public int is_vararg;
 	public int maxstacksize;
+	
+	/* inline caches for field lookups, indexed by pc, created when first needed */
+	InlineCache[] caches;
+	
+	/* calls and backward branches executed, counted while a hotspot compiler is installed */
+	int hotcount;
+	
+	/** Compiled form of this prototype, published by a {@link LuaClosure.HotspotCompiler}, or null */
+	public volatile LuaClosure.CompiledCode compiled;
+	
+	/* chunk from which code, constants and nested prototypes are decoded when first used, or null */
+	volatile IndexedChunk chunk;
+	
+	/* chunk from which debug information is decoded when first used, or null */
+	volatile IndexedChunk debugchunk;
+	
+	/* index of this prototype in its chunk */
+	int index;
+	
+	/* line numbers delta-encoded by compactDebug, when lineinfo is empty, or null */
+	byte[] lines;
+	
+	/**
+	 * Decode the code, constants and nested prototypes of this prototype,  
+	 * if it was loaded from a chunk in {@link LoadState#LUAC_FORMAT_INDEXED} format and not yet decoded.
+	 * <p>
+	 * The interpreter does this before executing a prototype.  
+	 * Other code reading {@link #code}, {@link #k} or {@link #p} 
+	 * of a prototype that may not have been executed should call this first.   
+	 * @see #decodeDebug()
+	 */
+	public void decode() {
+		IndexedChunk c = chunk;
+		if ( c != null )
+			c.decode(this);
+	}
+	
+	/**
+	 * Decode {@link #lineinfo}, {@link #locvars} and {@link #upvalues},
+	 * if this prototype was loaded from a chunk in {@link LoadState#LUAC_FORMAT_INDEXED} format and they are not yet decoded.
+	 * @see #decode()
+	 */
+	public void decodeDebug() {
+		IndexedChunk c = debugchunk;
+		if ( c != null )
+			c.decodeDebug(this);
+	}
 
+	/**
+	 * Get the source line of an instruction, whether or not line numbers are compacted.
+	 * @param pc the program counter
+	 * @return the line number, or -1 if not known
+	 * @see #compactDebug(int)
+	 */
+	public int getline(int pc) {
+		int[] li = lineinfo;
+		if ( li != null && pc >= 0 && pc < li.length )
+			return li[pc];
+		byte[] b = lines;
+		if ( b == null || pc < 0 )
+			return -1;
+		int line = linedefined;
+		for ( int i=0, j=0; j<b.length; i++ ) {
+			int d = b[j++];
+			if ( d == LINE_ESCAPE ) {
+				d = (b[j]<<24) | ((b[j+1]&0xff)<<16) | ((b[j+2]&0xff)<<8) | (b[j+3]&0xff);
+				j += 4;
+			}
+			line += d;
+			if ( i == pc )
+				return line;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Get the source line of every instruction, expanding them if they are compacted.
+	 * @return array of line numbers indexed by program counter, which may be empty
+	 * @see #compactDebug(int)
+	 */
+	public int[] getlineinfo() {
+		decodeDebug();
+		byte[] b = lines;
+		if ( b == null )
+			return lineinfo;
+		int n = 0;
+		for ( int j=0; j<b.length; n++ )
+			j += b[j] == LINE_ESCAPE? 5: 1;
+		int[] li = new int[n];
+		for ( int i=0; i<n; i++ )
+			li[i] = getline(i);
+		return li;
+	}
+	
+	/**
+	 * Reduce the memory held by the debug information of this prototype,
+	 * but not of its nested prototypes.
+	 * <p>
+	 * At {@link LoadState#DEBUGINFO_COMPACT} line numbers are delta-encoded in about one byte per instruction, 
+	 * and names of locals and upvalues are replaced by equal names shared by other compacted prototypes.
+	 * {@link #lineinfo} is then empty, and line numbers are available from {@link #getline(int)}.
+	 * At {@link LoadState#DEBUGINFO_LINES} names are dropped as well, 
+	 * leaving only what is needed for line numbers in error messages and tracebacks, 
+	 * and at {@link LoadState#DEBUGINFO_NONE} all debug information is dropped.
+	 * @param level one of {@link LoadState#DEBUGINFO_FULL}, {@link LoadState#DEBUGINFO_COMPACT}, 
+	 * {@link LoadState#DEBUGINFO_LINES} or {@link LoadState#DEBUGINFO_NONE}
+	 * @see LoadState#debuginfo
+	 */
+	public void compactDebug(int level) {
+		decodeDebug();
+		compact(level);
+	}
+	
+	/** Reduce the memory held by debug information that has already been decoded */
+	void compact(int level) {
+		if ( level <= LoadState.DEBUGINFO_FULL )
+			return;
+		if ( level >= LoadState.DEBUGINFO_NONE ) {
+			lines = null;
+			lineinfo = NOINTS;
+		} else if ( lines == null && lineinfo != null && lineinfo.length > 0 ) {
+			int[] li = lineinfo;
+			byte[] b = new byte[li.length * 5];
+			int j = 0;
+			for ( int i=0, prev=linedefined; i<li.length; prev=li[i++] ) {
+				int d = li[i] - prev;
+				if ( d > LINE_ESCAPE && d <= 127 ) {
+					b[j++] = (byte) d;
+				} else {
+					b[j++] = (byte) LINE_ESCAPE;
+					b[j++] = (byte) (d>>24);
+					b[j++] = (byte) (d>>16);
+					b[j++] = (byte) (d>>8);
+					b[j++] = (byte) d;
+				}
+			}
+			lines = new byte[j];
+			System.arraycopy(b, 0, lines, 0, j);
+			lineinfo = NOINTS;
+		}
+		if ( level >= LoadState.DEBUGINFO_LINES ) {
+			locvars = NOLOCVARS;
+			upvalues = NOSTRVALUES;
+			return;
+		}
+		if ( locvars != null ) {
+			if ( locvars.length == 0 )
+				locvars = NOLOCVARS;
+			for ( int i=0; i<locvars.length; i++ )
+				locvars[i].varname = name(locvars[i].varname);
+		}
+		if ( upvalues != null ) {
+			if ( upvalues.length == 0 )
+				upvalues = NOSTRVALUES;
+			for ( int i=0; i<upvalues.length; i++ )
+				upvalues[i] = name(upvalues[i]);
+		}
+	}
+	
+	/** Get the shared instance of a name, adding it to the pool if there is room */
+	private static LuaString name(LuaString s) {
+		if ( s == null )
+			return null;
+		LuaString v = (LuaString) names.get(s);
+		if ( v != null )
+			return v;
+		if ( names.size() < NAME_POOL_SIZE )
+			names.put(s, s);
+		return s;
+	}
 	
 	public String toString() {
 		return source + ":" + linedefined+"-"+lastlinedefined;
@@ -64,6 +249,7 @@ public class Prototype {
 	 * @return the name, or null if not found
 	 */
 	public LuaString getlocalname(int number, int pc) {
+	  decodeDebug();
 	  int i;
 	  for (i = 0; i<locvars.length && locvars[i].startpc <= pc; i++) {
 	    if (pc < locvars[i].endpc) {  /* is variable active? */
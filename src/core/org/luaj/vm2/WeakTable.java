@@ -168,8 +168,9 @@ public class WeakTable extends LuaTable {
 
 	
 	// override to remove values for weak keys as we search
-	public int hashFindSlot(LuaValue key) {		
-		int i = ( key.hashCode() & 0x7FFFFFFF ) % hashKeys.length;
+	protected int hashFindSlot(LuaValue key, int hash) {
+		int mask = hashKeys.length - 1;
+		int i = hash & mask;
 		LuaValue k;
 		while ( ( k = hashKeys[i] ) != null ) {
 			if ( k.isweaknil() ) {
@@ -178,14 +179,19 @@ public class WeakTable extends LuaTable {
 					return 0;
 			}
 			else {
-				if ( k.raweq(key) )
+				if ( hashCodes[i] == hash && k.raweq(key) )
 					return i;
-				i = ( i + 1 ) % hashKeys.length;
+				i = ( i + 1 ) & mask;
 			}
 		}
 		return i;
 	}
 	
+	// values are wrapped, so must always be looked up via rawget
+	int hashSlot(LuaValue key) {
+		return -2;
+	}
+	
 	public int maxn() {
 		return super.maxn();
 	}
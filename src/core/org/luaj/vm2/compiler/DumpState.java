@@ -21,10 +21,13 @@
 ******************************************************************************/
 package org.luaj.vm2.compiler;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Vector;
 
+import org.luaj.vm2.LoadState;
 import org.luaj.vm2.LocVars;
 import org.luaj.vm2.Prototype;
 import org.luaj.vm2.LuaString;
@@ -42,6 +45,12 @@ public class DumpState {
 	/** for header of binary files -- this is the official format */
 	public static final int LUAC_FORMAT		= 0;
 
+	/** for header of binary files -- luaj format with an index of prototypes, which are loaded when first used */
+	public static final int LUAC_FORMAT_INDEXED	= LoadState.LUAC_FORMAT_INDEXED;
+
+	/** number of bytes in each entry of the index of an indexed chunk */
+	private static final int INDEX_ENTRY_SIZE = 28;
+
 	/** size of header of binary files */
 	public static final int LUAC_HEADERSIZE		= 12;
 
@@ -67,6 +76,7 @@ public class DumpState {
 	private boolean IS_LITTLE_ENDIAN = false;
 	private int NUMBER_FORMAT = NUMBER_FORMAT_DEFAULT;
 	private int SIZEOF_LUA_NUMBER = 8;
+	private int FORMAT = LUAC_FORMAT;
 	private static final int SIZEOF_INT = 4;
 	private static final int SIZEOF_SIZET = 4;
 	private static final int SIZEOF_INSTRUCTION = 4;
@@ -126,6 +136,14 @@ public class DumpState {
 	}
 	
 	void dumpConstants(final Prototype f) throws IOException {
+		dumpValues(f);
+		int i, n = f.p.length;
+		dumpInt(n);
+		for (i = 0; i < n; i++)
+			dumpFunction(f.p[i], f.source);
+	}
+	
+	void dumpValues(final Prototype f) throws IOException {
 		final LuaValue[] k = f.k;
 		int i, n = k.length;
 		dumpInt(n);
@@ -172,18 +190,15 @@ public class DumpState {
 				throw new IllegalArgumentException("bad type for " + o);			
 			}
 		}
-		n = f.p.length;
-		dumpInt(n);
-		for (i = 0; i < n; i++)
-			dumpFunction(f.p[i], f.source);
 	}
 	
 	void dumpDebug(final Prototype f) throws IOException {
 		int i, n;
-		n = (strip) ? 0 : f.lineinfo.length;
+		int[] lineinfo = f.getlineinfo();
+		n = (strip) ? 0 : lineinfo.length;
 		dumpInt(n);
 		for (i = 0; i < n; i++)
-			dumpInt(f.lineinfo[i]);
+			dumpInt(lineinfo[i]);
 		n = (strip) ? 0 : f.locvars.length;
 		dumpInt(n);
 		for (i = 0; i < n; i++) {
@@ -199,6 +214,7 @@ public class DumpState {
 	}
 	
 	void dumpFunction(final Prototype f, final LuaString string) throws IOException {
+		f.decode();
 		if ( f.source == null || f.source.equals(string) || strip )
 			dumpInt(0);
 		else
@@ -217,7 +233,7 @@ public class DumpState {
 	void dumpHeader() throws IOException {
 		writer.write( LUAC_HEADER_SIGNATURE );
 		writer.write( LUAC_VERSION );
-		writer.write( LUAC_FORMAT );
+		writer.write( FORMAT );
 		writer.write( IS_LITTLE_ENDIAN? 1: 0 );
 		writer.write( SIZEOF_INT );
 		writer.write( SIZEOF_SIZET );
@@ -237,7 +253,26 @@ public class DumpState {
 	}
 
 	/**
-	 * 
+	 * Dump a function and all nested functions as a chunk in {@link #LUAC_FORMAT_INDEXED} format,
+	 * from which {@link LoadState} decodes each prototype only when it is first used.
+	 * <p>
+	 * The chunk starts with the usual header, 
+	 * and each prototype is stored as in the official format, 
+	 * except that the body and debug information of each are stored separately, 
+	 * located by an index of all the prototypes.   
+	 * @param f the function to dump
+	 * @param w the output stream to dump to
+	 * @param stripDebug true to strip debugging info, false otherwise
+	 * @return 0 if dump succeeds
+	 * @throws IOException
+	 * @see LoadState#loadBinaryChunk(org.luaj.vm2.LoadState.ChunkSource, String)
+	 */
+	public static int dumpIndexed(Prototype f, OutputStream w, boolean stripDebug) throws IOException {
+		return dumpIndexed(f, w, stripDebug, NUMBER_FORMAT_DEFAULT, false);
+	}
+
+	/**
+	 * Dump a function and all nested functions as a chunk in {@link #LUAC_FORMAT_INDEXED} format.
 	 * @param f the function to dump
 	 * @param w the output stream to dump to
 	 * @param stripDebug true to strip debugging info, false otherwise
@@ -246,8 +281,77 @@ public class DumpState {
 	 * @return 0 if dump succeeds
 	 * @throws IOException
 	 * @throws IllegalArgumentException if the number format it not supported
+	 * @see #dumpIndexed(Prototype, OutputStream, boolean)
 	 */
-	public static int dump(Prototype f, OutputStream w, boolean stripDebug, int numberFormat, boolean littleendian) throws IOException {
+	public static int dumpIndexed(Prototype f, OutputStream w, boolean stripDebug, int numberFormat, boolean littleendian) throws IOException {
+		DumpState D = create(w, stripDebug, numberFormat, littleendian);
+		D.FORMAT = LUAC_FORMAT_INDEXED;
+		D.dumpHeader();
+
+		// number the prototypes breadth first, dumping the body and debug information of each
+		Vector protos = new Vector();
+		Vector parents = new Vector();
+		ByteArrayOutputStream sections = new ByteArrayOutputStream();
+		DumpState S = create(sections, stripDebug, numberFormat, littleendian);
+		protos.addElement(f);
+		parents.addElement(f);
+		int[] offsets = new int[4];
+		for ( int i=0; i<protos.size(); i++ ) {
+			Prototype p = (Prototype) protos.elementAt(i);
+			Prototype parent = (Prototype) parents.elementAt(i);
+			p.decode();
+			if ( offsets.length < (i+1)*4 ) {
+				int[] o = new int[offsets.length*2];
+				System.arraycopy(offsets, 0, o, 0, offsets.length);
+				offsets = o;
+			}
+			offsets[i*4] = sections.size();
+			if ( p.source == null || (i > 0 && p.source.equals(parent.source)) || stripDebug )
+				S.dumpInt(0);
+			else
+				S.dumpString(p.source);
+			S.dumpCode(p);
+			S.dumpValues(p);
+			int n = p.p.length;
+			S.dumpInt(n);
+			for ( int j=0; j<n; j++ ) {
+				S.dumpInt(protos.size());
+				protos.addElement(p.p[j]);
+				parents.addElement(p);
+			}
+			S.writer.flush();
+			offsets[i*4+1] = sections.size() - offsets[i*4];
+			offsets[i*4+2] = sections.size();
+			if ( !stripDebug )
+				S.dumpDebug(p);
+			S.writer.flush();
+			offsets[i*4+3] = sections.size() - offsets[i*4+2];
+		}
+
+		// index, with offsets relative to its start
+		int n = protos.size();
+		int base = 4 + n * INDEX_ENTRY_SIZE;
+		D.dumpInt(n);
+		for ( int i=0; i<n; i++ ) {
+			Prototype p = (Prototype) protos.elementAt(i);
+			D.dumpInt(p.linedefined);
+			D.dumpInt(p.lastlinedefined);
+			D.dumpChar(p.nups);
+			D.dumpChar(p.numparams);
+			D.dumpChar(p.is_vararg);
+			D.dumpChar(p.maxstacksize);
+			D.dumpInt(base + offsets[i*4]);
+			D.dumpInt(offsets[i*4+1]);
+			D.dumpInt(base + offsets[i*4+2]);
+			D.dumpInt(offsets[i*4+3]);
+		}
+		D.writer.write(sections.toByteArray());
+		D.writer.flush();
+		return D.status;
+	}
+
+	/** Create a dump state for a number format and byte order */
+	private static DumpState create(OutputStream w, boolean stripDebug, int numberFormat, boolean littleendian) {
 		switch ( numberFormat ) {
 		case NUMBER_FORMAT_FLOATS_OR_DOUBLES:
 		case NUMBER_FORMAT_INTS_ONLY:
@@ -260,6 +364,22 @@ public class DumpState {
 		D.IS_LITTLE_ENDIAN = littleendian;
 		D.NUMBER_FORMAT = numberFormat;
 		D.SIZEOF_LUA_NUMBER = (numberFormat==NUMBER_FORMAT_INTS_ONLY? 4: 8);
+		return D;
+	}
+
+	/**
+	 * 
+	 * @param f the function to dump
+	 * @param w the output stream to dump to
+	 * @param stripDebug true to strip debugging info, false otherwise
+	 * @param numberFormat one of NUMBER_FORMAT_FLOATS_OR_DOUBLES, NUMBER_FORMAT_INTS_ONLY, NUMBER_FORMAT_NUM_PATCH_INT32
+	 * @param littleendian true to use little endian for numbers, false for big endian
+	 * @return 0 if dump succeeds
+	 * @throws IOException
+	 * @throws IllegalArgumentException if the number format it not supported
+	 */
+	public static int dump(Prototype f, OutputStream w, boolean stripDebug, int numberFormat, boolean littleendian) throws IOException {
+		DumpState D = create(w, stripDebug, numberFormat, littleendian);
 		D.dumpHeader();
 		D.dumpFunction(f,null);
 		return D.status;
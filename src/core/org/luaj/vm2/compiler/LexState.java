@@ -29,6 +29,7 @@ import org.luaj.vm2.LuaInteger;
 import org.luaj.vm2.LocVars;
 import org.luaj.vm2.Lua;
 import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LoadState;
 import org.luaj.vm2.Prototype;
 import org.luaj.vm2.LuaString;
 import org.luaj.vm2.LuaValue;
@@ -61,6 +62,7 @@ public class LexState {
                                
     private static final int EOZ    = (-1);
 	private static final int MAXSRC = 80;
+	private static final int ZBUFSIZE = 4096;
 	private static final int MAX_INT = Integer.MAX_VALUE-2;
 	private static final int UCHAR_MAX = 255; // TODO, convert to unicode CHAR_MAX? 
 	private static final int LUAI_MAXCCALLS = 200;
@@ -136,7 +138,10 @@ public class LexState {
 	final Token lookahead = new Token();  /* look ahead token */
 	FuncState fs;  /* `FuncState' is private to the parser */
 	LuaC L;
-	InputStream z;  /* input stream */
+	InputStream z;  /* input stream, or null when reading from an array or at end of stream */
+	byte[] zbuf;  /* buffered input */
+	int zpos;  /* position of next byte in zbuf */
+	int zlen;  /* end of buffered input in zbuf */
 	byte[] buff;  /* buffer for tokens */
 	int nbuff; /* length of buffer */
 	LuaString source;  /* current source name */
@@ -202,12 +207,28 @@ public class LexState {
 	}
 
 	void nextChar() {
+		current = zpos < zlen? zbuf[zpos++] & 0xff: fill();
+	}
+
+	/** Refill the input buffer from the stream, returning the next byte or EOZ */
+	private int fill() {
+		if ( z == null )
+			return EOZ;
 		try {
- 			current = z.read();
+			int n;
+			while ( (n = z.read(zbuf, 0, zbuf.length)) == 0 )
+				;
+			if ( n > 0 ) {
+				zpos = 1;
+				zlen = n;
+				return zbuf[0] & 0xff;
+			}
 		} catch ( IOException e ) {
 			e.printStackTrace();
-			current = EOZ;
 		}
+		z = null;
+		zpos = zlen = 0;
+		return EOZ;
 	}
 
 	boolean currIsNewline() {
@@ -300,10 +321,26 @@ public class LexState {
 	}
 
 	void setinput( LuaC L, int firstByte, InputStream z, LuaString source ) {
+		this.z = z;
+		this.zbuf = new byte[ZBUFSIZE];
+		this.zpos = this.zlen = 0;
+		setinput( L, firstByte, source );
+	}
+
+	/** Set the input to bytes already in memory, which are read directly rather than through a stream */
+	void setinput( LuaC L, byte[] bytes, int offset, int length, LuaString source ) {
+		this.z = null;
+		this.zbuf = bytes;
+		this.zpos = offset;
+		this.zlen = offset + length;
+		nextChar();
+		setinput( L, current, source );
+	}
+
+	private void setinput( LuaC L, int firstByte, LuaString source ) {
 		this.decpoint = '.';
 		this.L = L;
 		this.lookahead.token = TK_EOS; /* no look-ahead token */
-		this.z = z;
 		this.fs = null;
 		this.linenumber = 1;
 		this.lastline = 1;
@@ -932,6 +969,7 @@ public class LexState {
 		f.locvars = LuaC.realloc(f.locvars, fs.nlocvars);
 		// f.sizelocvars = fs.nlocvars;
 		f.upvalues = LuaC.realloc(f.upvalues, f.nups);
+		f.compactDebug(LoadState.debuginfo);
 		// LuaC._assert (CheckCode.checkcode(f));
 		LuaC._assert (fs.bl == null);
 		this.fs = fs.prev;
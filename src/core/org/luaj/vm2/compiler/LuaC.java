@@ -201,17 +201,48 @@ public class LuaC extends Lua implements LuaCompiler {
 	/** Compile a prototype or load as a binary chunk */
 	public static Prototype compile(InputStream stream, String name) throws IOException {
 		int firstByte = stream.read();
-		return ( firstByte == '\033' )?
-			LoadState.loadBinaryChunk(firstByte, stream, name):
-			(new LuaC(new Hashtable())).luaY_parser(firstByte, stream, name);
+		if ( firstByte == '\033' )
+			return LoadState.loadBinaryChunk(firstByte, stream, name);
+		LuaC c = new LuaC(new Hashtable());
+		LexState lexstate = new LexState(c, stream);
+		lexstate.setinput( c, firstByte, stream, (LuaString) LuaValue.valueOf(name) );
+		return c.luaY_parser(lexstate, name);
+	}
+
+	/** 
+	 * Compile a prototype or load as a binary chunk from bytes already in memory, 
+	 * without wrapping them in a stream.
+	 * <p>
+	 * The bytes are not retained or modified.   
+	 * @param bytes array containing the source or binary chunk
+	 * @param offset offset of the first byte in the array
+	 * @param length number of bytes
+	 * @param name name of the chunk
+	 * @return {@link Prototype} for the chunk
+	 */
+	public static Prototype compile(byte[] bytes, int offset, int length, String name) throws IOException {
+		if ( length > 0 && bytes[offset] == '\033' )
+			return LoadState.loadBinaryChunk(bytes, offset, length, name);
+		LuaC c = new LuaC(new Hashtable());
+		LexState lexstate = new LexState(c, null);
+		lexstate.setinput( c, bytes, offset, length, (LuaString) LuaValue.valueOf(name) );
+		return c.luaY_parser(lexstate, name);
+	}
+
+	/** 
+	 * Compile a prototype or load as a binary chunk from the bytes of a {@link LuaString}.
+	 * @param source the source or binary chunk
+	 * @param name name of the chunk
+	 * @return {@link Prototype} for the chunk
+	 * @see #compile(byte[], int, int, String)
+	 */
+	public static Prototype compile(LuaString source, String name) throws IOException {
+		return compile(source.m_bytes, source.m_offset, source.m_length, name);
 	}
 
 	/** Parse the input */
-	private Prototype luaY_parser(int firstByte, InputStream z, String name) {
-		LexState lexstate = new LexState(this, z);
+	private Prototype luaY_parser(LexState lexstate, String name) {
 		FuncState funcstate = new FuncState();
-		// lexstate.buff = buff;
-		lexstate.setinput( this, firstByte, z, (LuaString) LuaValue.valueOf(name) );
 		lexstate.open_func(funcstate);
 		/* main func. is always vararg */
 		funcstate.f.is_vararg = LuaC.VARARG_ISVARARG;
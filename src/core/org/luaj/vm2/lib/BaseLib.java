@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
 
+import org.luaj.vm2.Globals;
 import org.luaj.vm2.LoadState;
 import org.luaj.vm2.Lua;
 import org.luaj.vm2.LuaError;
@@ -31,6 +32,7 @@ import org.luaj.vm2.LuaString;
 import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaThread;
 import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.OrphanedThread;
 import org.luaj.vm2.Varargs;
 
 /** 
@@ -53,8 +55,7 @@ import org.luaj.vm2.Varargs;
  * To instantiate and use it directly, 
  * link it into your globals table via {@link LuaValue#load(LuaValue)} using code such as:
  * <pre> {@code
- * LuaTable _G = new LuaTable();
- * LuaThread.setGlobals(_G);
+ * Globals _G = new Globals();
  * _G.load(new BaseLib());
  * _G.get("print").call(LuaValue.valueOf("hello, world"));
  * } </pre>
@@ -179,7 +180,7 @@ public class BaseLib extends OneArgFunction implements ResourceFinder {
 				throw new LuaError( arg1.isnil()? null: arg1.tojstring(), arg2.optint(1) );
 			case 2: { // "setfenv", // (f, table) -> void
 				LuaTable t = arg2.checktable();
-				LuaValue f = getfenvobj(arg1);
+				LuaValue f = getfenvobj(LuaThread.running(globals()), arg1);
 				if ( ! f.isfunction() && ! f.isclosure() )
 					error("'setfenv' cannot change environment of given object");
 			    f.setfenv(t);
@@ -190,14 +191,14 @@ public class BaseLib extends OneArgFunction implements ResourceFinder {
 		}
 	}
 	
-	private static LuaValue getfenvobj(LuaValue arg) {
+	private static LuaValue getfenvobj(LuaThread running, LuaValue arg) {
 		if ( arg.isfunction() )
 			return arg;
 		int level = arg.optint(1);
 	    arg.argcheck(level>=0, 1, "level must be non-negative");
 		if ( level == 0 )
-			return LuaThread.getRunning();
-		LuaValue f = LuaThread.getCallstackFunction(level);
+			return running;
+		LuaValue f = running.getCallstackFunction(level);
 	    arg.argcheck(f != null, 1, "invalid level");
 	    return f;
 	}
@@ -213,13 +214,13 @@ public class BaseLib extends OneArgFunction implements ResourceFinder {
 			case 1: // "dofile", // ( filename ) -> result1, ...
 			{
 				Varargs v = args.isnil(1)? 
-						BaseLib.loadStream( baselib.STDIN, "=stdin" ):
-						BaseLib.loadFile( args.checkjstring(1) );
+						BaseLib.loadStream( baselib.STDIN, "=stdin", globalsTable() ):
+						BaseLib.loadFile( args.checkjstring(1), globalsTable() );
 				return v.isnil(1)? error(v.tojstring(2)): v.arg1().invoke();
 			}
 			case 2: // "getfenv", // ( [f] ) -> env
 			{
-				LuaValue f = getfenvobj(args.arg1());
+				LuaValue f = getfenvobj(LuaThread.running(globals()), args.arg1());
 			    LuaValue e = f.getfenv();
 				return e!=null? e: NIL;
 			}
@@ -232,42 +233,60 @@ public class BaseLib extends OneArgFunction implements ResourceFinder {
 			{
 				LuaValue func = args.checkfunction(1);
 				String chunkname = args.optjstring(2, "function");
-				return BaseLib.loadStream(new StringInputStream(func), chunkname);
+				return BaseLib.loadStream(new StringInputStream(func), chunkname, globalsTable());
 			}
 			case 5: // "loadfile", // ( [filename] ) -> chunk | nil, msg
 			{
 				return args.isnil(1)? 
-					BaseLib.loadStream( baselib.STDIN, "stdin" ):
-					BaseLib.loadFile( args.checkjstring(1) );
+					BaseLib.loadStream( baselib.STDIN, "stdin", globalsTable() ):
+					BaseLib.loadFile( args.checkjstring(1), globalsTable() );
 			}
 			case 6: // "loadstring", // ( string [,chunkname] ) -> chunk | nil, msg
 			{
 				LuaString script = args.checkstring(1);
 				String chunkname = args.optjstring(2, "string");
-				return BaseLib.loadStream(script.toInputStream(),chunkname);
+				return BaseLib.loadStream(script.toInputStream(),chunkname,globalsTable());
 			}
 			case 7: // "pcall", // (f, arg1, ...) -> status, result1, ...
 			{
 				LuaValue func = args.checkvalue(1);
-				LuaThread.onCall(this);
+				final Globals g = globals();
+				final LuaThread entered = LuaThread.enter(g);
+				boolean orphaned = false;
+				LuaThread.running(g).onCall(this);
 				try {
-					return pcall(func,args.subargs(2),null);
+					return pcall(g,func,args.subargs(2),null);
+				} catch ( OrphanedThread ot ) {
+					orphaned = true;
+					throw ot;
 				} finally {
-					LuaThread.onReturn();
+					if ( ! orphaned )
+						LuaThread.running(g).onReturn();
+					if ( entered != null )
+						entered.exit();
 				}
 			}
 			case 8: // "xpcall", // (f, err) -> result1, ...				
 			{
-				LuaThread.onCall(this);
+				final Globals g = globals();
+				final LuaThread entered = LuaThread.enter(g);
+				boolean orphaned = false;
+				LuaThread.running(g).onCall(this);
 				try {
-					return pcall(args.arg1(),NONE,args.checkvalue(2));
+					return pcall(g,args.arg1(),NONE,args.checkvalue(2));
+				} catch ( OrphanedThread ot ) {
+					orphaned = true;
+					throw ot;
 				} finally {
-					LuaThread.onReturn();
+					if ( ! orphaned )
+						LuaThread.running(g).onReturn();
+					if ( entered != null )
+						entered.exit();
 				}
 			}
 			case 9: // "print", // (...) -> void
 			{
-				LuaValue tostring = LuaThread.getGlobals().get("tostring"); 
+				LuaValue tostring = globalsTable().get("tostring"); 
 				for ( int i=1, n=args.narg(); i<=n; i++ ) {
 					if ( i>1 ) baselib.STDOUT.write( '\t' );
 					LuaString s = tostring.call( args.arg(i) ).strvalue();
@@ -354,17 +373,54 @@ public class BaseLib extends OneArgFunction implements ResourceFinder {
 			}
 			return NONE;
 		}
+		
+		/** Get the global table of the running thread, used as the environment for loaded chunks */
+		private LuaValue globalsTable() {
+			return LuaThread.running(globals()).getfenv();
+		}
 	}
 
+	/** 
+	 * Call a function in protected mode on the thread the current Java thread is inside, 
+	 * or on the default {@link Globals}.
+	 * @deprecated use {@link #pcall(Globals, LuaValue, Varargs, LuaValue)} instead 
+	 */
 	public static Varargs pcall(LuaValue func, Varargs args, LuaValue errfunc) {
+		return pcall(Globals.getDefault(), func, args, errfunc);
+	}
+	
+	/** 
+	 * Call a function in protected mode on the thread the current Java thread is inside, 
+	 * catching any errors. 
+	 * <p>
+	 * The thread is looked up rather than held across the call, 
+	 * so a coroutine that yields within the call and is abandoned may still be collected. 
+	 * @param globals the {@link Globals} whose running thread is entered if the Java thread is not inside one
+	 * @param func the function to call
+	 * @param args the arguments to the function
+	 * @param errfunc error handler to call with the error message, or null 
+	 * @return Varargs containing true followed by results, or false and the error message 
+	 */
+	public static Varargs pcall(Globals globals, LuaValue func, Varargs args, LuaValue errfunc) {
+		final LuaThread entered = LuaThread.enter(globals);
+		LuaValue olderr = LuaThread.running(globals).err;
+		boolean orphaned = false;
 		try {
-			LuaThread thread = LuaThread.getRunning();
-			LuaValue olderr = thread.err;
 			try {
-				thread.err = errfunc;
+				LuaThread.running(globals).err = errfunc;
 				return varargsOf(LuaValue.TRUE, func.invoke(args));
+			} catch ( LuaError le ) {
+				le.process(LuaThread.running(globals));
+				throw le;
+			} catch ( OrphanedThread ot ) {
+				orphaned = true;
+				throw ot;
 			} finally {
-				thread.err = olderr;
+				// an orphaned coroutine is unwound while another thread is running
+				if ( ! orphaned )
+					LuaThread.running(globals).err = olderr;
+				if ( entered != null )
+					entered.exit();
 			}
 		} catch ( LuaError le ) {
 			String m = le.getMessage();
@@ -376,15 +432,27 @@ public class BaseLib extends OneArgFunction implements ResourceFinder {
 	}
 	
 	/** 
-	 * Load from a named file, returning the chunk or nil,error of can't load
+	 * Load from a named file using the globals of the default {@link Globals}, 
+	 * returning the chunk or nil,error of can't load
 	 * @return Varargs containing chunk, or NIL,error-text on error
+	 * @deprecated use {@link #loadFile(String, LuaValue)} instead 
 	 */
 	public static Varargs loadFile(String filename) {
+		return loadFile(filename, LuaThread.getGlobals());
+	}
+	
+	/** 
+	 * Load from a named file, returning the chunk or nil,error of can't load
+	 * @param filename the name of the file to load
+	 * @param env the environment for the loaded chunk
+	 * @return Varargs containing chunk, or NIL,error-text on error
+	 */
+	public static Varargs loadFile(String filename, LuaValue env) {
 		InputStream is = FINDER.findResource(filename);
 		if ( is == null )
 			return varargsOf(NIL, valueOf("cannot open "+filename+": No such file or directory"));
 		try {
-			return loadStream(is, "@"+filename);
+			return loadStream(is, "@"+filename, env);
 		} finally {
 			try {
 				is.close();
@@ -394,40 +462,72 @@ public class BaseLib extends OneArgFunction implements ResourceFinder {
 		}
 	}
 
+	/** 
+	 * Load from a stream using the globals of the default {@link Globals}
+	 * @deprecated use {@link #loadStream(InputStream, String, LuaValue)} instead 
+	 */
 	public static Varargs loadStream(InputStream is, String chunkname) {
+		return loadStream(is, chunkname, LuaThread.getGlobals());
+	}
+	
+	/** 
+	 * Load from a stream, returning the chunk or nil,error of can't load
+	 * @param is the {@link InputStream} to load from 
+	 * @param chunkname the name of the chunk
+	 * @param env the environment for the loaded chunk
+	 * @return Varargs containing chunk, or NIL,error-text on error
+	 */
+	public static Varargs loadStream(InputStream is, String chunkname, LuaValue env) {
 		try {
 			if ( is == null )
 				return varargsOf(NIL, valueOf("not found: "+chunkname));
-			return LoadState.load(is, chunkname, LuaThread.getGlobals());
+			return LoadState.load(is, chunkname, env);
 		} catch (Exception e) {
 			return varargsOf(NIL, valueOf(e.getMessage()));
 		}
 	}
 	
 	
+	/** 
+	 * Stream reading the pieces of a chunk returned by successive calls to a function,  
+	 * until it returns nil or an empty string.
+	 */
 	private static class StringInputStream extends InputStream {
 		LuaValue func;
-		byte[] bytes; 
+		LuaString piece; 
 		int offset;
 		StringInputStream(LuaValue func) {
 			this.func = func;
 		}
-		public int read() throws IOException {
-			if ( func == null ) return -1;
-			if ( bytes == null ) {
-				LuaValue s = func.call();
-				if ( s.isnil() ) {
-					func = null;
-					bytes = null;
-					return -1;
-				}
-				bytes = s.tojstring().getBytes();
-				offset = 0;
+		/** Get the next piece from the function if the current one is used up
+		 * @return true if there are more bytes, false at the end of the chunk */
+		private boolean more() {
+			if ( piece != null && offset < piece.m_length )
+				return true;
+			if ( func == null )
+				return false;
+			LuaValue s = func.call();
+			if ( s.isnil() || s.checkstring().m_length == 0 ) {
+				func = null;
+				piece = null;
+				return false;
 			}
-			if ( offset >= bytes.length )
+			piece = s.strvalue();
+			offset = 0;
+			return true;
+		}
+		public int read() throws IOException {
+			return more()? piece.luaByte(offset++): -1;
+		}
+		public int read(byte[] b, int off, int len) throws IOException {
+			if ( len <= 0 )
+				return 0;
+			if ( !more() )
 				return -1;
-			return bytes[offset++];
-			
+			int n = Math.min(len, piece.m_length - offset);
+			piece.copyInto(offset, b, off, n);
+			offset += n;
+			return n;
 		}
 	}
 }
@@ -21,6 +21,7 @@
 ******************************************************************************/
 package org.luaj.vm2.lib;
 
+import org.luaj.vm2.Globals;
 import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaThread;
 import org.luaj.vm2.LuaValue;
@@ -31,11 +32,18 @@ import org.luaj.vm2.Varargs;
  * library. 
  * <p> 
  * The coroutine library in luaj has the same behavior as the
- * coroutine library in C, but is implemented using Java Threads to maintain 
- * the call state between invocations.  Therefore it can be yielded from anywhere, 
+ * coroutine library in C, but runs each coroutine on a stack of its own 
+ * to maintain the call state between invocations.  Therefore it can be yielded from anywhere, 
  * similar to the "Coco" yield-from-anywhere patch available for C-based lua.
- * However, coroutines that are yielded but never resumed to complete their execution
- * may not be collected by the garbage collector. 
+ * Coroutines that are yielded but never resumed to complete their execution
+ * are unwound once they are garbage collected, see {@link LuaThread}.
+ * <p> 
+ * The mechanism used to run coroutines is selected by the 
+ * {@link LuaThread.CoroutineFactory} the library is constructed with.
+ * The default {@link LuaThread#MONITOR_FACTORY} runs each coroutine on a Java thread 
+ * and is available on all platforms, while {@link JsePlatform} uses 
+ * {@link org.luaj.vm2.lib.jse.JseCoroutineFactory} which avoids monitor hand-offs 
+ * and uses virtual threads when they are available. 
  * <p> 
  * Typically, this library is included as part of a call to either 
  * {@link JsePlatform#standardGlobals()} or {@link JmePlatform#standardGlobals()}
@@ -46,6 +54,10 @@ import org.luaj.vm2.Varargs;
  * LuaTable _G = new LuaTable();
  * _G.load(new CoroutineLib());
  * } </pre>
+ * or, to select the coroutine implementation:
+ * <pre> {@code
+ * _G.load(new CoroutineLib(new JseCoroutineFactory()));
+ * } </pre>
  * Doing so will ensure the library is properly initialized 
  * and loaded into the globals table. 
  * <p>
@@ -65,14 +77,30 @@ public class CoroutineLib extends VarArgFunction {
 	private static final int WRAP    = 6;
 	private static final int WRAPPED = 7;
 	
+	private static final String[] NAMES = {
+		"create", "resume", "running", "status", "yield", "wrap" };
+	
+	/** Factory for the coroutines created by {@code coroutine.create()} and {@code coroutine.wrap()} */
+	private LuaThread.CoroutineFactory factory;
+	
+	/** Construct the library using {@link LuaThread#MONITOR_FACTORY} to run coroutines */
 	public CoroutineLib() {
+		this(LuaThread.MONITOR_FACTORY);
+	}
+
+	/** 
+	 * Construct the library using a specific coroutine implementation
+	 * @param factory {@link LuaThread.CoroutineFactory} for the coroutines created by scripts
+	 */
+	public CoroutineLib(LuaThread.CoroutineFactory factory) {
+		this.factory = factory;
 	}
 
 	private LuaTable init() {
 		LuaTable t = new LuaTable();
-		bind(t, CoroutineLib.class, new  String[] {
-			"create", "resume", "running", "status", "yield", "wrap" },
-			CREATE);
+		bind(t, CoroutineLib.class, NAMES, CREATE);
+		for ( int i=0; i<NAMES.length; i++ )
+			((CoroutineLib) t.get(NAMES[i])).factory = factory;
 		env.set("coroutine", t);
 		PackageLib.instance.LOADED.set("coroutine", t);
 		return t;
@@ -85,30 +113,29 @@ public class CoroutineLib extends VarArgFunction {
 			}
 			case CREATE: {
 				final LuaValue func = args.checkfunction(1);
-				return new LuaThread(func, LuaThread.getGlobals() );
+				final Globals g = globals();
+				return new LuaThread(g, func, LuaThread.running(g).getfenv(), factory );
 			}
 			case RESUME: {
 				final LuaThread t = args.checkthread(1);
 				return t.resume( args.subargs(2) );
 			}
 			case RUNNING: {
-				final LuaThread r = LuaThread.getRunning();
+				final LuaThread r = LuaThread.running(globals());
 				return LuaThread.isMainThread(r)? NIL: r;
 			}
 			case STATUS: {
 				return valueOf( args.checkthread(1).getStatus() );
 			}
 			case YIELD: {
-				final LuaThread r = LuaThread.getRunning();
-				if ( LuaThread.isMainThread( r ) )
-					error("main thread can't yield");
-				return r.yield( args );
+				return LuaThread.yield( globals(), args );
 			}
 			case WRAP: {
 				final LuaValue func = args.checkfunction(1);
-				final LuaThread thread = new LuaThread(func, func.getfenv());
+				final LuaThread thread = new LuaThread(globals(), func, func.getfenv(), factory);
 				CoroutineLib cl = new CoroutineLib();
 				cl.setfenv(thread);
+				cl.globals = globals();
 				cl.name = "wrapped";
 				cl.opcode = WRAPPED;
 				return cl;
@@ -137,6 +137,11 @@ public class DebugLib extends VarArgFunction {
 	public DebugLib() {
 	}
 	
+	/** Get the running thread of the lua state this library was loaded into */
+	private LuaThread running() {
+		return LuaThread.running(globals());
+	}
+
 	private LuaTable init() {
 		DEBUG_ENABLED = true;
 		LuaTable t = new LuaTable();
@@ -151,18 +156,18 @@ public class DebugLib extends VarArgFunction {
 		case INIT:         return init();
 		case DEBUG:        return _debug(args);
 		case GETFENV:      return _getfenv(args);
-		case GETHOOK:      return _gethook(args);
-		case GETINFO:      return _getinfo(args,this);
-		case GETLOCAL:     return _getlocal(args);
+		case GETHOOK:      return _gethook(running(),args);
+		case GETINFO:      return _getinfo(running(),args,this);
+		case GETLOCAL:     return _getlocal(running(),args);
 		case GETMETATABLE: return _getmetatable(args);
 		case GETREGISTRY:  return _getregistry(args);
 		case GETUPVALUE:   return _getupvalue(args);
 		case SETFENV:      return _setfenv(args);
-		case SETHOOK:      return _sethook(args);
-		case SETLOCAL:     return _setlocal(args);
+		case SETHOOK:      return _sethook(running(),args);
+		case SETLOCAL:     return _setlocal(running(),args);
 		case SETMETATABLE: return _setmetatable(args);
 		case SETUPVALUE:   return _setupvalue(args);
-		case TRACEBACK:    return _traceback(args);
+		case TRACEBACK:    return _traceback(running(),args);
 		default:           return NONE;
 		}
 	}
@@ -211,8 +216,8 @@ public class DebugLib extends VarArgFunction {
 		}
 		public int currentline() {
 			if ( closure == null ) return -1;
-			int[] li = closure.p.lineinfo;
-			return li==null || pc<0 || pc>=li.length? -1: li[pc]; 
+			closure.p.decodeDebug();
+			return closure.p.getline(pc);
 		}
 		public LuaString[] getfunckind() {
 			if ( closure == null || pc<0 ) return null;
@@ -328,13 +333,13 @@ public class DebugLib extends VarArgFunction {
 		return (DebugState) thread.debugState;
 	}
 	
-	static DebugState getDebugState() {
-		return getDebugState( LuaThread.getRunning() );
-	}
-	
-	/** Called by Closures to set up stack and arguments to next call */
-	public static void debugSetupCall(Varargs args, LuaValue[] stack) {
-		DebugState ds = getDebugState();
+	/** Called by Closures to set up stack and arguments to next call 
+	 * @param thread the thread for the call 
+	 * @param args the arguments to the call
+	 * @param stack the stack of the closure being called
+	 */
+	public static void debugSetupCall(LuaThread thread, Varargs args, LuaValue[] stack) {
+		DebugState ds = getDebugState(thread);
 		if ( ds.inhook )
 			return;
 		ds.nextInfo().setargs( args, stack );
@@ -346,7 +351,7 @@ public class DebugLib extends VarArgFunction {
 	 * @param func the function called
 	 */
 	public static void debugOnCall(LuaThread thread, int calls, LuaFunction func) {
-		DebugState ds = getDebugState();
+		DebugState ds = getDebugState(thread);
 		if ( ds.inhook )
 			return;
 		DebugInfo di = ds.pushInfo(calls);
@@ -369,13 +374,18 @@ public class DebugLib extends VarArgFunction {
 			if ( ds.hookrtrn )
 				ds.callHookFunc( ds, RETURN, LuaValue.NIL );
 		} finally {
-			getDebugState().popInfo(calls);
+			ds.popInfo(calls);
 		}
 	}
 	
-	/** Called by Closures on bytecode execution */
-	public static void debugBytecode( int pc, Varargs extras, int top ) {
-		DebugState ds = getDebugState();
+	/** Called by Closures on bytecode execution 
+	 * @param thread the thread executing the bytecode 
+	 * @param pc the program counter of the instruction
+	 * @param extras the variable arguments at the top of the stack
+	 * @param top the top of the stack
+	 */
+	public static void debugBytecode( LuaThread thread, int pc, Varargs extras, int top ) {
+		DebugState ds = getDebugState(thread);
 		if ( ds.inhook )
 			return;
 		DebugInfo di = ds.getDebugInfo();
@@ -407,9 +417,9 @@ public class DebugLib extends VarArgFunction {
 		return NONE;
 	}
 	
-	static Varargs _gethook(Varargs args) {
+	static Varargs _gethook(LuaThread running, Varargs args) {
 		int a=1;
-		LuaThread thread = args.isthread(a)? args.checkthread(a++): LuaThread.getRunning(); 
+		LuaThread thread = args.isthread(a)? args.checkthread(a++): running; 
 		DebugState ds = getDebugState(thread);
 		return varargsOf(
 				ds.hookfunc,
@@ -417,9 +427,9 @@ public class DebugLib extends VarArgFunction {
 				valueOf(ds.hookcount));
 	}
 
-	static Varargs _sethook(Varargs args) {
+	static Varargs _sethook(LuaThread running, Varargs args) {
 		int a=1;
-		LuaThread thread = args.isthread(a)? args.checkthread(a++): LuaThread.getRunning(); 
+		LuaThread thread = args.isthread(a)? args.checkthread(a++): running; 
 		LuaValue func    = args.optfunction(a++, null);
 		String str       = args.optjstring(a++,"");
 		int count        = args.optint(a++,0);
@@ -447,9 +457,9 @@ public class DebugLib extends VarArgFunction {
 		return object;
 	}
 	
-	protected static Varargs _getinfo(Varargs args, LuaValue level0func) {
+	protected static Varargs _getinfo(LuaThread running, Varargs args, LuaValue level0func) {
 		int a=1;
-		LuaThread thread = args.isthread(a)? args.checkthread(a++): LuaThread.getRunning(); 
+		LuaThread thread = args.isthread(a)? args.checkthread(a++): running; 
 		LuaValue func = args.arg(a++);
 		String what = args.optjstring(a++, "nSluf");
 		
@@ -534,9 +544,9 @@ public class DebugLib extends VarArgFunction {
         return name;
 	}
 	
-	static Varargs _getlocal(Varargs args) {
+	static Varargs _getlocal(LuaThread running, Varargs args) {
 		int a=1;
-		LuaThread thread = args.isthread(a)? args.checkthread(a++): LuaThread.getRunning(); 
+		LuaThread thread = args.isthread(a)? args.checkthread(a++): running; 
 		int level = args.checkint(a++);
 		int local = args.checkint(a++);
 		
@@ -551,9 +561,9 @@ public class DebugLib extends VarArgFunction {
 		}
 	}
 
-	static Varargs _setlocal(Varargs args) {
+	static Varargs _setlocal(LuaThread running, Varargs args) {
 		int a=1;
-		LuaThread thread = args.isthread(a)? args.checkthread(a++): LuaThread.getRunning(); 
+		LuaThread thread = args.isthread(a)? args.checkthread(a++): running; 
 		int level = args.checkint(a++);
 		int local = args.checkint(a++);
 		LuaValue value = args.arg(a++);
@@ -600,6 +610,7 @@ public class DebugLib extends VarArgFunction {
 
 	static LuaString findupvalue(LuaClosure c, int up) {
 		if ( c.upValues != null && up > 0 && up <= c.upValues.length ) {
+			c.p.decodeDebug();
 			if ( c.p.upvalues != null && up <= c.p.upvalues.length )
 				return c.p.upvalues[up-1];
 			else
@@ -636,9 +647,9 @@ public class DebugLib extends VarArgFunction {
 		return NIL;
 	}
 
-	static LuaValue _traceback(Varargs args) {
+	static LuaValue _traceback(LuaThread running, Varargs args) {
 		int a=1;
-		LuaThread thread = args.isthread(a)? args.checkthread(a++): LuaThread.getRunning(); 
+		LuaThread thread = args.isthread(a)? args.checkthread(a++): running; 
 		String message = args.optjstring(a++, null);
 		int level = args.optint(a++,1);
 		String tb = DebugLib.traceback(thread, level-1);
@@ -648,7 +659,8 @@ public class DebugLib extends VarArgFunction {
 	// =================== public utilities ====================
 	
 	/** 
-	 * Get a traceback as a string for the current thread 
+	 * Get a traceback as a string for the current thread of the default {@link Globals}
+	 * @deprecated use {@link #traceback(LuaThread, int)} instead 
 	 */
 	public static String traceback(int level) {
 		return traceback(LuaThread.getRunning(), level);
@@ -683,28 +695,30 @@ public class DebugLib extends VarArgFunction {
 
 	/**
 	 * Get file and line for the nearest calling closure.
+	 * @param thread the thread whose call stack is used
 	 * @return String identifying the file and line of the nearest lua closure,
 	 * or the function name of the Java call if no closure is being called.
 	 */
-	public static String fileline() {
-		DebugState ds = getDebugState(LuaThread.getRunning());
+	public static String fileline(LuaThread thread) {
+		DebugState ds = getDebugState(thread);
 		DebugInfo di;
 		for ( int i=0, n=ds.debugCalls; i<n; i++ ) {
 			di = ds.getDebugInfo(i);
 			if ( di != null && di.func.isclosure() )
 				return di.sourceline();
 		}
-		return fileline(0);
+		return fileline(thread, 0);
 	}
 
 	/**
 	 * Get file and line for a particular level, even if it is a java function.
 	 * 
+	 * @param thread the thread whose call stack is used
 	 * @param level 0-based index of level to get
 	 * @return String containing file and line info if available
 	 */
-	public static String fileline(int level) {
-		DebugState ds = getDebugState(LuaThread.getRunning());
+	public static String fileline(LuaThread thread, int level) {
+		DebugState ds = getDebugState(thread);
 		DebugInfo di = ds.getDebugInfo(level);
 		return di!=null? di.sourceline(): null;
 	}
@@ -748,6 +762,7 @@ public class DebugLib extends VarArgFunction {
 			}
 			case Lua.OP_GETUPVAL: {
 				int u = Lua.GETARG_B(i); /* upvalue index */
+				p.decodeDebug();
 				name = u < p.upvalues.length ? p.upvalues[u] : QMARK;
 				return new LuaString[] { name, UPVALUE };
 			}
@@ -775,6 +790,8 @@ public class DebugLib extends VarArgFunction {
 	}
 
 	static boolean precheck(Prototype pt) {
+		pt.decode();
+		pt.decodeDebug();
 		if (!(pt.maxstacksize <= MAXSTACK)) return false;
 		lua_assert(pt.numparams + (pt.is_vararg & Lua.VARARG_HASARG) <= pt.maxstacksize);
 		lua_assert((pt.is_vararg & Lua.VARARG_NEEDSARG) == 0
@@ -50,9 +50,8 @@ import org.luaj.vm2.Varargs;
  * To instantiate and use it directly, 
  * link it into your globals table via {@link LuaValue#load(LuaValue)} using code such as:
  * <pre> {@code
- * LuaTable _G = new LuaTable();
+ * Globals _G = new Globals();
  * _G.load(new JseIoLib());
- * LuaThread.setGlobals(_G);
  * _G.load(new JseBaseLib());
  * _G.load(new PackageLib());
  * _G.load(new JseIoLib());
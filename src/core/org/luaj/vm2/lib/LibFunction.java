@@ -21,6 +21,7 @@
 ******************************************************************************/
 package org.luaj.vm2.lib;
 
+import org.luaj.vm2.Globals;
 import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaFunction;
 import org.luaj.vm2.LuaValue;
@@ -130,6 +131,12 @@ abstract public class LibFunction extends LuaFunction {
 	 */
 	protected String name;
 	
+	/** The lua state this function was bound in, or null to use the state of its environment.
+	 * <p>
+	 * Binding functions initialize this from the library doing the binding.
+	 */
+	protected Globals globals;
+	
 	/** Default constructor for use by subclasses */
 	protected LibFunction() {		
 	}
@@ -138,6 +145,17 @@ abstract public class LibFunction extends LuaFunction {
 		return name != null? name: super.tojstring();
 	}
 	
+	/** 
+	 * Get the lua state that calls to this function are made in. 
+	 * @return {@link Globals} this function was bound in, or the one for its environment
+	 * @see Globals#forEnv(LuaValue)
+	 */
+	protected Globals globals() {
+		if ( globals == null )
+			globals = Globals.forEnv(env);
+		return globals;
+	}
+	
 	/** 
 	 * Bind a set of library functions.  
 	 * <p>
@@ -165,11 +183,13 @@ abstract public class LibFunction extends LuaFunction {
 	 */
 	protected void bind(LuaValue env, Class factory,  String[] names, int firstopcode ) {
 		try {
+			Globals g = globals();
 			for ( int i=0, n=names.length; i<n; i++ ) {
 				LibFunction f = (LibFunction) factory.newInstance();
 				f.opcode = firstopcode + i;
 				f.name = names[i];
 				f.env = env;
+				f.globals = g;
 				env.set(f.name, f);
 			}
 		} catch ( Exception e ) {
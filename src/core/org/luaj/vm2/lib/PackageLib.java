@@ -42,8 +42,7 @@ import org.luaj.vm2.Varargs;
  * To instantiate and use it directly, 
  * link it into your globals table via {@link LuaValue#load(LuaValue)} using code such as:
  * <pre> {@code
- * LuaTable _G = new LuaTable();
- * LuaThread.setGlobals(_G);
+ * Globals _G = new Globals();
  * _G.load(new BaseLib());
  * _G.load(new PackageLib());
  * System.out.println( _G.get("require").call(LuaValue.valueOf("hyperbolic")) );
@@ -143,7 +142,7 @@ public class PackageLib extends OneArgFunction {
 				LuaValue m = t.getmetatable();
 				if ( m == null )
 					t.setmetatable(m=tableOf());
-				m.set( INDEX, LuaThread.getGlobals() );
+				m.set( INDEX, LuaThread.running(globals()).getfenv() );
 				return NONE;
 			}
 			}
@@ -223,7 +222,7 @@ public class PackageLib extends OneArgFunction {
 		if ( ! value.istable() ) { /* not found? */
 			
 		    /* try global variable (and create one if it does not exist) */
-			LuaValue globals = LuaThread.getGlobals();
+			LuaValue globals = LuaThread.running(globals()).getfenv();
 			module = findtable( globals, modname );
 			if ( module == null )
 				error( "name conflict for module '"+modname+"'" );
@@ -240,7 +239,7 @@ public class PackageLib extends OneArgFunction {
 		}
 		
 		// set the environment of the current function
-		LuaFunction f = LuaThread.getCallstackFunction(1);
+		LuaFunction f = LuaThread.running(globals()).getCallstackFunction(1);
 		if ( f == null )
 			error("no calling function");
 		if ( ! f.isclosure() )
@@ -400,7 +399,7 @@ public class PackageLib extends OneArgFunction {
 			}
 			
 			// try loading the file
-			Varargs v = BaseLib.loadFile(filename); 
+			Varargs v = BaseLib.loadFile(filename, LuaThread.running(globals()).getfenv()); 
 			if ( v.arg1().isfunction() )
 				return v.arg1();
 			
@@ -43,8 +43,7 @@ import org.luaj.vm2.compiler.DumpState;
  * To instantiate and use it directly, 
  * link it into your globals table via {@link LuaValue#load(LuaValue)} using code such as:
  * <pre> {@code
- * LuaTable _G = new LuaTable();
- * LuaThread.setGlobals(_G);
+ * Globals _G = new Globals();
  * _G.load(new BaseLib());
  * _G.load(new PackageLib());
  * _G.load(new StringLib());
@@ -510,11 +509,15 @@ public class StringLib extends OneArgFunction {
 		private int soffset;
 		public GMatchAux(Varargs args, LuaString src, LuaString pat) {
 			this.srclen = src.length();
-			this.ms = new MatchState(args, src, pat);
+			this.ms = new MatchState(args, src, CompiledPattern.get(pat));
 			this.soffset = 0;
 		}
 		public Varargs invoke(Varargs args) {
 			for ( ; soffset<srclen; soffset++ ) {
+				if ( ( soffset = ms.cp.next( ms.s, soffset ) ) < 0 ) {
+					soffset = srclen;
+					break;
+				}
 				ms.reset();
 				int res = ms.match(soffset, 0);
 				if ( res >=0 ) {
@@ -579,14 +582,25 @@ public class StringLib extends OneArgFunction {
 		LuaString p = args.checkstring( 2 );
 		LuaValue repl = args.arg( 3 );
 		int max_s = args.optint( 4, srclen + 1 );
-		final boolean anchor = p.length() > 0 && p.charAt( 0 ) == '^';
+		CompiledPattern cp = CompiledPattern.get( p );
+		final boolean anchor = cp.anchored;
 		
 		Buffer lbuf = new Buffer( srclen );
-		MatchState ms = new MatchState( args, src, p );
+		MatchState ms = new MatchState( args, src, cp );
 		
 		int soffset = 0;
 		int n = 0;
 		while ( n < max_s ) {
+			if ( !anchor ) {
+				// positions before the next possible match are copied as they are
+				int next = cp.next( src, soffset );
+				if ( next < 0 )
+					break;
+				if ( next > soffset ) {
+					lbuf.append( src.substring( soffset, next ) );
+					soffset = next;
+				}
+			}
 			ms.reset();
 			int res = ms.match( soffset, anchor ? 1 : 0 );
 			if ( res != -1 ) {
@@ -725,26 +739,26 @@ public class StringLib extends OneArgFunction {
 			init = Math.max( 0, s.length() + init );
 		}
 		
-		boolean fastMatch = find && ( args.arg(4).toboolean() || pat.indexOfAny( SPECIALS ) == -1 );
+		CompiledPattern cp = find && args.arg(4).toboolean()? null: CompiledPattern.get( pat );
 		
-		if ( fastMatch ) {
+		if ( cp == null || cp.plain ) {
 			int result = s.indexOf( pat, init );
 			if ( result != -1 ) {
-				return varargsOf( valueOf(result+1), valueOf(result+pat.length()) );
+				return find? 
+					varargsOf( valueOf(result+1), valueOf(result+pat.length()) ):
+					s.substring( result, result+pat.length() );
 			}
 		} else {
-			MatchState ms = new MatchState( args, s, pat );
+			MatchState ms = new MatchState( args, s, cp );
 			
-			boolean anchor = false;
-			int poff = 0;
-			if ( pat.luaByte( 0 ) == '^' ) {
-				anchor = true;
-				poff = 1;
-			}
+			boolean anchor = cp.anchored;
+			int poff = anchor? 1: 0;
 			
 			int soff = init;
 			do {
 				int res;
+				if ( !anchor && ( soff = cp.next( s, soff ) ) < 0 )
+					break;
 				ms.reset();
 				if ( ( res = ms.match( soff, poff ) ) != -1 ) {
 					if ( find ) {
@@ -810,9 +824,203 @@ public class StringLib extends OneArgFunction {
 		CHAR_TABLE['\f'] |= MASK_SPACE;
 	};
 	
+	/** Number of slots of the patterns kept prepared by {@link CompiledPattern#get(LuaString)}, a power of 2 */
+	private static final int MAX_COMPILED_PATTERNS = 128;
+	
+	/**
+	 * A pattern prepared for matching by {@link MatchState}.
+	 * <p>
+	 * The end of each single character class and the set of characters it matches 
+	 * are computed once, and what a match must start with is recorded, 
+	 * so that {@link #next(LuaString, int)} can skip positions where no match can start,  
+	 * using {@link LuaString#indexOf(LuaString, int)} when a match starts with literal characters.
+	 * Parts of a malformed pattern are not prepared, so errors are still raised 
+	 * by {@link MatchState} when matching reaches them.
+	 * <p>
+	 * Instances do not change once constructed, and recently prepared ones are kept 
+	 * in slots by hash of the pattern string, so patterns used repeatedly are usually only prepared once. 
+	 * As for the intern table of {@link LuaString}, each slot holds the most recent pattern with its hash, 
+	 * so the cache is read and written from several threads without locking. 
+	 */
+	static final class CompiledPattern {
+		private static final CompiledPattern[] cache = new CompiledPattern[ MAX_COMPILED_PATTERNS ];
+		
+		final LuaString p;
+		
+		/** True if the pattern has no special characters */
+		final boolean plain;
+		
+		/** True if the pattern starts with '^' */
+		final boolean anchored;
+		
+		/** Upper bound on the number of captures */
+		final int ncaptures;
+		
+		/** End of the single character class at each pattern offset, or 0 if not prepared */
+		private final int[] ends;
+		
+		/** Characters matched by the single character class at each pattern offset as a bit set, or null */
+		private final int[][] sets;
+		
+		/** Literal characters every match starts with, or null */
+		private final LuaString prefix;
+		
+		/** Characters one of which every match starts with as a bit set, or null */
+		private final int[] start;
+		
+		/**
+		 * Get the prepared form of a pattern, preparing it if it is not cached.
+		 * @param p the pattern
+		 * @return the prepared pattern
+		 */
+		static CompiledPattern get( LuaString p ) {
+			final int slot = p.hashCode() & ( MAX_COMPILED_PATTERNS - 1 );
+			CompiledPattern cp = cache[ slot ];
+			if ( cp == null || !cp.p.raweq( p ) )
+				cache[ slot ] = cp = new CompiledPattern( p );
+			return cp;
+		}
+		
+		private CompiledPattern( LuaString p ) {
+			final int n = p.length();
+			this.p = p;
+			this.plain = p.indexOfAny( SPECIALS ) == -1;
+			this.anchored = n > 0 && p.luaByte( 0 ) == '^';
+			int nc = 0;
+			for ( int i = 0; i < n; i++ )
+				if ( p.luaByte( i ) == '(' )
+					nc++;
+			this.ncaptures = Math.min( nc, MAX_CAPTURES );
+			this.ends = new int[ n ];
+			this.sets = new int[ n ][];
+			
+			// gmatch matches from the start even when anchored
+			MatchState ms = new MatchState( null, EMPTYSTRING, p );
+			prepare( ms, 0 );
+			if ( anchored ) {
+				prepare( ms, 1 );
+				prefix = null;
+				start = null;
+				return;
+			}
+			
+			// captures at the start do not consume characters
+			int poff = 0;
+			while ( poff < n && p.luaByte( poff ) == '(' )
+				poff++;
+			
+			// literal characters that are not repeated
+			byte[] b = new byte[ n ];
+			int nb = 0;
+			int c;
+			while ( poff < n ) {
+				c = p.luaByte( poff );
+				int ep = poff + 1;
+				if ( c == L_ESC ) {
+					if ( ep == n || Character.isDigit( (char) (c = p.luaByte( ep )) ) || ( CHAR_TABLE[c] & MASK_ALPHA ) != 0 )
+						break;
+					ep++;
+				} else if ( SPECIALS.indexOf( (byte) c, 0 ) >= 0 || c == ')' ) {
+					break;
+				}
+				if ( ep < n && isQuantifier( p.luaByte( ep ) ) )
+					break;
+				b[ nb++ ] = (byte) c;
+				poff = ep;
+			}
+			if ( nb > 0 ) {
+				prefix = LuaString.valueOf( b, 0, nb );
+				start = null;
+			} else {
+				// otherwise a character class that must match once
+				int ep = poff < n? ends[ poff ]: 0;
+				prefix = null;
+				start = ep > 0 && ( ep == n || !isQuantifier( p.luaByte( ep ) ) || p.luaByte( ep ) == '+' )? sets[ poff ]: null;
+			}
+		}
+		
+		private static boolean isQuantifier( int c ) {
+			return c == '?' || c == '*' || c == '+' || c == '-';
+		}
+		
+		/** Prepare the single character classes in the order matching reaches them, until a malformed part */
+		private void prepare( MatchState ms, int poff ) {
+			final int n = p.length();
+			try {
+				while ( poff < n ) {
+					switch ( p.luaByte( poff ) ) {
+					case '(':
+					case ')':
+						poff++;
+						continue;
+					case L_ESC:
+						if ( poff + 1 == n )
+							return;
+						int c = p.luaByte( poff + 1 );
+						if ( c == 'b' ) {
+							poff += 4;
+							continue;
+						}
+						if ( c == 'f' ) {
+							poff += 2;
+							if ( poff == n || p.luaByte( poff ) != '[' )
+								return;
+							poff = ms.classend( poff );
+							continue;
+						}
+						if ( Character.isDigit( (char) c ) ) {
+							poff += 2;
+							continue;
+						}
+						break;
+					case '$':
+						if ( poff + 1 == n )
+							return;
+						break;
+					}
+					int ep = ms.classend( poff );
+					if ( sets[ poff ] == null ) {
+						int[] set = new int[ 8 ];
+						for ( int c = 0; c < 256; c++ )
+							if ( ms.singlematch( c, poff, ep ) )
+								set[ c >> 5 ] |= 1 << ( c & 31 );
+						sets[ poff ] = set;
+						ends[ poff ] = ep;
+					}
+					poff = ep;
+					if ( poff < n && isQuantifier( p.luaByte( poff ) ) )
+						poff++;
+				}
+			} catch ( RuntimeException e ) {
+				// malformed from here on, which is reported if matching gets this far
+			}
+		}
+		
+		/**
+		 * Find the first position at or after an offset where a match may start.
+		 * @param s the string being matched
+		 * @param soff the offset to start from 
+		 * @return the position, or -1 if no match can start at or after {@code soff}
+		 */
+		int next( LuaString s, int soff ) {
+			if ( prefix != null )
+				return s.indexOf( prefix, soff );
+			if ( start != null ) {
+				for ( int n = s.length(); soff < n; soff++ ) {
+					int c = s.luaByte( soff );
+					if ( ( start[ c >> 5 ] & ( 1 << ( c & 31 ) ) ) != 0 )
+						return soff;
+				}
+				return -1;
+			}
+			return soff;
+		}
+	}
+	
 	static class MatchState {
 		final LuaString s;
 		final LuaString p;
+		final CompiledPattern cp;
 		final Varargs args;
 		int level;
 		int[] cinit;
@@ -821,12 +1029,23 @@ public class StringLib extends OneArgFunction {
 		MatchState( Varargs args, LuaString s, LuaString pattern ) {
 			this.s = s;
 			this.p = pattern;
+			this.cp = null;
 			this.args = args;
 			this.level = 0;
 			this.cinit = new int[ MAX_CAPTURES ];
 			this.clen = new int[ MAX_CAPTURES ];
 		}
 		
+		MatchState( Varargs args, LuaString s, CompiledPattern cp ) {
+			this.s = s;
+			this.p = cp.p;
+			this.cp = cp;
+			this.args = args;
+			this.level = 0;
+			this.cinit = new int[ cp.ncaptures ];
+			this.clen = new int[ cp.ncaptures ];
+		}
+		
 		void reset() {
 			level = 0;
 		}
@@ -931,6 +1150,9 @@ public class StringLib extends OneArgFunction {
 		}
 		
 		int classend( int poffset ) {
+			int ep;
+			if ( cp != null && ( ep = cp.ends[ poffset ] ) > 0 )
+				return ep;
 			switch ( p.luaByte( poffset++ ) ) {
 			case L_ESC:
 				if ( poffset == p.length() ) {
@@ -997,6 +1219,9 @@ public class StringLib extends OneArgFunction {
 		}
 		
 		boolean singlematch( int c, int poff, int ep ) {
+			int[] set;
+			if ( cp != null && ( set = cp.sets[ poff ] ) != null )
+				return ( set[ c >> 5 ] & ( 1 << ( c & 31 ) ) ) != 0;
 			switch ( p.luaByte( poff ) ) {
 			case '.': return true;
 			case L_ESC: return match_class( c, p.luaByte( poff + 1 ) );
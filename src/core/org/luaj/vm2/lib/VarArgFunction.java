@@ -21,8 +21,11 @@
 ******************************************************************************/
 package org.luaj.vm2.lib;
 
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaThread;
 import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.OrphanedThread;
 import org.luaj.vm2.Varargs;
 
 /** Abstract base class for Java function implementations that takes varaiable arguments and 
@@ -79,11 +82,23 @@ abstract public class VarArgFunction extends LibFunction {
 	 * @param args the arguments to the function call.
 	 */
 	public Varargs invoke(Varargs args) {
-		LuaThread.onCall(this);
+		final Globals g = globals();
+		final LuaThread entered = LuaThread.enter(g);
+		boolean orphaned = false;
+		LuaThread.running(g).onCall(this);
 		try {
 			return this.onInvoke(args).eval();
+		} catch ( LuaError le ) {
+			le.process(LuaThread.running(g));
+			throw le;
+		} catch ( OrphanedThread ot ) {
+			orphaned = true;
+			throw ot;
 		} finally {
-			LuaThread.onReturn();
+			if ( ! orphaned )
+				LuaThread.running(g).onReturn();
+			if ( entered != null )
+				entered.exit();
 		}
 	}
 
@@ -23,8 +23,7 @@ package org.luaj.vm2.lib.jme;
 
 import org.luaj.vm2.compiler.LuaC;
 import org.luaj.vm2.LoadState;
-import org.luaj.vm2.LuaTable;
-import org.luaj.vm2.LuaThread;
+import org.luaj.vm2.Globals;
 import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.lib.BaseLib;
 import org.luaj.vm2.lib.CoroutineLib;
@@ -85,7 +84,8 @@ import org.luaj.vm2.lib.TableLib;
  * <p>
  * <p>
  * The class ensures that initialization is done in the correct order, 
- * and that linkage is made  to {@link LuaThread#setGlobals(LuaValue)}. 
+ * and that each set of globals is a separate {@link Globals} 
+ * with its own main thread, call stack, and debug state.
  * @see JsePlatform
  * @see LoadState
  */
@@ -99,8 +99,8 @@ public class JmePlatform {
 	 * @see JsePlatform
 	 * @see JmePlatform
 	 */
-	public static LuaTable standardGlobals() {
-		LuaTable _G = new LuaTable();
+	public static Globals standardGlobals() {
+		Globals _G = new Globals();
 		_G.load(new BaseLib());
 		_G.load(new PackageLib());
 		_G.load(new OsLib());
@@ -109,7 +109,6 @@ public class JmePlatform {
 		_G.load(new StringLib());
 		_G.load(new CoroutineLib());
 		_G.load(new JmeIoLib());
-		LuaThread.setGlobals(_G);
 		LuaC.install();
 		return _G;		
 	}
@@ -122,8 +121,8 @@ public class JmePlatform {
 	 * @see JmePlatform
 	 * @see DebugLib
 	 */
-	public static LuaTable debugGlobals() {
-		LuaTable _G = standardGlobals();
+	public static Globals debugGlobals() {
+		Globals _G = standardGlobals();
 		_G.load(new DebugLib());
 		return _G;
 	}
@@ -52,7 +52,7 @@ public class lua {
 		"  -i       enter interactive mode after executing 'script'\n" +
 		"  -v       show version information\n" +
 		"  -j      	use lua2java source-to-source compiler\n" +
-		"  -b      	use luajc bytecode-to-bytecode compiler (requires bcel on class path)\n" +
+		"  -b      	use luajc bytecode-to-bytecode compiler (requires asm on class path)\n" +
 		"  -n      	nodebug - do not load debug library by default\n" +
 		"  --       stop handling options\n" +
 		"  -        execute stdin and stop handling options";
@@ -50,6 +50,7 @@ public class luac {
 		"  -s       strip debug information\n" +
 		"  -e       little endian format for numbers\n" +
 		"  -i<n>    number format 'n', (n=0,1 or 4, default="+DumpState.NUMBER_FORMAT_DEFAULT+")\n" +
+		"  -x       indexed format, loaded on demand\n" +
 		"  -v       show version information\n" +
 		"  --       stop handling options\n";
 	
@@ -64,6 +65,7 @@ public class luac {
 	private boolean stripdebug = false;
 	private boolean littleendian = false;
 	private int numberformat = DumpState.NUMBER_FORMAT_DEFAULT;
+	private boolean indexed = false;
 	private boolean versioninfo = false;
 	private boolean processing = true;
 
@@ -105,6 +107,9 @@ public class luac {
 							usageExit();
 						numberformat = Integer.parseInt(args[i].substring(2));
 						break;
+					case 'x':
+						indexed = true;
+						break;
 					case 'v':
 						versioninfo = true;
 						break;
@@ -169,7 +174,10 @@ public class luac {
 
 	        // write out the chunk
 	        if (!parseonly) {
-	            DumpState.dump(chunk, out, stripdebug, numberformat, littleendian);
+	            if (indexed)
+	            	DumpState.dumpIndexed(chunk, out, stripdebug, numberformat, littleendian);
+	            else
+	            	DumpState.dump(chunk, out, stripdebug, numberformat, littleendian);
 	        }
 	        
 		} catch ( Throwable t ) {
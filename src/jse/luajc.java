@@ -40,7 +40,7 @@ public class luajc {
 	private static final String version = Lua._VERSION + "Copyright (C) 2009 luaj.org";
 
 	private static final String usage = 
-		"usage: java -cp luaj-jse.jar,bcel-5.2.jar luajc [options] fileordir [, fileordir ...]\n" +
+		"usage: java -cp luaj-jse.jar,asm-9.8.jar,asm-tree-9.8.jar luajc [options] fileordir [, fileordir ...]\n" +
 		"Available options are:\n" +
 		"  -        process stdin\n" +
 		"  -s src	source directory\n" +
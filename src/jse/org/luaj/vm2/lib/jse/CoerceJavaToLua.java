@@ -22,10 +22,12 @@
 package org.luaj.vm2.lib.jse;
 
 import java.lang.reflect.Array;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.luaj.vm2.LuaDouble;
+import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaInteger;
 import org.luaj.vm2.LuaString;
 import org.luaj.vm2.LuaTable;
@@ -56,6 +58,9 @@ import org.luaj.vm2.LuaValue;
  * <li>{@link LuaValue#tableOf(LuaValue[])}</li>
  * <li>{@link LuaValue#tableOf(LuaValue[], LuaValue[], org.luaj.vm2.Varargs)}</li>
  * </ul>
+ * To use a list, map, or array as a lua table without copying it, 
+ * {@link CoerceJavaToLua#tableView(Object)} may be used.
+ * <p>
  * The method {@link CoerceJavaToLua#coerce(Object)} looks as the type and dimesioning 
  * of the argument and tries to guess the best fit for corrsponding lua scalar, 
  * table, or table of tables. 
@@ -69,7 +74,7 @@ public class CoerceJavaToLua {
 		public LuaValue coerce( Object javaValue );
 	};
 	
-	static final Map COERCIONS = new HashMap();
+	static final Map COERCIONS = new ConcurrentHashMap();
 	
 	static {
 		Coercion boolCoercion = new Coercion() {
@@ -142,6 +147,51 @@ public class CoerceJavaToLua {
 		return c.coerce(o);
 	}
 
+	/**
+	 * Get a lua table viewing a Java list, map, or array without copying it. 
+	 * <p>
+	 * The table holds no elements of its own: 
+	 * keys and values are coerced as they are read or written, 
+	 * so changes made by lua or Java are seen by the other immediately, 
+	 * and an object with many elements is not copied when it is passed to lua.
+	 * A {@link List} is viewed as a lua list with its element at index {@code i} at key {@code i+1}, 
+	 * as is an array, whose elements are read and written without reflection when they are primitive.
+	 * A {@link Map} is viewed as a table with the same keys.
+	 * <p>
+	 * When a view is passed back to Java, {@link CoerceLuaToJava} passes the object it views. 
+	 * Similarly a Java view of a lua table from {@link CoerceLuaToJava#listView(LuaTable)} 
+	 * or {@link CoerceLuaToJava#mapView(LuaTable)} is viewed as the table itself. 
+	 * @param o the {@link List}, {@link Map}, or array to view
+	 * @return {@link LuaTable} viewing the object
+	 * @throws LuaError if the object is not a list, map, or array
+	 * @see CoerceLuaToJava#listView(LuaTable)
+	 * @see CoerceLuaToJava#mapView(LuaTable)
+	 */
+	public static LuaTable tableView(Object o) {
+		if ( o instanceof LuaTableList )
+			return ((LuaTableList) o).table;
+		if ( o instanceof LuaTableMap )
+			return ((LuaTableMap) o).table;
+		if ( o instanceof List )
+			return new JavaListTable((List) o);
+		if ( o instanceof Map )
+			return new JavaMapTable((Map) o);
+		if ( o != null && o.getClass().isArray() )
+			return new JavaArrayTable(o);
+		throw new LuaError("no table view of "+(o != null? o.getClass().getName(): "null"));
+	}
+
+	static final Coercion viewCoercion = new Coercion() {
+		public LuaValue coerce(Object javaValue) {
+			return tableView(javaValue);
+		}
+	};
+
+	static {
+		COERCIONS.put( LuaTableList.class, viewCoercion );
+		COERCIONS.put( LuaTableMap.class, viewCoercion );
+	}
+
 	static final Coercion instanceCoercion = new Coercion() {
 		public LuaValue coerce(Object javaValue) {
 			return new JavaInstance(javaValue);
@@ -25,9 +25,10 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaString;
@@ -57,7 +58,9 @@ import org.luaj.vm2.Varargs;
  * </ul>
  * <p>
  * For data in lua tables, the various methods on {@link LuaTable} can be used directly 
- * to convert data to something more useful.
+ * to convert data to something more useful, 
+ * or the table can be used as a Java {@link List} or {@link Map} without copying it 
+ * via {@link #listView(LuaTable)} and {@link #mapView(LuaTable)}.
  * 
  * @see LuajavaLib
  * @see CoerceJavaToLua
@@ -83,7 +86,46 @@ public class CoerceLuaToJava {
 		return getCoercion(clazz).coerce(value);
 	}
 	
-	static final Map COERCIONS = Collections.synchronizedMap(new HashMap());
+	/**
+	 * Get a Java list viewing a lua table without copying it. 
+	 * <p>
+	 * The value at key {@code i+1} of the table is at index {@code i} of the list, 
+	 * and the size of the list is the length of the table. 
+	 * Elements are coerced as they are read or written, 
+	 * so changes made by lua or Java are seen by the other immediately.
+	 * This view is also passed for a lua table to a Java parameter of type 
+	 * {@link List}, {@link Collection}, or {@link Iterable}.
+	 * <p>
+	 * For a table from {@link CoerceJavaToLua#tableView(Object)} viewing a {@link List}, 
+	 * the list itself is returned.
+	 * @param table the {@link LuaTable} to view
+	 * @return {@link List} viewing the table
+	 * @see CoerceJavaToLua#tableView(Object)
+	 */
+	public static List listView(LuaTable table) {
+		Object o = table.touserdata();
+		return o instanceof List? (List) o: new LuaTableList(table);
+	}
+
+	/**
+	 * Get a Java map viewing a lua table without copying it. 
+	 * <p>
+	 * Keys and values are coerced as they are read or written, 
+	 * so changes made by lua or Java are seen by the other immediately.
+	 * This view is also passed for a lua table to a Java parameter of type {@link Map}.
+	 * <p>
+	 * For a table from {@link CoerceJavaToLua#tableView(Object)} viewing a {@link Map}, 
+	 * the map itself is returned.
+	 * @param table the {@link LuaTable} to view
+	 * @return {@link Map} viewing the table
+	 * @see CoerceJavaToLua#tableView(Object)
+	 */
+	public static Map mapView(LuaTable table) {
+		Object o = table.touserdata();
+		return o instanceof Map? (Map) o: new LuaTableMap(table);
+	}
+
+	static final Map COERCIONS = new ConcurrentHashMap();
 	
 	static final class BoolCoercion implements Coercion {
 		public String toString() {
@@ -225,9 +267,17 @@ public class CoerceLuaToJava {
 		public String toString() {
 			return "ArrayCoercion("+componentType.getName()+")";
 		}
+		/** Get the array viewed by a table that can be passed without copying it, or null */
+		private Object view(LuaValue value) {
+			Object o = value.touserdata();
+			return o != null && o.getClass().isArray() && 
+				inheritanceLevels( componentType, o.getClass().getComponentType() ) < SCORE_UNCOERCIBLE? o: null;
+		}
 		public int score(LuaValue value) {
 			switch ( value.type() ) {
 			case LuaValue.TTABLE:
+				if ( view(value) != null )
+					return inheritanceLevels( componentType, value.touserdata().getClass().getComponentType() );
 				return value.length()==0? 0: componentCoercion.score( value.get(1) );
 			case LuaValue.TUSERDATA:
 				return inheritanceLevels( componentType, value.touserdata().getClass().getComponentType() );
@@ -240,6 +290,9 @@ public class CoerceLuaToJava {
 		public Object coerce(LuaValue value) {
 			switch ( value.type() ) {
 			case LuaValue.TTABLE: {
+				Object o = view(value);
+				if ( o != null )
+					return o;
 				int n = value.length();
 				Object a = Array.newInstance(componentType, n);
 				for ( int i=0; i<n; i++ )
@@ -296,6 +349,10 @@ public class CoerceLuaToJava {
 				return inheritanceLevels( targetType, value.touserdata().getClass() );
 			case LuaValue.TNIL:
 				return SCORE_NULL_VALUE;
+			case LuaValue.TTABLE: {
+				Object o = value.touserdata(targetType);
+				return inheritanceLevels( targetType, o != null? o.getClass(): value.getClass() );
+			}
 			default:
 				return inheritanceLevels( targetType, value.getClass() );
 			}
@@ -312,12 +369,43 @@ public class CoerceLuaToJava {
 				return value.optuserdata(targetType, null);
 			case LuaValue.TNIL:
 				return null;
+			case LuaValue.TTABLE: {
+				Object o = value.touserdata(targetType);
+				return o != null? o: value;
+			}
 			default:
 				return value;
 			}
 		}
 	}
 
+	/**
+	 * Coercion to {@link List}, {@link Collection}, {@link Iterable}, or {@link Map}, 
+	 * which passes lua tables as views from {@link #listView(LuaTable)} or {@link #mapView(LuaTable)},  
+	 * and other values as {@link ObjectCoercion} does.
+	 */
+	static final class ViewCoercion implements Coercion {
+		final Class targetType;
+		final Coercion objectCoercion;
+		ViewCoercion(Class targetType) {
+			this.targetType = targetType;
+			this.objectCoercion = new ObjectCoercion(targetType);
+		}
+		public String toString() {
+			return "ViewCoercion("+targetType.getName()+")";
+		}
+		public int score(LuaValue value) {
+			if ( value.type() != LuaValue.TTABLE || value.touserdata(targetType) != null )
+				return objectCoercion.score(value);
+			return 0;
+		}
+		public Object coerce(LuaValue value) {
+			if ( value.type() != LuaValue.TTABLE || value.touserdata(targetType) != null )
+				return objectCoercion.coerce(value);
+			return targetType == Map.class? mapView((LuaTable) value): listView((LuaTable) value);
+		}
+	}
+
 	static {
 		Coercion boolCoercion   = new BoolCoercion();
 		Coercion byteCoercion   = new NumericCoercion(NumericCoercion.TARGET_TYPE_BYTE);
@@ -348,6 +436,77 @@ public class CoerceLuaToJava {
 		COERCIONS.put( Double.class, doubleCoercion );
 		COERCIONS.put( String.class, stringCoercion );
 		COERCIONS.put( byte[].class, bytesCoercion );
+		COERCIONS.put( List.class, new ViewCoercion(List.class) );
+		COERCIONS.put( Collection.class, new ViewCoercion(Collection.class) );
+		COERCIONS.put( Iterable.class, new ViewCoercion(Iterable.class) );
+		COERCIONS.put( Map.class, new ViewCoercion(Map.class) );
+	}
+	
+	/** Interned signatures of values that are not userdata or functions, by code */
+	static final Object[] SIGNATURES = new Object[512];
+	
+	static {
+		for ( int i=0; i<SIGNATURES.length; i++ )
+			SIGNATURES[i] = new Integer(i);
+	}
+	
+	/**
+	 * Get the signature of a list of arguments, which determines the score of every coercion for them, 
+	 * so that the overload chosen for the arguments can be cached.
+	 * <p>
+	 * Signatures of arguments are compared by identity. 
+	 * Numbers and strings have interned codes for their type and the ranges that 
+	 * {@link NumericCoercion} and {@link StringCoercion} score them by,
+	 * userdata and functions have their classes,
+	 * and tables have a code for the signature of their first element.  
+	 * @param args the arguments
+	 * @return array of the signatures of the arguments, or null if their scores cannot be cached
+	 */
+	static Object[] signature(Varargs args) {
+		int n = args.narg();
+		Object[] s = new Object[n];
+		for ( int i=0; i<n; i++ )
+			if ( (s[i] = signature(args.arg(i+1), true)) == null )
+				return null;
+		return s;
+	}
+	
+	private static Object signature(LuaValue value, boolean array) {
+		switch ( value.type() ) {
+		case LuaValue.TNIL:
+		case LuaValue.TBOOLEAN:
+			return SIGNATURES[value.type()<<5];
+		case LuaValue.TNUMBER:
+			return SIGNATURES[(LuaValue.TNUMBER<<5) | (numeric(value)<<1)];
+		case LuaValue.TSTRING:
+			return SIGNATURES[(LuaValue.TSTRING<<5) | (numeric(value)<<1) | (value.checkstring().isValidUtf8()? 1: 0)];
+		case LuaValue.TTABLE: {
+			if ( !array || value.getClass() != LuaTable.class )
+				return null;
+			if ( value.length() == 0 )
+				return SIGNATURES[256 | (LuaValue.TTABLE<<5)];
+			Object e = signature(value.get(1), false);
+			return e instanceof Integer? SIGNATURES[256 | ((Integer) e).intValue()]: null;
+		}
+		case LuaValue.TUSERDATA: {
+			Object o = value.touserdata();
+			return array && o != null? o.getClass(): null;
+		}
+		default:
+			return array? value.getClass(): null;
+		}
+	}
+	
+	/** Code of the ranges of a number or numeric string, as scored by {@link NumericCoercion} */
+	private static int numeric(LuaValue value) {
+		if ( value.isint() ) {
+			int i = value.toint();
+			return 1 + (i==(byte)i? 1: 0) + (i==(char)i? 2: 0) + (i==(short)i? 4: 0);
+		} else if ( value.isnumber() ) {
+			double d = value.todouble();
+			return 9 + (d==(long)d? 1: 0) + (d==(float)d? 2: 0);
+		}
+		return 0;
 	}
 	
 	static Coercion getCoercion(Class c) {
@@ -0,0 +1,470 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.lib.jse;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.jse.CoerceLuaToJava.Coercion;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Accessor of a Java method, constructor or field,
+ * generated to be used in place of reflection once the member is used often.
+ * <p>
+ * Each accessor is a class generated with ASM which converts lua arguments
+ * directly to the parameter types of the member, calls it without reflection,
+ * and converts the result to a {@link LuaValue},
+ * so that primitive arguments and results are never boxed.
+ * Members of classes that are not public, java varargs methods,
+ * and all members when ASM is not on the class path, are used through reflection as before.
+ * <p>
+ * This class is not used directly.
+ * It is public so that accessors defined in other class loaders can extend it.
+ * @see JavaMethod
+ * @see JavaConstructor
+ * @see JavaField
+ */
+public abstract class JavaAccessor {
+
+	/**
+	 * Number of times a member is used through reflection before an accessor is generated for it,
+	 * or 0 to always use reflection.
+	 */
+	static int threshold = 16;
+
+	/** 
+	 * Class loaders of accessors, by class loader of the members they access,
+	 * held weakly so that neither keeps the other from being collected 
+	 */
+	private static final Map loaders = new WeakHashMap();
+
+	/** Coercions of arguments that are not primitive, by argument index */
+	Coercion[] coercions;
+
+	protected JavaAccessor() {
+	}
+
+	/**
+	 * Call the method or constructor.
+	 * @param instance object to call an instance method on, ignored otherwise
+	 * @param args arguments to convert to the parameter types
+	 * @return result of the method as a {@link LuaValue}, or the new instance
+	 */
+	public abstract LuaValue invoke(Object instance, Varargs args);
+
+	/**
+	 * Get the value of the field.
+	 * @param instance object to get an instance field of, ignored otherwise
+	 * @return value of the field as a {@link LuaValue}
+	 */
+	public abstract LuaValue get(Object instance);
+
+	/**
+	 * Set the value of the field.
+	 * @param instance object to set an instance field of, ignored otherwise
+	 * @param value value to convert to the type of the field
+	 */
+	public abstract void set(Object instance, LuaValue value);
+
+	/** Coerce an argument that is not primitive */
+	protected final Object coerce(LuaValue value, int index) {
+		return coercions[index].coerce(value);
+	}
+
+	/** Error for an argument or instance of the wrong class */
+	protected static LuaError coercionError(Throwable e) {
+		return new LuaError("coercion error "+e);
+	}
+
+	/**
+	 * Generate the accessor for a method.
+	 * @param m the method
+	 * @param coercions the coercions of its parameters
+	 * @return {@link JavaAccessor} calling {@code m}, or null if it is to be called through reflection
+	 */
+	static JavaAccessor forMethod(Method m, Coercion[] coercions) {
+		int modifiers = m.getModifiers();
+		if ( (modifiers & JavaMember.METHOD_MODIFIERS_VARARGS) != 0 )
+			return null;
+		if ( Modifier.isStatic(modifiers) && m.getDeclaringClass().isInterface() )
+			return null;
+		return generate(m, m.getParameterTypes(), coercions);
+	}
+
+	/**
+	 * Generate the accessor for a constructor.
+	 * @param c the constructor
+	 * @param coercions the coercions of its parameters
+	 * @return {@link JavaAccessor} calling {@code c}, or null if it is to be called through reflection
+	 */
+	static JavaAccessor forConstructor(Constructor c, Coercion[] coercions) {
+		if ( (c.getModifiers() & JavaMember.METHOD_MODIFIERS_VARARGS) != 0 )
+			return null;
+		if ( Modifier.isAbstract(c.getDeclaringClass().getModifiers()) )
+			return null;
+		return generate(c, c.getParameterTypes(), coercions);
+	}
+
+	/**
+	 * Generate the accessor for a field, which can set it unless it is final.
+	 * @param f the field
+	 * @return {@link JavaAccessor} for {@code f}, or null if it is to be accessed through reflection
+	 */
+	static JavaAccessor forField(Field f) {
+		return generate(f, new Class[] { f.getType() },
+				new Coercion[] { CoerceLuaToJava.getCoercion(f.getType()) });
+	}
+
+	private static JavaAccessor generate(Member m, Class[] types, Coercion[] coercions) {
+		if ( !isPublic(m.getDeclaringClass()) )
+			return null;
+		for ( int i=0; i<types.length; i++ )
+			if ( !isPublic(types[i]) )
+				return null;
+		try {
+			JavaAccessor a = (JavaAccessor) loader(m.getDeclaringClass()).generate(m).newInstance();
+			a.coercions = coercions;
+			return a;
+		} catch ( Throwable t ) {
+			// ASM is not available, or the class could not be linked
+			return null;
+		}
+	}
+
+	/** Check if a class can be named in an accessor defined by another class loader */
+	private static boolean isPublic(Class c) {
+		while ( c.isArray() )
+			c = c.getComponentType();
+		if ( c.isPrimitive() )
+			return true;
+		for ( ; c != null; c = c.getDeclaringClass() )
+			if ( !Modifier.isPublic(c.getModifiers()) )
+				return false;
+		return true;
+	}
+
+	private static Loader loader(Class c) {
+		ClassLoader parent = c.getClassLoader();
+		synchronized ( loaders ) {
+			WeakReference r = (WeakReference) loaders.get(parent);
+			Loader l = (r != null? (Loader) r.get(): null);
+			if ( l == null )
+				loaders.put(parent, new WeakReference(l = new Loader(parent)));
+			return l;
+		}
+	}
+
+	/**
+	 * Class loader of the accessors of members of classes in one class loader,
+	 * resolving the classes of luaj itself from the class loader of luaj.
+	 */
+	static final class Loader extends ClassLoader {
+		private int count;
+
+		Loader(ClassLoader parent) {
+			super(parent);
+		}
+
+		protected synchronized Class loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			Class c = findLoadedClass(name);
+			if ( c != null )
+				return c;
+			if ( name.startsWith("org.luaj.vm2.") )
+				return Class.forName(name, false, JavaAccessor.class.getClassLoader());
+			return super.loadClass(name, resolve);
+		}
+
+		synchronized Class generate(Member m) {
+			String name = m instanceof Constructor? "new": m.getName();
+			String classname = "org/luaj/vm2/lib/jse/JavaAccessor$"+(++count)+"$"+name;
+			byte[] bytes = new Generator(this).generate(classname, m);
+			return defineClass(classname.replace('/', '.'), bytes, 0, bytes.length);
+		}
+	}
+
+	/** Generator of the class of an accessor */
+	static final class Generator implements Opcodes {
+		private static final String STR_ACCESSOR = Type.getInternalName(JavaAccessor.class);
+		private static final String STR_LUAVALUE = Type.getInternalName(LuaValue.class);
+		private static final String STR_VARARGS = Type.getInternalName(Varargs.class);
+		private static final String STR_LUAERROR = Type.getInternalName(LuaError.class);
+		private static final String STR_COERCE = Type.getInternalName(CoerceJavaToLua.class);
+		private static final String STR_THROWABLE = Type.getInternalName(Throwable.class);
+		private static final String TYPE_LUAVALUE = Type.getDescriptor(LuaValue.class);
+		private static final String TYPE_VARARGS = Type.getDescriptor(Varargs.class);
+		private static final String TYPE_OBJECT = Type.getDescriptor(Object.class);
+
+		private final ClassLoader loader;
+
+		Generator(ClassLoader loader) {
+			this.loader = loader;
+		}
+
+		byte[] generate(String classname, Member m) {
+			ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+				protected ClassLoader getClassLoader() {
+					return loader;
+				}
+			};
+			cw.visit(V1_6, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, classname, null, STR_ACCESSOR, null);
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKESPECIAL, STR_ACCESSOR, "<init>", "()V", false);
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+			if ( m instanceof Field ) {
+				get(cw, (Field) m);
+				if ( !Modifier.isFinal(m.getModifiers()) )
+					set(cw, (Field) m);
+				else
+					unsupported(cw, "set", "("+TYPE_OBJECT+TYPE_LUAVALUE+")V", "field is final");
+				unsupported(cw, "invoke", "("+TYPE_OBJECT+TYPE_VARARGS+")"+TYPE_LUAVALUE, "not a method");
+			} else {
+				invoke(cw, m);
+				unsupported(cw, "get", "("+TYPE_OBJECT+")"+TYPE_LUAVALUE, "not a field");
+				unsupported(cw, "set", "("+TYPE_OBJECT+TYPE_LUAVALUE+")V", "not a field");
+			}
+			cw.visitEnd();
+			return cw.toByteArray();
+		}
+
+		/**
+		 * Generate {@link JavaAccessor#invoke(Object, Varargs)}, which converts the arguments to locals
+		 * so that failed casts can be told from exceptions thrown by the member
+		 */
+		private void invoke(ClassWriter cw, Member m) {
+			String owner = Type.getInternalName(m.getDeclaringClass());
+			boolean isnew = m instanceof Constructor;
+			boolean isstatic = Modifier.isStatic(m.getModifiers());
+			Class[] params = isnew? ((Constructor) m).getParameterTypes(): ((Method) m).getParameterTypes();
+			boolean casts = !isnew && !isstatic;
+			for ( int i=0; i<params.length; i++ )
+				casts |= !params[i].isPrimitive();
+
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "invoke", "("+TYPE_OBJECT+TYPE_VARARGS+")"+TYPE_LUAVALUE, null, null);
+			mv.visitCode();
+			Label convert = new Label(), call = new Label(), called = new Label();
+			Label badarg = new Label(), failed = new Label();
+			if ( casts )
+				mv.visitTryCatchBlock(convert, call, badarg, Type.getInternalName(ClassCastException.class));
+			mv.visitTryCatchBlock(call, called, failed, STR_THROWABLE);
+			mv.visitLabel(convert);
+			int slot = 3;
+			if ( !isnew && !isstatic ) {
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, owner);
+				mv.visitVarInsn(ASTORE, slot++);
+			}
+			int[] slots = new int[params.length];
+			for ( int i=0; i<params.length; i++ ) {
+				Type t = Type.getType(params[i]);
+				tojava(mv, params[i], i, true);
+				mv.visitVarInsn(t.getOpcode(ISTORE), slots[i] = slot);
+				slot += t.getSize();
+			}
+
+			mv.visitLabel(call);
+			if ( isnew ) {
+				mv.visitTypeInsn(NEW, owner);
+				mv.visitInsn(DUP);
+			} else if ( !isstatic ) {
+				mv.visitVarInsn(ALOAD, 3);
+			}
+			for ( int i=0; i<params.length; i++ )
+				mv.visitVarInsn(Type.getType(params[i]).getOpcode(ILOAD), slots[i]);
+			Class result;
+			if ( isnew ) {
+				mv.visitMethodInsn(INVOKESPECIAL, owner, "<init>", Type.getConstructorDescriptor((Constructor) m), false);
+				result = Object.class;
+			} else {
+				Method method = (Method) m;
+				boolean itf = method.getDeclaringClass().isInterface();
+				mv.visitMethodInsn(isstatic? INVOKESTATIC: itf? INVOKEINTERFACE: INVOKEVIRTUAL,
+						owner, method.getName(), Type.getMethodDescriptor(method), itf);
+				result = method.getReturnType();
+			}
+			mv.visitLabel(called);
+			tolua(mv, result);
+			mv.visitInsn(ARETURN);
+
+			if ( casts ) {
+				mv.visitLabel(badarg);
+				mv.visitMethodInsn(INVOKESTATIC, STR_ACCESSOR, "coercionError", "(L"+STR_THROWABLE+";)L"+STR_LUAERROR+";", false);
+				mv.visitInsn(ATHROW);
+			}
+			mv.visitLabel(failed);
+			wrap(mv);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		/** Generate {@link JavaAccessor#get(Object)} */
+		private void get(ClassWriter cw, Field f) {
+			String owner = Type.getInternalName(f.getDeclaringClass());
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "get", "("+TYPE_OBJECT+")"+TYPE_LUAVALUE, null, null);
+			mv.visitCode();
+			if ( Modifier.isStatic(f.getModifiers()) ) {
+				mv.visitFieldInsn(GETSTATIC, owner, f.getName(), Type.getDescriptor(f.getType()));
+			} else {
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, owner);
+				mv.visitFieldInsn(GETFIELD, owner, f.getName(), Type.getDescriptor(f.getType()));
+			}
+			tolua(mv, f.getType());
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		/** Generate {@link JavaAccessor#set(Object, LuaValue)}, wrapping any exception in a {@link LuaError} as reflection does */
+		private void set(ClassWriter cw, Field f) {
+			String owner = Type.getInternalName(f.getDeclaringClass());
+			boolean isstatic = Modifier.isStatic(f.getModifiers());
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "set", "("+TYPE_OBJECT+TYPE_LUAVALUE+")V", null, null);
+			mv.visitCode();
+			Label start = new Label(), end = new Label(), failed = new Label();
+			mv.visitTryCatchBlock(start, end, failed, Type.getInternalName(RuntimeException.class));
+			mv.visitLabel(start);
+			if ( !isstatic ) {
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, owner);
+			}
+			tojava(mv, f.getType(), 0, false);
+			mv.visitFieldInsn(isstatic? PUTSTATIC: PUTFIELD, owner, f.getName(), Type.getDescriptor(f.getType()));
+			mv.visitLabel(end);
+			mv.visitInsn(RETURN);
+			mv.visitLabel(failed);
+			wrap(mv);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		/** Generate a method of {@link JavaAccessor} that does not apply to the member, which throws a {@link LuaError} */
+		private void unsupported(ClassWriter cw, String name, String desc, String message) {
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, name, desc, null, null);
+			mv.visitCode();
+			mv.visitTypeInsn(NEW, STR_LUAERROR);
+			mv.visitInsn(DUP);
+			mv.visitLdcInsn(message);
+			mv.visitMethodInsn(INVOKESPECIAL, STR_LUAERROR, "<init>", "(Ljava/lang/String;)V", false);
+			mv.visitInsn(ATHROW);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		/**
+		 * Load the lua value at an index and convert it to a java type,
+		 * in the same way as its {@link Coercion} but without boxing primitives
+		 * @param varargs true to load argument {@code index+1} of local 2, false to load local 2 itself
+		 */
+		private void tojava(MethodVisitor mv, Class c, int index, boolean varargs) {
+			if ( !c.isPrimitive() ) {
+				mv.visitVarInsn(ALOAD, 0);
+				loadvalue(mv, index, varargs);
+				push(mv, index);
+				mv.visitMethodInsn(INVOKEVIRTUAL, STR_ACCESSOR, "coerce", "("+TYPE_LUAVALUE+"I)"+TYPE_OBJECT, false);
+				if ( c != Object.class )
+					mv.visitTypeInsn(CHECKCAST, Type.getInternalName(c));
+				return;
+			}
+			loadvalue(mv, index, varargs);
+			if ( c == Boolean.TYPE ) {
+				mv.visitMethodInsn(INVOKEVIRTUAL, STR_LUAVALUE, "toboolean", "()Z", false);
+			} else if ( c == Long.TYPE || c == Float.TYPE || c == Double.TYPE ) {
+				mv.visitMethodInsn(INVOKEVIRTUAL, STR_LUAVALUE, "todouble", "()D", false);
+				if ( c == Long.TYPE )
+					mv.visitInsn(D2L);
+				else if ( c == Float.TYPE )
+					mv.visitInsn(D2F);
+			} else {
+				mv.visitMethodInsn(INVOKEVIRTUAL, STR_LUAVALUE, "toint", "()I", false);
+				if ( c == Byte.TYPE )
+					mv.visitInsn(I2B);
+				else if ( c == Character.TYPE )
+					mv.visitInsn(I2C);
+				else if ( c == Short.TYPE )
+					mv.visitInsn(I2S);
+			}
+		}
+
+		private void loadvalue(MethodVisitor mv, int index, boolean varargs) {
+			mv.visitVarInsn(ALOAD, 2);
+			if ( varargs ) {
+				push(mv, index+1);
+				mv.visitMethodInsn(INVOKEVIRTUAL, STR_VARARGS, "arg", "(I)"+TYPE_LUAVALUE, false);
+			}
+		}
+
+		/** Convert the java value on the stack to a lua value, in the same way as {@link CoerceJavaToLua} */
+		private void tolua(MethodVisitor mv, Class c) {
+			if ( c == Void.TYPE ) {
+				mv.visitFieldInsn(GETSTATIC, STR_LUAVALUE, "NIL", TYPE_LUAVALUE);
+			} else if ( !c.isPrimitive() ) {
+				mv.visitMethodInsn(INVOKESTATIC, STR_COERCE, "coerce", "("+TYPE_OBJECT+")"+TYPE_LUAVALUE, false);
+			} else if ( c == Boolean.TYPE ) {
+				mv.visitMethodInsn(INVOKESTATIC, STR_LUAVALUE, "valueOf", "(Z)Lorg/luaj/vm2/LuaBoolean;", false);
+			} else if ( c == Long.TYPE || c == Float.TYPE || c == Double.TYPE ) {
+				if ( c == Long.TYPE )
+					mv.visitInsn(L2D);
+				else if ( c == Float.TYPE )
+					mv.visitInsn(F2D);
+				mv.visitMethodInsn(INVOKESTATIC, STR_LUAVALUE, "valueOf", "(D)Lorg/luaj/vm2/LuaNumber;", false);
+			} else {
+				mv.visitMethodInsn(INVOKESTATIC, STR_LUAVALUE, "valueOf", "(I)Lorg/luaj/vm2/LuaInteger;", false);
+			}
+		}
+
+		/** Throw the exception on the stack wrapped in a {@link LuaError} */
+		private void wrap(MethodVisitor mv) {
+			mv.visitTypeInsn(NEW, STR_LUAERROR);
+			mv.visitInsn(DUP_X1);
+			mv.visitInsn(SWAP);
+			mv.visitMethodInsn(INVOKESPECIAL, STR_LUAERROR, "<init>", "(L"+STR_THROWABLE+";)V", false);
+			mv.visitInsn(ATHROW);
+		}
+
+		private void push(MethodVisitor mv, int i) {
+			if ( i <= 5 )
+				mv.visitInsn(ICONST_0 + i);
+			else if ( i <= Byte.MAX_VALUE )
+				mv.visitIntInsn(BIPUSH, i);
+			else
+				mv.visitIntInsn(SIPUSH, i);
+		}
+	}
+}
@@ -51,7 +51,7 @@ class JavaArray extends LuaUserdata {
 		if ( key.isint() ) {
 			int i = key.toint() - 1;
 			return i>=0 && i<Array.getLength(m_instance)?
-				CoerceJavaToLua.coerce(Array.get(m_instance,key.toint()-1)):
+				get(m_instance,i):
 				NIL;
 		}
 		return super.get(key);
@@ -61,11 +61,64 @@ class JavaArray extends LuaUserdata {
 		if ( key.isint() ) {
 			int i = key.toint() - 1;
 			if ( i>=0 && i<Array.getLength(m_instance) )
-				Array.set(m_instance,i,CoerceLuaToJava.coerce(value, m_instance.getClass().getComponentType()));
+				set(m_instance,i,value);
 			else if ( m_metatable==null || ! settable(this,key,value) )
 					error("array index out of bounds");
 		}
 		else
 			super.set(key, value);
 	} 	
+
+	/** 
+	 * Get an element of an array, reading arrays of primitive type without reflection.
+	 * @param array the array
+	 * @param i zero-based index known to be in range
+	 * @return the element coerced to a lua value
+	 */
+	static LuaValue get(Object array, int i) {
+		if ( array instanceof Object[] )
+			return JavaTable.toLua(((Object[]) array)[i]);
+		if ( array instanceof int[] )
+			return valueOf(((int[]) array)[i]);
+		if ( array instanceof double[] )
+			return valueOf(((double[]) array)[i]);
+		if ( array instanceof byte[] )
+			return valueOf(((byte[]) array)[i]);
+		if ( array instanceof long[] )
+			return valueOf((double) ((long[]) array)[i]);
+		if ( array instanceof float[] )
+			return valueOf(((float[]) array)[i]);
+		if ( array instanceof short[] )
+			return valueOf(((short[]) array)[i]);
+		if ( array instanceof char[] )
+			return valueOf(((char[]) array)[i]);
+		return valueOf(((boolean[]) array)[i]);
+	}
+
+	/** 
+	 * Set an element of an array, writing arrays of primitive type without reflection.
+	 * @param array the array
+	 * @param i zero-based index known to be in range
+	 * @param value the lua value to coerce to the component type of the array
+	 */
+	static void set(Object array, int i, LuaValue value) {
+		if ( array instanceof Object[] )
+			Array.set(array, i, CoerceLuaToJava.coerce(value, array.getClass().getComponentType()));
+		else if ( array instanceof int[] )
+			((int[]) array)[i] = value.toint();
+		else if ( array instanceof double[] )
+			((double[]) array)[i] = value.todouble();
+		else if ( array instanceof byte[] )
+			((byte[]) array)[i] = (byte) value.toint();
+		else if ( array instanceof long[] )
+			((long[]) array)[i] = (long) value.todouble();
+		else if ( array instanceof float[] )
+			((float[]) array)[i] = (float) value.todouble();
+		else if ( array instanceof short[] )
+			((short[]) array)[i] = (short) value.toint();
+		else if ( array instanceof char[] )
+			((char[]) array)[i] = (char) value.toint();
+		else
+			((boolean[]) array)[i] = value.toboolean();
+	}
 }
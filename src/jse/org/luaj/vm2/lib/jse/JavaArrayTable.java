@@ -0,0 +1,99 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.lib.jse;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+import org.luaj.vm2.LuaValue;
+
+/**
+ * {@link JavaTable} viewing a Java array as a lua list,
+ * with the element at index {@code i} of the array at key {@code i+1}.
+ * <p>
+ * Elements of arrays of primitive type are read and written without reflection or boxing.
+ * The length of the array is fixed, so keys outside the array cannot be set,
+ * and setting an element of a primitive array to nil stores zero or false.  
+ * <p>
+ * This class is not used directly.  
+ * It is returned by calls to {@link CoerceJavaToLua#tableView(Object)} 
+ * when an array is supplied.
+ * @see JavaArray
+ * @see CoerceJavaToLua
+ * @see CoerceLuaToJava
+ */
+class JavaArrayTable extends JavaListTable {
+
+	private final int length;
+
+	JavaArrayTable(Object array) {
+		super(array);
+		this.length = Array.getLength(array);
+	}
+
+	int size() {
+		return length;
+	}
+
+	LuaValue element(int i) {
+		return JavaArray.get(instance, i);
+	}
+
+	void store(int i, LuaValue value) {
+		JavaArray.set(instance, i, value);
+	}
+
+	public void rawset(int key, LuaValue value) {
+		if ( key<1 || key>length )
+			error("array index out of bounds");
+		try {
+			store(key-1, value);
+		} catch ( RuntimeException e ) {
+			throw wrap(e);
+		}
+	}
+
+	public void insert(int pos, LuaValue value) {
+		error("cannot insert into a java array");
+	}
+
+	public LuaValue remove(int pos) {
+		return error("cannot remove from a java array");
+	}
+
+	/** 
+	 * Sort the elements using a comparator.
+	 * Arrays of numbers are sorted in place when there is no comparator.
+	 */
+	public void sort(LuaValue comparator) {
+		if ( comparator.isnil() ) {
+			if ( instance instanceof int[] )     { Arrays.sort((int[]) instance); return; }
+			if ( instance instanceof double[] )  { Arrays.sort((double[]) instance); return; }
+			if ( instance instanceof long[] )    { Arrays.sort((long[]) instance); return; }
+			if ( instance instanceof float[] )   { Arrays.sort((float[]) instance); return; }
+			if ( instance instanceof short[] )   { Arrays.sort((short[]) instance); return; }
+			if ( instance instanceof byte[] )    { Arrays.sort((byte[]) instance); return; }
+			if ( instance instanceof char[] )    { Arrays.sort((char[]) instance); return; }
+		}
+		super.sort(comparator);
+	}
+}
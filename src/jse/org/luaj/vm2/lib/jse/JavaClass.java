@@ -26,14 +26,13 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaValue;
 
 /**
@@ -41,6 +40,11 @@ import org.luaj.vm2.LuaValue;
  * <p>
  * Will respond to get() and set() by returning field values, or java methods. 
  * <p>
+ * Instances are shared by all threads, and created once per class by {@link #forClass(Class)}.
+ * The public fields, methods and constructors of the class are indexed when it is created,
+ * into maps keyed by interned {@link org.luaj.vm2.LuaString} that are never changed afterwards,
+ * so member lookups do not lock.
+ * <p>
  * This class is not used directly.  
  * It is returned by calls to {@link CoerceJavaToLua#coerce(Object)} 
  * when a Class is supplied.
@@ -49,78 +53,89 @@ import org.luaj.vm2.LuaValue;
  */
 class JavaClass extends JavaInstance implements CoerceJavaToLua.Coercion {
 
-	static final Map classes = Collections.synchronizedMap(new HashMap());
+	static final ConcurrentHashMap classes = new ConcurrentHashMap();
 
 	static final LuaValue NEW = valueOf("new");
 	
-	Map fields;
-	Map methods;
+	/** {@link JavaField} of each public field, by name */
+	final Map fields;
+	
+	/** {@link JavaMethod} or overload of each public method by name, and the constructors by {@link #NEW} */
+	final Map methods;
 	
 	static JavaClass forClass(Class c) {
 		JavaClass j = (JavaClass) classes.get(c);
-		if ( j == null )
-			classes.put( c, j = new JavaClass(c) );
+		if ( j == null ) {
+			j = new JavaClass(c);
+			JavaClass k = (JavaClass) classes.putIfAbsent(c, j);
+			if ( k != null )
+				j = k;
+		}
 		return j;
 	}
 	
 	JavaClass(Class c) {
 		super(c);
 		this.jclass = this;
+		this.fields = indexFields(c);
+		this.methods = indexMethods(c);
 	}
 
 	public LuaValue coerce(Object javaValue) {
 		return this;
 	}
 		
-	Field getField(LuaValue key) {
-		if ( fields == null ) {
-			Map m = new HashMap();
-			Field[] f = ((Class)m_instance).getFields();
-			for ( int i=0; i<f.length; i++ ) 
-				if ( Modifier.isPublic(f[i].getModifiers()) )
-					m.put( LuaValue.valueOf(f[i].getName()), f[i] );
-			fields = m;
-		}
-		return (Field) fields.get(key);
+	private static Map indexFields(Class c) {
+		Map m = new HashMap();
+		Field[] f = c.getFields();
+		for ( int i=0; i<f.length; i++ ) 
+			if ( Modifier.isPublic(f[i].getModifiers()) )
+				m.put( LuaValue.valueOf(f[i].getName()), new JavaField(f[i]) );
+		return m;
 	}
 	
-	LuaValue getMethod(LuaValue key) {
-		if ( methods == null ) {
-			Map namedlists = new HashMap();
-			Method[] m = ((Class)m_instance).getMethods();
-			for ( int i=0; i<m.length; i++ ) {
-				Method mi = m[i];
-				if ( Modifier.isPublic( mi.getModifiers()) ) {
-					String name = mi.getName();
-					List list = (List) namedlists.get(name);
-					if ( list == null )
-						namedlists.put(name, list = new ArrayList());
-					list.add( JavaMethod.forMethod(mi) );
-				}
-			}
-			Map map = new HashMap();
-			Constructor[] c = ((Class)m_instance).getConstructors();
-			List list = new ArrayList();
-			for ( int i=0; i<c.length; i++ ) 
-				if ( Modifier.isPublic(c[i].getModifiers()) )
-					list.add( JavaConstructor.forConstructor(c[i]) );
-			switch ( list.size() ) {
-			case 0: break;
-			case 1: map.put(NEW, list.get(0)); break;
-			default: map.put(NEW, JavaConstructor.forConstructors( (JavaConstructor[])list.toArray(new JavaConstructor[list.size()]) ) ); break;
+	private static Map indexMethods(Class c) {
+		Map namedlists = new HashMap();
+		Method[] m = c.getMethods();
+		for ( int i=0; i<m.length; i++ ) {
+			Method mi = m[i];
+			if ( Modifier.isPublic( mi.getModifiers()) ) {
+				String name = mi.getName();
+				List list = (List) namedlists.get(name);
+				if ( list == null )
+					namedlists.put(name, list = new ArrayList());
+				list.add( JavaMethod.forMethod(mi) );
 			}
-			
-			for ( Iterator it=namedlists.entrySet().iterator(); it.hasNext(); ) {
-				Entry e = (Entry) it.next();
-				String name = (String) e.getKey();
-				List methods = (List) e.getValue();
-				map.put( LuaValue.valueOf(name),
-					methods.size()==1? 
-						methods.get(0): 
-						JavaMethod.forMethods( (JavaMethod[])methods.toArray(new JavaMethod[methods.size()])) );
-			}
-			methods = map;
 		}
+		Map map = new HashMap();
+		Constructor[] k = c.getConstructors();
+		List list = new ArrayList();
+		for ( int i=0; i<k.length; i++ ) 
+			if ( Modifier.isPublic(k[i].getModifiers()) )
+				list.add( JavaConstructor.forConstructor(k[i]) );
+		switch ( list.size() ) {
+		case 0: break;
+		case 1: map.put(NEW, list.get(0)); break;
+		default: map.put(NEW, JavaConstructor.forConstructors( (JavaConstructor[])list.toArray(new JavaConstructor[list.size()]) ) ); break;
+		}
+		
+		for ( Iterator it=namedlists.entrySet().iterator(); it.hasNext(); ) {
+			Entry e = (Entry) it.next();
+			String name = (String) e.getKey();
+			List methods = (List) e.getValue();
+			map.put( LuaValue.valueOf(name),
+				methods.size()==1? 
+					methods.get(0): 
+					JavaMethod.forMethods( (JavaMethod[])methods.toArray(new JavaMethod[methods.size()])) );
+		}
+		return map;
+	}
+	
+	JavaField getField(LuaValue key) {
+		return (JavaField) fields.get(key);
+	}
+	
+	LuaValue getMethod(LuaValue key) {
 		return (LuaValue) methods.get(key);
 	}
 
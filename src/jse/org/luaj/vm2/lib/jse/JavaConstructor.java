@@ -23,9 +23,7 @@ package org.luaj.vm2.lib.jse;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaValue;
@@ -46,12 +44,16 @@ import org.luaj.vm2.lib.VarArgFunction;
  */
 class JavaConstructor extends JavaMember {
 
-	static final Map constructors = Collections.synchronizedMap(new HashMap());
+	static final ConcurrentHashMap constructors = new ConcurrentHashMap();
 	
 	static JavaConstructor forConstructor(Constructor c) {
 		JavaConstructor j = (JavaConstructor) constructors.get(c);
-		if ( j == null )
-			constructors.put( c, j = new JavaConstructor(c) );
+		if ( j == null ) {
+			j = new JavaConstructor(c);
+			JavaConstructor k = (JavaConstructor) constructors.putIfAbsent(c, j);
+			if ( k != null )
+				j = k;
+		}
 		return j;
 	}
 	
@@ -66,7 +68,14 @@ class JavaConstructor extends JavaMember {
 		this.constructor = c;
 	}
 	
+	JavaAccessor generateAccessor() {
+		return JavaAccessor.forConstructor(constructor, fixedargs);
+	}
+	
 	public Varargs invoke(Varargs args) {
+		JavaAccessor accessor = accessor();
+		if ( accessor != null )
+			return accessor.invoke(null, args);
 		Object[] a = convertArgs(args);
 		try {
 			return CoerceJavaToLua.coerce( constructor.newInstance(a) );
@@ -81,6 +90,7 @@ class JavaConstructor extends JavaMember {
 	 * LuaValue that represents an overloaded Java constructor.
 	 * <p>
 	 * On invocation, will pick the best method from the list, and invoke it.
+	 * The constructor picked is cached by the kinds of arguments by an {@link OverloadCache}.
 	 * <p>
 	 * This class is not used directly.  
 	 * It is returned by calls to calls to {@link JavaClass#get(LuaValue key)} 
@@ -88,29 +98,14 @@ class JavaConstructor extends JavaMember {
 	 */
 	static class Overload extends VarArgFunction {
 		final JavaConstructor[] constructors; 
+		final OverloadCache overloads;
 		public Overload(JavaConstructor[] c) {
 			this.constructors = c;
+			this.overloads = new OverloadCache(c);
 		}
 
 		public Varargs invoke(Varargs args) {
-			JavaConstructor best = null;
-			int score = CoerceLuaToJava.SCORE_UNCOERCIBLE;
-			for ( int i=0; i<constructors.length; i++ ) {
-				int s = constructors[i].score(args);
-				if ( s < score ) {
-					score = s;
-					best = constructors[i];
-					if ( score == 0 )
-						break;
-				}
-			}
-			
-			// any match? 
-			if ( best == null )
-				LuaValue.error("no coercible public method");
-			
-			// invoke it
-			return best.invoke(args);
+			return overloads.select(args).invoke(args);
 		}
 	}
 }
@@ -0,0 +1,85 @@
+/*******************************************************************************
+* Copyright (c) 2011 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.lib.jse;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaValue;
+
+/**
+ * Public field of a Java class.
+ * <p>
+ * Gets and sets the value of the field for {@link JavaInstance}, 
+ * through reflection until it has been used {@link JavaAccessor#threshold} times,
+ * and then through a generated {@link JavaAccessor}.
+ * <p>
+ * This class is not used directly.  
+ * It is returned by calls to {@link JavaClass#getField(LuaValue)}.
+ * @see CoerceJavaToLua
+ * @see CoerceLuaToJava
+ */
+class JavaField {
+
+	final Field field;
+
+	/** Generated accessor, or null while the field is used through reflection */
+	private volatile JavaAccessor accessor;
+	
+	/** Number of uses through reflection, up to {@link JavaAccessor#threshold} */
+	private int uses;
+	
+	JavaField(Field f) {
+		this.field = f;
+	}
+	
+	JavaAccessor accessor() {
+		if ( accessor == null && uses < JavaAccessor.threshold && ++uses == JavaAccessor.threshold )
+			accessor = JavaAccessor.forField(field);
+		return accessor;
+	}
+	
+	LuaValue get(Object instance) {
+		JavaAccessor accessor = accessor();
+		if ( accessor != null )
+			return accessor.get(instance);
+		try {
+			return CoerceJavaToLua.coerce(field.get(instance));
+		} catch (Exception e) {
+			throw new LuaError(e);
+		}
+	}
+
+	void set(Object instance, LuaValue value) {
+		JavaAccessor accessor = accessor();
+		if ( accessor != null && !Modifier.isFinal(field.getModifiers()) ) {
+			accessor.set(instance, value);
+			return;
+		}
+		try {
+			field.set(instance, CoerceLuaToJava.coerce(value, field.getType()));
+		} catch (Exception e) {
+			throw new LuaError(e);
+		}
+	}
+}
@@ -21,9 +21,6 @@
 ******************************************************************************/
 package org.luaj.vm2.lib.jse;
 
-import java.lang.reflect.Field;
-
-import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaUserdata;
 import org.luaj.vm2.LuaValue;
 
@@ -49,13 +46,9 @@ class JavaInstance extends LuaUserdata {
 	public LuaValue get(LuaValue key) {
 		if ( jclass == null )
 			jclass = JavaClass.forClass(m_instance.getClass());
-		Field f = jclass.getField(key);
+		JavaField f = jclass.getField(key);
 		if ( f != null )
-			try {
-				return CoerceJavaToLua.coerce(f.get(m_instance));
-			} catch (Exception e) {
-				throw new LuaError(e);
-			}
+			return f.get(m_instance);
 		LuaValue m = jclass.getMethod(key);
 		if ( m != null )
 			return m;
@@ -65,14 +58,11 @@ class JavaInstance extends LuaUserdata {
 	public void set(LuaValue key, LuaValue value) {
 		if ( jclass == null )
 			jclass = JavaClass.forClass(m_instance.getClass());
-		Field f = jclass.getField(key);
-		if ( f != null )
-			try {
-				f.set(m_instance, CoerceLuaToJava.coerce(value, f.getType()));
-				return;
-			} catch (Exception e) {
-				throw new LuaError(e);
-			}
+		JavaField f = jclass.getField(key);
+		if ( f != null ) {
+			f.set(m_instance, value);
+			return;
+		}
 		super.set(key, value);
 	} 	
 	
@@ -0,0 +1,191 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.lib.jse;
+
+import java.util.List;
+
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+
+/**
+ * {@link JavaTable} viewing a {@link List} as a lua list,
+ * with the element at index {@code i} of the list at key {@code i+1}.
+ * <p>
+ * Setting the key one past the end appends an element,
+ * setting the last element to nil removes it, 
+ * and {@code table.insert} and {@code table.remove} insert and remove elements of the list.
+ * Other keys cannot be set.  
+ * Elements that are null read as nil, and are skipped by {@link #next(LuaValue)}.
+ * <p>
+ * This class is not used directly.  
+ * It is returned by calls to {@link CoerceJavaToLua#tableView(Object)} 
+ * when a {@link List} is supplied.
+ * @see CoerceJavaToLua
+ * @see CoerceLuaToJava
+ */
+class JavaListTable extends JavaTable {
+
+	static final CoerceLuaToJava.Coercion OBJECT = CoerceLuaToJava.getCoercion(Object.class);
+
+	private final List list;
+
+	JavaListTable(List list) {
+		super(list);
+		this.list = list;
+	}
+
+	/** Construct a view of an object that is not a {@link List}, for subclasses */
+	JavaListTable(Object instance) {
+		super(instance);
+		this.list = null;
+	}
+
+	/** Number of elements */
+	int size() {
+		return list.size();
+	}
+
+	/** Get the element at a zero-based index known to be in range */
+	LuaValue element(int i) {
+		return toLua(list.get(i));
+	}
+
+	/** Set the element at a zero-based index known to be in range */
+	void store(int i, LuaValue value) {
+		list.set(i, OBJECT.coerce(value));
+	}
+
+	protected int getArrayLength() {
+		return size();
+	}
+
+	protected int getHashLength() {
+		return 0;
+	}
+
+	public LuaValue rawget(int key) {
+		return key>0 && key<=size()? element(key-1): NIL;
+	}
+
+	public LuaValue rawget(LuaValue key) {
+		return key.isinttype()? rawget(key.toint()): NIL;
+	}
+
+	public void rawset(int key, LuaValue value) {
+		int n = size();
+		try {
+			if ( key == n && n > 0 && value.isnil() )
+				list.remove(n-1);
+			else if ( key>0 && key<=n )
+				store(key-1, value);
+			else if ( key == n+1 ) {
+				if ( !value.isnil() )
+					list.add(OBJECT.coerce(value));
+			} else
+				error("list index out of bounds");
+		} catch ( RuntimeException e ) {
+			throw wrap(e);
+		}
+	}
+
+	public void rawset(LuaValue key, LuaValue value) {
+		if ( !key.isinttype() )
+			error("invalid key for a java list: "+key.tojstring());
+		rawset(key.toint(), value);
+	}
+
+	public void insert(int pos, LuaValue value) {
+		int n = size();
+		if ( pos == 0 )
+			pos = n+1;
+		if ( pos<1 || pos>n+1 )
+			error("list index out of bounds");
+		if ( value.isnil() )
+			return;
+		try {
+			list.add(pos-1, OBJECT.coerce(value));
+		} catch ( RuntimeException e ) {
+			throw wrap(e);
+		}
+	}
+
+	public LuaValue remove(int pos) {
+		int n = size();
+		if ( pos == 0 )
+			pos = n;
+		if ( pos<1 || pos>n )
+			return NONE;
+		try {
+			LuaValue v = toLua(list.remove(pos-1));
+			return v.isnil()? NONE: v;
+		} catch ( RuntimeException e ) {
+			throw wrap(e);
+		}
+	}
+
+	/** 
+	 * Sort the elements using a comparator.
+	 * The elements are coerced once each into a {@link LuaTable} which is sorted,
+	 * then stored back in order. 
+	 */
+	public void sort(LuaValue comparator) {
+		int n = size();
+		if ( n < 2 )
+			return;
+		LuaTable t = new LuaTable(n, 0);
+		for ( int i=0; i<n; i++ )
+			t.rawset(i+1, element(i));
+		t.sort(comparator);
+		try {
+			for ( int i=0; i<n; i++ )
+				store(i, t.rawget(i+1));
+		} catch ( RuntimeException e ) {
+			throw wrap(e);
+		}
+	}
+
+	public LuaValue getn() {
+		return valueOf(size());
+	}
+
+	public int length() {
+		return size();
+	}
+
+	public int maxn() {
+		return size();
+	}
+
+	public Varargs next(LuaValue key) {
+		int i = 0;
+		int n = size();
+		if ( !key.isnil() && (!key.isinttype() || (i = key.toint()) < 1 || i > n) )
+			error("invalid key to 'next'");
+		for ( ; i<n; ++i ) {
+			LuaValue v = element(i);
+			if ( !v.isnil() )
+				return varargsOf(valueOf(i+1), v);
+		}
+		return NIL;
+	}
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.lib.jse;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+
+/**
+ * {@link JavaTable} viewing a {@link Map} as a lua table.
+ * <p>
+ * Keys are coerced to Java as for a parameter of type {@link Object}, 
+ * so strings are looked up as {@link String}, and integers as {@link Integer}.
+ * Setting a key to nil removes it from the map, 
+ * and keys whose value is null read as nil and are skipped by {@link #next(LuaValue)}.
+ * <p>
+ * A traversal with {@link #next(LuaValue)} continues an iterator over the map
+ * while each key is the last one returned, 
+ * so traversing the whole map takes linear time.
+ * The key last returned may be set to nil during a traversal,
+ * but other changes to the keys of the map end the traversal with an error.
+ * <p>
+ * This class is not used directly.  
+ * It is returned by calls to {@link CoerceJavaToLua#tableView(Object)} 
+ * when a {@link Map} is supplied.
+ * @see CoerceJavaToLua
+ * @see CoerceLuaToJava
+ */
+class JavaMapTable extends JavaTable {
+
+	private final Map map;
+
+	/** Iterator of the traversal in progress, or null */
+	private Iterator iterator;
+
+	/** Key last returned by {@link #iterator}, or null */
+	private LuaValue last;
+
+	/** Entry last returned by {@link #iterator}, or null if it was removed */
+	private Map.Entry entry;
+
+	JavaMapTable(Map map) {
+		super(map);
+		this.map = map;
+	}
+
+	protected int getArrayLength() {
+		return 0;
+	}
+
+	protected int getHashLength() {
+		return map.size();
+	}
+
+	public LuaValue rawget(int key) {
+		return toLua(map.get(new Integer(key)));
+	}
+
+	public LuaValue rawget(LuaValue key) {
+		return key.isnil()? NIL: toLua(map.get(JavaListTable.OBJECT.coerce(key)));
+	}
+
+	public void rawset(int key, LuaValue value) {
+		put(new Integer(key), value);
+	}
+
+	public void rawset(LuaValue key, LuaValue value) {
+		if ( key.isnil() )
+			error("table index is nil");
+		put(JavaListTable.OBJECT.coerce(key), value);
+	}
+
+	private void put(Object key, LuaValue value) {
+		try {
+			if ( value.isnil() ) {
+				if ( entry != null && key.equals(entry.getKey()) ) {
+					iterator.remove();
+					entry = null;
+				} else
+					map.remove(key);
+			} else {
+				map.put(key, JavaListTable.OBJECT.coerce(value));
+			}
+		} catch ( RuntimeException e ) {
+			throw wrap(e);
+		}
+	}
+
+	public int maxn() {
+		int n = 0;
+		for ( Iterator i = map.keySet().iterator(); i.hasNext(); ) {
+			Object k = i.next();
+			if ( k instanceof Integer && ((Integer) k).intValue() > n )
+				n = ((Integer) k).intValue();
+		}
+		return n;
+	}
+
+	public Varargs next(LuaValue key) {
+		Iterator i = iterator;
+		LuaValue l = last;
+		iterator = null;
+		last = null;
+		entry = null;
+		try {
+			if ( key.isnil() ) {
+				i = map.entrySet().iterator();
+			} else if ( l == null || !key.raweq(l) ) {
+				for ( i = map.entrySet().iterator(); true; ) {
+					if ( !i.hasNext() )
+						error("invalid key to 'next'");
+					if ( key.raweq(toLua(((Map.Entry) i.next()).getKey())) )
+						break;
+				}
+			}
+			while ( i.hasNext() ) {
+				Map.Entry e = (Map.Entry) i.next();
+				if ( e.getValue() != null ) {
+					LuaValue k = toLua(e.getKey());
+					iterator = i;
+					last = k;
+					entry = e;
+					return varargsOf(k, toLua(e.getValue()));
+				}
+			}
+		} catch ( RuntimeException e ) {
+			throw wrap(e);
+		}
+		return NIL;
+	}
+}
@@ -46,6 +46,12 @@ class JavaMember extends VarArgFunction {
 	final Coercion[] fixedargs;
 	final Coercion varargs;
 	
+	/** Generated accessor, or null while the member is called through reflection */
+	private volatile JavaAccessor accessor;
+	
+	/** Number of calls through reflection, up to {@link JavaAccessor#threshold} */
+	private int uses;
+	
 	protected JavaMember(Class[] params, int modifiers) {
 		boolean isvarargs = ((modifiers & METHOD_MODIFIERS_VARARGS) != 0);
 		fixedargs = new CoerceLuaToJava.Coercion[isvarargs? params.length-1: params.length];
@@ -54,6 +60,20 @@ class JavaMember extends VarArgFunction {
 		varargs = isvarargs? CoerceLuaToJava.getCoercion( params[params.length-1] ): null;
 	}
 	
+	/**
+	 * Get the accessor to call this member with,
+	 * which is generated once the member has been called {@link JavaAccessor#threshold} times.
+	 * @return {@link JavaAccessor} for this member, or null to call it through reflection
+	 */
+	final JavaAccessor accessor() {
+		if ( accessor == null && uses < JavaAccessor.threshold && ++uses == JavaAccessor.threshold )
+			accessor = generateAccessor();
+		return accessor;
+	}
+	
+	/** Generate the accessor for this member, or return null if it cannot be generated */
+	abstract JavaAccessor generateAccessor();
+	
 	int score(Varargs args) {
 		int n = args.narg();
 		int s = n>fixedargs.length? CoerceLuaToJava.SCORE_WRONG_TYPE * (n-fixedargs.length): 0;
@@ -23,9 +23,7 @@ package org.luaj.vm2.lib.jse;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaFunction;
@@ -45,12 +43,16 @@ import org.luaj.vm2.Varargs;
  */
 class JavaMethod extends JavaMember {
 
-	static final Map methods = Collections.synchronizedMap(new HashMap());
+	static final ConcurrentHashMap methods = new ConcurrentHashMap();
 	
 	static JavaMethod forMethod(Method m) {
 		JavaMethod j = (JavaMethod) methods.get(m);
-		if ( j == null )
-			methods.put( m, j = new JavaMethod(m) );
+		if ( j == null ) {
+			j = new JavaMethod(m);
+			JavaMethod k = (JavaMethod) methods.putIfAbsent(m, j);
+			if ( k != null )
+				j = k;
+		}
 		return j;
 	}
 	
@@ -85,7 +87,14 @@ class JavaMethod extends JavaMember {
 		return invokeMethod(args.checkuserdata(1), args.subargs(2));
 	}
 	
+	JavaAccessor generateAccessor() {
+		return JavaAccessor.forMethod(method, fixedargs);
+	}
+	
 	LuaValue invokeMethod(Object instance, Varargs args) {
+		JavaAccessor accessor = accessor();
+		if ( accessor != null )
+			return accessor.invoke(instance, args);
 		Object[] a = convertArgs(args);
 		try {
 			return CoerceJavaToLua.coerce( method.invoke(instance, a) );
@@ -100,6 +109,7 @@ class JavaMethod extends JavaMember {
 	 * LuaValue that represents an overloaded Java method.
 	 * <p>
 	 * On invocation, will pick the best method from the list, and invoke it.
+	 * The method picked is cached by the kinds of arguments by an {@link OverloadCache}.
 	 * <p>
 	 * This class is not used directly.  
 	 * It is returned by calls to calls to {@link JavaInstance#get(LuaValue key)} 
@@ -108,9 +118,11 @@ class JavaMethod extends JavaMember {
 	static class Overload extends LuaFunction {
 
 		final JavaMethod[] methods;
+		final OverloadCache overloads;
 		
 		Overload(JavaMethod[] methods) {
 			this.methods = methods;
+			this.overloads = new OverloadCache(methods);
 		}
 
 		public LuaValue call() {
@@ -134,24 +146,7 @@ class JavaMethod extends JavaMember {
 		}
 
 		private LuaValue invokeBestMethod(Object instance, Varargs args) {
-			JavaMethod best = null;
-			int score = CoerceLuaToJava.SCORE_UNCOERCIBLE;
-			for ( int i=0; i<methods.length; i++ ) {
-				int s = methods[i].score(args);
-				if ( s < score ) {
-					score = s;
-					best = methods[i];
-					if ( score == 0 )
-						break;
-				}
-			}
-			
-			// any match? 
-			if ( best == null )
-				LuaValue.error("no coercible public method");
-			
-			// invoke it
-			return best.invokeMethod(instance, args);
+			return ((JavaMethod) overloads.select(args)).invokeMethod(instance, args);
 		}
 	}
 
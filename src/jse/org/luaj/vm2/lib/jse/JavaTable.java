@@ -0,0 +1,96 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.lib.jse;
+
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+
+/**
+ * Subclass of {@link LuaTable} whose contents are held by a Java object,  
+ * so that the object can be used as a lua table without copying it.
+ * <p>
+ * Keys and values are coerced when they are read or written, 
+ * using {@link CoerceJavaToLua} and {@link CoerceLuaToJava}, 
+ * and changes made by lua or Java are seen by the other immediately.
+ * The Java object is returned by {@link #touserdata()}, 
+ * which is how {@link CoerceLuaToJava} passes the object itself back to Java.
+ * <p>
+ * Like the Java objects they view, these tables are not synchronized, 
+ * and weak keys or values are not supported.
+ * <p>
+ * This class is not used directly.  
+ * Instances are returned by {@link CoerceJavaToLua#tableView(Object)}.
+ * @see JavaListTable
+ * @see JavaArrayTable
+ * @see JavaMapTable
+ */
+abstract class JavaTable extends LuaTable {
+
+	/** The Java object holding the contents */
+	final Object instance;
+
+	JavaTable(Object instance) {
+		this.instance = instance;
+	}
+
+	public Object touserdata() {
+		return instance;
+	}
+
+	public Object touserdata(Class c) {
+		return c.isInstance(instance)? instance: null;
+	}
+
+	public void presize(int narray) {
+	}
+
+	public void presize(int narray, int nhash) {
+	}
+
+	protected LuaTable changemode(boolean weakkeys, boolean weakvalues) {
+		if ( weakkeys || weakvalues )
+			error("weak keys or values not supported in views of java objects");
+		return this;
+	}
+
+	protected LuaValue hashget(LuaValue key) {
+		return rawget(key);
+	}
+
+	public void hashset(LuaValue key, LuaValue value) {
+		rawset(key, value);
+	}
+
+	/** 
+	 * Coerce a value held by a Java object to lua, 
+	 * passing values such as tables and functions that lua stored in it unchanged.
+	 */
+	static LuaValue toLua(Object o) {
+		return o instanceof LuaValue? (LuaValue) o: CoerceJavaToLua.coerce(o);
+	}
+
+	/** Convert an exception thrown by the Java object into a {@link LuaError} */
+	static LuaError wrap(RuntimeException e) {
+		return e instanceof LuaError? (LuaError) e: new LuaError(e);
+	}
+}
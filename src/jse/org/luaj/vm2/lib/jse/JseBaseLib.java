@@ -47,8 +47,7 @@ import org.luaj.vm2.lib.ResourceFinder;
  * To instantiate and use it directly, 
  * link it into your globals table via {@link LuaValue#load(LuaValue)} using code such as:
  * <pre> {@code
- * LuaTable _G = new LuaTable();
- * LuaThread.setGlobals(_G);
+ * Globals _G = new Globals();
  * _G.load(new JseBaseLib());
  * _G.get("print").call(LuaValue.valueOf("hello, world"));
  * } </pre>
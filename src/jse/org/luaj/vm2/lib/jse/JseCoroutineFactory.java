@@ -0,0 +1,204 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.lib.jse;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+import org.luaj.vm2.LuaThread;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.lib.CoroutineLib;
+
+/**
+ * {@link LuaThread.CoroutineFactory} for the JSE platform that runs 
+ * each coroutine on a virtual thread when the JVM supports them, 
+ * otherwise on a daemon platform thread, 
+ * and hands off control with {@link LockSupport#park(Object)} and {@link LockSupport#unpark(Thread)}
+ * instead of monitor {@code wait()} and {@code notify()}.
+ * <p>
+ * With virtual threads a suspended coroutine holds no platform thread, 
+ * and its stack is kept on the heap, so large numbers of coroutines 
+ * may be created and suspended cheaply. 
+ * Suspended coroutines park without a timeout, and those whose {@link LuaThread} 
+ * is garbage collected are found through a {@link ReferenceQueue} and unwound, 
+ * so {@link LuaThread#orphan_check_interval} does not apply.
+ * <p>
+ * This is the factory used by {@link JsePlatform}. 
+ * To use it directly, construct the {@link CoroutineLib} with it:
+ * <pre> {@code
+ * _G.load(new CoroutineLib(new JseCoroutineFactory()));
+ * } </pre>
+ * @see LuaThread
+ * @see CoroutineLib
+ * @see JsePlatform
+ */
+public class JseCoroutineFactory implements LuaThread.CoroutineFactory {
+
+	/** Factory for the Java threads coroutines run on */
+	private final ThreadFactory threads;
+
+	/** Construct a factory using virtual threads if available, otherwise daemon threads. */
+	public JseCoroutineFactory() {
+		this(virtualThreadFactory());
+	}
+
+	/** 
+	 * Construct a factory that runs coroutines on threads from a specific {@link ThreadFactory}
+	 * @param threads {@link ThreadFactory} to create the thread for each coroutine
+	 */
+	public JseCoroutineFactory(ThreadFactory threads) {
+		this.threads = threads;
+	}
+
+	public LuaThread.Coroutine newCoroutine(LuaThread thread, LuaValue func) {
+		return new ParkingCoroutine(thread, func, threads);
+	}
+
+	/** 
+	 * Get a factory for virtual threads via reflection, so that this compiles and runs 
+	 * on JVMs without them, or a factory for daemon platform threads if there are none.
+	 */
+	private static ThreadFactory virtualThreadFactory() {
+		try {
+			Method ofVirtual = Thread.class.getMethod("ofVirtual", new Class[0]);
+			Object builder = ofVirtual.invoke(null, new Object[0]);
+			Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory", new Class[0]);
+			return (ThreadFactory) factory.invoke(builder, new Object[0]);
+		} catch ( Exception e ) {
+			return new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r);
+					t.setDaemon(true);
+					return t;
+				}
+			};
+		}
+	}
+
+	/** 
+	 * Coroutine that hands off control by parking and unparking the Java threads on each side.
+	 * <p>
+	 * While suspended it parks without a timeout, and is woken by the {@link Reaper} 
+	 * once its {@link LuaThread} has been collected.
+	 */
+	private static final class ParkingCoroutine extends LuaThread.Coroutine {
+		private final ThreadFactory threads;
+		private volatile boolean coroutine_turn;
+		private volatile boolean orphaned;
+		private volatile Thread coroutine;
+		private Thread resumer;
+
+		ParkingCoroutine(LuaThread thread, LuaValue func, ThreadFactory threads) {
+			this(new ThreadReference(thread), func, threads);
+		}
+
+		private ParkingCoroutine(ThreadReference ref, LuaValue func, ThreadFactory threads) {
+			super(ref, func);
+			this.threads = threads;
+			ref.coroutine = this;
+		}
+
+		/** Called by the {@link Reaper} when the {@link LuaThread} has been collected */
+		void orphan() {
+			orphaned = true;
+			Thread t = coroutine;
+			if ( t != null )
+				LockSupport.unpark(t);
+		}
+
+		protected void start() {
+			resumer = Thread.currentThread();
+			coroutine = threads.newThread(this);
+			coroutine_turn = true;
+			coroutine.start();
+		}
+
+		protected void signalCoroutine() {
+			resumer = Thread.currentThread();
+			coroutine_turn = true;
+			LockSupport.unpark(coroutine);
+		}
+
+		protected void awaitCoroutine() throws InterruptedException {
+			while ( coroutine_turn ) {
+				LockSupport.park(this);
+				if ( Thread.interrupted() )
+					throw new InterruptedException();
+			}
+		}
+
+		protected void signalResumer() {
+			coroutine_turn = false;
+			LockSupport.unpark(resumer);
+		}
+
+		protected boolean awaitResumer(long timeout) throws InterruptedException {
+			while ( ! coroutine_turn ) {
+				if ( orphaned )
+					return false;
+				LockSupport.park(this);
+				if ( Thread.interrupted() )
+					throw new InterruptedException();
+			}
+			return true;
+		}
+	}
+
+	/** Weak reference to a {@link LuaThread} that is enqueued for the {@link Reaper} when it is collected */
+	private static final class ThreadReference extends WeakReference {
+		ParkingCoroutine coroutine;
+
+		ThreadReference(LuaThread thread) {
+			super(thread, Reaper.QUEUE);
+		}
+	}
+
+	/** 
+	 * Daemon thread that wakes suspended coroutines whose {@link LuaThread} has been collected, 
+	 * so they can unwind their stacks.  Started when the first coroutine is created.
+	 */
+	private static final class Reaper extends Thread {
+		static final ReferenceQueue QUEUE = new ReferenceQueue();
+
+		static {
+			new Reaper().start();
+		}
+
+		private Reaper() {
+			super("luaj-coroutine-reaper");
+			setDaemon(true);
+		}
+
+		public void run() {
+			while ( true ) {
+				try {
+					((ThreadReference) QUEUE.remove()).coroutine.orphan();
+				} catch ( InterruptedException e ) {
+					// keep running, coroutines may still be collected
+				}
+			}
+		}
+	}
+}
@@ -39,8 +39,7 @@ import org.luaj.vm2.lib.TwoArgFunction;
  * To instantiate and use it directly, 
  * link it into your globals table via {@link LuaValue#load(LuaValue)} using code such as:
  * <pre> {@code
- * LuaTable _G = new LuaTable();
- * LuaThread.setGlobals(_G);
+ * Globals _G = new Globals();
  * _G.load(new JseBaseLib());
  * _G.load(new PackageLib());
  * _G.load(new JseMathLib());
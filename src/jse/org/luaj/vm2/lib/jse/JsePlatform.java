@@ -22,8 +22,7 @@
 package org.luaj.vm2.lib.jse;
 
 import org.luaj.vm2.compiler.LuaC;
-import org.luaj.vm2.LuaTable;
-import org.luaj.vm2.LuaThread;
+import org.luaj.vm2.Globals;
 import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.lib.CoroutineLib;
 import org.luaj.vm2.lib.DebugLib;
@@ -61,7 +60,7 @@ import org.luaj.vm2.lib.TableLib;
  * <li>{@link PackageLib}</li>
  * <li>{@link TableLib}</li>
  * <li>{@link StringLib}</li>
- * <li>{@link CoroutineLib}</li>
+ * <li>{@link CoroutineLib} with {@link JseCoroutineFactory}</li>
  * <li>{@link JseMathLib}</li>
  * <li>{@link JseIoLib}</li>
  * <li>{@link JseOsLib}</li>
@@ -72,7 +71,8 @@ import org.luaj.vm2.lib.TableLib;
  * The debug globals are simply the standard globals plus the {@code debug} library {@link DebugLib}.
  * <p>
  * The class ensures that initialization is done in the correct order, 
- * and that linkage is made  to {@link LuaThread#setGlobals(LuaValue)}. 
+ * and that each set of globals is a separate {@link Globals} 
+ * with its own main thread, call stack, and debug state.
  * @see JmePlatform
  */
 public class JsePlatform {
@@ -85,18 +85,17 @@ public class JsePlatform {
 	 * @see JsePlatform
 	 * @see JmePlatform
 	 */
-	public static LuaTable standardGlobals() {
-		LuaTable _G = new LuaTable();
+	public static Globals standardGlobals() {
+		Globals _G = new Globals();
 		_G.load(new JseBaseLib());
 		_G.load(new PackageLib());
 		_G.load(new TableLib());
 		_G.load(new StringLib());
-		_G.load(new CoroutineLib());
+		_G.load(new CoroutineLib(new JseCoroutineFactory()));
 		_G.load(new JseMathLib());
 		_G.load(new JseIoLib());
 		_G.load(new JseOsLib());
 		_G.load(new LuajavaLib());
-		LuaThread.setGlobals(_G);
 		LuaC.install();
 		return _G;		
 	}
@@ -109,8 +108,8 @@ public class JsePlatform {
 	 * @see JmePlatform
 	 * @see DebugLib
 	 */
-	public static LuaTable debugGlobals() {
-		LuaTable _G = standardGlobals();
+	public static Globals debugGlobals() {
+		Globals _G = standardGlobals();
 		_G.load(new DebugLib());
 		return _G;
 	}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.lib.jse;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+
+/**
+ * {@link java.util.List} viewing a {@link LuaTable} as a list,
+ * with the value at key {@code i+1} at index {@code i} of the list.
+ * <p>
+ * Elements are coerced when they are read or written, 
+ * as for a parameter of type {@link Object} and a return value,
+ * and changes made by lua or Java are seen by the other immediately.
+ * The size of the list is the length of the table, and adding or removing elements 
+ * inserts or removes them as {@code table.insert} and {@code table.remove} do, 
+ * so null elements cannot be added.
+ * <p>
+ * This class is not used directly.  
+ * Instances are returned by {@link CoerceLuaToJava#listView(LuaTable)}, 
+ * and passed for lua tables to Java parameters of type {@link java.util.List} or {@link java.util.Collection}.
+ * {@link CoerceJavaToLua} coerces them back to the table they view.
+ * @see LuaTableMap
+ * @see CoerceLuaToJava
+ */
+final class LuaTableList extends AbstractList implements RandomAccess {
+
+	final LuaTable table;
+
+	LuaTableList(LuaTable table) {
+		this.table = table;
+	}
+
+	private void check(int index, int size) {
+		if ( index<0 || index>=size )
+			throw new IndexOutOfBoundsException("index "+index+", size "+size);
+	}
+
+	public int size() {
+		return table.length();
+	}
+
+	public Object get(int index) {
+		check(index, size());
+		return JavaListTable.OBJECT.coerce(table.get(index+1));
+	}
+
+	public Object set(int index, Object element) {
+		Object old = get(index);
+		table.set(index+1, JavaTable.toLua(element));
+		return old;
+	}
+
+	public void add(int index, Object element) {
+		check(index, size()+1);
+		if ( element == null )
+			throw new NullPointerException("null element in a lua list");
+		table.insert(index+1, JavaTable.toLua(element));
+		++modCount;
+	}
+
+	public Object remove(int index) {
+		Object old = get(index);
+		table.remove(index+1);
+		++modCount;
+		return old;
+	}
+
+	public void clear() {
+		for ( int n=size(); n>0; --n )
+			table.set(n, LuaValue.NIL);
+		++modCount;
+	}
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.lib.jse;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+
+/**
+ * {@link java.util.Map} viewing a {@link LuaTable}.
+ * <p>
+ * Keys and values are coerced when they are read or written, 
+ * as for a parameter of type {@link Object} and a return value,
+ * and changes made by lua or Java are seen by the other immediately.
+ * Lookups by key are a single lookup in the table, 
+ * while the size of the map counts the keys of the table each time it is called.
+ * Putting a null value removes the key. 
+ * <p>
+ * This class is not used directly.  
+ * Instances are returned by {@link CoerceLuaToJava#mapView(LuaTable)}, 
+ * and passed for lua tables to Java parameters of type {@link java.util.Map}.
+ * {@link CoerceJavaToLua} coerces them back to the table they view.
+ * @see LuaTableList
+ * @see CoerceLuaToJava
+ */
+final class LuaTableMap extends AbstractMap {
+
+	final LuaTable table;
+
+	LuaTableMap(LuaTable table) {
+		this.table = table;
+	}
+
+	public Object get(Object key) {
+		return key == null? null: JavaListTable.OBJECT.coerce(table.get(JavaTable.toLua(key)));
+	}
+
+	public boolean containsKey(Object key) {
+		return key != null && !table.get(JavaTable.toLua(key)).isnil();
+	}
+
+	public Object put(Object key, Object value) {
+		if ( key == null )
+			throw new NullPointerException("null key in a lua table");
+		LuaValue k = JavaTable.toLua(key);
+		Object old = JavaListTable.OBJECT.coerce(table.get(k));
+		table.set(k, JavaTable.toLua(value));
+		return old;
+	}
+
+	public Object remove(Object key) {
+		if ( key == null )
+			return null;
+		LuaValue k = JavaTable.toLua(key);
+		Object old = JavaListTable.OBJECT.coerce(table.get(k));
+		table.set(k, LuaValue.NIL);
+		return old;
+	}
+
+	public Set entrySet() {
+		return new AbstractSet() {
+			public Iterator iterator() {
+				return new Entries();
+			}
+			public int size() {
+				return table.keyCount();
+			}
+		};
+	}
+
+	/** Iterator over the keys of {@link #table} using {@link LuaTable#next(LuaValue)} */
+	private final class Entries implements Iterator {
+		private Varargs next = table.next(LuaValue.NIL);
+		private LuaValue current;
+
+		public boolean hasNext() {
+			return !next.isnil(1);
+		}
+
+		public Object next() {
+			if ( next.isnil(1) )
+				throw new NoSuchElementException();
+			final LuaValue k = next.arg1();
+			final Object key = JavaListTable.OBJECT.coerce(k);
+			final Object value = JavaListTable.OBJECT.coerce(next.arg(2));
+			current = k;
+			next = table.next(k);
+			return new Map.Entry() {
+				private Object v = value;
+				public Object getKey() {
+					return key;
+				}
+				public Object getValue() {
+					return v;
+				}
+				public Object setValue(Object value) {
+					Object old = v;
+					table.set(k, JavaTable.toLua(value));
+					v = value;
+					return old;
+				}
+				public boolean equals(Object o) {
+					if ( !(o instanceof Map.Entry) )
+						return false;
+					Map.Entry e = (Map.Entry) o;
+					return key.equals(e.getKey()) && (v == null? e.getValue() == null: v.equals(e.getValue()));
+				}
+				public int hashCode() {
+					return key.hashCode() ^ (v == null? 0: v.hashCode());
+				}
+				public String toString() {
+					return key+"="+v;
+				}
+			};
+		}
+
+		public void remove() {
+			if ( current == null )
+				throw new IllegalStateException();
+			table.set(current, LuaValue.NIL);
+			current = null;
+		}
+	}
+}
@@ -50,8 +50,7 @@ import org.luaj.vm2.lib.VarArgFunction;
  * To instantiate and use it directly, 
  * link it into your globals table via {@link LuaValue#load(LuaValue)} using code such as:
  * <pre> {@code
- * LuaTable _G = new LuaTable();
- * LuaThread.setGlobals(_G);
+ * Globals _G = new Globals();
  * LuaC.install();
  * _G.load(new BaseLib());
  * _G.load(new PackageLib());
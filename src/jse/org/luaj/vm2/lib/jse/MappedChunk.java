@@ -0,0 +1,102 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.lib.jse;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.luaj.vm2.LoadState;
+import org.luaj.vm2.LuaClosure;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Prototype;
+
+/**
+ * {@link LoadState.ChunkSource} reading a precompiled chunk from a {@link ByteBuffer},
+ * typically a file mapped into memory.
+ * <p>
+ * When the file was written with {@link org.luaj.vm2.compiler.DumpState#dumpIndexed(Prototype, java.io.OutputStream, boolean)}
+ * or {@code luac -x}, only the index of the chunk is read when it is loaded,
+ * and each function is read from the mapping when it is first called,
+ * so functions that are never called are never read from the file
+ * and cost little more than their index entry.
+ * Other binary chunks are read in full.
+ * <pre> {@code
+ * Globals _G = JsePlatform.standardGlobals();
+ * MappedChunk.load(new File("lib.luac"), "lib", _G).call();
+ * } </pre>
+ * @see LoadState#loadBinaryChunk(LoadState.ChunkSource, String)
+ */
+public class MappedChunk implements LoadState.ChunkSource {
+
+	private final ByteBuffer buffer;
+
+	/**
+	 * Construct a chunk source reading from a buffer.
+	 * @param buffer the bytes of the chunk, from its position to its limit
+	 */
+	public MappedChunk(ByteBuffer buffer) {
+		this.buffer = buffer.slice();
+	}
+
+	public int length() {
+		return buffer.limit();
+	}
+
+	public void read(int position, byte[] bytes, int offset, int length) {
+		ByteBuffer b = buffer.duplicate();
+		b.position(position);
+		b.get(bytes, offset, length);
+	}
+
+	/**
+	 * Map a file containing a binary chunk into memory and load its main function.
+	 * @param file the file containing the chunk
+	 * @param name the name of the chunk
+	 * @return the {@link Prototype} of the main function
+	 * @throws IOException if the file cannot be read or is not a binary chunk
+	 */
+	public static Prototype load(File file, String name) throws IOException {
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			FileChannel channel = fis.getChannel();
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return LoadState.loadBinaryChunk(new MappedChunk(buffer), name);
+		} finally {
+			fis.close();
+		}
+	}
+
+	/**
+	 * Map a file containing a binary chunk into memory and load it as a closure.
+	 * @param file the file containing the chunk
+	 * @param name the name of the chunk
+	 * @param env the environment of the closure
+	 * @return {@link LuaClosure} for the main function of the chunk
+	 * @throws IOException if the file cannot be read or is not a binary chunk
+	 */
+	public static LuaClosure load(File file, String name, LuaValue env) throws IOException {
+		return new LuaClosure(load(file, name), env);
+	}
+}
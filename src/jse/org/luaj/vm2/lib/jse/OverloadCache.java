@@ -0,0 +1,111 @@
+/*******************************************************************************
+* Copyright (c) 2011 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.lib.jse;
+
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+
+/**
+ * Chooses among overloaded Java methods or constructors, 
+ * remembering the overload chosen for each argument signature.
+ * <p>
+ * The overload with the lowest score for the arguments is chosen, 
+ * and cached by the {@link CoerceLuaToJava#signature(Varargs)} of the arguments,
+ * so that calls with the same kinds of arguments as one of the last few calls
+ * do not score the overloads again. 
+ * Arguments such as tables of tables, which have no signature, are always scored.
+ * <p>
+ * This class is not used directly.  
+ * It is used by {@link JavaMethod.Overload} and {@link JavaConstructor.Overload}.
+ * @see CoerceLuaToJava
+ */
+class OverloadCache {
+
+	/** Number of signatures cached */
+	static final int SIZE = 8;
+
+	/** Overload chosen for a signature */
+	static final class Entry {
+		final Object[] signature;
+		final JavaMember member;
+		Entry(Object[] signature, JavaMember member) {
+			this.signature = signature;
+			this.member = member;
+		}
+		boolean matches(Object[] s) {
+			if ( s.length != signature.length )
+				return false;
+			for ( int i=0; i<s.length; i++ )
+				if ( s[i] != signature[i] )
+					return false;
+			return true;
+		}
+	}
+
+	private final JavaMember[] members;
+	private final Entry[] entries = new Entry[SIZE];
+	private int next;
+
+	OverloadCache(JavaMember[] members) {
+		this.members = members;
+	}
+
+	/**
+	 * Choose the overload to call with some arguments.
+	 * @param args the arguments to the overload, not including any instance
+	 * @return the {@link JavaMember} with the lowest score for the arguments
+	 * @throws org.luaj.vm2.LuaError if no overload can be called with the arguments
+	 */
+	JavaMember select(Varargs args) {
+		Object[] signature = CoerceLuaToJava.signature(args);
+		if ( signature != null ) {
+			for ( int i=0; i<SIZE; i++ ) {
+				Entry e = entries[i];
+				if ( e != null && e.matches(signature) )
+					return e.member;
+			}
+		}
+		
+		JavaMember best = null;
+		int score = CoerceLuaToJava.SCORE_UNCOERCIBLE;
+		for ( int i=0; i<members.length; i++ ) {
+			int s = members[i].score(args);
+			if ( s < score ) {
+				score = s;
+				best = members[i];
+				if ( score == 0 )
+					break;
+			}
+		}
+		
+		// any match? 
+		if ( best == null )
+			LuaValue.error("no coercible public method");
+		
+		if ( signature != null ) {
+			int i = next;
+			entries[i] = new Entry(signature, best);
+			next = (i+1) % SIZE;
+		}
+		return best;
+	}
+}
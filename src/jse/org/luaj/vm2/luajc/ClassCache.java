@@ -0,0 +1,161 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.luajc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.Hashtable;
+
+import org.luaj.vm2.Lua;
+
+/**
+ * Directory of classes generated by {@link LuaJC}, keyed by a hash of 
+ * the lua source, the chunk name and the luaj version.
+ * <p>
+ * Each entry is a single file holding the bytecode of the main class of a chunk
+ * and all its inner classes, so a chunk found in the cache is loaded 
+ * without being parsed or compiled again.
+ * <p>
+ * Entries are written to a temporary file and then renamed, 
+ * so several processes may share a directory. 
+ * Entries that cannot be read are treated as missing and replaced.
+ * 
+ * @see LuaJC#LuaJC(File)
+ */
+class ClassCache {
+
+	/** Version of the code generated by {@link JavaGen}, to be changed whenever it generates different code */
+	static final int FORMAT = 3;
+
+	private static final int MAGIC = 0x4c4a4300 + FORMAT;  // "LJC" + format
+	private static final String SUFFIX = ".ljc";
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	
+	private final File dir;
+	
+	ClassCache(File dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * Compute the key of a chunk.
+	 * @param source the lua source of the chunk
+	 * @param name the chunk name, which determines the generated class names
+	 * @return the key, usable as a file name
+	 */
+	String key(byte[] source, String name) {
+		MessageDigest md;
+		try {
+			md = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 not available");
+		}
+		try {
+			md.update((Lua._VERSION+"\0"+FORMAT+"\0"+name+"\0").getBytes("UTF-8"));
+		} catch (java.io.UnsupportedEncodingException e) {
+			throw new IllegalStateException("UTF-8 not available");
+		}
+		md.update(source);
+		byte[] d = md.digest();
+		char[] c = new char[d.length*2];
+		for ( int i=0; i<d.length; i++ ) {
+			c[i*2] = HEX[(d[i]>>4)&0xf];
+			c[i*2+1] = HEX[d[i]&0xf];
+		}
+		return new String(c);
+	}
+
+	/**
+	 * Get the classes stored for a key.
+	 * @param key the key from {@link #key(byte[], String)}
+	 * @return {@link Hashtable} of class name to bytecode, or null if there is no usable entry
+	 */
+	Hashtable get(String key) {
+		File f = new File(dir, key+SUFFIX);
+		if ( ! f.isFile() )
+			return null;
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)));
+			try {
+				if ( in.readInt() != MAGIC || ! Lua._VERSION.equals(in.readUTF()) )
+					return null;
+				Hashtable h = new Hashtable();
+				for ( int i=0, n=in.readInt(); i<n; i++ ) {
+					String classname = in.readUTF();
+					byte[] bytecode = new byte[in.readInt()];
+					in.readFully(bytecode);
+					h.put(classname, bytecode);
+				}
+				return h;
+			} finally {
+				in.close();
+			}
+		} catch ( IOException e ) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Store the classes for a key, ignoring any failure to write them.
+	 * @param key the key from {@link #key(byte[], String)}
+	 * @param classes {@link Hashtable} of class name to bytecode
+	 */
+	void put(String key, Hashtable classes) {
+		File tmp = null;
+		try {
+			dir.mkdirs();
+			tmp = File.createTempFile(key, ".tmp", dir);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeUTF(Lua._VERSION);
+				out.writeInt(classes.size());
+				for ( Enumeration e=classes.keys(); e.hasMoreElements(); ) {
+					String classname = (String) e.nextElement();
+					byte[] bytecode = (byte[]) classes.get(classname);
+					out.writeUTF(classname);
+					out.writeInt(bytecode.length);
+					out.write(bytecode);
+				}
+			} finally {
+				out.close();
+			}
+			File f = new File(dir, key+SUFFIX);
+			if ( tmp.renameTo(f) || (f.delete() && tmp.renameTo(f)) )
+				tmp = null;
+		} catch ( IOException e ) {
+			// the cache is only an optimization
+		} finally {
+			if ( tmp != null )
+				tmp.delete();
+		}
+	}
+}
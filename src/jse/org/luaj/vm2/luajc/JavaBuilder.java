@@ -21,38 +21,15 @@
 ******************************************************************************/
 package org.luaj.vm2.luajc;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Vector;
 
-import org.apache.bcel.Constants;
-import org.apache.bcel.generic.AASTORE;
-import org.apache.bcel.generic.ALOAD;
-import org.apache.bcel.generic.ANEWARRAY;
-import org.apache.bcel.generic.ASTORE;
-import org.apache.bcel.generic.ArrayType;
-import org.apache.bcel.generic.BranchInstruction;
-import org.apache.bcel.generic.ClassGen;
-import org.apache.bcel.generic.CompoundInstruction;
-import org.apache.bcel.generic.ConstantPoolGen;
-import org.apache.bcel.generic.FieldGen;
-import org.apache.bcel.generic.GOTO;
-import org.apache.bcel.generic.IFEQ;
-import org.apache.bcel.generic.IFNE;
-import org.apache.bcel.generic.Instruction;
-import org.apache.bcel.generic.InstructionConstants;
-import org.apache.bcel.generic.InstructionFactory;
-import org.apache.bcel.generic.InstructionHandle;
-import org.apache.bcel.generic.InstructionList;
-import org.apache.bcel.generic.LocalVariableGen;
-import org.apache.bcel.generic.MethodGen;
-import org.apache.bcel.generic.ObjectType;
-import org.apache.bcel.generic.PUSH;
-import org.apache.bcel.generic.Type;
 import org.luaj.vm2.Buffer;
+import org.luaj.vm2.Globals;
 import org.luaj.vm2.Lua;
 import org.luaj.vm2.LuaBoolean;
+import org.luaj.vm2.LuaClosure;
 import org.luaj.vm2.LuaDouble;
 import org.luaj.vm2.LuaInteger;
 import org.luaj.vm2.LuaNumber;
@@ -60,71 +37,107 @@ import org.luaj.vm2.LuaString;
 import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.Prototype;
+import org.luaj.vm2.UpValue;
 import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.MathLib;
 import org.luaj.vm2.lib.OneArgFunction;
 import org.luaj.vm2.lib.ThreeArgFunction;
 import org.luaj.vm2.lib.TwoArgFunction;
 import org.luaj.vm2.lib.VarArgFunction;
 import org.luaj.vm2.lib.ZeroArgFunction;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
 
-public class JavaBuilder {
-	
-	private static final String STR_VARARGS = Varargs.class.getName();
-	private static final String STR_LUAVALUE = LuaValue.class.getName();
-	private static final String STR_LUASTRING = LuaString.class.getName();
-	private static final String STR_LUAINTEGER = LuaInteger.class.getName();
-	private static final String STR_LUADOUBLE = LuaDouble.class.getName();
-	private static final String STR_LUANUMBER = LuaNumber.class.getName();
-	private static final String STR_LUABOOLEAN = LuaBoolean.class.getName();
-	private static final String STR_LUATABLE = LuaTable.class.getName();
-	private static final String STR_BUFFER = Buffer.class.getName();
-	private static final String STR_STRING = String.class.getName();
-
-	private static final ObjectType TYPE_VARARGS = new ObjectType(STR_VARARGS);
-	private static final ObjectType TYPE_LUAVALUE = new ObjectType(STR_LUAVALUE);
-	private static final ObjectType TYPE_LUASTRING = new ObjectType(STR_LUASTRING);
-	private static final ObjectType TYPE_LUAINTEGER = new ObjectType(STR_LUAINTEGER);
-	private static final ObjectType TYPE_LUADOUBLE = new ObjectType(STR_LUADOUBLE);
-	private static final ObjectType TYPE_LUANUMBER = new ObjectType(STR_LUANUMBER);
-	private static final ObjectType TYPE_LUABOOLEAN = new ObjectType(STR_LUABOOLEAN);
-	private static final ObjectType TYPE_LUATABLE = new ObjectType(STR_LUATABLE);
-	private static final ObjectType TYPE_BUFFER = new ObjectType(STR_BUFFER);
-	
-	private static final ArrayType TYPE_LOCALUPVALUE = new ArrayType( TYPE_LUAVALUE, 1 );
-	private static final ArrayType TYPE_CHARARRAY = new ArrayType( Type.CHAR, 1 );
-
-	
-	private static final Class[] NO_INNER_CLASSES = {};
-
-	private static final String STR_FUNCV = VarArgFunction.class.getName();
-	private static final String STR_FUNC0 = ZeroArgFunction.class.getName();
-	private static final String STR_FUNC1 = OneArgFunction.class.getName();
-	private static final String STR_FUNC2 = TwoArgFunction.class.getName();
-	private static final String STR_FUNC3 = ThreeArgFunction.class.getName();
+public class JavaBuilder implements Opcodes {
+	
+	/** Class file version generated, which includes stack map frames */
+	private static final int CLASS_VERSION = V1_6;
+	
+	private static final String STR_VARARGS = Type.getInternalName(Varargs.class);
+	private static final String STR_LUAVALUE = Type.getInternalName(LuaValue.class);
+	private static final String STR_LUASTRING = Type.getInternalName(LuaString.class);
+	private static final String STR_BUFFER = Type.getInternalName(Buffer.class);
+	private static final String STR_STRING = Type.getInternalName(String.class);
+	private static final String STR_LAZY = Type.getInternalName(LazyFunction.class);
+	private static final String STR_LUACLOSURE = Type.getInternalName(LuaClosure.class);
+	private static final String STR_UPVALUE = Type.getInternalName(UpValue.class);
+	private static final String STR_PROTOTYPE = Type.getInternalName(Prototype.class);
+	private static final String STR_LUADOUBLE = Type.getInternalName(LuaDouble.class);
+	private static final String STR_MATHLIB = Type.getInternalName(MathLib.class);
+
+	private static final Type TYPE_VARARGS = Type.getType(Varargs.class);
+	private static final Type TYPE_LUAVALUE = Type.getType(LuaValue.class);
+	private static final Type TYPE_LUASTRING = Type.getType(LuaString.class);
+	private static final Type TYPE_LUAINTEGER = Type.getType(LuaInteger.class);
+	private static final Type TYPE_LUADOUBLE = Type.getType(LuaDouble.class);
+	private static final Type TYPE_LUANUMBER = Type.getType(LuaNumber.class);
+	private static final Type TYPE_LUABOOLEAN = Type.getType(LuaBoolean.class);
+	private static final Type TYPE_LUATABLE = Type.getType(LuaTable.class);
+	private static final Type TYPE_BUFFER = Type.getType(Buffer.class);
+	private static final Type TYPE_STRING = Type.getType(String.class);
+	private static final Type TYPE_CLASS = Type.getType(Class.class);
+	private static final Type TYPE_OBJECT = Type.getType(Object.class);
+	private static final Type TYPE_LUACLOSURE = Type.getType(LuaClosure.class);
+	private static final Type TYPE_UPVALUE = Type.getType(UpValue.class);
+	private static final Type TYPE_UPVALUEARRAY = Type.getType(UpValue[].class);
+	private static final Type TYPE_PROTOTYPE = Type.getType(Prototype.class);
+	private static final Type TYPE_PROTOTYPEARRAY = Type.getType(Prototype[].class);
+	private static final Type TYPE_GLOBALS = Type.getType(Globals.class);
+	
+	private static final Type TYPE_LOCALUPVALUE = Type.getType(LuaValue[].class);
+	private static final Type TYPE_CHARARRAY = Type.getType(char[].class);
+
+	private static final String STR_FUNCV = Type.getInternalName(VarArgFunction.class);
+	private static final String STR_FUNC0 = Type.getInternalName(ZeroArgFunction.class);
+	private static final String STR_FUNC1 = Type.getInternalName(OneArgFunction.class);
+	private static final String STR_FUNC2 = Type.getInternalName(TwoArgFunction.class);
+	private static final String STR_FUNC3 = Type.getInternalName(ThreeArgFunction.class);
 
 	// argument list types
 	private static final Type[] ARG_TYPES_NONE = {};
-	private static final Type[] ARG_TYPES_INT =  { Type.INT };
-	private static final Type[] ARG_TYPES_DOUBLE = { Type.DOUBLE };
-	private static final Type[] ARG_TYPES_STRING = { Type.STRING };
+	private static final Type[] ARG_TYPES_INT =  { Type.INT_TYPE };
+	private static final Type[] ARG_TYPES_DOUBLE = { Type.DOUBLE_TYPE };
+	private static final Type[] ARG_TYPES_DOUBLE_DOUBLE = { Type.DOUBLE_TYPE, Type.DOUBLE_TYPE };
+	private static final Type[] ARG_TYPES_STRING = { TYPE_STRING };
 	private static final Type[] ARG_TYPES_CHARARRAY = { TYPE_CHARARRAY };
-	private static final Type[] ARG_TYPES_VARARGS_INT =  { TYPE_VARARGS, Type.INT };	
-	private static final Type[] ARG_TYPES_INT_LUAVALUE = { Type.INT, TYPE_LUAVALUE };
-	private static final Type[] ARG_TYPES_INT_VARARGS = { Type.INT, TYPE_VARARGS };
+	private static final Type[] ARG_TYPES_VARARGS_INT =  { TYPE_VARARGS, Type.INT_TYPE };	
+	private static final Type[] ARG_TYPES_INT_LUAVALUE = { Type.INT_TYPE, TYPE_LUAVALUE };
+	private static final Type[] ARG_TYPES_INT_VARARGS = { Type.INT_TYPE, TYPE_VARARGS };
+	private static final Type[] ARG_TYPES_INT_OBJECT = { Type.INT_TYPE, TYPE_OBJECT };
+	private static final Type[] ARG_TYPES_CLASS_STRING_INT = { TYPE_CLASS, TYPE_STRING, Type.INT_TYPE };
 	private static final Type[] ARG_TYPES_LUAVALUE_VARARGS = { TYPE_LUAVALUE, TYPE_VARARGS };
 	private static final Type[] ARG_TYPES_LUAVALUE_LUAVALUE_VARARGS = { TYPE_LUAVALUE, TYPE_LUAVALUE, TYPE_VARARGS };
-	private static final Type[] ARG_TYPES_LUAVALUEARRAY = { new ArrayType( TYPE_LUAVALUE, 1 ) };
-	private static final Type[] ARG_TYPES_LUAVALUEARRAY_VARARGS = { new ArrayType( TYPE_LUAVALUE, 1 ), TYPE_VARARGS };
+	private static final Type[] ARG_TYPES_LUAVALUEARRAY = { TYPE_LOCALUPVALUE };
+	private static final Type[] ARG_TYPES_LUAVALUEARRAY_VARARGS = { TYPE_LOCALUPVALUE, TYPE_VARARGS };
 	private static final Type[] ARG_TYPES_LUAVALUE_LUAVALUE_LUAVALUE = { TYPE_LUAVALUE, TYPE_LUAVALUE, TYPE_LUAVALUE };
 	private static final Type[] ARG_TYPES_VARARGS = { TYPE_VARARGS };
 	private static final Type[] ARG_TYPES_LUAVALUE_LUAVALUE = { TYPE_LUAVALUE, TYPE_LUAVALUE };
-	private static final Type[] ARG_TYPES_INT_INT = { Type.INT, Type.INT };
+	private static final Type[] ARG_TYPES_INT_INT = { Type.INT_TYPE, Type.INT_TYPE };
 	private static final Type[] ARG_TYPES_LUAVALUE = { TYPE_LUAVALUE };
 	private static final Type[] ARG_TYPES_BUFFER = { TYPE_BUFFER };
+	private static final Type[] ARG_TYPES_LUACLOSURE = { TYPE_LUACLOSURE };
+	private static final Type[] ARG_TYPES_LUAVALUEARRAY_INT = { TYPE_LOCALUPVALUE, Type.INT_TYPE };
+	private static final Type[] ARG_TYPES_PROTOTYPE_LUAVALUE_GLOBALS = { TYPE_PROTOTYPE, TYPE_LUAVALUE, TYPE_GLOBALS };
 
 	// names, arg types for main prototype classes
 	private static final String[]     SUPER_NAME_N   = { STR_FUNC0, STR_FUNC1, STR_FUNC2, STR_FUNC3, STR_FUNCV, };
-	private static final ObjectType[] RETURN_TYPE_N  = { TYPE_LUAVALUE, TYPE_LUAVALUE, TYPE_LUAVALUE, TYPE_LUAVALUE, TYPE_VARARGS, };
+	private static final Type[]       RETURN_TYPE_N  = { TYPE_LUAVALUE, TYPE_LUAVALUE, TYPE_LUAVALUE, TYPE_LUAVALUE, TYPE_VARARGS, };
 	private static final Type[][]     ARG_TYPES_N    = { ARG_TYPES_NONE, ARG_TYPES_LUAVALUE, ARG_TYPES_LUAVALUE_LUAVALUE, ARG_TYPES_LUAVALUE_LUAVALUE_LUAVALUE, ARG_TYPES_VARARGS,  };
 	private static final String[][]   ARG_NAMES_N    = { {}, {"arg"}, {"arg1","arg2"}, {"arg1","arg2","arg3"}, {"args"}, };
 	private static final String[]     METH_NAME_N    = { "call", "call", "call", "call", "onInvoke", };
@@ -136,22 +149,41 @@ public class JavaBuilder {
 	private static final String PREFIX_UPVALUE      = "u";
 	private static final String PREFIX_PLAIN_SLOT   = "s";
 	private static final String PREFIX_UPVALUE_SLOT = "a";
+	private static final String PREFIX_DOUBLE_SLOT  = "d";
+	private static final String PREFIX_INT_SLOT     = "i";
 	private static final String NAME_VARRESULT      = "v";
+	private static final String NAME_CLOSURE        = "closure";
+	
+	/** Create closures of inner prototypes as instances of their generated classes */
+	static final int MODE_DIRECT = 0;
+	
+	/** Create closures of inner prototypes as {@link LazyFunction}, so their classes are generated when first called */
+	static final int MODE_LAZY = 1;
+	
+	/** 
+	 * Generate a class for a single prototype whose instances are bound to a {@link LuaClosure}, 
+	 * sharing its {@link UpValue}s, and which creates closures of inner prototypes as {@link LuaClosure}
+	 */
+	static final int MODE_TIERED = 2;
 	
 	// basic info
 	private final ProtoInfo pi;
 	private final Prototype p;
 	private final String classname;
+	private final String internalname;
+	
+	// how closures and upvalues are represented, one of the MODE_ constants
+	private final int mode;
 	
-	// bcel variables
-	private final ClassGen cg;
-	private final ConstantPoolGen cp;
-	private final InstructionFactory factory;
+	// asm class and instruction lists
+	private final ClassNode cg;
+	private final InsnList init;
+	private final InsnList main;
+	private final MethodNode mg;
 	
-	// main instruction list for the main function of this class
-	private final InstructionList init;
-	private final InstructionList main;
-	private final MethodGen mg;
+	// local variables of the main function
+	private final Vector locals = new Vector();
+	private int nlocals;
 	
 	// the superclass arg count, 0-3 args, 4=varargs
 	private int superclassType;
@@ -159,17 +191,31 @@ public class JavaBuilder {
 	
 	// storage for goto locations
 	private final int[] targets;
-	private final BranchInstruction[] branches;
-	private final InstructionHandle[] branchDestHandles;
-	private InstructionHandle beginningOfLuaInstruction;
+	private final JumpInsnNode[] branches;
+	private final AbstractInsnNode[] branchDestHandles;
+	private AbstractInsnNode beginningOfLuaInstruction;
 	
 	// hold vararg result
-	private LocalVariableGen varresult = null;
+	private int varresult = -1;
 	
 	public JavaBuilder(ProtoInfo pi, String classname, String filename) {
+		this(pi, classname, filename, MODE_DIRECT);
+	}
+	
+	/**
+	 * Construct a builder for the class of one prototype. 
+	 * @param pi the prototype 
+	 * @param classname the java class name
+	 * @param filename the lua source file name
+	 * @param mode how closures of inner prototypes are created, 
+	 * one of {@link #MODE_DIRECT}, {@link #MODE_LAZY} or {@link #MODE_TIERED}
+	 */
+	JavaBuilder(ProtoInfo pi, String classname, String filename, int mode) {
 		this.pi = pi;
 		this.p = pi.prototype;
 		this.classname = classname;
+		this.internalname = classname.replace('.', '/');
+		this.mode = mode;
 		
 		// what class to inherit from
 		superclassType = p.numparams;
@@ -186,31 +232,40 @@ public class JavaBuilder {
 		}
 		
 		// create class generator
-		cg = new ClassGen(classname, SUPER_NAME_N[superclassType], filename,
-				Constants.ACC_PUBLIC | Constants.ACC_SUPER, null);
-		cp = cg.getConstantPool(); // cg creates constant pool
+		cg = new ClassNode();
+		cg.version = CLASS_VERSION;
+		cg.access = ACC_PUBLIC | ACC_SUPER;
+		cg.name = internalname;
+		cg.superName = SUPER_NAME_N[superclassType];
+		cg.sourceFile = filename;
 
 		// main instruction lists
-		factory = new InstructionFactory(cg);
-		init = new InstructionList();
-		main = new InstructionList();
+		init = new InsnList();
+		main = new InsnList();
 
-		// create the fields
-		for ( int i=0; i<p.nups; i++ ) {
-			boolean isrw = pi.isReadWriteUpvalue( pi.upvals[i] ); 
-			Type uptype = isrw? (Type) TYPE_LOCALUPVALUE: (Type) TYPE_LUAVALUE;
-			FieldGen fg = new FieldGen(0, uptype, upvalueName(i), cp);
-			cg.addField(fg.getField());
+		// create the fields, which are public so a LazyFunction can set them, 
+		// or which hold the closure and its upvalues when tiered
+		if ( mode == MODE_TIERED ) {
+			cg.fields.add(new FieldNode(ACC_PRIVATE | ACC_FINAL, NAME_CLOSURE, TYPE_LUACLOSURE.getDescriptor(), null, null));
+			for ( int i=0; i<p.nups; i++ )
+				cg.fields.add(new FieldNode(ACC_PRIVATE | ACC_FINAL, upvalueName(i), TYPE_UPVALUE.getDescriptor(), null, null));
+		} else {
+			for ( int i=0; i<p.nups; i++ ) {
+				boolean isrw = pi.isReadWriteUpvalue( pi.upvals[i] ); 
+				Type uptype = isrw? TYPE_LOCALUPVALUE: TYPE_LUAVALUE;
+				cg.fields.add(new FieldNode(ACC_PUBLIC, upvalueName(i), uptype.getDescriptor(), null, null));
+			}
 		}
 		
 		// create the method
-		mg = new MethodGen( Constants.ACC_PUBLIC | Constants.ACC_FINAL, // access flags
-				RETURN_TYPE_N[superclassType], // return type
-				ARG_TYPES_N[superclassType], // argument types
-				ARG_NAMES_N[superclassType], // arg names
+		Type[] argtypes = ARG_TYPES_N[superclassType];
+		mg = new MethodNode( ACC_PUBLIC | ACC_FINAL, // access flags
 				METH_NAME_N[superclassType], 
-				STR_LUAVALUE, // method, defining class
-				main, cp);
+				Type.getMethodDescriptor(RETURN_TYPE_N[superclassType], argtypes), 
+				null, null);
+		addLocalVariable("this", Type.getObjectType(internalname));
+		for ( int i=0; i<argtypes.length; i++ )
+			addLocalVariable(ARG_NAMES_N[superclassType][i], argtypes[i]);
 		
 		// initialize the values in the slots
 		initializeSlots();	
@@ -218,8 +273,8 @@ public class JavaBuilder {
 		// initialize branching
 		int nc = p.code.length;
 		targets = new int[nc];
-		branches = new BranchInstruction[nc];
-		branchDestHandles = new InstructionHandle[nc];
+		branches = new JumpInsnNode[nc];
+		branchDestHandles = new AbstractInsnNode[nc];
 	}
 	
 	public void initializeSlots() {
@@ -228,31 +283,31 @@ public class JavaBuilder {
 		if ( superclassType == SUPERTYPE_VARARGS ) {
 			for ( slot=0; slot<p.numparams; slot++ ) {
 				if ( pi.isInitialValueUsed(slot) ) {
-					append(new ALOAD(1));
-					append(new PUSH(cp, slot+1));
-					append(factory.createInvoke(STR_VARARGS, "arg", TYPE_LUAVALUE, ARG_TYPES_INT, Constants.INVOKEVIRTUAL));
+					append(new VarInsnNode(ALOAD, 1));
+					append(push(slot+1));
+					invoke(INVOKEVIRTUAL, STR_VARARGS, "arg", TYPE_LUAVALUE, ARG_TYPES_INT);
 					storeLocal(-1, slot);
 				}
 			}
 			boolean needsarg = ((p.is_vararg & Lua.VARARG_NEEDSARG) != 0);
 			if ( needsarg ) {
-				append(new ALOAD(1));
-				append(new PUSH(cp, 1 + p.numparams));
-				append(factory.createInvoke(STR_LUAVALUE, "tableOf", TYPE_LUATABLE, ARG_TYPES_VARARGS_INT, Constants.INVOKESTATIC));
+				append(new VarInsnNode(ALOAD, 1));
+				append(push(1 + p.numparams));
+				invoke(INVOKESTATIC, STR_LUAVALUE, "tableOf", TYPE_LUATABLE, ARG_TYPES_VARARGS_INT);
 				storeLocal(-1, slot++ );
 			}
 			else if ( p.numparams > 0 ) {
-				append(new ALOAD(1));
-				append(new PUSH(cp, 1 + p.numparams));
-				append(factory.createInvoke(STR_VARARGS, "subargs", TYPE_VARARGS, ARG_TYPES_INT, Constants.INVOKEVIRTUAL));
-				append(new ASTORE(1));
+				append(new VarInsnNode(ALOAD, 1));
+				append(push(1 + p.numparams));
+				invoke(INVOKEVIRTUAL, STR_VARARGS, "subargs", TYPE_VARARGS, ARG_TYPES_INT);
+				append(new VarInsnNode(ASTORE, 1));
 			}
 		} else {
 			// fixed arg function between 0 and 3 arguments
 			for ( slot=0; slot<p.numparams; slot++ ) {
 				this.plainSlotVars.put( Integer.valueOf(slot), Integer.valueOf(1+slot) );
 				if ( pi.isUpvalueCreate(-1, slot) ) {
-					append(new ALOAD(1+slot));
+					append(new VarInsnNode(ALOAD, 1+slot));
 					storeLocal(-1, slot);
 				}
 			}
@@ -270,65 +325,124 @@ public class JavaBuilder {
 	public byte[] completeClass() {
 
 		// add class initializer 
-		if ( ! init.isEmpty() ) {
-			MethodGen mg = new MethodGen(Constants.ACC_STATIC, Type.VOID,
-					ARG_TYPES_NONE, new String[] {}, "<clinit>", 
-					cg.getClassName(), init, cg.getConstantPool());
-			init.append(InstructionConstants.RETURN);
-			mg.setMaxStack();
-			cg.addMethod(mg.getMethod());
-			init.dispose();
-		}
-
-		// add default constructor
-		cg.addEmptyConstructor(Constants.ACC_PUBLIC);
+		if ( init.size() > 0 ) {
+			MethodNode mg = new MethodNode(ACC_STATIC, "<clinit>", "()V", null, null);
+			init.add(new InsnNode(RETURN));
+			mg.instructions = init;
+			cg.methods.add(mg);
+		}
+
+		// add default constructor, or constructor binding a closure
+		if ( mode == MODE_TIERED )
+			cg.methods.add(closureConstructor());
+		else {
+			MethodNode ctor = new MethodNode(ACC_PUBLIC, "<init>", "()V", null, null);
+			ctor.instructions.add(new VarInsnNode(ALOAD, 0));
+			ctor.instructions.add(new MethodInsnNode(INVOKESPECIAL, cg.superName, "<init>", "()V", false));
+			ctor.instructions.add(new InsnNode(RETURN));
+			cg.methods.add(ctor);
+		}
 		
 		// gen method
 		resolveBranches();
-		mg.setMaxStack();
-		cg.addMethod(mg.getMethod());
-		main.dispose();
+		LabelNode start = new LabelNode(), end = new LabelNode();
+		main.insert(start);
+		main.add(end);
+		for ( int i=0, n=locals.size(); i<n; i++ ) {
+			Object[] l = (Object[]) locals.elementAt(i);
+			mg.localVariables.add(new LocalVariableNode((String) l[0], ((Type) l[1]).getDescriptor(), null, start, end, ((Integer) l[2]).intValue()));
+		}
+		mg.instructions = main;
+		cg.methods.add(mg);
 		
-		// convert to class bytes
-		try {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			cg.getJavaClass().dump(baos);
-			return baos.toByteArray();
-		} catch ( IOException ioe ) {
-			throw new RuntimeException("JavaClass.dump() threw "+ioe);
+		// convert to class bytes, computing stack map frames
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+			protected String getCommonSuperClass(String type1, String type2) {
+				// classes of this chunk may not be loaded yet, but are all functions
+				if ( isChunkClass(type1) )
+					type1 = STR_LUAVALUE;
+				if ( isChunkClass(type2) )
+					type2 = STR_LUAVALUE;
+				return type1.equals(type2)? type1: super.getCommonSuperClass(type1, type2);
+			}
+			protected ClassLoader getClassLoader() {
+				return JavaBuilder.class.getClassLoader();
+			}
+		};
+		cg.accept(cw);
+		return cw.toByteArray();
+	}
+
+	/** 
+	 * Constructor for tiered classes, which keeps the closure, 
+	 * shares its upvalues and takes its environment
+	 */
+	private MethodNode closureConstructor() {
+		MethodNode ctor = new MethodNode(ACC_PUBLIC, "<init>", Type.getMethodDescriptor(Type.VOID_TYPE, ARG_TYPES_LUACLOSURE), null, null);
+		InsnList il = ctor.instructions;
+		il.add(new VarInsnNode(ALOAD, 0));
+		il.add(new MethodInsnNode(INVOKESPECIAL, cg.superName, "<init>", "()V", false));
+		il.add(new VarInsnNode(ALOAD, 0));
+		il.add(new VarInsnNode(ALOAD, 1));
+		il.add(new FieldInsnNode(PUTFIELD, internalname, NAME_CLOSURE, TYPE_LUACLOSURE.getDescriptor()));
+		for ( int i=0; i<p.nups; i++ ) {
+			il.add(new VarInsnNode(ALOAD, 0));
+			il.add(new VarInsnNode(ALOAD, 1));
+			il.add(new FieldInsnNode(GETFIELD, STR_LUACLOSURE, "upValues", TYPE_UPVALUEARRAY.getDescriptor()));
+			il.add(push(i));
+			il.add(new InsnNode(AALOAD));
+			il.add(new FieldInsnNode(PUTFIELD, internalname, upvalueName(i), TYPE_UPVALUE.getDescriptor()));
 		}
+		il.add(new VarInsnNode(ALOAD, 0));
+		il.add(new VarInsnNode(ALOAD, 1));
+		il.add(new MethodInsnNode(INVOKEVIRTUAL, STR_LUAVALUE, "getfenv", Type.getMethodDescriptor(TYPE_LUAVALUE, ARG_TYPES_NONE), false));
+		il.add(new FieldInsnNode(PUTFIELD, internalname, "env", TYPE_LUAVALUE.getDescriptor()));
+		il.add(new InsnNode(RETURN));
+		return ctor;
+	}
+
+	private boolean isChunkClass(String type) {
+		return type.equals(internalname) || type.startsWith(internalname+"$");
 	}
 
 	public void dup() {
-		append(InstructionConstants.DUP);
+		append(new InsnNode(DUP));
 	}
 
 	public void pop() {
-		append(InstructionConstants.POP);
+		append(new InsnNode(POP));
 	}
 
 	public void loadNil() {
-		append(factory.createFieldAccess(STR_LUAVALUE, "NIL", TYPE_LUAVALUE, Constants.GETSTATIC));
+		append(new FieldInsnNode(GETSTATIC, STR_LUAVALUE, "NIL", TYPE_LUAVALUE.getDescriptor()));
 	}
 	
 	public void loadNone() {
-		append(factory.createFieldAccess(STR_LUAVALUE, "NONE", TYPE_LUAVALUE, Constants.GETSTATIC));
+		append(new FieldInsnNode(GETSTATIC, STR_LUAVALUE, "NONE", TYPE_LUAVALUE.getDescriptor()));
 	}
 
 	public void loadBoolean(boolean b) {
 		String field = (b? "TRUE": "FALSE");
-		append(factory.createFieldAccess(STR_LUAVALUE, field, TYPE_LUABOOLEAN, Constants.GETSTATIC));
+		append(new FieldInsnNode(GETSTATIC, STR_LUAVALUE, field, TYPE_LUABOOLEAN.getDescriptor()));
+	}
+	
+	private int addLocalVariable(String name, Type type) {
+		int index = nlocals;
+		locals.addElement(new Object[] { name, type, Integer.valueOf(index) });
+		nlocals += type.getSize();
+		return index;
 	}
 	
 	private Map<Integer,Integer> plainSlotVars = new HashMap<Integer,Integer>();
 	private Map<Integer,Integer> upvalueSlotVars = new HashMap<Integer,Integer>();
+	private Map<Integer,Integer> doubleSlotVars = new HashMap<Integer,Integer>();
+	private Map<Integer,Integer> intSlotVars = new HashMap<Integer,Integer>();
 	private int findSlot( int slot, Map<Integer,Integer> map, String prefix, Type type ) {
 		Integer islot = Integer.valueOf(slot);
 		if ( map.containsKey(islot) )
 			return ((Integer)map.get(islot)).intValue();
 		String name = prefix+slot;
-		LocalVariableGen local = mg.addLocalVariable(name, type, null, null);
-		int index = local.getIndex();
+		int index = addLocalVariable(name, type);
 		map.put(islot, Integer.valueOf(index));
 		return index;
 	}
@@ -338,45 +452,196 @@ public class JavaBuilder {
 				findSlot( slot, plainSlotVars, PREFIX_PLAIN_SLOT, TYPE_LUAVALUE );
 	}
 
+	private int findNumberSlotIndex( int slot, int type ) {
+		return type == VarInfo.TYPE_INT? 
+				findSlot( slot, intSlotVars, PREFIX_INT_SLOT, Type.INT_TYPE ):
+				findSlot( slot, doubleSlotVars, PREFIX_DOUBLE_SLOT, Type.DOUBLE_TYPE );
+	}
+
+	private VarInfo assignedVar(int pc, int slot) {
+		return pc<0? pi.params[slot]: pi.vars[slot][pc];
+	}
+
+	/** Check if the variable in a slot when the instruction at pc is executed is a number held unboxed */
+	public boolean isNumber(int pc, int slot) {
+		return pi.inputType(pc, slot) >= VarInfo.TYPE_NUMBER;
+	}
+
+	/** Check if the variable in a slot when the instruction at pc is executed is an integer held unboxed */
+	public boolean isInt(int pc, int slot) {
+		return pi.inputType(pc, slot) == VarInfo.TYPE_INT;
+	}
+
+	/** Check if the variable assigned to a slot by the instruction at pc is a number held unboxed */
+	public boolean isNumberAssign(int pc, int slot) {
+		VarInfo v = assignedVar(pc, slot);
+		return v != null && v.isnumber();
+	}
+
 	public void loadLocal(int pc, int slot) {
+		VarInfo v = pi.inputVar(pc, slot);
+		if ( v != null && v.isnumber() && !v.isboxed ) {
+			// number only held unboxed
+			append(new VarInsnNode(v.type == VarInfo.TYPE_INT? ILOAD: DLOAD, findNumberSlotIndex(slot, v.type)));
+			box(v.type);
+			return;
+		}
 		boolean isupval = pi.isUpvalueRefer(pc, slot);
 		int index = findSlotIndex( slot, isupval );
-		append(new ALOAD(index));
+		append(new VarInsnNode(ALOAD, index));
 		if (isupval) {
-			append(new PUSH(cp, 0));
-			append(InstructionConstants.AALOAD);
+			append(push(0));
+			append(new InsnNode(AALOAD));
 		}
 	}
 
 	public void storeLocal(int pc, int slot) {
+		VarInfo v = assignedVar(pc, slot);
+		if ( v != null && v.isnumber() ) {
+			// value assigned to a number, also held unboxed
+			if ( v.isboxed ) {
+				append(new InsnNode(DUP));
+				append(new VarInsnNode(ASTORE, findSlotIndex( slot, false )));
+			}
+			if ( v.type == VarInfo.TYPE_INT ) {
+				invoke(INVOKEVIRTUAL, STR_LUAVALUE, "toint", Type.INT_TYPE, ARG_TYPES_NONE);
+				append(new VarInsnNode(ISTORE, findNumberSlotIndex(slot, v.type)));
+			} else {
+				invoke(INVOKEVIRTUAL, STR_LUAVALUE, "todouble", Type.DOUBLE_TYPE, ARG_TYPES_NONE);
+				append(new VarInsnNode(DSTORE, findNumberSlotIndex(slot, v.type)));
+			}
+			return;
+		}
 		boolean isupval = pi.isUpvalueAssign(pc, slot);
 		int index = findSlotIndex( slot, isupval );
 		if (isupval) {
 			boolean isupcreate = pi.isUpvalueCreate(pc, slot);
 			if ( isupcreate ) {
-				append(factory.createInvoke(classname, "newupe", TYPE_LOCALUPVALUE, ARG_TYPES_NONE, Constants.INVOKESTATIC));
-				append(InstructionConstants.DUP);
-				append(new ASTORE(index));
+				invoke(INVOKESTATIC, internalname, "newupe", TYPE_LOCALUPVALUE, ARG_TYPES_NONE);
+				append(new InsnNode(DUP));
+				append(new VarInsnNode(ASTORE, index));
 			} else {
-				append(new ALOAD(index));
+				append(new VarInsnNode(ALOAD, index));
 			}
-			append(InstructionConstants.SWAP);
-			append(new PUSH(cp, 0));
-			append(InstructionConstants.SWAP);
-			append(InstructionConstants.AASTORE);
+			append(new InsnNode(SWAP));
+			append(push(0));
+			append(new InsnNode(SWAP));
+			append(new InsnNode(AASTORE));
+		} else {
+			append(new VarInsnNode(ASTORE, index));
+		}
+	}
+
+	/** Load a number from a slot as a double, converting an integer or value */
+	public void loadLocalDouble(int pc, int slot) {
+		VarInfo v = pi.inputVar(pc, slot);
+		if ( v != null && v.type == VarInfo.TYPE_NUMBER ) {
+			append(new VarInsnNode(DLOAD, findNumberSlotIndex(slot, v.type)));
+		} else if ( v != null && v.type == VarInfo.TYPE_INT ) {
+			append(new VarInsnNode(ILOAD, findNumberSlotIndex(slot, v.type)));
+			append(new InsnNode(I2D));
+		} else {
+			loadLocal(pc, slot);
+			invoke(INVOKEVIRTUAL, STR_LUAVALUE, "todouble", Type.DOUBLE_TYPE, ARG_TYPES_NONE);
+		}
+	}
+
+	/** Load an integer from a slot as an int, converting a value */
+	public void loadLocalInt(int pc, int slot) {
+		VarInfo v = pi.inputVar(pc, slot);
+		if ( v != null && v.type == VarInfo.TYPE_INT ) {
+			append(new VarInsnNode(ILOAD, findNumberSlotIndex(slot, v.type)));
+		} else {
+			loadLocal(pc, slot);
+			invoke(INVOKEVIRTUAL, STR_LUAVALUE, "toint", Type.INT_TYPE, ARG_TYPES_NONE);
+		}
+	}
+
+	/** Load a value from a slot for a numeric for loop as a double, or throw an error if not a number */
+	public void loadLocalForLoop(int pc, int slot, String message) {
+		if ( isNumber(pc, slot) ) {
+			loadLocalDouble(pc, slot);
+		} else {
+			loadLocal(pc, slot);
+			append(new LdcInsnNode(message));
+			invoke(INVOKEVIRTUAL, STR_LUAVALUE, "checknumber", TYPE_LUANUMBER, ARG_TYPES_STRING);
+			invoke(INVOKEVIRTUAL, STR_LUAVALUE, "todouble", Type.DOUBLE_TYPE, ARG_TYPES_NONE);
+		}
+	}
+
+	/** Store the double on the stack to a slot, boxing it if the variable is also held as a value */
+	public void storeLocalDouble(int pc, int slot) {
+		VarInfo v = assignedVar(pc, slot);
+		if ( v == null || v.type != VarInfo.TYPE_NUMBER ) {
+			box(VarInfo.TYPE_NUMBER);
+			storeLocal(pc, slot);
+			return;
+		}
+		if ( v.isboxed ) {
+			append(new InsnNode(DUP2));
+			append(new VarInsnNode(DSTORE, findNumberSlotIndex(slot, v.type)));
+			box(v.type);
+			append(new VarInsnNode(ASTORE, findSlotIndex( slot, false )));
+		} else {
+			append(new VarInsnNode(DSTORE, findNumberSlotIndex(slot, v.type)));
+		}
+	}
+
+	/** Store the int on the stack to a slot, boxing it if the variable is also held as a value */
+	public void storeLocalInt(int pc, int slot) {
+		VarInfo v = assignedVar(pc, slot);
+		if ( v != null && v.type == VarInfo.TYPE_NUMBER ) {
+			append(new InsnNode(I2D));
+			storeLocalDouble(pc, slot);
+			return;
+		}
+		if ( v == null || v.type != VarInfo.TYPE_INT ) {
+			box(VarInfo.TYPE_INT);
+			storeLocal(pc, slot);
+			return;
+		}
+		if ( v.isboxed ) {
+			append(new InsnNode(DUP));
+			append(new VarInsnNode(ISTORE, findNumberSlotIndex(slot, v.type)));
+			box(v.type);
+			append(new VarInsnNode(ASTORE, findSlotIndex( slot, false )));
 		} else {
-			append(new ASTORE(index));
+			append(new VarInsnNode(ISTORE, findNumberSlotIndex(slot, v.type)));
+		}
+	}
+
+	/** Copy a number from one slot to another, copying the value as well if both hold it */
+	public void moveNumber(int pc, int from, int to) {
+		VarInfo v = assignedVar(pc, to);
+		if ( v.type == VarInfo.TYPE_INT ) {
+			loadLocalInt(pc, from);
+			append(new VarInsnNode(ISTORE, findNumberSlotIndex(to, v.type)));
+		} else {
+			loadLocalDouble(pc, from);
+			append(new VarInsnNode(DSTORE, findNumberSlotIndex(to, v.type)));
+		}
+		if ( v.isboxed ) {
+			loadLocal(pc, from);
+			append(new VarInsnNode(ASTORE, findSlotIndex( to, false )));
 		}
 	}
 
+	/** Box the double or int on the stack as a {@link LuaNumber} */
+	private void box(int type) {
+		if ( type == VarInfo.TYPE_INT )
+			invoke(INVOKESTATIC, STR_LUAVALUE, "valueOf", TYPE_LUAINTEGER, ARG_TYPES_INT);
+		else
+			invoke(INVOKESTATIC, STR_LUAVALUE, "valueOf", TYPE_LUANUMBER, ARG_TYPES_DOUBLE);
+	}
+
 	public void createUpvalues(int pc, int firstslot, int numslots) {
 		for ( int i=0; i<numslots; i++ ) {
 			int slot = firstslot + i;
 			boolean isupcreate = pi.isUpvalueCreate(pc, slot);
 			if ( isupcreate ) {
 				int index = findSlotIndex( slot, true );
-				append(factory.createInvoke(classname, "newupn", TYPE_LOCALUPVALUE, ARG_TYPES_NONE, Constants.INVOKESTATIC));
-				append(new ASTORE(index));
+				invoke(INVOKESTATIC, internalname, "newupn", TYPE_LOCALUPVALUE, ARG_TYPES_NONE);
+				append(new VarInsnNode(ASTORE, index));
 			}
 		}
 	}
@@ -385,57 +650,78 @@ public class JavaBuilder {
 		boolean isupassign = pi.isUpvalueAssign(pc, slot);
 		if ( isupassign ) {
 			int index = findSlotIndex( slot, false );
-			append(new ALOAD(index));
-			append(factory.createInvoke(classname, "newupl", TYPE_LOCALUPVALUE,  ARG_TYPES_LUAVALUE, Constants.INVOKESTATIC));
+			append(new VarInsnNode(ALOAD, index));
+			invoke(INVOKESTATIC, internalname, "newupl", TYPE_LOCALUPVALUE,  ARG_TYPES_LUAVALUE);
 			int upindex = findSlotIndex( slot, true );
-			append(new ASTORE(upindex));
+			append(new VarInsnNode(ASTORE, upindex));
 		}
 	}
 	
-	private static String upvalueName(int upindex) {
+	static String upvalueName(int upindex) {
 		return PREFIX_UPVALUE+upindex;
 	}
 	
 	public void loadUpvalue(int upindex) {
+		if ( mode == MODE_TIERED ) {
+			loadClosureUpvalue(upindex);
+			invoke(INVOKEVIRTUAL, STR_UPVALUE, "getValue", TYPE_LUAVALUE, ARG_TYPES_NONE);
+			return;
+		}
 		boolean isrw = pi.isReadWriteUpvalue( pi.upvals[upindex] ); 
-		append(InstructionConstants.THIS);
+		append(new VarInsnNode(ALOAD, 0));
 		if ( isrw ) {
-			append(factory.createFieldAccess(classname, upvalueName(upindex), TYPE_LOCALUPVALUE, Constants.GETFIELD));
-			append(new PUSH(cp,0));
-			append(InstructionConstants.AALOAD);
+			append(new FieldInsnNode(GETFIELD, internalname, upvalueName(upindex), TYPE_LOCALUPVALUE.getDescriptor()));
+			append(push(0));
+			append(new InsnNode(AALOAD));
 		} else {
-			append(factory.createFieldAccess(classname, upvalueName(upindex), TYPE_LUAVALUE, Constants.GETFIELD));
+			append(new FieldInsnNode(GETFIELD, internalname, upvalueName(upindex), TYPE_LUAVALUE.getDescriptor()));
 		}
 	}
 
 	public void storeUpvalue(int pc, int upindex, int slot) {
+		if ( mode == MODE_TIERED ) {
+			loadClosureUpvalue(upindex);
+			loadLocal(pc, slot);
+			invoke(INVOKEVIRTUAL, STR_UPVALUE, "setValue", Type.VOID_TYPE, ARG_TYPES_LUAVALUE);
+			return;
+		}
 		boolean isrw = pi.isReadWriteUpvalue( pi.upvals[upindex] ); 
-		append(InstructionConstants.THIS);
+		append(new VarInsnNode(ALOAD, 0));
 		if ( isrw ) {
-			append(factory.createFieldAccess(classname, upvalueName(upindex), TYPE_LOCALUPVALUE, Constants.GETFIELD));
-			append(new PUSH(cp,0));
+			append(new FieldInsnNode(GETFIELD, internalname, upvalueName(upindex), TYPE_LOCALUPVALUE.getDescriptor()));
+			append(push(0));
 			loadLocal(pc, slot);
-			append(InstructionConstants.AASTORE);
+			append(new InsnNode(AASTORE));
 		} else {
 			loadLocal(pc, slot);
-			append(factory.createFieldAccess(classname, upvalueName(upindex), TYPE_LUAVALUE, Constants.PUTFIELD));
+			append(new FieldInsnNode(PUTFIELD, internalname, upvalueName(upindex), TYPE_LUAVALUE.getDescriptor()));
 		}
 	}
 
 	
+	private void loadClosureUpvalue(int upindex) {
+		append(new VarInsnNode(ALOAD, 0));
+		append(new FieldInsnNode(GETFIELD, internalname, upvalueName(upindex), TYPE_UPVALUE.getDescriptor()));
+	}
+
+	private void loadClosure() {
+		append(new VarInsnNode(ALOAD, 0));
+		append(new FieldInsnNode(GETFIELD, internalname, NAME_CLOSURE, TYPE_LUACLOSURE.getDescriptor()));
+	}
+	
 	public void newTable( int b, int c ) {
-		append(new PUSH(cp, b));
-		append(new PUSH(cp, c));
-		append(factory.createInvoke(STR_LUAVALUE, "tableOf", TYPE_LUATABLE, ARG_TYPES_INT_INT, Constants.INVOKESTATIC));
+		append(push(b));
+		append(push(c));
+		invoke(INVOKESTATIC, STR_LUAVALUE, "tableOf", TYPE_LUATABLE, ARG_TYPES_INT_INT);
 	}
 
 	public void loadEnv() {
-		append(InstructionConstants.THIS);
-		append(factory.createFieldAccess(classname, "env", TYPE_LUAVALUE, Constants.GETFIELD));
+		append(new VarInsnNode(ALOAD, 0));
+		append(new FieldInsnNode(GETFIELD, internalname, "env", TYPE_LUAVALUE.getDescriptor()));
 	}
 
 	public void loadVarargs() {
-		append(new ALOAD(1));
+		append(new VarInsnNode(ALOAD, 1));
 	}
 	
 	public void loadVarargs(int argindex) {
@@ -445,38 +731,46 @@ public class JavaBuilder {
 
 	public void arg(int argindex) {
 		if ( argindex == 1 ) {
-			append(factory.createInvoke(STR_VARARGS, "arg1", TYPE_LUAVALUE, ARG_TYPES_NONE, Constants.INVOKEVIRTUAL));
+			invoke(INVOKEVIRTUAL, STR_VARARGS, "arg1", TYPE_LUAVALUE, ARG_TYPES_NONE);
 		} else {
-			append(new PUSH(cp, argindex));
-			append(factory.createInvoke(STR_VARARGS, "arg", TYPE_LUAVALUE, ARG_TYPES_INT, Constants.INVOKEVIRTUAL));
+			append(push(argindex));
+			invoke(INVOKEVIRTUAL, STR_VARARGS, "arg", TYPE_LUAVALUE, ARG_TYPES_INT);
 		}
 	}
 
 	private int getVarresultIndex() {
-		if ( varresult == null )
-			varresult = mg.addLocalVariable(NAME_VARRESULT, TYPE_VARARGS, null, null);
-		return varresult.getIndex();
+		if ( varresult < 0 )
+			varresult = addLocalVariable(NAME_VARRESULT, TYPE_VARARGS);
+		return varresult;
 	}
 	
 	public void loadVarresult() {
-		append(new ALOAD(getVarresultIndex()));
+		append(new VarInsnNode(ALOAD, getVarresultIndex()));
 	}
 	
 	public void storeVarresult() {
-		append(new ASTORE(getVarresultIndex()));
+		append(new VarInsnNode(ASTORE, getVarresultIndex()));
 	}
 
 	public void subargs(int firstarg) {
-		append(new PUSH(cp, firstarg));
-		append(factory.createInvoke(STR_VARARGS, "subargs", TYPE_VARARGS, ARG_TYPES_INT, Constants.INVOKEVIRTUAL));
+		append(push(firstarg));
+		invoke(INVOKEVIRTUAL, STR_VARARGS, "subargs", TYPE_VARARGS, ARG_TYPES_INT);
 	}
 	
 	public void getTable() {
-        append(factory.createInvoke(STR_LUAVALUE, "get", TYPE_LUAVALUE, ARG_TYPES_LUAVALUE, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, "get", TYPE_LUAVALUE, ARG_TYPES_LUAVALUE);
+	}
+	
+	public void getTableInt() {
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, "get", TYPE_LUAVALUE, ARG_TYPES_INT);
 	}
 	
 	public void setTable() {
-        append(factory.createInvoke(STR_LUAVALUE, "set", Type.VOID, ARG_TYPES_LUAVALUE_LUAVALUE, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, "set", Type.VOID_TYPE, ARG_TYPES_LUAVALUE_LUAVALUE);
+	}
+
+	public void setTableInt() {
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, "set", Type.VOID_TYPE, ARG_TYPES_INT_LUAVALUE);
 	}
 
 	public void unaryop(int o) {
@@ -487,7 +781,7 @@ public class JavaBuilder {
 			case Lua.OP_NOT: op = "not"; break;
 			case Lua.OP_LEN: op = "len"; break;
 		}
-        append(factory.createInvoke(STR_LUAVALUE, op, TYPE_LUAVALUE, Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, op, TYPE_LUAVALUE, ARG_TYPES_NONE);
 	}
 	
 	public void binaryop(int o) {
@@ -501,7 +795,47 @@ public class JavaBuilder {
 			case Lua.OP_MOD: op = "mod"; break;
 			case Lua.OP_POW: op = "pow"; break;
 		}
-        append(factory.createInvoke(STR_LUAVALUE, op, TYPE_LUAVALUE, ARG_TYPES_LUAVALUE, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, op, TYPE_LUAVALUE, ARG_TYPES_LUAVALUE);
+	}
+
+	/** Arithmetic on the doubles on the stack, with the same results as on {@link LuaDouble} */
+	public void arithop(int o) {
+		switch (o) {
+			default: 
+			case Lua.OP_ADD: append(new InsnNode(DADD)); break;
+			case Lua.OP_SUB: append(new InsnNode(DSUB)); break;
+			case Lua.OP_MUL: append(new InsnNode(DMUL)); break;
+			case Lua.OP_DIV: invoke(INVOKESTATIC, STR_LUADOUBLE, "ddiv_d", Type.DOUBLE_TYPE, ARG_TYPES_DOUBLE_DOUBLE); break;
+			case Lua.OP_MOD: invoke(INVOKESTATIC, STR_LUADOUBLE, "dmod_d", Type.DOUBLE_TYPE, ARG_TYPES_DOUBLE_DOUBLE); break;
+			case Lua.OP_POW: invoke(INVOKESTATIC, STR_MATHLIB, "dpow_d", Type.DOUBLE_TYPE, ARG_TYPES_DOUBLE_DOUBLE); break;
+			case Lua.OP_UNM: append(new InsnNode(DNEG)); break;
+		}
+	}
+
+	/** Compare the doubles on the stack, leaving 1 if true or 0 if false, which is false for NaN */
+	public void comparenumbers(int o) {
+		switch (o) {
+			default: 
+			case Lua.OP_EQ: // (dcmpl & 1) ^ 1
+				append(new InsnNode(DCMPL));
+				append(new InsnNode(ICONST_1));
+				append(new InsnNode(IAND));
+				append(new InsnNode(ICONST_1));
+				append(new InsnNode(IXOR));
+				break;
+			case Lua.OP_LT: // dcmpg >>> 31
+				append(new InsnNode(DCMPG));
+				append(push(31));
+				append(new InsnNode(IUSHR));
+				break;
+			case Lua.OP_LE: // (dcmpg - 1) >>> 31
+				append(new InsnNode(DCMPG));
+				append(new InsnNode(ICONST_1));
+				append(new InsnNode(ISUB));
+				append(push(31));
+				append(new InsnNode(IUSHR));
+				break;
+		}
 	}
 
 	public void compareop(int o) {
@@ -512,37 +846,85 @@ public class JavaBuilder {
 			case Lua.OP_LT: op = "lt_b"; break;
 			case Lua.OP_LE: op = "lteq_b"; break;
 		}
-        append(factory.createInvoke(STR_LUAVALUE, op, Type.BOOLEAN, ARG_TYPES_LUAVALUE, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, op, Type.BOOLEAN_TYPE, ARG_TYPES_LUAVALUE);
 	}
 
 	public void areturn() {
-		append(InstructionConstants.ARETURN);
+		append(new InsnNode(ARETURN));
 	}
 	
 	public void toBoolean() {
-        append(factory.createInvoke(STR_LUAVALUE, "toboolean", Type.BOOLEAN, Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, "toboolean", Type.BOOLEAN_TYPE, ARG_TYPES_NONE);
 	}
 
 	public void tostring() {
-        append(factory.createInvoke(STR_BUFFER, "tostring", TYPE_LUASTRING, Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_BUFFER, "tostring", TYPE_LUASTRING, ARG_TYPES_NONE);
 	}
 
 	public void isNil() {
-        append(factory.createInvoke(STR_LUAVALUE, "isnil", Type.BOOLEAN, Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, "isnil", Type.BOOLEAN_TYPE, ARG_TYPES_NONE);
+	}
+
+	/** 
+	 * Prepare a numeric for loop, checking the initial value, limit and step are numbers,
+	 * which are held as doubles with the initial value less the step.  
+	 */
+	public void forPrep(int pc, int a) {
+		loadLocalForLoop(pc, a, "'for' initial value must be a number");
+		loadLocalForLoop(pc, a+1, "'for' limit must be a number");
+		storeLocalDouble(pc, a+1);
+		loadLocalForLoop(pc, a+2, "'for' step must be a number");
+		append(new InsnNode(DUP2_X2));
+		append(new InsnNode(DSUB));
+		storeLocalDouble(pc, a);
+		storeLocalDouble(pc, a+2);
 	}
 
-	public void testForLoop() {
-		append(factory.createInvoke(STR_LUAVALUE, "testfor_b", Type.BOOLEAN, ARG_TYPES_LUAVALUE_LUAVALUE, Constants.INVOKEVIRTUAL));
+	/** 
+	 * Step a numeric for loop, assigning the loop variable, 
+	 * and leave 1 on the stack if the loop continues or 0 if it ends. 
+	 */
+	public void forLoop(int pc, int a) {
+		loadLocalDouble(pc, a);
+		loadLocalDouble(pc, a+2);
+		append(new InsnNode(DADD));
+		append(new InsnNode(DUP2));
+		storeLocalDouble(pc, a);
+		append(new InsnNode(DUP2));
+		VarInfo v = assignedVar(pc, a+3);
+		if ( v != null && v.type == VarInfo.TYPE_INT ) {
+			append(new InsnNode(D2I));
+			storeLocalInt(pc, a+3);
+		} else {
+			storeLocalDouble(pc, a+3);
+		}
+		
+		// step > 0? index <= limit: index >= limit
+		LabelNode negative = new LabelNode(), end = new LabelNode();
+		loadLocalDouble(pc, a+1);
+		loadLocalDouble(pc, a+2);
+		append(new InsnNode(DCONST_0));
+		append(new InsnNode(DCMPL));
+		append(new JumpInsnNode(IFLE, negative));
+		comparenumbers(Lua.OP_LE);
+		append(new JumpInsnNode(GOTO, end));
+		append(negative);
+		append(new InsnNode(DCMPL));
+		append(new InsnNode(ICONST_M1));
+		append(new InsnNode(IXOR));
+		append(push(31));
+		append(new InsnNode(IUSHR));
+		append(end);
 	}
 
 	public void loadArrayArgs(int pc, int firstslot, int nargs) {
-		append(new PUSH(cp, nargs));
-		append(new ANEWARRAY(cp.addClass(STR_LUAVALUE)));
+		append(push(nargs));
+		append(new TypeInsnNode(ANEWARRAY, STR_LUAVALUE));
 		for ( int i=0; i<nargs; i++ ) {
-			append(InstructionConstants.DUP);
-			append(new PUSH(cp, i));
+			append(new InsnNode(DUP));
+			append(push(i));
 			loadLocal(pc, firstslot++);
-			append(new AASTORE());
+			append(new InsnNode(AASTORE));
 		}	
 	}
 	
@@ -553,14 +935,14 @@ public class JavaBuilder {
 		case 1: loadLocal(pc, firstslot); 
 			break;
 		case 2: loadLocal(pc, firstslot); loadLocal(pc, firstslot+1); 
-			append(factory.createInvoke(STR_LUAVALUE, "varargsOf", TYPE_VARARGS, ARG_TYPES_LUAVALUE_VARARGS, Constants.INVOKESTATIC));
+			invoke(INVOKESTATIC, STR_LUAVALUE, "varargsOf", TYPE_VARARGS, ARG_TYPES_LUAVALUE_VARARGS);
 			break;
 		case 3: loadLocal(pc, firstslot); loadLocal(pc, firstslot+1); loadLocal(pc, firstslot+2); 
-			append(factory.createInvoke(STR_LUAVALUE, "varargsOf", TYPE_VARARGS, ARG_TYPES_LUAVALUE_LUAVALUE_VARARGS, Constants.INVOKESTATIC));
+			invoke(INVOKESTATIC, STR_LUAVALUE, "varargsOf", TYPE_VARARGS, ARG_TYPES_LUAVALUE_LUAVALUE_VARARGS);
 			break;
 		default:
 			loadArrayArgs(pc, firstslot, nargs);
-			append(factory.createInvoke(STR_LUAVALUE, "varargsOf", TYPE_VARARGS, ARG_TYPES_LUAVALUEARRAY, Constants.INVOKESTATIC));
+			invoke(INVOKESTATIC, STR_LUAVALUE, "varargsOf", TYPE_VARARGS, ARG_TYPES_LUAVALUEARRAY);
 			break;
 		}
 	}
@@ -568,30 +950,30 @@ public class JavaBuilder {
 	public void newVarargsVarresult(int pc, int firstslot, int nslots) {
 		loadArrayArgs(pc, firstslot, nslots );
 		loadVarresult();
-		append(factory.createInvoke(STR_LUAVALUE, "varargsOf", TYPE_VARARGS, ARG_TYPES_LUAVALUEARRAY_VARARGS, Constants.INVOKESTATIC));
+		invoke(INVOKESTATIC, STR_LUAVALUE, "varargsOf", TYPE_VARARGS, ARG_TYPES_LUAVALUEARRAY_VARARGS);
 	}
 	
 	public void call(int nargs) {
 		switch ( nargs ) {
-		case 0: append(factory.createInvoke(STR_LUAVALUE, "call", TYPE_LUAVALUE, ARG_TYPES_NONE, Constants.INVOKEVIRTUAL)); break;
-		case 1: append(factory.createInvoke(STR_LUAVALUE, "call", TYPE_LUAVALUE, ARG_TYPES_LUAVALUE, Constants.INVOKEVIRTUAL)); break;
-		case 2: append(factory.createInvoke(STR_LUAVALUE, "call", TYPE_LUAVALUE, ARG_TYPES_LUAVALUE_LUAVALUE, Constants.INVOKEVIRTUAL)); break;
-		case 3: append(factory.createInvoke(STR_LUAVALUE, "call", TYPE_LUAVALUE, ARG_TYPES_LUAVALUE_LUAVALUE_LUAVALUE, Constants.INVOKEVIRTUAL)); break;
+		case 0: invoke(INVOKEVIRTUAL, STR_LUAVALUE, "call", TYPE_LUAVALUE, ARG_TYPES_NONE); break;
+		case 1: invoke(INVOKEVIRTUAL, STR_LUAVALUE, "call", TYPE_LUAVALUE, ARG_TYPES_LUAVALUE); break;
+		case 2: invoke(INVOKEVIRTUAL, STR_LUAVALUE, "call", TYPE_LUAVALUE, ARG_TYPES_LUAVALUE_LUAVALUE); break;
+		case 3: invoke(INVOKEVIRTUAL, STR_LUAVALUE, "call", TYPE_LUAVALUE, ARG_TYPES_LUAVALUE_LUAVALUE_LUAVALUE); break;
 		default: throw new IllegalArgumentException("can't call with "+nargs+" args");
 		}
 	}
 
 	public void newTailcallVarargs() {
-		append(factory.createInvoke(STR_LUAVALUE, "tailcallOf", TYPE_VARARGS, ARG_TYPES_LUAVALUE_VARARGS, Constants.INVOKESTATIC));
+		invoke(INVOKESTATIC, STR_LUAVALUE, "tailcallOf", TYPE_VARARGS, ARG_TYPES_LUAVALUE_VARARGS);
 	}
 	
 	public void invoke(int nargs) {
 		switch ( nargs ) {
-		case -1: append(factory.createInvoke(STR_LUAVALUE, "invoke", TYPE_VARARGS, ARG_TYPES_VARARGS, Constants.INVOKEVIRTUAL)); break;
-		case 0: append(factory.createInvoke(STR_LUAVALUE, "invoke", TYPE_VARARGS, ARG_TYPES_NONE, Constants.INVOKEVIRTUAL)); break;
-		case 1: append(factory.createInvoke(STR_LUAVALUE, "invoke", TYPE_VARARGS, ARG_TYPES_VARARGS, Constants.INVOKEVIRTUAL)); break;
-		case 2: append(factory.createInvoke(STR_LUAVALUE, "invoke", TYPE_VARARGS, ARG_TYPES_LUAVALUE_VARARGS, Constants.INVOKEVIRTUAL)); break;
-		case 3: append(factory.createInvoke(STR_LUAVALUE, "invoke", TYPE_VARARGS, ARG_TYPES_LUAVALUE_LUAVALUE_VARARGS, Constants.INVOKEVIRTUAL)); break;
+		case -1: invoke(INVOKEVIRTUAL, STR_LUAVALUE, "invoke", TYPE_VARARGS, ARG_TYPES_VARARGS); break;
+		case 0: invoke(INVOKEVIRTUAL, STR_LUAVALUE, "invoke", TYPE_VARARGS, ARG_TYPES_NONE); break;
+		case 1: invoke(INVOKEVIRTUAL, STR_LUAVALUE, "invoke", TYPE_VARARGS, ARG_TYPES_VARARGS); break;
+		case 2: invoke(INVOKEVIRTUAL, STR_LUAVALUE, "invoke", TYPE_VARARGS, ARG_TYPES_LUAVALUE_VARARGS); break;
+		case 3: invoke(INVOKEVIRTUAL, STR_LUAVALUE, "invoke", TYPE_VARARGS, ARG_TYPES_LUAVALUE_LUAVALUE_VARARGS); break;
 		default: throw new IllegalArgumentException("can't invoke with "+nargs+" args");
 		}
 	}
@@ -599,32 +981,95 @@ public class JavaBuilder {
 	
 	// ------------------------ closures ------------------------
 	
-	public void closureCreate(String protoname) {
-		append(factory.createNew(new ObjectType(protoname)));
-		append(InstructionConstants.DUP);
-		append(factory.createInvoke(protoname, "<init>", Type.VOID, Type.NO_ARGS, Constants.INVOKESPECIAL));
-		append(InstructionConstants.DUP);
+	public void closureCreate(String protoname, int index, int nups) {
+		if ( mode == MODE_TIERED ) {
+			append(new TypeInsnNode(NEW, STR_LUACLOSURE));
+			append(new InsnNode(DUP));
+			loadClosure();
+			append(new FieldInsnNode(GETFIELD, STR_LUACLOSURE, "p", TYPE_PROTOTYPE.getDescriptor()));
+			append(new FieldInsnNode(GETFIELD, STR_PROTOTYPE, "p", TYPE_PROTOTYPEARRAY.getDescriptor()));
+			append(push(index));
+			append(new InsnNode(AALOAD));
+			loadEnv();
+			loadClosure();
+			append(new FieldInsnNode(GETFIELD, STR_LUACLOSURE, "globals", TYPE_GLOBALS.getDescriptor()));
+			invoke(INVOKESPECIAL, STR_LUACLOSURE, "<init>", Type.VOID_TYPE, ARG_TYPES_PROTOTYPE_LUAVALUE_GLOBALS);
+			return;
+		}
+		if ( mode == MODE_LAZY ) {
+			append(new TypeInsnNode(NEW, STR_LAZY));
+			append(new InsnNode(DUP));
+			append(new LdcInsnNode(Type.getObjectType(internalname)));
+			append(new LdcInsnNode(protoname));
+			append(push(nups));
+			invoke(INVOKESPECIAL, STR_LAZY, "<init>", Type.VOID_TYPE, ARG_TYPES_CLASS_STRING_INT);
+		} else {
+			String name = protoname.replace('.', '/');
+			append(new TypeInsnNode(NEW, name));
+			append(new InsnNode(DUP));
+			invoke(INVOKESPECIAL, name, "<init>", Type.VOID_TYPE, ARG_TYPES_NONE);
+		}
+		append(new InsnNode(DUP));
 		loadEnv();
-		append(factory.createInvoke(STR_LUAVALUE, "setfenv", Type.VOID, ARG_TYPES_LUAVALUE, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, "setfenv", Type.VOID_TYPE, ARG_TYPES_LUAVALUE);
 	}
 
 	public void closureInitUpvalueFromUpvalue(String protoname, int newup, int upindex) {
+		if ( mode == MODE_TIERED ) {
+			append(new FieldInsnNode(GETFIELD, STR_LUACLOSURE, "upValues", TYPE_UPVALUEARRAY.getDescriptor()));
+			append(push(newup));
+			loadClosureUpvalue(upindex);
+			append(new InsnNode(AASTORE));
+			return;
+		}
 		boolean isrw = pi.isReadWriteUpvalue( pi.upvals[upindex] ); 
-		Type uptype = isrw? (Type) TYPE_LOCALUPVALUE: (Type) TYPE_LUAVALUE;
+		Type uptype = isrw? TYPE_LOCALUPVALUE: TYPE_LUAVALUE;
 		String srcname = upvalueName(upindex);
 		String destname = upvalueName(newup);
-		append(InstructionConstants.THIS);
-		append(factory.createFieldAccess(classname, srcname, uptype, Constants.GETFIELD));
-		append(factory.createFieldAccess(protoname, destname, uptype, Constants.PUTFIELD));
+		if ( mode == MODE_LAZY )
+			append(push(newup));
+		append(new VarInsnNode(ALOAD, 0));
+		append(new FieldInsnNode(GETFIELD, internalname, srcname, uptype.getDescriptor()));
+		closureSetUpvalue(protoname, destname, uptype);
 	}
 
 	public void closureInitUpvalueFromLocal(String protoname, int newup, int pc, int srcslot) {
 		boolean isrw = pi.isReadWriteUpvalue( pi.vars[srcslot][pc].upvalue ); 
-		Type uptype = isrw? (Type) TYPE_LOCALUPVALUE: (Type) TYPE_LUAVALUE;
+		Type uptype = isrw? TYPE_LOCALUPVALUE: TYPE_LUAVALUE;
 		String destname = upvalueName(newup);
 		int index = findSlotIndex( srcslot, isrw );
-		append(new ALOAD(index));
-		append(factory.createFieldAccess(protoname, destname, uptype, Constants.PUTFIELD));
+		if ( mode == MODE_TIERED ) {
+			// the upvalue refers to the local's own storage if it may be assigned, or a copy if not 
+			append(new FieldInsnNode(GETFIELD, STR_LUACLOSURE, "upValues", TYPE_UPVALUEARRAY.getDescriptor()));
+			append(push(newup));
+			append(new TypeInsnNode(NEW, STR_UPVALUE));
+			append(new InsnNode(DUP));
+			if ( isrw ) {
+				append(new VarInsnNode(ALOAD, index));
+			} else {
+				append(push(1));
+				append(new TypeInsnNode(ANEWARRAY, STR_LUAVALUE));
+				append(new InsnNode(DUP));
+				append(push(0));
+				append(new VarInsnNode(ALOAD, index));
+				append(new InsnNode(AASTORE));
+			}
+			append(push(0));
+			invoke(INVOKESPECIAL, STR_UPVALUE, "<init>", Type.VOID_TYPE, ARG_TYPES_LUAVALUEARRAY_INT);
+			append(new InsnNode(AASTORE));
+			return;
+		}
+		if ( mode == MODE_LAZY )
+			append(push(newup));
+		append(new VarInsnNode(ALOAD, index));
+		closureSetUpvalue(protoname, destname, uptype);
+	}
+	
+	private void closureSetUpvalue(String protoname, String destname, Type uptype) {
+		if ( mode == MODE_LAZY )
+			invoke(INVOKEVIRTUAL, STR_LAZY, "setupvalue", Type.VOID_TYPE, ARG_TYPES_INT_OBJECT);
+		else
+			append(new FieldInsnNode(PUTFIELD, protoname.replace('.', '/'), destname, uptype.getDescriptor()));
 	}
 	
 	private Map<LuaValue,String> constants = new HashMap<LuaValue,String>();
@@ -648,60 +1093,63 @@ public class JavaBuilder {
 						createLuaStringField(value.checkstring());
 				constants.put(value, name);
 			}
-			append(factory.createGetStatic(classname, name, TYPE_LUAVALUE));
+			append(new FieldInsnNode(GETSTATIC, internalname, name, TYPE_LUAVALUE.getDescriptor()));
 			break;
 		default:
 			throw new IllegalArgumentException("bad constant type: "+value.type());
 		}
 	}
 
-	private String createLuaIntegerField(int value) {
+	public void loadConstant(int value) {
+		append(push(value));
+	}
+
+	public void loadConstant(double value) {
+		append(push(value));
+	}
+
+	private String createConstantField() {
 		String name = PREFIX_CONSTANT+constants.size();
-		FieldGen fg = new FieldGen(Constants.ACC_STATIC | Constants.ACC_FINAL, 
-				TYPE_LUAVALUE, name, cp);
-		cg.addField(fg.getField());
-		init.append(new PUSH(cp, value));
-		init.append(factory.createInvoke(STR_LUAVALUE, "valueOf",
-				TYPE_LUAINTEGER, ARG_TYPES_INT, Constants.INVOKESTATIC));
-		init.append(factory.createPutStatic(classname, name, TYPE_LUAVALUE));
+		cg.fields.add(new FieldNode(ACC_STATIC | ACC_FINAL, name, TYPE_LUAVALUE.getDescriptor(), null, null));
+		return name;
+	}
+	
+	private String createLuaIntegerField(int value) {
+		String name = createConstantField();
+		init.add(push(value));
+		init.add(new MethodInsnNode(INVOKESTATIC, STR_LUAVALUE, "valueOf",
+				Type.getMethodDescriptor(TYPE_LUAINTEGER, ARG_TYPES_INT), false));
+		init.add(new FieldInsnNode(PUTSTATIC, internalname, name, TYPE_LUAVALUE.getDescriptor()));
 		return name;
 	}
 	
 	private String createLuaDoubleField(double value) {
-		String name = PREFIX_CONSTANT+constants.size();
-		FieldGen fg = new FieldGen(Constants.ACC_STATIC | Constants.ACC_FINAL, 
-				TYPE_LUAVALUE, name, cp);
-		cg.addField(fg.getField());
-		init.append(new PUSH(cp, value));
-		init.append(factory.createInvoke(STR_LUAVALUE, "valueOf",
-				TYPE_LUANUMBER, ARG_TYPES_DOUBLE, Constants.INVOKESTATIC));
-		init.append(factory.createPutStatic(classname, name, TYPE_LUAVALUE));			
+		String name = createConstantField();
+		init.add(push(value));
+		init.add(new MethodInsnNode(INVOKESTATIC, STR_LUAVALUE, "valueOf",
+				Type.getMethodDescriptor(TYPE_LUANUMBER, ARG_TYPES_DOUBLE), false));
+		init.add(new FieldInsnNode(PUTSTATIC, internalname, name, TYPE_LUAVALUE.getDescriptor()));
 		return name;
 	}
 
 	private String createLuaStringField(LuaString value) {
-		String name = PREFIX_CONSTANT+constants.size();
-		FieldGen fg = new FieldGen(Constants.ACC_STATIC | Constants.ACC_FINAL, 
-				TYPE_LUAVALUE, name, cp);
-		cg.addField(fg.getField());
+		String name = createConstantField();
 		LuaString ls = value.checkstring();
 		if ( ls.isValidUtf8() ) {
-			init.append(new PUSH(cp, value.tojstring()));
-			init.append(factory.createInvoke(STR_LUASTRING, "valueOf",
-					TYPE_LUASTRING, ARG_TYPES_STRING, Constants.INVOKESTATIC));
+			init.add(new LdcInsnNode(value.tojstring()));
+			init.add(new MethodInsnNode(INVOKESTATIC, STR_LUASTRING, "valueOf",
+					Type.getMethodDescriptor(TYPE_LUASTRING, ARG_TYPES_STRING), false));
 		} else {
 			char[] c = new char[ls.m_length];
 			for ( int j=0; j<ls.m_length; j++ ) 
 				c[j] = (char) (0xff & (int) (ls.m_bytes[ls.m_offset+j]));
-			init.append(new PUSH(cp, new String(c)));
-			init.append(factory.createInvoke(STR_STRING, "toCharArray",
-					TYPE_CHARARRAY, Type.NO_ARGS,
-					Constants.INVOKEVIRTUAL));
-			init.append(factory.createInvoke(STR_LUASTRING, "valueOf",
-					TYPE_LUASTRING, ARG_TYPES_CHARARRAY,
-					Constants.INVOKESTATIC));
-		}
-		init.append(factory.createPutStatic(classname, name, TYPE_LUAVALUE));			
+			init.add(new LdcInsnNode(new String(c)));
+			init.add(new MethodInsnNode(INVOKEVIRTUAL, STR_STRING, "toCharArray",
+					Type.getMethodDescriptor(TYPE_CHARARRAY, ARG_TYPES_NONE), false));
+			init.add(new MethodInsnNode(INVOKESTATIC, STR_LUASTRING, "valueOf",
+					Type.getMethodDescriptor(TYPE_LUASTRING, ARG_TYPES_CHARARRAY), false));
+		}
+		init.add(new FieldInsnNode(PUTSTATIC, internalname, name, TYPE_LUAVALUE.getDescriptor()));
 		return name;
 	}
 
@@ -713,32 +1161,43 @@ public class JavaBuilder {
 	public void addBranch( int pc, int branchType, int targetpc ) {
 		switch ( branchType ) {
 		default: 
-		case BRANCH_GOTO: branches[pc]  = new GOTO(null); break;
-		case BRANCH_IFNE:  branches[pc] = new IFNE(null); break;
-		case BRANCH_IFEQ:  branches[pc] = new IFEQ(null); break;
+		case BRANCH_GOTO: branches[pc]  = new JumpInsnNode(GOTO, null); break;
+		case BRANCH_IFNE:  branches[pc] = new JumpInsnNode(IFNE, null); break;
+		case BRANCH_IFEQ:  branches[pc] = new JumpInsnNode(IFEQ, null); break;
 		}
 		targets[pc] = targetpc;
 		append(branches[pc]);
 	}
 
 
-	private void append( Instruction i ) {
-		conditionalSetBeginningOfLua( main.append(i) );
+	private void append( AbstractInsnNode i ) {
+		main.add(i);
+		if ( beginningOfLuaInstruction == null )
+			beginningOfLuaInstruction = i;
 	}
 	
-	private void append( CompoundInstruction i ) {
-		conditionalSetBeginningOfLua( main.append(i) );
+	private void invoke( int opcode, String owner, String name, Type returntype, Type[] argtypes ) {
+		append(new MethodInsnNode(opcode, owner, name, Type.getMethodDescriptor(returntype, argtypes), false));
 	}
 	
-	private void append( BranchInstruction i ) {
-		conditionalSetBeginningOfLua( main.append(i) );
+	private static AbstractInsnNode push( int value ) {
+		if ( value >= -1 && value <= 5 )
+			return new InsnNode(ICONST_0 + value);
+		if ( value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE )
+			return new IntInsnNode(BIPUSH, value);
+		if ( value >= Short.MIN_VALUE && value <= Short.MAX_VALUE )
+			return new IntInsnNode(SIPUSH, value);
+		return new LdcInsnNode(Integer.valueOf(value));
 	}
 	
-	private void conditionalSetBeginningOfLua(InstructionHandle ih) {
-		if ( beginningOfLuaInstruction == null )
-			beginningOfLuaInstruction = ih;
+	private static AbstractInsnNode push( double value ) {
+		if ( value == 0. && 1/value > 0 )
+			return new InsnNode(DCONST_0);
+		if ( value == 1. )
+			return new InsnNode(DCONST_1);
+		return new LdcInsnNode(Double.valueOf(value));
 	}
-
+	
 	public void onEndOfLuaInstruction(int pc) {
 		branchDestHandles[pc] = beginningOfLuaInstruction;
 		beginningOfLuaInstruction = null;
@@ -746,6 +1205,7 @@ public class JavaBuilder {
 	
 	private void resolveBranches() {
 		int nc = p.code.length; 
+		LabelNode[] labels = new LabelNode[nc];
 		for (int pc = 0; pc < nc; pc++) {
 			if (branches[pc] != null) {
 				int t=targets[pc];
@@ -753,7 +1213,9 @@ public class JavaBuilder {
 					t++;
 				if ( t>= branchDestHandles.length )
 					 throw new IllegalArgumentException("no target at or after "+targets[pc]+" op="+Lua.GET_OPCODE(p.code[targets[pc]]));
-				branches[pc].setTarget(branchDestHandles[t]);
+				if ( labels[t] == null )
+					main.insertBefore(branchDestHandles[t], labels[t] = new LabelNode());
+				branches[pc].label = labels[t];
 			}
 		}
 	}
@@ -761,31 +1223,31 @@ public class JavaBuilder {
 	public void setlistStack(int pc, int a0, int index0, int nvals) {
 		for ( int i=0; i<nvals; i++ ) {
 			dup();
-			append(new PUSH(cp, index0+i));
+			append(push(index0+i));
 			loadLocal( pc, a0+i );
-	        append(factory.createInvoke(STR_LUAVALUE, "rawset", Type.VOID, ARG_TYPES_INT_LUAVALUE, Constants.INVOKEVIRTUAL));
+			invoke(INVOKEVIRTUAL, STR_LUAVALUE, "rawset", Type.VOID_TYPE, ARG_TYPES_INT_LUAVALUE);
     	}
 	}
 
 	public void setlistVarargs(int index0, int vresultbase) {
-		append(new PUSH(cp, index0));
+		append(push(index0));
 		loadVarresult();
-		append(factory.createInvoke(STR_LUAVALUE, "rawsetlist", Type.VOID, ARG_TYPES_INT_VARARGS, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, "rawsetlist", Type.VOID_TYPE, ARG_TYPES_INT_VARARGS);
 	}
 
 	public void concatvalue() {
-        append(factory.createInvoke(STR_LUAVALUE, "concat", TYPE_LUAVALUE, ARG_TYPES_LUAVALUE, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, "concat", TYPE_LUAVALUE, ARG_TYPES_LUAVALUE);
 	}
 	
 	public void concatbuffer() {
-        append(factory.createInvoke(STR_LUAVALUE, "concat", TYPE_BUFFER, ARG_TYPES_BUFFER, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, "concat", TYPE_BUFFER, ARG_TYPES_BUFFER);
 	}
 
 	public void tobuffer() {
-        append(factory.createInvoke(STR_LUAVALUE, "buffer", TYPE_BUFFER, Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_LUAVALUE, "buffer", TYPE_BUFFER, ARG_TYPES_NONE);
 	}
 
 	public void tovalue() {
-        append(factory.createInvoke(STR_BUFFER, "value", TYPE_LUAVALUE, Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+		invoke(INVOKEVIRTUAL, STR_BUFFER, "value", TYPE_LUAVALUE, ARG_TYPES_NONE);
 	}
 }
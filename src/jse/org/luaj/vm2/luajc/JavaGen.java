@@ -23,12 +23,12 @@ package org.luaj.vm2.luajc;
 
 import org.luaj.vm2.Buffer;
 import org.luaj.vm2.Lua;
+import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.Prototype;
 
 /**
  * TODO: 
  *   propogate constants
- *   loader can find inner classes
  */
 public class JavaGen {
 
@@ -37,29 +37,40 @@ public class JavaGen {
 	public final JavaGen[] inners;
 	
 	public JavaGen( Prototype p, String classname, String filename ) {
-		this( new ProtoInfo(p,classname), classname, filename );
+		this( new ProtoInfo(p,classname), classname, filename, JavaBuilder.MODE_DIRECT );
 	}
 	
-	private JavaGen( ProtoInfo pi, String classname, String filename ) {
+	/**
+	 * Generate the class for a prototype.
+	 * @param pi the prototype
+	 * @param classname the java class name
+	 * @param filename the lua source file name
+	 * @param mode {@link JavaBuilder#MODE_DIRECT} to also generate the inner prototypes, 
+	 * {@link JavaBuilder#MODE_LAZY} to create closures of them as {@link LazyFunction} 
+	 * which load the class named by {@link #closureName(String, int)} when first called, 
+	 * or {@link JavaBuilder#MODE_TIERED} for a class bound to a {@link org.luaj.vm2.LuaClosure}
+	 * which creates closures of inner prototypes as {@link org.luaj.vm2.LuaClosure}.
+	 */
+	JavaGen( ProtoInfo pi, String classname, String filename, int mode ) {
 		this.classname = classname;
 		
 		// build this class
-		JavaBuilder builder = new JavaBuilder(pi, classname, filename);
+		JavaBuilder builder = new JavaBuilder(pi, classname, filename, mode);
 		scanInstructions(pi, classname, builder);
 		this.bytecode = builder.completeClass();
 		
 		// build sub-prototypes
-		if ( pi.subprotos != null ) {
+		if ( pi.subprotos != null && mode == JavaBuilder.MODE_DIRECT ) {
 			int n = pi.subprotos.length;
 			inners = new JavaGen[n];
 			for ( int i=0; i<n; i++ )
-				inners[i] = new JavaGen(pi.subprotos[i], closureName(classname,i), filename);
+				inners[i] = new JavaGen(pi.subprotos[i], closureName(classname,i), filename, JavaBuilder.MODE_DIRECT);
 		} else {
 			inners = null;
 		}
 	}
 
-	private String closureName(String classname, int subprotoindex) {
+	static String closureName(String classname, int subprotoindex) {
 		return classname+"$"+subprotoindex;
 	}
 	
@@ -105,11 +116,21 @@ public class JavaGen {
 	                break;
 	                
 				case Lua.OP_MOVE:/*	A B	R(A):= R(B)					*/
+					if ( builder.isNumberAssign( pc, a ) ) {
+						builder.moveNumber( pc, b, a );
+						break;
+					}
 					builder.loadLocal( pc, b );
 					builder.storeLocal( pc, a );
 					break;
 					
 				case Lua.OP_UNM: /*	A B	R(A):= -R(B)					*/
+					if ( builder.isNumber( pc, b ) ) {
+						builder.loadLocalDouble( pc, b );
+						builder.arithop( o );
+						builder.storeLocalDouble( pc, a );
+						break;
+					}
 				case Lua.OP_NOT: /*	A B	R(A):= not R(B)				*/
 				case Lua.OP_LEN: /*	A B	R(A):= length of R(B)				*/
 					builder.loadLocal( pc, b );
@@ -118,6 +139,16 @@ public class JavaGen {
 					break;
 					
 				case Lua.OP_LOADK:/*	A Bx	R(A):= Kst(Bx)					*/
+					if ( builder.isNumberAssign( pc, a ) ) {
+						if ( p.k[bx].isinttype() ) {
+							builder.loadConstant( p.k[bx].toint() );
+							builder.storeLocalInt( pc, a );
+						} else {
+							builder.loadConstant( p.k[bx].todouble() );
+							builder.storeLocalDouble( pc, a );
+						}
+						break;
+					}
 					builder.loadConstant( p.k[bx] );
 					builder.storeLocal( pc, a );
 					break;
@@ -147,16 +178,27 @@ public class JavaGen {
 					
 				case Lua.OP_GETTABLE: /*	A B C	R(A):= R(B)[RK(C)]				*/
 					builder.loadLocal( pc, b );
-					loadLocalOrConstant( p, builder, pc, c );
-					builder.getTable();
+					if ( !Lua.ISK(c) && builder.isInt( pc, c ) ) {
+						builder.loadLocalInt( pc, c );
+						builder.getTableInt();
+					} else {
+						loadLocalOrConstant( p, builder, pc, c );
+						builder.getTable();
+					}
 					builder.storeLocal( pc, a );
 					break;
 					
 				case Lua.OP_SETTABLE: /*	A B C	R(A)[RK(B)]:= RK(C)				*/
 					builder.loadLocal( pc, a );
-					loadLocalOrConstant( p, builder, pc, b );
-					loadLocalOrConstant( p, builder, pc, c );
-					builder.setTable();
+					if ( !Lua.ISK(b) && builder.isInt( pc, b ) ) {
+						builder.loadLocalInt( pc, b );
+						loadLocalOrConstant( p, builder, pc, c );
+						builder.setTableInt();
+					} else {
+						loadLocalOrConstant( p, builder, pc, b );
+						loadLocalOrConstant( p, builder, pc, c );
+						builder.setTable();
+					}
 					break;
 					
 				case Lua.OP_ADD: /*	A B C	R(A):= RK(B) + RK(C)				*/
@@ -165,6 +207,13 @@ public class JavaGen {
 				case Lua.OP_DIV: /*	A B C	R(A):= RK(B) / RK(C)				*/
 				case Lua.OP_MOD: /*	A B C	R(A):= RK(B) % RK(C)				*/
 				case Lua.OP_POW: /*	A B C	R(A):= RK(B) ^ RK(C)				*/
+					if ( isNumber( p, builder, pc, b ) && isNumber( p, builder, pc, c ) ) {
+						loadLocalOrConstantDouble( p, builder, pc, b );
+						loadLocalOrConstantDouble( p, builder, pc, c );
+						builder.arithop( o );
+						builder.storeLocalDouble( pc, a );
+						break;
+					}
 					loadLocalOrConstant( p, builder, pc, b );
 					loadLocalOrConstant( p, builder, pc, c );
 					builder.binaryop( o );
@@ -208,9 +257,15 @@ public class JavaGen {
 				case Lua.OP_EQ: /*	A B C	if ((RK(B) == RK(C)) ~= A) then pc++		*/
 				case Lua.OP_LT: /*	A B C	if ((RK(B) <  RK(C)) ~= A) then pc++  		*/
 				case Lua.OP_LE: /*	A B C	if ((RK(B) <= RK(C)) ~= A) then pc++  		*/
-					loadLocalOrConstant( p, builder, pc, b );
-					loadLocalOrConstant( p, builder, pc, c );
-					builder.compareop(o);
+					if ( isNumber( p, builder, pc, b ) && isNumber( p, builder, pc, c ) ) {
+						loadLocalOrConstantDouble( p, builder, pc, b );
+						loadLocalOrConstantDouble( p, builder, pc, c );
+						builder.comparenumbers(o);
+					} else {
+						loadLocalOrConstant( p, builder, pc, b );
+						loadLocalOrConstant( p, builder, pc, c );
+						builder.compareop(o);
+					}
 					builder.addBranch(pc, (a!=0? JavaBuilder.BRANCH_IFEQ: JavaBuilder.BRANCH_IFNE), pc+2);
 					break;
 	
@@ -321,24 +376,12 @@ public class JavaGen {
 					break;
 					
 				case Lua.OP_FORPREP: /*	A sBx	R(A)-=R(A+2): pc+=sBx				*/
-					builder.loadLocal(pc, a);
-					builder.loadLocal(pc, a+2);
-					builder.binaryop( Lua.OP_SUB );
-					builder.storeLocal(pc, a);
+					builder.forPrep(pc, a);
 					builder.addBranch(pc, JavaBuilder.BRANCH_GOTO, pc+1+sbx);
 					break;
 					
 				case Lua.OP_FORLOOP: /*	A sBx	R(A)+=R(A+2): if R(A) <?= R(A+1) then { pc+=sBx: R(A+3)=R(A) }*/
-					builder.loadLocal(pc, a);
-					builder.loadLocal(pc, a+2);
-					builder.binaryop( Lua.OP_ADD );
-					builder.dup();
-					builder.dup();
-					builder.storeLocal(pc, a);
-					builder.storeLocal(pc, a+3);
-					builder.loadLocal(pc, a+1); // limit
-					builder.loadLocal(pc, a+2); // step
-					builder.testForLoop();
+					builder.forLoop(pc, a);
 					builder.addBranch(pc, JavaBuilder.BRANCH_IFNE, pc+1+sbx);
 					break;
 				
@@ -403,7 +446,7 @@ public class JavaGen {
 					Prototype newp = p.p[bx];
 					String protoname = closureName(classname, bx);
 					int nup = newp.nups;
-					builder.closureCreate( protoname );
+					builder.closureCreate( protoname, bx, nup );
 					if ( nup > 0 )
 						builder.dup();
 					builder.storeLocal( pc, a );
@@ -460,4 +503,18 @@ public class JavaGen {
 		else
 			builder.loadConstant( p.k[borc&0xff] );
 	}
+
+	private boolean isNumber(Prototype p, JavaBuilder builder, int pc, int borc) {
+		if ( borc<=0xff )
+			return builder.isNumber( pc, borc );
+		else
+			return p.k[borc&0xff].type() == LuaValue.TNUMBER;
+	}
+
+	private void loadLocalOrConstantDouble(Prototype p, JavaBuilder builder, int pc, int borc) {
+		if ( borc<=0xff )
+			builder.loadLocalDouble( pc, borc );
+		else
+			builder.loadConstant( p.k[borc&0xff].todouble() );
+	}
 }
@@ -34,13 +34,25 @@ public class JavaLoader extends ClassLoader {
 	
 	private Map<String,byte[]> unloaded = new HashMap<String,byte[]>();
 	
+	/** Inner prototypes whose classes are generated when first loaded, by class name */
+	private Map pending = new HashMap();
+	
 	public JavaLoader( LuaValue env ) {
 		this.env = env;
 	}
 
+	/**
+	 * Load a prototype, generating the classes of its inner prototypes 
+	 * only when closures of them are first called.
+	 * @param p the prototype
+	 * @param classname the java class name of the main chunk
+	 * @param filename the lua source file name
+	 * @return the main chunk, with its environment set
+	 * @see LazyFunction
+	 */
 	public LuaFunction load( Prototype p, String classname, String filename ) {
-		JavaGen jg = new JavaGen( p, classname, filename );
-		return load( jg );
+		include( new ProtoInfo(p, classname), classname, filename );
+		return load( classname );
 	}
 	
 	public LuaFunction load( JavaGen jg ) {
@@ -66,8 +78,24 @@ public class JavaLoader extends ClassLoader {
 			include( jg.inners[i] );
 	}
 
+	public void include( Map<String,byte[]> classes ) {
+		unloaded.putAll( classes );
+	}
+
+	private void include( ProtoInfo pi, String classname, String filename ) {
+		pending.put( classname, new Object[] { pi, filename } );
+	}
+	
 	public Class findClass(String classname) throws ClassNotFoundException {
-		byte[] bytes = (byte[]) unloaded.get(classname);
+		byte[] bytes = (byte[]) unloaded.remove(classname);
+		Object[] pf = (Object[]) pending.remove(classname);
+		if ( bytes == null && pf != null ) {
+			ProtoInfo pi = (ProtoInfo) pf[0];
+			String filename = (String) pf[1];
+			bytes = new JavaGen( pi, classname, filename, JavaBuilder.MODE_LAZY ).bytecode;
+			for ( int i=0, n=pi.subprotos!=null? pi.subprotos.length: 0; i<n; i++ )
+				include( pi.subprotos[i], JavaGen.closureName(classname, i), filename );
+		}
 		if ( bytes != null )
 			return defineClass(classname, bytes, 0, bytes.length);
 		return super.findClass(classname);
@@ -0,0 +1,122 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.luajc;
+
+import org.luaj.vm2.LuaFunction;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+
+/**
+ * Closure of an inner prototype whose class is only generated and loaded 
+ * when the closure is first called.
+ * <p>
+ * Classes generated by {@link JavaLoader} create these instead of instances of 
+ * the classes of their inner prototypes, so functions that are defined but never called 
+ * cost an object rather than a generated class. 
+ * The upvalues are held until the first call, 
+ * when they are copied into an instance of the class, which is called from then on.
+ * The first call may be made from several threads at once, 
+ * in which case only one of them loads the class.
+ * 
+ * @see JavaLoader#load(org.luaj.vm2.Prototype, String, String)
+ */
+public final class LazyFunction extends LuaFunction {
+
+	private final Class creator;
+	private final String classname;
+	private Object[] upvalues;
+	private volatile LuaFunction f;
+	
+	/**
+	 * Construct a closure that is not yet loaded
+	 * @param creator the class creating the closure, whose class loader defines the closure's class
+	 * @param classname the name of the class of the closure
+	 * @param nups the number of upvalues
+	 */
+	public LazyFunction(Class creator, String classname, int nups) {
+		this.creator = creator;
+		this.classname = classname;
+		this.upvalues = new Object[nups];
+	}
+	
+	/** 
+	 * Set an upvalue before the closure is loaded
+	 * @param index the index of the upvalue
+	 * @param value the value, or the array holding it if it may be assigned  
+	 */
+	public void setupvalue(int index, Object value) {
+		upvalues[index] = value;
+	}
+
+	private LuaFunction function() {
+		LuaFunction g = f;
+		return g != null? g: load();
+	}
+
+	/** Load the class and copy the upvalues into an instance of it, once */
+	private synchronized LuaFunction load() {
+		if ( f == null ) {
+			try {
+				Class c = creator.getClassLoader().loadClass(classname);
+				LuaFunction g = (LuaFunction) c.newInstance();
+				for ( int i=0; i<upvalues.length; i++ )
+					c.getField(JavaBuilder.upvalueName(i)).set(g, upvalues[i]);
+				g.setfenv(env);
+				f = g;
+				upvalues = null;
+			} catch ( Exception e ) {
+				throw new IllegalStateException("bad class gen: "+e);
+			}
+		}
+		return f;
+	}
+	
+	public synchronized void setfenv(LuaValue env) {
+		super.setfenv(env);
+		if ( f != null )
+			f.setfenv(env);
+	}
+
+	public LuaValue call() {
+		return function().call();
+	}
+
+	public LuaValue call(LuaValue arg) {
+		return function().call(arg);
+	}
+
+	public LuaValue call(LuaValue arg1, LuaValue arg2) {
+		return function().call(arg1, arg2);
+	}
+
+	public LuaValue call(LuaValue arg1, LuaValue arg2, LuaValue arg3) {
+		return function().call(arg1, arg2, arg3);
+	}
+
+	public Varargs invoke(Varargs args) {
+		return function().invoke(args);
+	}
+
+	public Varargs onInvoke(Varargs args) {
+		return function().onInvoke(args);
+	}
+}
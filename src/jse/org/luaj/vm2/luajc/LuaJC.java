@@ -21,6 +21,9 @@
 ******************************************************************************/
 package org.luaj.vm2.luajc;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Hashtable;
@@ -36,7 +39,7 @@ import org.luaj.vm2.compiler.LuaC;
  * Implementation of {@link LuaCompiler} which does direct 
  * lua-to-java-bytecode compiling. 
  * <p>
- * This requires the bcel library to be on the class path to work as expected.  
+ * This requires the asm library to be on the class path to work as expected.  
  * If the library is not found, the default {@link LuaC} lua-to-lua-bytecode 
  * compiler will be used.  
  * <p>
@@ -49,8 +52,23 @@ import org.luaj.vm2.compiler.LuaC;
  * LuaJC.install();
  * LoadState.load( new ByteArrayInputStream("print 'hello'".getBytes()), "main.lua", _G ).call();
  * } </pre>
+ * <p>
+ * To avoid compiling the same scripts again each time the JVM starts, 
+ * the generated classes can be kept in a cache directory, 
+ * from which unchanged scripts are loaded without being parsed or compiled: 
+ * <pre> {@code
+ * LuaJC.install(new File("luajc-cache"));
+ * } </pre>
+ * <p>
+ * To run the same script in many environments, compile it once with 
+ * {@link LoadState#compile(InputStream, String)}, which shares the generated classes 
+ * between the functions it creates for each environment. 
+ * <p>
+ * Alternatively, scripts can be interpreted and only their hot functions compiled 
+ * in the background, using {@link TieredCompiler}.
  * @see LuaCompiler
  * @see LuaC
+ * @see TieredCompiler
  * @see JsePlatform
  * @see JmePlatform
  * @see BaseLib
@@ -76,7 +94,29 @@ public class LuaJC implements LuaCompiler {
 		LoadState.compiler = getInstance(); 
 	}
 	
+	/** 
+	 * Install a compiler that caches generated classes in a directory as the main compiler to use. 
+	 * @param cachedir directory in which to keep generated classes, created if necessary
+	 * @see #LuaJC(File)
+	 */
+	public static final void install(File cachedir) {
+		LoadState.compiler = new LuaJC(cachedir); 
+	}
+	
+	private final ClassCache cache;
+	
 	public LuaJC() {
+		this.cache = null;
+	}
+
+	/**
+	 * Construct a compiler that keeps the classes it generates in a directory, 
+	 * keyed by a hash of the source, chunk name and luaj version, 
+	 * and loads them from there when the same chunk is loaded again.
+	 * @param cachedir directory in which to keep generated classes, created if necessary
+	 */
+	public LuaJC(File cachedir) {
+		this.cache = new ClassCache(cachedir);
 	}
 
 	public Hashtable compileAll(InputStream script, String chunkname, String filename) throws IOException {
@@ -96,14 +136,35 @@ public class LuaJC implements LuaCompiler {
 	}
 
 	public LuaFunction load(InputStream stream, String name, LuaValue env) throws IOException {
-		Prototype p = LuaC.instance.compile(stream, name);
 		String classname = toStandardJavaClassName( name );
 		String luaname = toStandardLuaFileName( name );
 		JavaLoader loader = new JavaLoader(env);
-		return loader.load(p, classname, luaname);
+		if ( cache == null ) {
+			Prototype p = LuaC.instance.compile(stream, name);
+			return loader.load(p, classname, luaname);
+		}
+		byte[] source = readAll(stream);
+		String key = cache.key(source, name);
+		Hashtable h = cache.get(key);
+		if ( h == null || ! h.containsKey(classname) ) {
+			Prototype p = LuaC.instance.compile(new ByteArrayInputStream(source), name);
+			h = new Hashtable();
+			insert( h, new JavaGen(p, classname, luaname) );
+			cache.put(key, h);
+		}
+		loader.include(h);
+		return loader.load(classname);
+	}
+	
+	private static byte[] readAll(InputStream stream) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		byte[] buf = new byte[4096];
+		for ( int n; (n = stream.read(buf)) != -1; )
+			baos.write(buf, 0, n);
+		return baos.toByteArray();
 	}
 	
-	private static String toStandardJavaClassName( String luachunkname ) {
+	static String toStandardJavaClassName( String luachunkname ) {
 		String stub = toStub( luachunkname );
 		String classname = stub.replace('/','.').replaceAll(NON_IDENTIFIER, "_");
 		int c = classname.charAt(0);
@@ -112,7 +173,7 @@ public class LuaJC implements LuaCompiler {
 		return classname;
 	}
 	
-	private static String toStandardLuaFileName( String luachunkname ) {
+	static String toStandardLuaFileName( String luachunkname ) {
 		String stub = toStub( luachunkname );
 		String filename = stub.replace('.','/')+".lua";
 		return filename;
@@ -2,8 +2,13 @@ package org.luaj.vm2.luajc;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.Set;
+import java.util.Vector;
 
 import org.luaj.vm2.Lua;
+import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.Print;
 import org.luaj.vm2.Prototype;
 
@@ -21,12 +26,28 @@ public class ProtoInfo {
 	public final VarInfo[][] vars;        // Each variable
 	public final UpvalInfo[] upvals;      // from outer scope
 	public final UpvalInfo[][] openups;   // per slot, upvalues allocated by this prototype
+	private VarInfo[][] inputs;           // per block start pc, the variables input to the block
 	
 	public ProtoInfo(Prototype p, String name) {
 		this(p,name,null);
 	}
 	
+	/**
+	 * Analyze a prototype on its own, whose upvalues come from a closure 
+	 * rather than from an enclosing prototype analyzed with it.
+	 * @param p the prototype
+	 * @param name the name of its class 
+	 * @return the info, with all upvalues treated as read-write
+	 */
+	static ProtoInfo standalone(Prototype p, String name) {
+		UpvalInfo[] u = p.nups>0? new UpvalInfo[p.nups]: null;
+		for ( int i=0; i<p.nups; i++ )
+			u[i] = new UpvalInfo();
+		return new ProtoInfo(p,name,u);
+	}
+	
 	private ProtoInfo(Prototype p, String name, UpvalInfo[] u) {
+		p.decode();
 		this.name = name;
 		this.prototype = p;
 		this.upvals = u;
@@ -50,6 +71,9 @@ public class ProtoInfo {
 		// find upvalues, create sub-prototypes
 		this.openups = new UpvalInfo[p.maxstacksize][];
 		findUpvalues();
+
+		// find variables that are always numbers
+		findTypes();
 	}
 
 	public String toString() {
@@ -123,6 +147,7 @@ public class ProtoInfo {
 		VarInfo[][] v = new VarInfo[m][];
 		for ( int i=0; i<v.length; i++ )
 			v[i] = new VarInfo[n];		
+		inputs = new VarInfo[n][];
 		
 		// process instructions
 		for ( int bi=0; bi<blocklist.length; bi++ ) {
@@ -130,6 +155,7 @@ public class ProtoInfo {
 			
 			// input from previous blocks
 			int nprev = b0.prev!=null? b0.prev.length: 0;
+			inputs[b0.pc0] = new VarInfo[m];
 			for ( int slot=0; slot<m; slot++ ) {
 				VarInfo var = null;
 				if ( nprev == 0 ) 
@@ -146,6 +172,7 @@ public class ProtoInfo {
 				if ( var == null )
 					var = VarInfo.PHI(this, slot, b0.pc0);
 				v[slot][b0.pc0] = var;
+				inputs[b0.pc0][slot] = var;
 			}
 
 			// process instructions for this basic block
@@ -215,8 +242,12 @@ public class ProtoInfo {
 					
 				case Lua.OP_FORPREP: /*	A sBx	R(A)-=R(A+2); pc+=sBx				*/
 					a = Lua.GETARG_A( ins );
+					v[a][pc].isreferenced = true;
+					v[a+1][pc].isreferenced = true;
 					v[a+2][pc].isreferenced = true;
 					v[a][pc] = new VarInfo(a,pc);
+					v[a+1][pc] = new VarInfo(a+1,pc);
+					v[a+2][pc] = new VarInfo(a+2,pc);
 					break;
 					
 				case Lua.OP_GETTABLE: /*	A B C	R(A) := R(B)[RK(C)]				*/
@@ -274,6 +305,8 @@ public class ProtoInfo {
 					v[a][pc].isreferenced = true;
 					for ( int i=1; i<=b-1; i++ )
 						v[a+i][pc].isreferenced = true;
+					if ( b == 0 )
+						referenceVarargs( v, pc, a+1 );
 					for ( int j=0; j<=c-2; j++, a++ )
 						v[a][pc] = new VarInfo(a,pc);
 					for ( ; a<m; a++ )
@@ -286,6 +319,8 @@ public class ProtoInfo {
 					v[a][pc].isreferenced = true;
 					for ( int i=1; i<=b-1; i++ )
 						v[a+i][pc].isreferenced = true;
+					if ( b == 0 )
+						referenceVarargs( v, pc, a+1 );
 					break;
 					
 				case Lua.OP_RETURN: /*	A B	return R(A), ... ,R(A+B-2)	(see note)	*/
@@ -293,6 +328,8 @@ public class ProtoInfo {
 					b = Lua.GETARG_B( ins );
 					for ( int i=0; i<=b-2; i++ )
 						v[a+i][pc].isreferenced = true;
+					if ( b == 0 )
+						referenceVarargs( v, pc, a );
 					break;
 					
 				case Lua.OP_TFORLOOP: /*	A C	R(A+3), ... ,R(A+2+C) := R(A)(R(A+1), R(A+2)); 
@@ -301,7 +338,9 @@ public class ProtoInfo {
 					c = Lua.GETARG_C( ins );
 					v[a++][pc].isreferenced = true;
 					v[a++][pc].isreferenced = true;
-					v[a++][pc].isreferenced = true;
+					v[a][pc].isreferenced = true;
+					v[a][pc] = new VarInfo(a,pc);
+					a++;
 					for ( int j=0; j<c; j++, a++ )
 						v[a][pc] = new VarInfo(a,pc);
 					for ( ; a<m; a++ )
@@ -336,6 +375,8 @@ public class ProtoInfo {
 					v[a][pc].isreferenced = true;
 					for ( int i=1; i<=b; i++ )
 						v[a+i][pc].isreferenced = true;
+					if ( b == 0 )
+						referenceVarargs( v, pc, a+1 );
 					break;
 					
 				case Lua.OP_SETGLOBAL: /*	A Bx	Gbl[Kst(Bx)]:= R(A)				*/
@@ -365,6 +406,12 @@ public class ProtoInfo {
 		return v;
 	}
 
+	/** Mark the variables before the results of a previous vararg call or vararg as referenced */
+	private static void referenceVarargs(VarInfo[][] v, int pc, int slot) {
+		for ( ; slot<v.length && v[slot][pc] != VarInfo.INVALID; slot++ )
+			v[slot][pc].isreferenced = true;
+	}
+
 	private static void propogateVars(VarInfo[][] v, int pcfrom, int pcto) {
 		for ( int j=0, m=v.length; j<m; j++ )
 			v[j][pcto] = v[j][pcfrom];
@@ -374,7 +421,7 @@ public class ProtoInfo {
 		for ( int i=0; i<blocklist.length; i++ ) {
 			BasicBlock b0 = blocklist[i];
 			for ( int slot=0; slot<prototype.maxstacksize; slot++ ) {
-				VarInfo vold = vars[slot][b0.pc0];
+				VarInfo vold = inputs[b0.pc0][slot];
 				VarInfo vnew = vold.resolvePhiVariableValues();
 				if ( vnew != null )
 					substituteVariable( slot, vold, vnew );
@@ -385,6 +432,9 @@ public class ProtoInfo {
 	private void substituteVariable(int slot, VarInfo vold, VarInfo vnew) {
 		for ( int i=0, n=prototype.code.length; i<n; i++ )
 			replaceAll( vars[slot], vars[slot].length, vold, vnew );
+		for ( int i=0; i<blocklist.length; i++ )
+			if ( inputs[blocklist[i].pc0][slot] == vold )
+				inputs[blocklist[i].pc0][slot] = vnew;
 	}
 
 	private void replaceAll(VarInfo[] v, int n, VarInfo vold, VarInfo vnew) {
@@ -432,6 +482,306 @@ public class ProtoInfo {
 		return u;
 	}
 
+	/**
+	 * Get the variable held in a slot when the instruction at pc is executed, 
+	 * before any assignment by the instruction.
+	 * @param pc the instruction, or -1 for the initial values
+	 * @param slot the stack slot
+	 * @return the variable, or null if the instruction is not reached
+	 */
+	public VarInfo inputVar(int pc, int slot) {
+		if ( pc < 0 )
+			return params[slot];
+		if ( pc > blocks[pc].pc0 )
+			return vars[slot][pc-1];
+		return inputs[pc] != null? inputs[pc][slot]: null;
+	}
+
+	/**
+	 * Check if an operand of the instruction at pc is always a number, 
+	 * either a number constant or a register whose variable is a number.
+	 * @param pc the instruction
+	 * @param borc the register or constant index as encoded in the instruction
+	 */
+	public boolean isNumber(int pc, int borc) {
+		if ( Lua.ISK(borc) )
+			return prototype.k[Lua.INDEXK(borc)].type() == LuaValue.TNUMBER;
+		return typeOf(inputVar(pc, borc)) >= VarInfo.TYPE_NUMBER;
+	}
+
+	/** Get the type of the variable in a slot when the instruction at pc is executed */
+	public int inputType(int pc, int slot) {
+		return typeOf(inputVar(pc, slot));
+	}
+
+	private static int typeOf(VarInfo v) {
+		return v == null || v == VarInfo.INVALID? VarInfo.TYPE_VALUE: find(v).type;
+	}
+
+	/** Get the representative of the variables sharing storage with a variable */
+	private static VarInfo find(VarInfo v) {
+		while ( v.web != v )
+			v = v.web = v.web.web;
+		return v;
+	}
+
+	/**
+	 * Find the variables that are always numbers, which may be held unboxed.
+	 * <p> 
+	 * Variables joined by a phi variable share their storage, so have the same type, 
+	 * narrowed from unknown until each assignment agrees with it.  
+	 * Variables in upvalues, parameters and results of calls are values, 
+	 * while constants, arithmetic on numbers, and the values of numeric for loops are numbers, 
+	 * which are integers for loop variables whose initial value, limit and step are integers. 
+	 */
+	private void findTypes() {
+		Vector all = new Vector();
+		Set found = new HashSet();
+		for ( int slot=0; slot<prototype.maxstacksize; slot++ ) {
+			addVariable( all, found, params[slot] );
+			for ( int pc=0; pc<prototype.code.length; pc++ ) {
+				addVariable( all, found, vars[slot][pc] );
+				if ( inputs[pc] != null )
+					addVariable( all, found, inputs[pc][slot] );
+			}
+		}
+		for ( int i=0; i<all.size(); i++ ) {
+			VarInfo[] values = ((VarInfo) all.elementAt(i)).phiValues();
+			for ( int j=0, nv=(values!=null? values.length: 0); j<nv; j++ )
+				addVariable( all, found, values[j] );
+		}
+		int n = all.size();
+
+		// join phi variables that are referenced with their values
+		for ( int i=0; i<n; i++ ) {
+			VarInfo v = (VarInfo) all.elementAt(i);
+			VarInfo[] values = v.phiValues();
+			if ( values != null && (v.isreferenced || v.upvalue != null) )
+				for ( int j=0; j<values.length; j++ )
+					find(values[j]).web = find(v);
+		}
+		
+		// narrow types until no assignment changes them
+		for ( boolean changed = true; changed; ) {
+			changed = false;
+			for ( int i=0; i<n; i++ ) {
+				VarInfo v = (VarInfo) all.elementAt(i);
+				int t = assignedType(v);
+				VarInfo w = find(v);
+				if ( t < w.type ) {
+					w.type = t;
+					changed = true;
+				}
+			}
+			if ( ! changed ) {
+				for ( int i=0; i<n; i++ ) {
+					VarInfo w = find((VarInfo) all.elementAt(i));
+					if ( w.type == VarInfo.TYPE_UNKNOWN ) {
+						w.type = VarInfo.TYPE_VALUE;
+						changed = true;
+					}
+				}
+			}
+		}
+		
+		findBoxedVariables(all);
+		for ( int i=0; i<n; i++ ) {
+			VarInfo v = (VarInfo) all.elementAt(i);
+			v.type = find(v).type;
+			v.isboxed = find(v).isboxed;
+		}
+	}
+	
+	private static void addVariable(Vector all, Set found, VarInfo v) {
+		if ( v != null && v != VarInfo.INVALID && found.add(v) ) {
+			v.web = v;
+			v.type = VarInfo.TYPE_UNKNOWN;
+			all.addElement(v);
+		}
+	}
+	
+	/** Get the type of the value assigned to a variable, given the types of the variables so far */
+	private int assignedType(VarInfo v) {
+		if ( v.upvalue != null )
+			return VarInfo.TYPE_VALUE;
+		if ( v.isPhiVar() )
+			return v.phiValues() != null? VarInfo.TYPE_UNKNOWN: VarInfo.TYPE_VALUE;
+		if ( v.pc < 0 )
+			return VarInfo.TYPE_VALUE;
+		int ins = prototype.code[v.pc];
+		switch ( Lua.GET_OPCODE(ins) ) {
+		case Lua.OP_LOADK:
+			LuaValue k = prototype.k[Lua.GETARG_Bx(ins)];
+			if ( k.type() != LuaValue.TNUMBER )
+				return VarInfo.TYPE_VALUE;
+			return k.isinttype()? VarInfo.TYPE_INT: VarInfo.TYPE_NUMBER;
+		case Lua.OP_MOVE:
+			return inputType(v.pc, Lua.GETARG_B(ins));
+		case Lua.OP_UNM:
+			return isNumber(v.pc, Lua.GETARG_B(ins))? VarInfo.TYPE_NUMBER: VarInfo.TYPE_VALUE;
+		case Lua.OP_ADD:
+		case Lua.OP_SUB:
+		case Lua.OP_MUL:
+		case Lua.OP_DIV:
+		case Lua.OP_MOD:
+		case Lua.OP_POW:
+			return isNumber(v.pc, Lua.GETARG_B(ins)) && isNumber(v.pc, Lua.GETARG_C(ins))? 
+					VarInfo.TYPE_NUMBER: VarInfo.TYPE_VALUE;
+		case Lua.OP_FORPREP:
+			return VarInfo.TYPE_NUMBER;
+		case Lua.OP_FORLOOP:
+			int a = Lua.GETARG_A(ins);
+			int prep = v.pc + Lua.GETARG_sBx(ins);
+			if ( v.slot == a+3 
+					&& inputType(prep, a) >= VarInfo.TYPE_INT 
+					&& inputType(prep, a+1) >= VarInfo.TYPE_INT 
+					&& inputType(prep, a+2) >= VarInfo.TYPE_INT )
+				return VarInfo.TYPE_INT;
+			return VarInfo.TYPE_NUMBER;
+		default:
+			return VarInfo.TYPE_VALUE;
+		}
+	}
+
+	/** 
+	 * Find the numbers that are also held as values when assigned, 
+	 * which are those used as values other than by arithmetic, comparisons, 
+	 * numeric for loops or as integer keys, in loops at least as deep as every assignment.
+	 * Other numbers are boxed where used as values. 
+	 */
+	private void findBoxedVariables(Vector all) {
+		int[] code = prototype.code;
+		int[] depth = findLoopDepths();
+		Hashtable used = new Hashtable();
+		for ( int bi=0; bi<blocklist.length; bi++ ) {
+			BasicBlock b0 = blocklist[bi];
+			for ( int pc=b0.pc0; pc<=b0.pc1; pc++ ) {
+				int ins = code[pc];
+				int a = Lua.GETARG_A( ins );
+				int b = Lua.GETARG_B( ins );
+				int c = Lua.GETARG_C( ins );
+				Integer d = Integer.valueOf(depth[pc]);
+				switch ( Lua.GET_OPCODE(ins) ) {
+				case Lua.OP_MOVE:
+					if ( typeOf(vars[a][pc]) < VarInfo.TYPE_NUMBER )
+						use( used, d, pc, b );
+					break;
+				case Lua.OP_UNM:
+					if ( !isNumber(pc, b) )
+						use( used, d, pc, b );
+					break;
+				case Lua.OP_NOT:
+				case Lua.OP_LEN:
+				case Lua.OP_TESTSET:
+					use( used, d, pc, b );
+					break;
+				case Lua.OP_ADD:
+				case Lua.OP_SUB:
+				case Lua.OP_MUL:
+				case Lua.OP_DIV:
+				case Lua.OP_MOD:
+				case Lua.OP_POW:
+				case Lua.OP_EQ:
+				case Lua.OP_LT:
+				case Lua.OP_LE:
+					if ( !isNumber(pc, b) || !isNumber(pc, c) ) {
+						use( used, d, pc, b );
+						use( used, d, pc, c );
+					}
+					break;
+				case Lua.OP_GETTABLE:
+					use( used, d, pc, b );
+					if ( Lua.ISK(c) || inputType(pc, c) != VarInfo.TYPE_INT )
+						use( used, d, pc, c );
+					break;
+				case Lua.OP_SETTABLE:
+					use( used, d, pc, a );
+					if ( Lua.ISK(b) || inputType(pc, b) != VarInfo.TYPE_INT )
+						use( used, d, pc, b );
+					use( used, d, pc, c );
+					break;
+				case Lua.OP_SELF:
+					use( used, d, pc, b );
+					use( used, d, pc, c );
+					break;
+				case Lua.OP_CONCAT:
+					for ( ; b<=c; b++ )
+						use( used, d, pc, b );
+					break;
+				case Lua.OP_CALL:
+				case Lua.OP_TAILCALL:
+					use( used, d, pc, a );
+					for ( int i=1; i<b; i++ )
+						use( used, d, pc, a+i );
+					break;
+				case Lua.OP_RETURN:
+					for ( int i=0; i<=b-2; i++ )
+						use( used, d, pc, a+i );
+					break;
+				case Lua.OP_TFORLOOP:
+					for ( int i=0; i<3; i++ )
+						use( used, d, pc, a+i );
+					break;
+				case Lua.OP_SETLIST:
+					for ( int i=0; i<=b; i++ )
+						use( used, d, pc, a+i );
+					break;
+				case Lua.OP_SETGLOBAL:
+				case Lua.OP_SETUPVAL:
+				case Lua.OP_TEST:
+					use( used, d, pc, a );
+					break;
+				case Lua.OP_CLOSURE:
+					pc += prototype.p[Lua.GETARG_Bx(ins)].nups;
+					break;
+				}
+			}
+		}
+		
+		// deepest assignments
+		Hashtable assigned = new Hashtable();
+		for ( int i=0, n=all.size(); i<n; i++ ) {
+			VarInfo v = (VarInfo) all.elementAt(i);
+			if ( !v.isPhiVar() )
+				deepest( assigned, find(v), Integer.valueOf(v.pc<0? 0: depth[v.pc]) );
+		}
+		for ( int i=0, n=all.size(); i<n; i++ ) {
+			VarInfo w = find((VarInfo) all.elementAt(i));
+			Integer u = (Integer) used.get(w);
+			Integer a = (Integer) assigned.get(w);
+			w.isboxed = w.type == VarInfo.TYPE_VALUE || 
+				(u != null && (a == null || u.intValue() >= a.intValue()));
+		}
+	}
+
+	/** Record the use as a value of a register read by the instruction at pc */
+	private void use(Hashtable used, Integer depth, int pc, int borc) {
+		if ( Lua.ISK(borc) )
+			return;
+		VarInfo v = inputVar(pc, borc);
+		if ( v != null && v != VarInfo.INVALID )
+			deepest( used, find(v), depth );
+	}
+
+	private static void deepest(Hashtable h, VarInfo w, Integer depth) {
+		Integer d = (Integer) h.get(w);
+		if ( d == null || d.intValue() < depth.intValue() )
+			h.put(w, depth);
+	}
+
+	/** Find the number of loops each instruction is in, from the branches back to earlier instructions */
+	private int[] findLoopDepths() {
+		int[] code = prototype.code;
+		int[] depth = new int[code.length];
+		for ( int pc=0; pc<code.length; pc++ ) {
+			int o = Lua.GET_OPCODE(code[pc]);
+			if ( o == Lua.OP_JMP || o == Lua.OP_FORLOOP )
+				for ( int t=pc+1+Lua.GETARG_sBx(code[pc]); t<=pc; t++ )
+					depth[t]++;
+		}
+		return depth;
+	}
+
 	public boolean isUpvalueAssign(int pc, int slot) {
 		VarInfo v = pc<0? params[slot]: vars[slot][pc];
 		return v != null && v.upvalue != null && v.upvalue.rw;
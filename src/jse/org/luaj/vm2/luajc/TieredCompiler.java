@@ -0,0 +1,166 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.luajc;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Vector;
+
+import org.luaj.vm2.LuaClosure;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaFunction;
+import org.luaj.vm2.Prototype;
+import org.luaj.vm2.LuaClosure.CompiledCode;
+import org.luaj.vm2.LuaClosure.HotspotCompiler;
+
+/**
+ * Implementation of {@link HotspotCompiler} which compiles hot prototypes 
+ * to java bytecode on a background thread. 
+ * <p>
+ * Scripts are loaded and started in the interpreter as usual,  
+ * and only the functions that are called often or loop many times are compiled, 
+ * so startup does not pay for generating classes for code that runs rarely. 
+ * It is installed following the globals creation, as in the following:
+ * <pre> {@code
+ * LuaValue _G = JsePlatform.standardGlobals();
+ * TieredCompiler.install();
+ * LoadState.load( new ByteArrayInputStream("print 'hello'".getBytes()), "main.lua", _G ).call();
+ * } </pre>
+ * <p>
+ * Each hot {@link Prototype} is compiled on its own by {@link JavaGen} into a class 
+ * whose instances are bound to a {@link LuaClosure}, 
+ * sharing its {@link org.luaj.vm2.UpValue}s and creating closures of inner prototypes 
+ * as {@link LuaClosure}, so compiled and interpreted functions can be mixed freely. 
+ * The class is published via {@link Prototype#compiled}, 
+ * and each closure switches to it on its next call; 
+ * a call in progress completes in the interpreter. 
+ * Prototypes that cannot be compiled, for example because they are too large 
+ * for a java method, remain interpreted.
+ * <p>
+ * This requires the asm library to be on the class path. 
+ * @see LuaClosure#hotspot
+ * @see LuaJC
+ */
+public class TieredCompiler implements HotspotCompiler, Runnable {
+
+	/** Number of calls plus backward branches after which a prototype is compiled by default */
+	public static final int DEFAULT_THRESHOLD = 1000;
+	
+	/** 
+	 * Install a tiered compiler with the default threshold.
+	 * @see #install(int)
+	 */
+	public static final void install() {
+		install(DEFAULT_THRESHOLD);
+	}
+	
+	/** 
+	 * Install a tiered compiler as the hotspot compiler to use. 
+	 * @param threshold number of calls plus backward branches after which a prototype is compiled
+	 */
+	public static final void install(int threshold) {
+		LuaClosure.hotspotThreshold = threshold;
+		LuaClosure.hotspot = new TieredCompiler();
+	}
+	
+	/** Prototypes waiting to be compiled */
+	private final Vector queue = new Vector();
+	
+	/** The background compiler thread, started when the first prototype is queued */
+	private Thread thread;
+	
+	public void compile(Prototype p) {
+		synchronized ( queue ) {
+			if ( queue.contains(p) )
+				return;
+			queue.addElement(p);
+			if ( thread == null ) {
+				thread = new Thread(this, "luaj-tiered-compiler");
+				thread.setDaemon(true);
+				thread.start();
+			}
+			queue.notify();
+		}
+	}
+	
+	public void run() {
+		while ( true ) {
+			Prototype p;
+			synchronized ( queue ) {
+				while ( queue.isEmpty() ) {
+					try {
+						queue.wait();
+					} catch ( InterruptedException e ) {
+						return;
+					}
+				}
+				p = (Prototype) queue.elementAt(0);
+				queue.removeElementAt(0);
+			}
+			if ( p.compiled == null ) {
+				try {
+					p.compiled = generate(p);
+				} catch ( Throwable t ) {
+					// leave it to the interpreter 
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Generate and load the class for a prototype.
+	 * @param p the prototype
+	 * @return the compiled code, which creates an instance of the class for each closure
+	 * @throws Exception if the class could not be generated or loaded
+	 */
+	static CompiledCode generate(Prototype p) throws Exception {
+		String source = p.source != null? p.source.tojstring(): "?";
+		if ( source.startsWith("@") || source.startsWith("=") )
+			source = source.substring(1);
+		String classname = LuaJC.toStandardJavaClassName(source)+"$"+p.linedefined;
+		String filename = LuaJC.toStandardLuaFileName(source);
+		JavaGen gen = new JavaGen(ProtoInfo.standalone(p, classname), classname, filename, JavaBuilder.MODE_TIERED);
+		JavaLoader loader = new JavaLoader(null);
+		loader.include(gen);
+		Class c = loader.loadClass(classname);
+		return new Binder(c.getConstructor(new Class[] { LuaClosure.class }));
+	}
+	
+	/** Compiled code creating an instance of a generated class for each closure */
+	private static final class Binder implements CompiledCode {
+		private final Constructor constructor;
+		
+		Binder(Constructor constructor) {
+			this.constructor = constructor;
+		}
+		
+		public LuaFunction bind(LuaClosure closure) {
+			try {
+				return (LuaFunction) constructor.newInstance(new Object[] { closure });
+			} catch ( InvocationTargetException e ) {
+				throw new LuaError(e.getTargetException());
+			} catch ( Exception e ) {
+				throw new LuaError(e);
+			}
+		}
+	}
+}
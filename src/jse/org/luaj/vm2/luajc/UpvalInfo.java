@@ -12,6 +12,11 @@ public class UpvalInfo {
 	VarInfo var[];	// list of vars
 	boolean rw;     // read-write
 	
+	/** Upvalue from outside the prototypes being analyzed, which may be written anywhere */
+	UpvalInfo() {
+		this.rw = true;
+	}
+	
 	public UpvalInfo(ProtoInfo pi, int pc, int slot) {
 		this.pi = pi;
 		this.slot = slot;
@@ -111,7 +116,7 @@ public class UpvalInfo {
 
 	public String toString() {
 		StringBuffer sb = new StringBuffer();
-		sb.append( pi.name );
+		sb.append( pi!=null? pi.name: "closure" );
 		for ( int i=0; i<nvars; i++ ) {
 			sb.append( i>0? ",": " " );
 			sb.append( String.valueOf(var[i]));
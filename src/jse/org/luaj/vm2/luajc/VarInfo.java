@@ -11,6 +11,11 @@ public class VarInfo {
 
 	public static VarInfo INVALID = new VarInfo(-1, -1);
 
+	public static final int TYPE_VALUE = 0;  // any lua value, held as a LuaValue
+	public static final int TYPE_NUMBER = 1; // always a number, held as a double
+	public static final int TYPE_INT = 2;    // always an integer, held as an int
+	static final int TYPE_UNKNOWN = 3;       // not yet inferred
+
 	public static VarInfo PARAM(int slot) {
 		return new VarInfo(slot, -1) {
 			public String toString() {
@@ -39,6 +44,10 @@ public class VarInfo {
 									// storage
 	public boolean isreferenced; // true if this variable is refenced by some
 									// opcode
+	public int type; // one of the TYPE_ constants, the same for all variables sharing storage
+	public boolean isboxed; // true if a number variable is also held as a LuaValue
+
+	VarInfo web; // representative of the variables joined by phi variables
 
 	public VarInfo(int slot, int pc) {
 		this.slot = slot;
@@ -67,6 +76,16 @@ public class VarInfo {
 		return false;
 	}
 
+	/** Return true if the variable is a number held unboxed, as a double or an int */
+	public boolean isnumber() {
+		return type == TYPE_NUMBER || type == TYPE_INT;
+	}
+
+	/** Return the values of a phi variable, or null if not a phi variable or not resolved */
+	VarInfo[] phiValues() {
+		return null;
+	}
+
 	private static final class PhiVarInfo extends VarInfo {
 		private final ProtoInfo pi;
 		VarInfo[] values;
@@ -80,6 +99,10 @@ public class VarInfo {
 			return true;
 		}
 
+		VarInfo[] phiValues() {
+			return values;
+		}
+
 		public String toString() {
 			StringBuffer sb = new StringBuffer();
 			sb.append( super.toString() );
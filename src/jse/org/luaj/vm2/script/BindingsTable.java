@@ -0,0 +1,135 @@
+/*******************************************************************************
+* Copyright (c) 2012 Luaj.org. All rights reserved.
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in
+* all copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+* THE SOFTWARE.
+******************************************************************************/
+package org.luaj.vm2.script;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.script.Bindings;
+
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.jse.CoerceJavaToLua;
+
+/**
+ * Environment of a script evaluated by {@link LuaScriptEngine}, 
+ * which reads and writes string keys in its {@link Bindings} directly.
+ * <p>
+ * Reading a global looks up its name in the bindings and coerces the value found,
+ * and names not bound are looked up in the engine globals via the {@link LuaValue#INDEX} metatable.
+ * Assigning a global puts the coerced value in the bindings, or removes the name when it is nil.
+ * Only the names a script uses are coerced, 
+ * and changes made by the script or by Java during the evaluation are seen by the other immediately.
+ * <p>
+ * Keys that are not strings cannot be bound, so they are held in this table.
+ * @see LuaScriptEngine.ClientBindings
+ */
+class BindingsTable extends LuaTable {
+
+	private final Bindings bindings;
+
+	/** Iterator over the bindings of the traversal in progress, or null */
+	private Iterator iterator;
+
+	/** Key last returned by {@link #iterator}, or null */
+	private LuaValue last;
+
+	/**
+	 * Construct an environment reading and writing a set of bindings. 
+	 * @param bindings the {@link Bindings} holding the variables of the script
+	 * @param metatable metatable whose {@link LuaValue#INDEX} is the engine globals,
+	 * shared by every environment of the engine so that lookups of globals remain inline cached
+	 */
+	BindingsTable(Bindings bindings, LuaTable metatable) {
+		this.bindings = bindings;
+		m_metatable = metatable;
+	}
+
+	protected LuaValue hashget(LuaValue key) {
+		if ( key.type() != TSTRING )
+			return super.hashget(key);
+		return toLua(bindings.get(key.tojstring()));
+	}
+
+	public void hashset(LuaValue key, LuaValue value) {
+		if ( key.type() != TSTRING )
+			super.hashset(key, value);
+		else if ( value.isnil() )
+			bindings.remove(key.tojstring());
+		else
+			bindings.put(key.tojstring(), toJava(value));
+	}
+
+	/** 
+	 * Get the next element after a particular key, 
+	 * traversing the keys held in this table and then the bindings.
+	 * <p>
+	 * A traversal of the bindings continues an iterator while each key is the last one returned,
+	 * so the bindings should not be changed during the traversal.  
+	 */
+	public Varargs next(LuaValue key) {
+		Iterator i = iterator;
+		LuaValue l = last;
+		iterator = null;
+		last = null;
+		if ( key.type() != TSTRING ) {
+			Varargs n = super.next(key);
+			if ( !n.isnil(1) )
+				return n;
+			i = bindings.entrySet().iterator();
+		} else if ( l == null || !key.raweq(l) ) {
+			for ( i = bindings.entrySet().iterator(); true; ) {
+				if ( !i.hasNext() )
+					error("invalid key to 'next'");
+				if ( key.raweq(valueOf((String) ((Map.Entry) i.next()).getKey())) )
+					break;
+			}
+		}
+		while ( i.hasNext() ) {
+			Map.Entry e = (Map.Entry) i.next();
+			if ( e.getValue() != null ) {
+				LuaValue k = valueOf((String) e.getKey());
+				iterator = i;
+				last = k;
+				return varargsOf(k, toLua(e.getValue()));
+			}
+		}
+		return NIL;
+	}
+
+	static LuaValue toLua(Object javaValue) {
+		return javaValue == null? NIL:
+			javaValue instanceof LuaValue? (LuaValue) javaValue:
+			CoerceJavaToLua.coerce(javaValue);
+	}
+
+	static Object toJava(LuaValue v) {
+		switch ( v.type() ) {
+		case TNIL: return null;
+		case TSTRING: return v.tojstring();
+		case TUSERDATA: return v.checkuserdata(Object.class);
+		case TNUMBER: return v.isinttype()? (Object) new Integer(v.toint()): (Object) new Double(v.todouble());
+		default: return v;
+		}
+	}
+}
@@ -25,7 +25,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
-import java.util.Iterator;
 
 import javax.script.Bindings;
 import javax.script.Compilable;
@@ -37,16 +36,13 @@ import javax.script.ScriptException;
 import javax.script.SimpleBindings;
 import javax.script.SimpleScriptContext;
 
+import org.luaj.vm2.CompiledChunk;
 import org.luaj.vm2.LoadState;
 import org.luaj.vm2.Lua;
-import org.luaj.vm2.LuaClosure;
 import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaFunction;
 import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaValue;
-import org.luaj.vm2.Prototype;
-import org.luaj.vm2.Varargs;
-import org.luaj.vm2.lib.jse.CoerceJavaToLua;
 import org.luaj.vm2.lib.jse.JsePlatform;
 
 /**
@@ -69,10 +65,14 @@ public class LuaScriptEngine implements ScriptEngine, Compilable {
 
     private final LuaValue _G;
 
+    /** Metatable of script environments, which look up names not bound in {@link #_G} */
+    private final LuaTable envMetatable;
+
     public LuaScriptEngine() {
 
         // create globals
         _G = JsePlatform.standardGlobals();
+        envMetatable = LuaTable.tableOf(new LuaValue[] { LuaValue.INDEX, _G });
     	
     	// set up context
     	ScriptContext ctx = new SimpleScriptContext();
@@ -162,28 +162,7 @@ public class LuaScriptEngine implements ScriptEngine, Compilable {
 		try {
 	    	InputStream ris = new Utf8Encoder(reader);
 	    	try {
-	    		final LuaFunction f = LoadState.load(ris, "script", null);
-	    		if ( f.isclosure() ) {
-	    			// most compiled functions are closures with prototypes 
-	    			final Prototype p = f.checkclosure().p;
-					return new CompiledScriptImpl() {
-						protected LuaFunction newFunctionInstance() {
-							return new LuaClosure( p, null );
-						}
-					};
-	    		} else {
-	    			// when luajc is used, functions are java class instances
-	    			final Class c = f.getClass();
-					return new CompiledScriptImpl() {
-						protected LuaFunction newFunctionInstance() throws ScriptException {
-							try {
-						        return (LuaFunction) c.newInstance();
-							} catch (Exception e) {
-								throw new ScriptException("instantiation failed: "+e.toString());
-							}
-						}
-					};	    			
-	    		}
+	    		return new CompiledScriptImpl(LoadState.compile(ris, "script"));
 			} catch ( LuaError lee ) {
 				throw new ScriptException(lee.getMessage() );
 			} finally { 
@@ -194,64 +173,52 @@ public class LuaScriptEngine implements ScriptEngine, Compilable {
 		}
 	}
 	
-	abstract protected class CompiledScriptImpl extends CompiledScript {
-		abstract protected LuaFunction newFunctionInstance() throws ScriptException; 
+	/**
+	 * Script compiled once by {@link LuaScriptEngine#compile(Reader)}, 
+	 * which is evaluated with any {@link Bindings} without being parsed or compiled again.
+	 * @see CompiledChunk
+	 */
+	protected class CompiledScriptImpl extends CompiledScript {
+		protected final CompiledChunk chunk;
+		protected CompiledScriptImpl(CompiledChunk chunk) {
+			this.chunk = chunk;
+		}
 		public ScriptEngine getEngine() {
 			return LuaScriptEngine.this;
 		}
 		public Object eval(ScriptContext context) throws ScriptException {
 	        Bindings b = context.getBindings(ScriptContext.ENGINE_SCOPE);
-	        LuaFunction f = newFunctionInstance();
 	        ClientBindings cb = new ClientBindings(b);
-	        f.setfenv(cb.env);
-			Varargs result = f.invoke(LuaValue.NONE);
-			cb.copyGlobalsToBindings();
-			return result;
+	        LuaFunction f = chunk.instantiate(cb.env);
+			return f.invoke(LuaValue.NONE);
 		}
 	}
 	
+	/**
+	 * Environment of a script evaluated with a set of {@link Bindings}.
+	 * <p>
+	 * The environment reads and writes the bindings directly, 
+	 * coercing only the values of the names the script uses, 
+	 * so the bindings are not copied before or after the script runs.
+	 */
 	public class ClientBindings {
 		public final Bindings b;
 		public final LuaTable env;
 		public ClientBindings( Bindings b ) {
 			this.b = b;
-			this.env = new LuaTable();
-			env.setmetatable(LuaTable.tableOf(new LuaValue[] { LuaValue.INDEX, _G }));
-			this.copyBindingsToGlobals();
+			this.env = new BindingsTable(b, envMetatable);
 		}
+		/** 
+		 * Does nothing, since the environment reads the bindings directly.
+		 * @deprecated the bindings are no longer copied
+		 */
 		public void copyBindingsToGlobals() {
-			for ( Iterator i = b.keySet().iterator(); i.hasNext(); ) {
-				String key = (String) i.next();
-				Object val = b.get(key);
-				LuaValue luakey = toLua(key);
-				LuaValue luaval = toLua(val);
-				env.set(luakey, luaval);
-				i.remove();
-			}
-		}
-		private LuaValue toLua(Object javaValue) {
-			return javaValue == null? LuaValue.NIL:
-				javaValue instanceof LuaValue? (LuaValue) javaValue:
-				CoerceJavaToLua.coerce(javaValue);
 		}
+		/** 
+		 * Does nothing, since the environment writes the bindings directly.
+		 * @deprecated the bindings are no longer copied
+		 */
 		public void copyGlobalsToBindings() {
-			LuaValue[] keys = env.keys();
-			for ( int i=0; i<keys.length; i++ ) {
-				LuaValue luakey = keys[i];
-				LuaValue luaval = env.get(luakey);
-				String key = luakey.tojstring();
-				Object val = toJava( luaval );
-				b.put(key,val);
-			}
-		}
-		private Object toJava(LuaValue v) {
-			switch ( v.type() ) {
-			case LuaValue.TNIL: return null;
-			case LuaValue.TSTRING: return v.tojstring();
-			case LuaValue.TUSERDATA: return v.checkuserdata(Object.class);
-			case LuaValue.TNUMBER: return v.isinttype()? (Object) new Integer(v.toint()): (Object) new Double(v.todouble());
-			default: return v;
-			}
 		}
 	}
 
@@ -260,6 +227,7 @@ public class LuaScriptEngine implements ScriptEngine, Compilable {
 	private final class Utf8Encoder extends InputStream {
 		private final Reader r;
 		private final int[] buf = new int[2];
+		private final char[] cbuf = new char[1024];
 		private int n;
 
 		private Utf8Encoder(Reader r) {
@@ -282,5 +250,35 @@ public class LuaScriptEngine implements ScriptEngine, Compilable {
 				return     (0xE0 | ((c>>12) & 0x0f));
 			}
 		}
+
+		public int read(byte[] b, int off, int len) throws IOException {
+			if ( n > 0 || len < 3 ) {
+				if ( len <= 0 )
+					return 0;
+				int c = read();
+				if ( c < 0 )
+					return -1;
+				b[off] = (byte) c;
+				return 1;
+			}
+			int m = r.read(cbuf, 0, Math.min(cbuf.length, len/3));
+			if ( m < 0 )
+				return -1;
+			int i = off;
+			for ( int j=0; j<m; j++ ) {
+				int c = cbuf[j];
+				if ( c < 0x80 ) {
+					b[i++] = (byte) c;
+				} else if ( c < 0x800 ) {
+					b[i++] = (byte) (0xC0 | ((c>>6)  & 0x1f));
+					b[i++] = (byte) (0x80 | ( c      & 0x3f));
+				} else {
+					b[i++] = (byte) (0xE0 | ((c>>12) & 0x0f));
+					b[i++] = (byte) (0x80 | ((c>>6)  & 0x3f));
+					b[i++] = (byte) (0x80 | ( c      & 0x3f));
+				}
+			}
+			return i - off;
+		}
 	}
 }
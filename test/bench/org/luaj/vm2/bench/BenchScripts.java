@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.luaj.vm2.LoadState.LuaCompiler;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.compiler.LuaC;
+import org.luaj.vm2.luajc.LuaJC;
+
+/**
+ * Helpers shared by the benchmarks for compiling lua source 
+ * with either the interpreter or the luajc compiler.
+ */
+public class BenchScripts {
+
+	/** Name of the compiler producing {@link org.luaj.vm2.LuaClosure} instances for the interpreter */
+	public static final String LUAC = "luac";
+
+	/** Name of the compiler producing Java bytecode via luajc */
+	public static final String LUAJC = "luajc";
+
+	/**
+	 * Get a compiler by name.
+	 * @param name either {@link #LUAC} or {@link #LUAJC}
+	 * @return the {@link LuaCompiler}
+	 */
+	public static LuaCompiler compiler(String name) {
+		if ( LUAJC.equals(name) )
+			return LuaJC.getInstance();
+		return LuaC.instance;
+	}
+
+	/**
+	 * Compile a chunk and run it to obtain the value it returns.
+	 * @param compiler name of the compiler to use
+	 * @param script lua source of the chunk
+	 * @param env the globals to load the chunk into
+	 * @return the first value returned by the chunk
+	 */
+	public static LuaValue run(String compiler, String script, LuaValue env) throws IOException {
+		LuaValue chunk = compiler(compiler).load(
+				new ByteArrayInputStream(script.getBytes()), "bench", env);
+		return chunk.call();
+	}
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2.bench;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaThread;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.CoroutineLib;
+import org.luaj.vm2.lib.jse.JseCoroutineFactory;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link LuaThread} resume and yield, 
+ * for each of the available {@link LuaThread.CoroutineFactory} implementations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CoroutineBenchmark {
+
+	static final String SCRIPT = 
+		"local gen = coroutine.wrap(function() local i = 0 while true do i = i + 1 coroutine.yield(i) end end)\n" +
+		"local function resumeYield() return gen() end\n" +
+		"local function createFinish()\n" +
+		"  local co = coroutine.create(function(a) return a + coroutine.yield(a) end)\n" +
+		"  coroutine.resume(co, 1)\n" +
+		"  return coroutine.resume(co, 2)\n" +
+		"end\n" +
+		"return resumeYield, createFinish\n";
+
+	@Param({ "monitor", "jse" })
+	public String factory;
+
+	private LuaValue resumeYield;
+	private LuaValue createFinish;
+
+	@Setup
+	public void setup() throws Exception {
+		Globals _G = JsePlatform.standardGlobals();
+		_G.load(new CoroutineLib("monitor".equals(factory)? 
+				LuaThread.MONITOR_FACTORY: 
+				new JseCoroutineFactory()));
+		LuaValue chunk = BenchScripts.compiler(BenchScripts.LUAC).load(
+				new ByteArrayInputStream(SCRIPT.getBytes()), "bench", _G);
+		Varargs v = chunk.invoke();
+		resumeYield = v.arg(1);
+		createFinish = v.arg(2);
+	}
+
+	/** One resume and the matching yield of a suspended coroutine */
+	@Benchmark
+	public LuaValue resumeYield() {
+		return resumeYield.call();
+	}
+
+	/** Create a coroutine, resume it to a yield, then resume it to completion */
+	@Benchmark
+	public LuaValue createFinish() {
+		return createFinish.call();
+	}
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of lua code executed by the interpreter in {@link org.luaj.vm2.LuaClosure} 
+ * and by classes generated by {@link org.luaj.vm2.luajc.LuaJC}.
+ * <p>
+ * Each script returns a function that is called once per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InterpreterBenchmark {
+
+	/** Recursive calls, comparisons and returns */
+	static final String FIB = 
+		"local function fib(n) if n < 2 then return n end return fib(n-1) + fib(n-2) end\n" +
+		"return function() return fib(18) end\n";
+
+	/** Numeric for loop and arithmetic */
+	static final String LOOP = 
+		"return function()\n" +
+		"  local s = 0\n" +
+		"  for i=1,10000 do s = s + i % 7 * 2 - 1 end\n" +
+		"  return s\n" +
+		"end\n";
+
+	/** 
+	 * Floating point arithmetic in a loop past the cached integers, 
+	 * whose allocation per operation is reported by the gc profiler 
+	 */
+	static final String NUMERIC = 
+		"return function()\n" +
+		"  local x, v = 0.5, 0.25\n" +
+		"  for i=1,10000 do v = v - x * 0.01; x = x + v * 0.01 end\n" +
+		"  return x\n" +
+		"end\n";
+
+	/** Calls through upvalues and varargs */
+	static final String CALLS = 
+		"local function add(a, b) return a + b end\n" +
+		"local function sum(...) local s = 0 for i=1,select('#',...) do s = add(s, (select(i,...))) end return s end\n" +
+		"return function()\n" +
+		"  local s = 0\n" +
+		"  for i=1,1000 do s = s + sum(i, 1, 2) end\n" +
+		"  return s\n" +
+		"end\n";
+
+	/** Method calls on objects with a metatable */
+	static final String METHODS = 
+		"local Point = {}\n" +
+		"Point.__index = Point\n" +
+		"function Point.new(x, y) return setmetatable({x=x, y=y}, Point) end\n" +
+		"function Point:add(p) return Point.new(self.x + p.x, self.y + p.y) end\n" +
+		"return function()\n" +
+		"  local p, d = Point.new(0, 0), Point.new(1, 2)\n" +
+		"  for i=1,1000 do p = p:add(d) end\n" +
+		"  return p.x + p.y\n" +
+		"end\n";
+
+	@Param({ "fib", "loop", "numeric", "calls", "methods" })
+	public String script;
+
+	@Param({ BenchScripts.LUAC, BenchScripts.LUAJC })
+	public String compiler;
+
+	private LuaValue function;
+
+	@Setup
+	public void setup() throws Exception {
+		String source = "fib".equals(script)? FIB:
+			"loop".equals(script)? LOOP:
+			"numeric".equals(script)? NUMERIC:
+			"calls".equals(script)? CALLS:
+			METHODS;
+		function = BenchScripts.run(compiler, source, JsePlatform.standardGlobals());
+	}
+
+	@Benchmark
+	public LuaValue call() {
+		return function.call();
+	}
+}
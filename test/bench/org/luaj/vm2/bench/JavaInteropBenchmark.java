@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2.bench;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.jse.CoerceJavaToLua;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of coercing Java values with {@link CoerceJavaToLua}, 
+ * and of calling Java methods, constructors and fields from lua.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JavaInteropBenchmark {
+
+	/** Target of the calls made from lua */
+	public static class Target {
+		public int count;
+		public Target() {}
+		public Target(int count) { this.count = count; }
+		public int add(int a, int b) { return a + b; }
+		public double add(double a, double b) { return a + b; }
+		public String concat(String a, String b) { return a + b; }
+		public void increment() { ++count; }
+		public static int twice(int a) { return a * 2; }
+	}
+
+	static final String SCRIPT = 
+		"local target, Target = ...\n" +
+		"return function()\n" +
+		"  local s = 0\n" +
+		"  for i=1,100 do s = s + target:add(i, 1) end\n" +
+		"  return s\n" +
+		"end,\n" +
+		"function()\n" +
+		"  local s = 0\n" +
+		"  for i=1,100 do s = s + target:add(i + 0.5, 1) end\n" +
+		"  return s\n" +
+		"end,\n" +
+		"function()\n" +
+		"  for i=1,100 do target.count = target.count + 1 end\n" +
+		"  return target.count\n" +
+		"end,\n" +
+		"function()\n" +
+		"  local t\n" +
+		"  for i=1,100 do t = Target.new(i) end\n" +
+		"  return t\n" +
+		"end\n";
+
+	private Integer javaInteger;
+	private String javaString;
+	private Target javaObject;
+	private int[] javaArray;
+	private LuaValue target;
+	private LuaValue add;
+	private LuaValue one;
+	private LuaValue two;
+	private LuaValue luaIntCalls;
+	private LuaValue luaDoubleCalls;
+	private LuaValue luaFields;
+	private LuaValue luaConstructor;
+
+	@Setup
+	public void setup() throws Exception {
+		javaInteger = new Integer(123);
+		javaString = "abc";
+		javaObject = new Target();
+		javaArray = new int[] { 1, 2, 3 };
+		target = CoerceJavaToLua.coerce(javaObject);
+		add = target.get("add");
+		one = LuaValue.valueOf(1);
+		two = LuaValue.valueOf(2);
+		LuaValue _G = JsePlatform.standardGlobals();
+		LuaValue Target = _G.get("luajava").get("bindClass").call(LuaValue.valueOf(Target.class.getName()));
+		Varargs fns = BenchScripts.compiler(BenchScripts.LUAC).load(
+				new ByteArrayInputStream(SCRIPT.getBytes()), "bench", _G)
+				.invoke(LuaValue.varargsOf(target, Target));
+		luaIntCalls = fns.arg(1);
+		luaDoubleCalls = fns.arg(2);
+		luaFields = fns.arg(3);
+		luaConstructor = fns.arg(4);
+	}
+
+	@Benchmark
+	public LuaValue coerceInteger() {
+		return CoerceJavaToLua.coerce(javaInteger);
+	}
+
+	@Benchmark
+	public LuaValue coerceString() {
+		return CoerceJavaToLua.coerce(javaString);
+	}
+
+	@Benchmark
+	public LuaValue coerceObject() {
+		return CoerceJavaToLua.coerce(javaObject);
+	}
+
+	@Benchmark
+	public LuaValue coerceArray() {
+		return CoerceJavaToLua.coerce(javaArray);
+	}
+
+	/** Call an overloaded method directly via {@link LuaValue#call(LuaValue, LuaValue, LuaValue)} */
+	@Benchmark
+	public LuaValue invokeMethod() {
+		return add.call(target, one, two);
+	}
+
+	/** 100 calls of an overloaded method with integer arguments from lua */
+	@Benchmark
+	public LuaValue luaMethodCalls() {
+		return luaIntCalls.call();
+	}
+
+	/** 100 calls of an overloaded method with double arguments from lua */
+	@Benchmark
+	public LuaValue luaMethodCallsDouble() {
+		return luaDoubleCalls.call();
+	}
+
+	/** 100 reads and writes of a public field from lua */
+	@Benchmark
+	public LuaValue luaFieldAccess() {
+		return luaFields.call();
+	}
+
+	/** 100 constructor calls from lua */
+	@Benchmark
+	public LuaValue luaConstructor() {
+		return luaConstructor.call();
+	}
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.luaj.vm2.Buffer;
+import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link LuaString} construction, hashing, comparison and concatenation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StringBenchmark {
+
+	@Param({ "8", "64", "1024" })
+	public int length;
+
+	private String javaString;
+	private byte[] bytes;
+	private LuaString luaString;
+	private LuaString other;
+	private LuaValue[] pieces;
+
+	@Setup
+	public void setup() {
+		StringBuffer sb = new StringBuffer();
+		for ( int i=0; i<length; i++ )
+			sb.append((char) ('a' + i % 26));
+		javaString = sb.toString();
+		bytes = javaString.getBytes();
+		luaString = LuaString.valueOf(javaString);
+		other = LuaString.valueOf(javaString);
+		pieces = new LuaValue[16];
+		for ( int i=0; i<pieces.length; i++ )
+			pieces[i] = LuaValue.valueOf(javaString.substring(0, Math.min(length, i+1)));
+	}
+
+	@Benchmark
+	public LuaString valueOfString() {
+		return LuaString.valueOf(javaString);
+	}
+
+	@Benchmark
+	public LuaString valueOfBytes() {
+		return LuaString.valueOf(bytes);
+	}
+
+	@Benchmark
+	public int hashCodeExisting() {
+		return luaString.hashCode();
+	}
+
+	@Benchmark
+	public int hashCodeNew() {
+		return LuaString.valueOf(bytes).hashCode();
+	}
+
+	@Benchmark
+	public boolean rawequal() {
+		return luaString.raweq(other);
+	}
+
+	@Benchmark
+	public String tojstring() {
+		return luaString.tojstring();
+	}
+
+	@Benchmark
+	public LuaValue concat() {
+		return luaString.concat(other);
+	}
+
+	@Benchmark
+	public LuaValue concatBuffer() {
+		Buffer b = new Buffer();
+		for ( int i=0; i<pieces.length; i++ )
+			b.append(pieces[i]);
+		return b.value();
+	}
+
+	@Benchmark
+	public LuaValue substring() {
+		return luaString.substring(1, luaString.length() - 1);
+	}
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the {@code string} library functions most used by scripts, 
+ * called directly as lua functions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StringLibBenchmark {
+
+	private LuaValue find;
+	private LuaValue gsub;
+	private LuaValue format;
+	private LuaValue rep;
+	private Varargs findPlain;
+	private Varargs findPattern;
+	private Varargs gsubPattern;
+	private Varargs gsubFunction;
+	private Varargs formatArgs;
+	private Varargs repArgs;
+
+	@Setup
+	public void setup() {
+		LuaValue string = JsePlatform.standardGlobals().get("string");
+		find = string.get("find");
+		gsub = string.get("gsub");
+		format = string.get("format");
+		rep = string.get("rep");
+		LuaValue text = LuaValue.valueOf(
+			"The quick brown fox jumps over the lazy dog; key1=value1, key2=value2, key3=value3");
+		findPlain = LuaValue.varargsOf(new LuaValue[] { text, LuaValue.valueOf("lazy"), LuaValue.ONE, LuaValue.TRUE });
+		findPattern = LuaValue.varargsOf(text, LuaValue.valueOf("(%w+)=(%w+)"));
+		gsubPattern = LuaValue.varargsOf(text, LuaValue.valueOf("%s+"), LuaValue.valueOf("_"));
+		gsubFunction = LuaValue.varargsOf(text, LuaValue.valueOf("(%w+)=(%w+)"), 
+			JsePlatform.standardGlobals().get("string").get("upper"));
+		formatArgs = LuaValue.varargsOf(new LuaValue[] {
+			LuaValue.valueOf("%s=%d (%5.2f) [%-8s] %x"), 
+			LuaValue.valueOf("name"), LuaValue.valueOf(12345), LuaValue.valueOf(3.14159), 
+			LuaValue.valueOf("left"), LuaValue.valueOf(255) });
+		repArgs = LuaValue.varargsOf(LuaValue.valueOf("abc"), LuaValue.valueOf(100));
+	}
+
+	@Benchmark
+	public Varargs findPlain() {
+		return find.invoke(findPlain);
+	}
+
+	@Benchmark
+	public Varargs findPattern() {
+		return find.invoke(findPattern);
+	}
+
+	@Benchmark
+	public Varargs gsubPattern() {
+		return gsub.invoke(gsubPattern);
+	}
+
+	@Benchmark
+	public Varargs gsubFunction() {
+		return gsub.invoke(gsubFunction);
+	}
+
+	@Benchmark
+	public Varargs format() {
+		return format.invoke(formatArgs);
+	}
+
+	@Benchmark
+	public Varargs rep() {
+		return rep.invoke(repArgs);
+	}
+}
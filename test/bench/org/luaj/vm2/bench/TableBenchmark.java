@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of {@link LuaTable} get and set on the array and hash parts, 
+ * and of growing tables from empty, which includes rehashing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TableBenchmark {
+
+	@Param({ "16", "1024" })
+	public int size;
+
+	private LuaValue[] ints;
+	private LuaValue[] strings;
+	private LuaValue[] doubles;
+	private LuaTable array;
+	private LuaTable hash;
+	private LuaTable mixed;
+
+	@Setup
+	public void setup() {
+		ints = new LuaValue[size];
+		strings = new LuaValue[size];
+		doubles = new LuaValue[size];
+		array = new LuaTable();
+		hash = new LuaTable();
+		mixed = new LuaTable();
+		for ( int i=0; i<size; i++ ) {
+			ints[i] = LuaValue.valueOf(i+1);
+			strings[i] = LuaValue.valueOf("key"+i);
+			doubles[i] = LuaValue.valueOf(i+0.5);
+			array.set(ints[i], ints[i]);
+			hash.set(strings[i], ints[i]);
+			mixed.set(doubles[i], ints[i]);
+		}
+	}
+
+	@Benchmark
+	public void arrayGet(Blackhole bh) {
+		for ( int i=0; i<size; i++ )
+			bh.consume(array.get(ints[i]));
+	}
+
+	@Benchmark
+	public void arrayGetInt(Blackhole bh) {
+		for ( int i=1; i<=size; i++ )
+			bh.consume(array.get(i));
+	}
+
+	@Benchmark
+	public void arraySet() {
+		for ( int i=0; i<size; i++ )
+			array.set(ints[i], strings[i]);
+	}
+
+	@Benchmark
+	public void hashGet(Blackhole bh) {
+		for ( int i=0; i<size; i++ )
+			bh.consume(hash.get(strings[i]));
+	}
+
+	@Benchmark
+	public void hashSet() {
+		for ( int i=0; i<size; i++ )
+			hash.set(strings[i], ints[i]);
+	}
+
+	@Benchmark
+	public void hashGetDouble(Blackhole bh) {
+		for ( int i=0; i<size; i++ )
+			bh.consume(mixed.get(doubles[i]));
+	}
+
+	@Benchmark
+	public LuaTable growArray() {
+		LuaTable t = new LuaTable();
+		for ( int i=0; i<size; i++ )
+			t.set(ints[i], ints[i]);
+		return t;
+	}
+
+	@Benchmark
+	public LuaTable growHash() {
+		LuaTable t = new LuaTable();
+		for ( int i=0; i<size; i++ )
+			t.set(strings[i], ints[i]);
+		return t;
+	}
+
+	@Benchmark
+	public LuaTable insertRemove() {
+		LuaTable t = new LuaTable();
+		for ( int i=0; i<size; i++ )
+			t.insert(0, ints[i]);
+		for ( int i=0; i<size; i++ )
+			t.remove(0);
+		return t;
+	}
+}
@@ -32,7 +32,10 @@ import org.luaj.vm2.compiler.DumpLoadEndianIntTest;
 import org.luaj.vm2.compiler.RegressionTests;
 import org.luaj.vm2.compiler.SimpleTests;
 import org.luaj.vm2.lib.jse.LuaJavaCoercionTest;
+import org.luaj.vm2.lib.jse.LuaJavaViewTest;
+import org.luaj.vm2.lib.jse.LuajavaAccessorTest;
 import org.luaj.vm2.lib.jse.LuajavaClassMembersTest;
+import org.luaj.vm2.script.LuaScriptEngineTest;
 import org.luaj.vm2.vm1.Luajvm1CompatibilityTest;
 
 public class AllTests {
@@ -47,6 +50,13 @@ public class AllTests {
 		vm.addTestSuite(MetatableTest.class);
 		vm.addTestSuite(LuaOperationsTest.class);
 		vm.addTestSuite(StringTest.class);
+		vm.addTestSuite(GlobalsTest.class);
+		vm.addTestSuite(OrphanedThreadTest.class);
+		vm.addTestSuite(InlineCacheTest.class);
+		vm.addTestSuite(FrameReuseTest.class);
+		vm.addTestSuite(IndexedChunkTest.class);
+		vm.addTestSuite(DebugInfoTest.class);
+		vm.addTestSuite(CompiledChunkTest.class);
 		suite.addTest(vm);
 
 		// table tests
@@ -54,6 +64,7 @@ public class AllTests {
 		table.addTestSuite(TableTest.class);
 		table.addTestSuite(TableArrayTest.class);
 		table.addTestSuite(TableHashTest.class);
+		table.addTestSuite(ConcurrentTableTest.class);
 		table.addTestSuite(WeakValueTableTest.class);
 		table.addTestSuite(WeakKeyTableTest.class);
 		table.addTestSuite(WeakKeyValueTableTest.class);
@@ -61,6 +72,9 @@ public class AllTests {
 		
 		// bytecode compilers regression tests
 		TestSuite bytecodetests = FragmentsTest.suite();
+		bytecodetests.addTestSuite(LuaJCCacheTest.class);
+		bytecodetests.addTestSuite(LuaJCLazyTest.class);
+		bytecodetests.addTestSuite(TieredCompilerTest.class);
 		suite.addTest(bytecodetests);
 		
 		// prototype compiler
@@ -74,7 +88,10 @@ public class AllTests {
 		// library tests
 		TestSuite lib = new TestSuite("Library Tests");
 		lib.addTestSuite(LuajavaClassMembersTest.class);
+		lib.addTestSuite(LuajavaAccessorTest.class);
 		lib.addTestSuite(LuaJavaCoercionTest.class);
+		lib.addTestSuite(LuaJavaViewTest.class);
+		lib.addTestSuite(LuaScriptEngineTest.class);
 		lib.addTestSuite(RequireClassTest.class);
 		suite.addTest(lib);
 		
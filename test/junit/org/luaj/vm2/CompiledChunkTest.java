@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.LoadState.LuaCompiler;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.luaj.vm2.luajc.LuaJC;
+import org.luaj.vm2.script.LuaScriptEngine;
+
+/**
+ * Tests that a {@link CompiledChunk} is compiled once and used in many environments.
+ */
+public class CompiledChunkTest extends TestCase {
+
+	private static final String SCRIPT =
+		"n = (n or 0) + 1\n" +
+		"local function inc(d) n = n + d; return n end\n" +
+		"return inc(x or 10)\n";
+
+	private LuaCompiler compiler;
+	private int loads;
+
+	protected void setUp() throws Exception {
+		JsePlatform.standardGlobals();
+		compiler = LoadState.compiler;
+		install(compiler);
+	}
+
+	/** Install a compiler counting the chunks loaded */
+	private void install(final LuaCompiler c) {
+		LoadState.compiler = new LuaCompiler() {
+			public LuaFunction load(InputStream stream, String filename, LuaValue env) throws IOException {
+				++loads;
+				return c.load(stream, filename, env);
+			}
+		};
+	}
+
+	protected void tearDown() throws Exception {
+		LoadState.compiler = compiler;
+	}
+
+	private static CompiledChunk compile() throws IOException {
+		return LoadState.compile(new ByteArrayInputStream(SCRIPT.getBytes()), "chunk");
+	}
+
+	private void doTestEnvironments(CompiledChunk chunk) {
+		Globals g1 = JsePlatform.standardGlobals();
+		Globals g2 = JsePlatform.standardGlobals();
+		LuaFunction f1 = chunk.instantiate(g1);
+		LuaFunction f2 = chunk.instantiate(g2);
+		assertNotSame(f1, f2);
+		assertSame(g1, f1.getfenv());
+		assertEquals(11, f1.call().toint());
+		assertEquals(22, f1.call().toint());
+		g2.set("x", 3);
+		assertEquals(4, f2.call().toint());
+		assertEquals(33, chunk.instantiate(g1).call().toint());
+		assertEquals(1, loads);
+	}
+
+	public void testSharedPrototype() throws IOException {
+		CompiledChunk chunk = compile();
+		LuaValue f1 = chunk.instantiate(JsePlatform.standardGlobals());
+		LuaValue f2 = chunk.instantiate(JsePlatform.standardGlobals());
+		assertSame(f1.checkclosure().p, f2.checkclosure().p);
+		doTestEnvironments(chunk);
+	}
+
+	public void testLuaJC() throws IOException {
+		install(LuaJC.getInstance());
+		CompiledChunk chunk = compile();
+		LuaValue f1 = chunk.instantiate(JsePlatform.standardGlobals());
+		LuaValue f2 = chunk.instantiate(JsePlatform.standardGlobals());
+		assertFalse(f1.isclosure());
+		assertSame(f1.getClass(), f2.getClass());
+		doTestEnvironments(chunk);
+	}
+
+	public void testScriptEngine() throws ScriptException {
+		LuaScriptEngine engine = new LuaScriptEngine();
+		install(LoadState.compiler);
+		CompiledScript script = engine.compile("y = x * 2\nreturn y");
+		Bindings b1 = new SimpleBindings();
+		Bindings b2 = new SimpleBindings();
+		b1.put("x", new Integer(3));
+		b2.put("x", new Integer(5));
+		script.eval(b1);
+		script.eval(b2);
+		assertEquals(new Integer(6), b1.get("y"));
+		assertEquals(new Integer(10), b2.get("y"));
+		assertEquals(1, loads);
+	}
+
+	public void testSandboxesInThreads() throws Exception {
+		final CompiledChunk chunk = LoadState.compile(new ByteArrayInputStream((
+			"local function fib(n) if n < 2 then return n end; return fib(n-1) + fib(n-2) end\n" +
+			"return fib(x)\n").getBytes()), "fib");
+		final int nthreads = 8;
+		final String[] results = new String[nthreads];
+		final LuaClosure[] closures = new LuaClosure[nthreads];
+		Thread[] threads = new Thread[nthreads];
+		for ( int i=0; i<nthreads; i++ ) {
+			final int index = i;
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						LuaTable sandbox = new LuaTable();
+						sandbox.set("x", 10 + index);
+						closures[index] = (LuaClosure) chunk.instantiate(sandbox);
+						StringBuffer sb = new StringBuffer();
+						for ( int j=0; j<20; j++ )
+							sb.append(closures[index].call().toint()+" ");
+						results[index] = sb.toString();
+					} catch ( Throwable t ) {
+						results[index] = t.toString();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for ( int i=0; i<nthreads; i++ )
+			threads[i].join();
+		int[] fib = { 55, 89, 144, 233, 377, 610, 987, 1597 };
+		for ( int i=0; i<nthreads; i++ ) {
+			StringBuffer sb = new StringBuffer();
+			for ( int j=0; j<20; j++ )
+				sb.append(fib[i]+" ");
+			assertEquals(sb.toString(), results[i]);
+			assertNotSame(Globals.getDefault(), closures[i].globals);
+			assertEquals(0, closures[i].globals.main_thread.getCallstackDepth());
+			for ( int j=0; j<i; j++ )
+				assertNotSame(closures[j].globals, closures[i].globals);
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.ByteArrayInputStream;
+
+import org.luaj.vm2.lib.jse.JsePlatform;
+
+/**
+ * Runs the {@link TableTest} tests on {@link ConcurrentLuaTable},
+ * and checks that it may be read while it is written from other threads.
+ */
+public class ConcurrentTableTest extends TableTest {
+
+	private volatile boolean done;
+	private volatile String failure;
+
+	protected LuaTable new_Table() {
+		return new ConcurrentLuaTable();
+	}
+
+	protected LuaTable new_Table(int n, int m) {
+		return new ConcurrentLuaTable(n, m);
+	}
+
+	public void testCopyConstructor() {
+		LuaTable source = LuaValue.tableOf(new LuaValue[] { LuaValue.valueOf("a"), LuaValue.ONE },
+				new LuaValue[] { LuaValue.valueOf("x"), LuaValue.valueOf("y") });
+		LuaTable mt = new LuaTable();
+		source.setmetatable(mt);
+		LuaTable t = new ConcurrentLuaTable(source);
+		assertEquals(1, t.get("a").toint());
+		assertEquals("y", t.get(2).tojstring());
+		assertEquals(2, t.length());
+		assertSame(mt, t.getmetatable());
+	}
+
+	public void testWeakModeNotSupported() {
+		LuaTable mt = LuaValue.tableOf(new LuaValue[] { LuaValue.MODE, LuaValue.valueOf("k") });
+		try {
+			new ConcurrentLuaTable().setmetatable(mt);
+			fail("expected error");
+		} catch ( LuaError e ) {
+			// expected
+		}
+	}
+
+	/** Start threads running a reader until {@link #done} or a failure */
+	private Thread[] startReaders(final Runnable reader) {
+		Thread[] readers = new Thread[4];
+		for ( int r=0; r<readers.length; r++ ) {
+			readers[r] = new Thread() {
+				public void run() {
+					try {
+						while ( !done && failure == null )
+							reader.run();
+					} catch ( Throwable e ) {
+						failure = e.toString();
+					}
+				}
+			};
+			readers[r].start();
+		}
+		return readers;
+	}
+
+	private void joinReaders(Thread[] readers) throws InterruptedException {
+		done = true;
+		for ( int r=0; r<readers.length; r++ )
+			readers[r].join();
+		assertNull(failure, failure);
+	}
+
+	public void testReadWhileWriting() throws InterruptedException {
+		final LuaTable t = new ConcurrentLuaTable();
+		final int nkeys = 64;
+		for ( int i=0; i<nkeys; i++ ) {
+			t.set("k"+i, LuaValue.valueOf(i));
+			t.set(i+1, LuaValue.valueOf(i));
+			t.set("other"+i, LuaValue.valueOf(i));
+		}
+		Thread[] readers = startReaders(new Runnable() {
+			public void run() {
+				for ( int i=0; i<nkeys; i++ ) {
+					if ( t.get("k"+i).toint() % nkeys != i )
+						failure = "bad value for k"+i+": "+t.get("k"+i);
+					if ( t.get(i+1).toint() % nkeys != i )
+						failure = "bad value at "+(i+1);
+				}
+				int n = 0;
+				for ( Varargs e = t.next(LuaValue.NIL); !e.isnil(1); e = t.next(e.arg1()) )
+					if ( e.arg1().isstring() && e.arg1().tojstring().startsWith("k") )
+						++n;
+				if ( n != nkeys )
+					failure = "traversal found "+n+" keys";
+			}
+		});
+		for ( int j=0; j<20000 && failure == null; j++ ) {
+			t.set("k"+(j%nkeys), LuaValue.valueOf(nkeys*j + j%nkeys));
+			t.set(1+(j%nkeys), LuaValue.valueOf(nkeys*j + j%nkeys));
+			t.set("other"+(j%nkeys), (j/nkeys)%2 == 0? LuaValue.NIL: LuaValue.valueOf(j));
+		}
+		joinReaders(readers);
+		assertEquals(nkeys, t.length());
+	}
+
+	public void testReadWhileGrowing() throws InterruptedException {
+		final LuaTable t = new ConcurrentLuaTable();
+		final int nkeys = 64;
+		for ( int i=0; i<nkeys; i++ ) {
+			t.set("k"+i, LuaValue.valueOf(i));
+			t.set(i+1, LuaValue.valueOf(i));
+		}
+		Thread[] readers = startReaders(new Runnable() {
+			public void run() {
+				for ( int i=0; i<nkeys; i++ ) {
+					if ( t.get("k"+i).toint() != i )
+						failure = "bad value for k"+i+": "+t.get("k"+i);
+					if ( t.get(i+1).toint() != i )
+						failure = "bad value at "+(i+1);
+				}
+			}
+		});
+		for ( int j=0; j<2000 && failure == null; j++ ) {
+			t.set(nkeys+1+j, LuaValue.valueOf(j));
+			t.set("other"+j, LuaValue.valueOf(j));
+			if ( j >= 10 )
+				t.set("other"+(j-10), LuaValue.NIL);
+		}
+		joinReaders(readers);
+		assertEquals(nkeys+2000, t.length());
+	}
+
+	public void testTraverseWhileRemoving() {
+		LuaTable t = new ConcurrentLuaTable();
+		for ( int i=0; i<32; i++ )
+			t.set("k"+i, LuaValue.valueOf(i));
+		t.set(1, LuaValue.ONE);
+		t.set(2, LuaValue.valueOf(2));
+		Varargs e = t.next(LuaValue.NIL);
+		while ( !e.arg1().isstring() || e.arg1().isnumber() )
+			e = t.next(e.arg1());
+		LuaValue current = e.arg1();
+		LuaTable seen = new LuaTable();
+		seen.set(current, LuaValue.TRUE);
+		for ( int i=0; i<32; i+=2 )
+			t.set("k"+i, LuaValue.NIL);
+		t.set(current, LuaValue.NIL);
+		t.set(1, LuaValue.valueOf(1.5));
+		t.set(2, LuaValue.NIL);
+		for ( e = t.next(current); !e.isnil(1); e = t.next(e.arg1()) ) {
+			assertTrue(seen.get(e.arg1()).isnil());
+			seen.set(e.arg1(), LuaValue.TRUE);
+		}
+		for ( int i=1; i<32; i+=2 )
+			if ( !current.eq_b(LuaValue.valueOf("k"+i)) )
+				assertTrue("k"+i, seen.get("k"+i).toboolean());
+		
+		t.set("added", LuaValue.TRUE);
+		assertTrue(t.rawget(current).isnil());
+		for ( e = t.next(current); !e.isnil(1); e = t.next(e.arg1()) )
+			assertFalse(e.arg(2).isnil());
+	}
+
+	public void testTraverseWhileRemovingInOtherThread() throws InterruptedException {
+		final LuaTable t = new ConcurrentLuaTable();
+		final int nkeys = 64;
+		for ( int i=0; i<nkeys; i++ ) {
+			t.set("k"+i, LuaValue.valueOf(i));
+			t.set("other"+i, LuaValue.valueOf(i));
+			t.set(i+1, LuaValue.valueOf(i));
+		}
+		Thread[] readers = startReaders(new Runnable() {
+			public void run() {
+				int n = 0;
+				for ( Varargs e = t.next(LuaValue.NIL); !e.isnil(1); e = t.next(e.arg1()) )
+					if ( e.arg1().isstring() && e.arg1().tojstring().startsWith("k") )
+						++n;
+				if ( n != nkeys )
+					failure = "traversal found "+n+" keys";
+			}
+		});
+		for ( int j=0; j<20000 && failure == null; j++ ) {
+			t.set("other"+(j%nkeys), (j/nkeys)%2 == 0? LuaValue.NIL: LuaValue.valueOf(j));
+			t.set(1, j%2 == 0? LuaValue.valueOf(0.5): LuaValue.ZERO);
+		}
+		joinReaders(readers);
+	}
+
+	public void testSharedModule() throws Exception {
+		final LuaTable module = new ConcurrentLuaTable();
+		LoadState.load(new ByteArrayInputStream(
+				"local M = ...\nM.power = 2\nM.offset = 1\n".getBytes()),
+				"module", JsePlatform.standardGlobals()).call(module);
+		final String script =
+			"local M = shared\n" +
+			"local s = 0\n" +
+			"for i=1,1000 do s = s + i ^ M.power + M.offset end\n" +
+			"M[name] = s\n" +
+			"return s\n";
+		final int nthreads = 4;
+		final Object[] results = new Object[nthreads];
+		Thread[] threads = new Thread[nthreads];
+		for ( int i=0; i<nthreads; i++ ) {
+			final int index = i;
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						Globals g = JsePlatform.standardGlobals();
+						g.set("shared", module);
+						g.set("name", "result"+index);
+						LuaValue f = LoadState.load(new ByteArrayInputStream(script.getBytes()), "script", g);
+						results[index] = f.call();
+					} catch ( Throwable t ) {
+						results[index] = t.toString();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for ( int i=0; i<nthreads; i++ )
+			threads[i].join();
+		for ( int i=0; i<nthreads; i++ ) {
+			assertEquals(LuaValue.valueOf(333833500 + 1000), results[i]);
+			assertEquals(LuaValue.valueOf(333833500 + 1000), module.get("result"+i));
+		}
+	}
+
+	public void testSharedFunctions() throws Exception {
+		Globals g0 = JsePlatform.debugGlobals();
+		LuaTable loaded = new LuaTable();
+		LoadState.load(new ByteArrayInputStream((
+				"local M = ...\n" +
+				"function M.sum(n, f) if n == 0 then return 0 end; return f(n) + M.sum(n-1, f) end\n" +
+				"function M.fail() error('bad') end\n").getBytes()),
+				"module", g0).call(loaded);
+		final LuaTable module = new ConcurrentLuaTable(loaded);
+		final String script =
+			"local M = shared\n" +
+			"local s = 0\n" +
+			"for i=1,1000 do s = s + M.sum(20, function(x) return x * 2 end) end\n" +
+			"local ok, msg = pcall(M.fail)\n" +
+			"return s..' '..msg\n";
+		final int nthreads = 16;
+		final Object[] results = new Object[nthreads];
+		Thread[] threads = new Thread[nthreads];
+		for ( int i=0; i<nthreads; i++ ) {
+			final int index = i;
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						Globals g = JsePlatform.debugGlobals();
+						g.set("shared", module);
+						LuaValue f = LoadState.load(new ByteArrayInputStream(script.getBytes()), "script", g);
+						results[index] = f.call().tojstring();
+						if ( g.main_thread.getCallstackDepth() != 0 )
+							results[index] = "calls left: "+g.main_thread.getCallstackDepth();
+					} catch ( Throwable t ) {
+						results[index] = t.toString();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for ( int i=0; i<nthreads; i++ )
+			threads[i].join();
+		for ( int i=0; i<nthreads; i++ )
+			assertEquals("420000 module:3: bad", results[i]);
+		assertEquals(0, g0.main_thread.getCallstackDepth());
+	}
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.compiler.DumpState;
+import org.luaj.vm2.compiler.LuaC;
+import org.luaj.vm2.lib.jse.JsePlatform;
+
+/**
+ * Tests of the debug information kept at each {@link LoadState#debuginfo} level.
+ */
+public class DebugInfoTest extends TestCase {
+
+	private static final String SCRIPT;
+	static {
+		StringBuffer sb = new StringBuffer();
+		sb.append("local function f(a)\n");
+		sb.append("  local b = a * 2\n");
+		sb.append("  for i=1,2 do b = b + i end\n");
+		for ( int i=0; i<300; i++ )
+			sb.append("\n");
+		sb.append("  if a > 1 then error('boom') end\n");
+		sb.append("  return b\n");
+		sb.append("end\n");
+		sb.append("return f\n");
+		SCRIPT = sb.toString();
+	}
+
+	private Globals _G;
+
+	protected void setUp() throws Exception {
+		_G = JsePlatform.debugGlobals();
+	}
+
+	protected void tearDown() throws Exception {
+		LoadState.debuginfo = LoadState.DEBUGINFO_FULL;
+	}
+
+	private static Prototype compile(int level) throws IOException {
+		LoadState.debuginfo = level;
+		return LuaC.compile(LuaString.valueOf(SCRIPT), "@debuginfo.lua");
+	}
+
+	private String error(Prototype p) {
+		LuaValue f = new LuaClosure(p, _G).call();
+		try {
+			f.call(LuaValue.valueOf(2));
+			return null;
+		} catch ( LuaError e ) {
+			return e.getMessage();
+		}
+	}
+
+	private static byte[] dump(Prototype p, boolean strip) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DumpState.dump(p, baos, strip);
+		return baos.toByteArray();
+	}
+
+	public void testLineNumbers() throws IOException {
+		Prototype full = compile(LoadState.DEBUGINFO_FULL);
+		int[] lines = full.p[0].lineinfo;
+		for ( int level=LoadState.DEBUGINFO_COMPACT; level<=LoadState.DEBUGINFO_LINES; level++ ) {
+			Prototype p = compile(level).p[0];
+			assertEquals(0, p.lineinfo.length);
+			assertEquals(lines.length, p.getlineinfo().length);
+			for ( int pc=0; pc<lines.length; pc++ )
+				assertEquals(lines[pc], p.getline(pc));
+			assertEquals(-1, p.getline(lines.length));
+		}
+		assertEquals("debuginfo.lua:304: boom", error(full));
+		assertEquals("debuginfo.lua:304: boom", error(compile(LoadState.DEBUGINFO_COMPACT)));
+		assertEquals("debuginfo.lua:304: boom", error(compile(LoadState.DEBUGINFO_LINES)));
+		assertEquals(0, compile(LoadState.DEBUGINFO_NONE).p[0].getlineinfo().length);
+	}
+
+	public void testNames() throws IOException {
+		Prototype full = compile(LoadState.DEBUGINFO_FULL);
+		Prototype compact = compile(LoadState.DEBUGINFO_COMPACT);
+		Prototype lines = compile(LoadState.DEBUGINFO_LINES);
+		assertEquals(full.p[0].locvars.length, compact.p[0].locvars.length);
+		for ( int i=0; i<full.p[0].locvars.length; i++ ) {
+			assertEquals(full.p[0].locvars[i].tojstring(), compact.p[0].locvars[i].tojstring());
+			assertEquals(full.p[0].getlocalname(i+1, 3), compact.p[0].getlocalname(i+1, 3));
+		}
+		assertEquals("b", compact.p[0].getlocalname(2, 3).tojstring());
+		assertNull(lines.p[0].getlocalname(2, 3));
+		assertEquals(0, lines.p[0].locvars.length);
+		assertEquals(0, lines.p[0].upvalues.length);
+	}
+
+	public void testSharedNames() throws IOException {
+		Prototype p1 = compile(LoadState.DEBUGINFO_COMPACT);
+		Prototype p2 = compile(LoadState.DEBUGINFO_COMPACT);
+		assertEquals("a", p1.p[0].locvars[0].varname.tojstring());
+		assertSame(p1.p[0].locvars[0].varname, p2.p[0].locvars[0].varname);
+		assertSame(p1.locvars[0].varname, p2.locvars[0].varname);
+	}
+
+	public void testDumpCompacted() throws IOException {
+		byte[] full = dump(compile(LoadState.DEBUGINFO_FULL), false);
+		byte[] stripped = dump(compile(LoadState.DEBUGINFO_FULL), true);
+		assertTrue(Arrays.equals(full, dump(compile(LoadState.DEBUGINFO_COMPACT), false)));
+		assertTrue(Arrays.equals(stripped, dump(compile(LoadState.DEBUGINFO_NONE), true)));
+		assertTrue(dump(compile(LoadState.DEBUGINFO_NONE), false).length < full.length);
+	}
+
+	public void testLoadBinary() throws IOException {
+		byte[] full = dump(compile(LoadState.DEBUGINFO_FULL), false);
+		LoadState.debuginfo = LoadState.DEBUGINFO_LINES;
+		Prototype p = LoadState.loadBinaryChunk(full, 0, full.length, "debuginfo");
+		assertEquals(0, p.p[0].lineinfo.length);
+		assertEquals(0, p.p[0].locvars.length);
+		assertEquals("debuginfo.lua:304: boom", error(p));
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DumpState.dumpIndexed(compile(LoadState.DEBUGINFO_FULL), baos, false);
+		byte[] indexed = baos.toByteArray();
+		LoadState.debuginfo = LoadState.DEBUGINFO_NONE;
+		p = LoadState.loadBinaryChunk(indexed, 0, indexed.length, "debuginfo");
+		LoadState.debuginfo = LoadState.DEBUGINFO_FULL;
+		p.p[0].decodeDebug();
+		assertEquals(0, p.p[0].getlineinfo().length);
+		assertEquals(0, p.p[0].locvars.length);
+	}
+}
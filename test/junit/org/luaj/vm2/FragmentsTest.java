@@ -579,5 +579,66 @@ public class FragmentsTest extends TestSuite {
 			        "    end\n" +
 			        "end\n");
 		}
+		
+		public void testNumericForLoopLimits() {
+			runFragment( LuaValue.valueOf(26), 
+					"local n = 0\n" +
+					"for i=2147483640,2147483647 do n = n + 1 end\n" +
+					"for i=-2147483640,-2147483648,-1 do n = n + 1 end\n" +
+					"for i=1,3,0.5 do n = n + 1 end\n" +
+					"for i=1.5,0,-0.5 do n = n + 1 end\n" +
+					"for i=3,1 do n = n + 1 end\n" +
+					"return n\n");
+		}
+		
+		public void testNumericArithmetic() {
+			runFragment( LuaValue.varargsOf(new LuaValue[] { 
+					LuaValue.valueOf(4.25), 
+					LuaValue.valueOf(2.5), 
+					LuaValue.valueOf(-3.25), 
+					LuaValue.valueOf(3.5), 
+					LuaValue.valueOf(-2), 
+					LuaValue.valueOf(1024), 
+					LuaValue.TRUE, 
+					LuaValue.TRUE, 
+					LuaValue.TRUE, 
+					LuaValue.FALSE, 
+					LuaValue.valueOf(3) } ),
+				"local a, b = 1.25, 3\n" +
+				"local nan = 0/0\n" +
+				"return a + b, a * 2, -a - 2, 7 / 2, 7 % -3, 2 ^ 10, " +
+				"1 < 1.5, 2 <= 2, 3 == 3.0, nan == nan, '1' + 2\n");
+		}
+		
+		public void testNumericLocals() {
+			runFragment( LuaValue.varargsOf(new LuaValue[] { 
+					LuaValue.valueOf(27.5), 
+					LuaValue.valueOf(258), 
+					LuaValue.valueOf(3), 
+					LuaValue.valueOf("c12345"), 
+					LuaValue.valueOf(6) } ),
+				"local t, s, n = {}, 0, 0\n" +
+				"for i=1,10 do t[i] = i * 0.5 end\n" +
+				"for i=1,#t do s = s + t[i] end\n" +
+				"for i=10,1,-2 do n = n * 2 + i end\n" +
+				"local j = 0\n" +
+				"while j < 3 do j = j + 1 end\n" +
+				"local c = 'c'\n" +
+				"for i=1,5 do c = c .. i end\n" +
+				"local k = 1\n" +
+				"for i=1,3 do k = k * i end\n" +
+				"return s, n, j, c, k\n");
+		}
+		
+		public void testNumericForLoopValues() {
+			runFragment( LuaValue.varargsOf(new LuaValue[] { 
+					LuaValue.valueOf(6), 
+					LuaValue.FALSE, 
+					LuaValue.FALSE } ),
+				"local n = 0\n" +
+				"for i='1','3' do n = n + i end\n" +
+				"return n, (pcall(loadstring('for i={},2 do end'))), " +
+				"(pcall(loadstring('for i=1,2,{} do end')))\n");
+		}
 	}
 }
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.lib.jse.JsePlatform;
+
+/**
+ * Tests that value stacks reused by {@link LuaClosure} calls 
+ * are not reused while upvalues or varargs still refer to them.
+ */
+public class FrameReuseTest extends TestCase {
+
+	private Globals _G;
+	
+	protected void setUp() throws Exception {
+		_G = JsePlatform.standardGlobals();
+	}
+
+	private String run(String script) throws IOException {
+		LuaValue chunk = LoadState.load(new ByteArrayInputStream(script.getBytes()), "script", _G);
+		return chunk.call().tojstring();
+	}
+	
+	public void testFrameReused() {
+		LuaThread t = LuaThread.enter(_G);
+		assertSame(_G.main_thread, t);
+		try {
+			LuaValue[] f = t.getFrame(4);
+			f[0] = LuaValue.TRUE;
+			t.releaseFrame(f, 4);
+			assertSame(LuaValue.NIL, f[0]);
+			assertSame(f, t.getFrame(3));
+			assertNotSame(f, t.getFrame(3));
+			t.releaseFrame(f, 4);
+			assertNotSame(f, t.getFrame(5));
+		} finally {
+			t.exit();
+		}
+	}
+
+	public void testNotPooledOutsideThread() {
+		LuaThread t = _G.running_thread;
+		LuaValue[] f = t.getFrame(4);
+		t.releaseFrame(f, 4);
+		assertNotSame(f, t.getFrame(4));
+	}
+	
+	public void testCapturedLocals() throws IOException {
+		assertEquals("1 2 11 3 12 21", run(
+			"local function counter(n) local c = n; return function() c = c + 1; return c end end\n" +
+			"local a = counter(0)\n" +
+			"local r = { a(), a() }\n" +
+			"local b = counter(10)\n" +
+			"r[3] = b(); r[4] = a(); r[5] = b(); r[6] = counter(20)()\n" +
+			"return table.concat(r, ' ')\n"));
+	}
+
+	public void testReturnedValues() throws IOException {
+		assertEquals("1 2 3 4 | 5 6 7 8 | 9 10 11", run(
+			"local function f(a) return a, a+1, a+2, a+3 end\n" +
+			"local function g(...) return ... end\n" +
+			"local function h(a) return g(a, a+1, a+2) end\n" +
+			"local r1 = { f(1) }\n" +
+			"local r2 = { g(f(5)) }\n" +
+			"local x = { h(9) }\n" +
+			"return table.concat(r1, ' ')..' | '..table.concat(r2, ' ')..' | '..table.concat(x, ' ')\n"));
+	}
+
+	public void testRetainedVarargs() throws IOException {
+		assertEquals("4 a b c d", run(
+			"local co = coroutine.wrap(function(...) coroutine.yield(); return select('#', ...), ... end)\n" +
+			"local function start() co('a', 'b', 'c', 'd') end\n" +
+			"start()\n" +
+			"local function clobber(p, q, r, s, t) return p, q, r, s, t end\n" +
+			"for i=1,10 do clobber(i, i, i, i, i) end\n" +
+			"return table.concat({ co() }, ' ')\n"));
+	}
+
+	public void testOtherJavaThreadNotPooled() throws InterruptedException {
+		final LuaThread t = LuaThread.enter(_G);
+		try {
+			final LuaValue[] f = t.getFrame(4);
+			t.releaseFrame(f, 4);
+			final LuaValue[][] got = new LuaValue[2][];
+			Thread other = new Thread() {
+				public void run() {
+					got[0] = t.getFrame(4);
+					t.releaseFrame(got[0], 4);
+					got[1] = t.getFrame(4);
+				}
+			};
+			other.start();
+			other.join();
+			assertNotSame(f, got[0]);
+			assertNotSame(got[0], got[1]);
+			assertSame(f, t.getFrame(4));
+		} finally {
+			t.exit();
+		}
+	}
+
+	public void testDeepRecursion() throws IOException {
+		assertEquals("20100 5050", run(
+			"local function sum(n) if n == 0 then return 0 end; local s = sum(n-1); return n + s end\n" +
+			"return sum(200)..' '..sum(100)\n"));
+	}
+}
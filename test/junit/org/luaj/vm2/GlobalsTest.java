@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.lib.jse.JsePlatform;
+
+public class GlobalsTest extends TestCase {
+
+	private static final String SCRIPT =
+		"local n = ...\n" +
+		"local co = coroutine.create(function(a)\n" +
+		"  local s = 0\n" +
+		"  for i=1,a do\n" +
+		"    s = s + coroutine.yield(i)\n" +
+		"  end\n" +
+		"  return s\n" +
+		"end)\n" +
+		"local ok, v = coroutine.resume(co, n)\n" +
+		"while coroutine.status(co) ~= 'dead' do\n" +
+		"  ok, v = coroutine.resume(co, v)\n" +
+		"end\n" +
+		"local eok, msg = pcall(function() error('boom') end)\n" +
+		"return v, msg, coroutine.running() == nil\n";
+
+	private static Varargs runScript(LuaValue _G, int n) throws IOException {
+		LuaValue chunk = LoadState.load(new ByteArrayInputStream(SCRIPT.getBytes()), "script", _G);
+		return chunk.invoke(LuaValue.valueOf(n));
+	}
+
+	public void testSeparateMainThreads() {
+		Globals g1 = JsePlatform.standardGlobals();
+		Globals g2 = JsePlatform.standardGlobals();
+		assertNotSame(g1.main_thread, g2.main_thread);
+		assertSame(g1.main_thread, g1.running_thread);
+		assertSame(g2.main_thread, g2.running_thread);
+		assertSame(g1, g1.main_thread.globals);
+		assertSame(g1, g1.main_thread.getfenv());
+	}
+
+	public void testRunInGlobals() throws IOException {
+		Globals _G = JsePlatform.debugGlobals();
+		Varargs v = runScript(_G, 10);
+		assertEquals(55, v.arg(1).toint());
+		assertEquals("script:13: boom", v.arg(2).tojstring());
+		assertEquals(LuaValue.TRUE, v.arg(3));
+		assertSame(_G.main_thread, _G.running_thread);
+		assertEquals(0, _G.main_thread.getCallstackDepth());
+	}
+
+	public void testConcurrentGlobals() throws InterruptedException {
+		final int nthreads = 8;
+		final String[] results = new String[nthreads];
+		Thread[] threads = new Thread[nthreads];
+		for ( int i=0; i<nthreads; i++ ) {
+			final int index = i;
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						Globals _G = JsePlatform.debugGlobals();
+						StringBuffer sb = new StringBuffer();
+						for ( int j=0; j<20; j++ ) {
+							Varargs v = runScript(_G, index + j);
+							sb.append(v.arg(1).toint()+" "+v.arg(2)+" "+v.arg(3)+";");
+						}
+						results[index] = sb.toString();
+					} catch ( Throwable t ) {
+						results[index] = t.toString();
+					}
+				}
+			};
+		}
+		for ( int i=0; i<nthreads; i++ )
+			threads[i].start();
+		for ( int i=0; i<nthreads; i++ )
+			threads[i].join();
+		for ( int i=0; i<nthreads; i++ ) {
+			StringBuffer sb = new StringBuffer();
+			for ( int j=0; j<20; j++ ) {
+				int a = i + j;
+				sb.append((a*(a+1)/2)+" script:13: boom true;");
+			}
+			assertEquals(sb.toString(), results[i]);
+		}
+	}
+}
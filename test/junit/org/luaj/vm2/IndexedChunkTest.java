@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.compiler.DumpState;
+import org.luaj.vm2.compiler.LuaC;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.luaj.vm2.lib.jse.MappedChunk;
+
+/**
+ * Tests that prototypes of chunks in {@link LoadState#LUAC_FORMAT_INDEXED} format
+ * are only decoded when they are used.
+ */
+public class IndexedChunkTest extends TestCase {
+
+	private static final String SCRIPT =
+		"local M = {}\n" +
+		"function M.unused() return 'unused' end\n" +
+		"function M.add(a, b)\n" +
+		"  local function twice(x) return x + x end\n" +
+		"  return twice(a) + b\n" +
+		"end\n" +
+		"function M.fail() error('boom') end\n" +
+		"return M\n";
+
+	private LuaValue _G;
+
+	protected void setUp() throws Exception {
+		_G = JsePlatform.standardGlobals();
+	}
+
+	private static byte[] dump(boolean strip) throws IOException {
+		Prototype p = LuaC.compile(LuaString.valueOf(SCRIPT), "@indexed.lua");
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DumpState.dumpIndexed(p, baos, strip);
+		return baos.toByteArray();
+	}
+
+	public void testDecodedWhenCalled() throws IOException {
+		byte[] bytes = dump(false);
+		Prototype p = LoadState.loadBinaryChunk(bytes, 0, bytes.length, "indexed");
+		assertNull(p.chunk);
+		assertEquals(3, p.p.length);
+		for ( int i=0; i<3; i++ ) {
+			assertNotNull(p.p[i].chunk);
+			assertNull(p.p[i].code);
+			assertNull(p.p[i].lineinfo);
+		}
+		LuaValue m = new LuaClosure(p, _G).call();
+		assertEquals(7, m.get("add").call(LuaValue.valueOf(3), LuaValue.valueOf(1)).toint());
+		assertNotNull(p.p[0].chunk);
+		assertNull(p.p[1].chunk);
+		assertNull(p.p[1].p[0].chunk);
+		assertNotNull(p.p[2].chunk);
+		assertNotNull(p.p[1].debugchunk);
+	}
+
+	public void testDebugInfoDecodedOnError() throws IOException {
+		_G = JsePlatform.debugGlobals();
+		byte[] bytes = dump(false);
+		LuaValue m = LoadState.load(new ByteArrayInputStream(bytes), "indexed", _G).call();
+		try {
+			m.get("fail").call();
+			fail("expected error");
+		} catch ( LuaError e ) {
+			assertEquals("indexed.lua:7: boom", e.getMessage());
+		}
+	}
+
+	public void testStripped() throws IOException {
+		byte[] bytes = dump(true);
+		assertTrue(bytes.length < dump(false).length);
+		Prototype p = LoadState.loadBinaryChunk(bytes, 0, bytes.length, "stripped");
+		LuaValue m = new LuaClosure(p, _G).call();
+		assertEquals(9, m.get("add").call(LuaValue.valueOf(4), LuaValue.valueOf(1)).toint());
+		p.p[1].decodeDebug();
+		assertEquals(0, p.p[1].lineinfo.length);
+		assertEquals(0, p.p[1].locvars.length);
+	}
+
+	public void testMappedFile() throws IOException {
+		File file = File.createTempFile("indexed", ".luac");
+		try {
+			FileOutputStream fos = new FileOutputStream(file);
+			fos.write(dump(false));
+			fos.close();
+			LuaValue m = MappedChunk.load(file, "indexed", _G).call();
+			assertEquals(11, m.get("add").call(LuaValue.valueOf(5), LuaValue.valueOf(1)).toint());
+			assertEquals("unused", m.get("unused").call().tojstring());
+		} finally {
+			file.delete();
+		}
+	}
+}
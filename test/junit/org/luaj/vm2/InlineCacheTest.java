@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.lib.jse.CoerceJavaToLua;
+import org.luaj.vm2.lib.jse.JsePlatform;
+
+/**
+ * Tests that inline caches for field lookups in {@link LuaClosure} 
+ * observe changes to the tables they depend on.
+ */
+public class InlineCacheTest extends TestCase {
+
+	private Globals _G;
+	
+	protected void setUp() throws Exception {
+		_G = JsePlatform.standardGlobals();
+	}
+
+	private String run(String script) throws IOException {
+		LuaValue chunk = LoadState.load(new ByteArrayInputStream(script.getBytes()), "script", _G);
+		return chunk.call().tojstring();
+	}
+	
+	public void testGlobalChanges() throws IOException {
+		assertEquals("1 2 nil 4 5", run(
+			"x = 1\n" +
+			"local function f() return x end\n" +
+			"local r = { f() }\n" +
+			"x = 2; r[2] = f()\n" +
+			"x = nil; r[3] = tostring(f())\n" +
+			"for i=1,100 do _G['g'..i] = i end\n" +
+			"x = 4; r[4] = f()\n" +
+			"setmetatable(_G, {__index=function() return 5 end}); x = nil\n" +
+			"r[5] = f()\n" +
+			"return table.concat(r, ' ')\n"));
+	}
+
+	public void testFieldChanges() throws IOException {
+		assertEquals("a b nil d e", run(
+			"local function f(t) return t.k end\n" +
+			"local t = { k='a' }\n" +
+			"local r = { f(t) }\n" +
+			"t.k = 'b'; r[2] = f(t)\n" +
+			"t.k = nil; r[3] = tostring(f(t))\n" +
+			"r[4] = f({ k='d' })\n" +
+			"local u = setmetatable({}, {__index={ k='e' }})\n" +
+			"r[5] = f(u)\n" +
+			"return table.concat(r, ' ')\n"));
+	}
+	
+	public void testMethodChanges() throws IOException {
+		assertEquals("A1 A2 B1 own1 A2 C2 nil", run(
+			"local A = {}; A.__index = A\n" +
+			"function A:name() return 'A'..self.n end\n" +
+			"local B = setmetatable({}, {__index=A}); B.__index = B\n" +
+			"local function name(o) return o:name() end\n" +
+			"local a1, a2 = setmetatable({n=1}, A), setmetatable({n=2}, A)\n" +
+			"local b1 = setmetatable({n=1}, B)\n" +
+			"local r = { name(a1), name(a2), 'x', 'x', 'x', 'x', 'x' }\n" +
+			"name(b1); function B:name() return 'B'..self.n end\n" +
+			"r[3] = name(b1)\n" +
+			"function a1:name() return 'own'..self.n end\n" +
+			"r[4] = name(a1); r[5] = name(a2)\n" +
+			"local C = { name = function(self) return 'C'..self.n end }\n" +
+			"A.__index = C\n" +
+			"r[6] = name(a2)\n" +
+			"setmetatable(a2, nil)\n" +
+			"r[7] = tostring(pcall(name, a2) and 'ok' or nil)\n" +
+			"return table.concat(r, ' ')\n"));
+	}
+
+	public void testInheritedMethodShadowed() throws IOException {
+		assertEquals("base derived", run(
+			"local Base = {}; Base.__index = Base\n" +
+			"function Base.who() return 'base' end\n" +
+			"local Mid = setmetatable({}, Base); Mid.__index = Mid\n" +
+			"local Derived = setmetatable({}, Mid); Derived.__index = Derived\n" +
+			"local o = setmetatable({}, Derived)\n" +
+			"local function who(o) return o.who() end\n" +
+			"local r = { who(o), who(o) }\n" +
+			"function Mid.who() return 'derived' end\n" +
+			"r[2] = who(o)\n" +
+			"return table.concat(r, ' ')\n"));
+	}
+	
+	public void testStringMethods() throws IOException {
+		assertEquals("ABC abc", run(
+			"local function up(s) return s:upper() end\n" +
+			"local r = { up('abc') }\n" +
+			"local S = getmetatable('').__index\n" +
+			"local upper = S.upper\n" +
+			"S.upper = S.lower\n" +
+			"r[2] = up('ABC')\n" +
+			"S.upper = upper\n" +
+			"return table.concat(r, ' ')\n"));
+	}
+	
+	public void testPolymorphicSite() throws IOException {
+		assertEquals("5050", run(
+			"local ts = {}\n" +
+			"for i=1,100 do ts[i] = setmetatable({}, {__index={ v=i }}) end\n" +
+			"local s = 0\n" +
+			"for i=1,100 do s = s + ts[i].v end\n" +
+			"return tostring(s)\n"));
+	}
+
+	public void testJavaViewNotCached() throws IOException {
+		Map map = new HashMap();
+		LuaTable view = CoerceJavaToLua.tableView(map);
+		_G.set("view", view);
+		run("setmetatable(view, {__index={x='default'}})\n" +
+			"obj = setmetatable({}, {__index=view})\n" +
+			"function getx() return obj.x end\n" +
+			"return getx()..getx()\n");
+		assertEquals("default", run("return getx()"));
+		map.put("x", "fromMap");
+		assertEquals("fromMap", run("return getx()"));
+	}
+
+	public void testSubclassNotCached() throws IOException {
+		final LuaValue[] x = { LuaValue.NIL };
+		_G.set("t", new LuaTable() {
+			public LuaValue rawget(LuaValue key) {
+				return key.tojstring().equals("x")? x[0]: super.rawget(key);
+			}
+		});
+		run("setmetatable(t, {__index={x='default'}})\n" +
+			"obj = setmetatable({}, {__index=t})\n" +
+			"function getx() return obj.x end\n" +
+			"return getx()..getx()\n");
+		assertEquals("default", run("return getx()"));
+		x[0] = LuaValue.valueOf("b");
+		assertEquals("b", run("return getx()"));
+	}
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.luaj.vm2.luajc.LuaJC;
+
+/**
+ * Tests for the directory of generated classes used by {@link LuaJC#LuaJC(File)}.
+ */
+public class LuaJCCacheTest extends TestCase {
+
+	private static final String SCRIPT = 
+		"local function f(n) return n * 2 end\n" +
+		"return (function(...) return f(...) end)(...)\n";
+	
+	private File dir;
+	
+	protected void setUp() throws Exception {
+		dir = File.createTempFile("luajc", "cache");
+		dir.delete();
+	}
+	
+	protected void tearDown() throws Exception {
+		File[] files = dir.listFiles();
+		for ( int i=0; files!=null && i<files.length; i++ )
+			files[i].delete();
+		dir.delete();
+	}
+	
+	private int run(String script, String name, int arg) throws IOException {
+		LuaValue _G = JsePlatform.standardGlobals();
+		LuaFunction f = new LuaJC(dir).load(new ByteArrayInputStream(script.getBytes()), name, _G);
+		return f.call(LuaValue.valueOf(arg)).toint();
+	}
+	
+	public void testCacheReused() throws IOException {
+		assertEquals(42, run(SCRIPT, "script", 21));
+		File[] files = dir.listFiles();
+		assertEquals(1, files.length);
+		long modified = files[0].lastModified();
+		assertEquals(8, run(SCRIPT, "script", 4));
+		files = dir.listFiles();
+		assertEquals(1, files.length);
+		assertEquals(modified, files[0].lastModified());
+	}
+
+	public void testKeyedBySourceAndName() throws IOException {
+		assertEquals(42, run(SCRIPT, "script", 21));
+		assertEquals(42, run(SCRIPT, "other", 21));
+		assertEquals(63, run(SCRIPT.replace('2', '3'), "script", 21));
+		assertEquals(3, dir.listFiles().length);
+	}
+	
+	public void testCorruptEntryReplaced() throws IOException {
+		assertEquals(42, run(SCRIPT, "script", 21));
+		File f = dir.listFiles()[0];
+		FileOutputStream out = new FileOutputStream(f);
+		out.write(new byte[] { 1, 2, 3 });
+		out.close();
+		assertEquals(42, run(SCRIPT, "script", 21));
+		assertEquals(1, dir.listFiles().length);
+		assertTrue(f.length() > 3);
+	}
+}
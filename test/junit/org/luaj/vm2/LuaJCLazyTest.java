@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Vector;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.compiler.LuaC;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.luaj.vm2.luajc.JavaLoader;
+
+/**
+ * Tests that {@link JavaLoader} only generates classes of inner functions when they are called.
+ */
+public class LuaJCLazyTest extends TestCase {
+
+	private static final String SCRIPT = 
+		"local n = 0\n" +
+		"local M = {}\n" +
+		"function M.unused() return 'unused' end\n" +
+		"function M.inc(d) n = n + d; return n end\n" +
+		"function M.get() return n, x end\n" +
+		"return M\n";
+	
+	private Vector defined;
+	private LuaValue m;
+	
+	protected void setUp() throws Exception {
+		defined = new Vector();
+		LuaValue _G = JsePlatform.standardGlobals();
+		Prototype p = LuaC.instance.compile(new ByteArrayInputStream(SCRIPT.getBytes()), "lazy");
+		JavaLoader loader = new JavaLoader(_G) {
+			public Class findClass(String classname) throws ClassNotFoundException {
+				defined.addElement(classname);
+				return super.findClass(classname);
+			}
+		};
+		m = loader.load(p, "lazy", "lazy.lua").call();
+	}
+	
+	public void testInnerClassesLoadedOnCall() throws IOException {
+		assertEquals("[lazy]", defined.toString());
+		assertEquals(3, m.get("inc").call(LuaValue.valueOf(3)).toint());
+		assertEquals("[lazy, lazy$1]", defined.toString());
+		assertEquals(5, m.get("inc").call(LuaValue.valueOf(2)).toint());
+		assertEquals("[lazy, lazy$1]", defined.toString());
+	}
+	
+	public void testSharedUpvalues() throws IOException {
+		assertEquals(0, m.get("get").call().toint());
+		assertEquals(4, m.get("inc").call(LuaValue.valueOf(4)).toint());
+		assertEquals(4, m.get("get").call().toint());
+		assertFalse(defined.contains("lazy$0"));
+	}
+	
+	public void testConcurrentFirstCalls() throws InterruptedException {
+		final LuaValue get = m.get("get");
+		final Object[] results = new Object[8];
+		final boolean[] go = new boolean[1];
+		Thread[] threads = new Thread[results.length];
+		for ( int i=0; i<threads.length; i++ ) {
+			final int index = i;
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						synchronized ( go ) {
+							while ( !go[0] )
+								go.wait();
+						}
+						results[index] = get.call();
+					} catch ( Throwable e ) {
+						results[index] = e.toString();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		synchronized ( go ) {
+			go[0] = true;
+			go.notifyAll();
+		}
+		for ( int i=0; i<threads.length; i++ )
+			threads[i].join();
+		for ( int i=0; i<results.length; i++ )
+			assertEquals(LuaValue.ZERO, results[i]);
+		assertEquals("[lazy, lazy$2]", defined.toString());
+	}
+
+	public void testEnvironment() throws IOException {
+		LuaValue get = m.get("get");
+		LuaTable env = new LuaTable();
+		env.set("x", "before");
+		get.setfenv(env);
+		assertEquals("before", get.invoke().arg(2).tojstring());
+		env = new LuaTable();
+		env.set("x", "after");
+		get.setfenv(env);
+		assertEquals("after", get.invoke().arg(2).tojstring());
+		assertSame(env, get.getfenv());
+	}
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.lib.VarArgFunction;
+import org.luaj.vm2.lib.jse.JseCoroutineFactory;
+import org.luaj.vm2.lib.jse.JsePlatform;
+
+public class OrphanedThreadTest extends TestCase {
+
+	private long saved_interval;
+	private Globals _G;
+	
+	protected void setUp() throws Exception {
+		super.setUp();
+		saved_interval = LuaThread.orphan_check_interval;
+		LuaThread.orphan_check_interval = 5;
+		_G = JsePlatform.standardGlobals();
+	}
+	
+	protected void tearDown() throws Exception {
+		LuaThread.orphan_check_interval = saved_interval;
+		super.tearDown();
+	}
+
+	public void testMonitorResumeYield() {
+		doTestResumeYield(LuaThread.MONITOR_FACTORY);
+	}
+
+	public void testParkingResumeYield() {
+		doTestResumeYield(new JseCoroutineFactory());
+	}
+
+	public void testMonitorOrphanedJavaBody() throws InterruptedException {
+		doTestOrphanedJavaBody(LuaThread.MONITOR_FACTORY);
+	}
+
+	public void testParkingOrphanedJavaBody() throws InterruptedException {
+		doTestOrphanedJavaBody(new JseCoroutineFactory());
+	}
+
+	public void testMonitorOrphanedLuaBody() throws Exception {
+		doTestOrphanedLuaBody(LuaThread.MONITOR_FACTORY);
+	}
+
+	public void testParkingOrphanedLuaBody() throws Exception {
+		doTestOrphanedLuaBody(new JseCoroutineFactory());
+	}
+
+	private void doTestResumeYield(LuaThread.CoroutineFactory factory) {
+		LuaValue body = new VarArgFunction() {
+			public Varargs invoke(Varargs args) {
+				int n = args.arg1().toint();
+				for ( int i=0; i<3; i++ )
+					n += LuaThread.yield(_G, valueOf(n)).arg1().toint();
+				return valueOf(-n);
+			}
+		};
+		LuaThread t = new LuaThread(_G, body, _G, factory);
+		assertEquals("suspended", t.getStatus());
+		assertEquals(LuaValue.varargsOf(LuaValue.TRUE, LuaValue.valueOf(1)).tojstring(), t.resume(LuaValue.valueOf(1)).tojstring());
+		assertEquals(3, t.resume(LuaValue.valueOf(2)).arg(2).toint());
+		assertEquals(6, t.resume(LuaValue.valueOf(3)).arg(2).toint());
+		Varargs v = t.resume(LuaValue.valueOf(4));
+		assertEquals(LuaValue.TRUE, v.arg1());
+		assertEquals(-10, v.arg(2).toint());
+		assertEquals("dead", t.getStatus());
+		assertEquals("cannot resume dead coroutine", t.resume(LuaValue.NONE).arg(2).tojstring());
+		assertSame(_G.main_thread, _G.running_thread);
+	}
+
+	private void doTestOrphanedJavaBody(LuaThread.CoroutineFactory factory) throws InterruptedException {
+		final boolean[] unwound = { false };
+		LuaValue body = new VarArgFunction() {
+			public Varargs invoke(Varargs args) {
+				try {
+					LuaThread.yield(_G, args);
+					return NONE;
+				} finally {
+					synchronized ( unwound ) {
+						unwound[0] = true;
+						unwound.notify();
+					}
+				}
+			}
+		};
+		LuaThread t = new LuaThread(_G, body, _G, factory);
+		assertEquals(LuaValue.TRUE, t.resume(LuaValue.NONE).arg1());
+		assertEquals("suspended", t.getStatus());
+		WeakReference ref = new WeakReference(t);
+		t = null;
+		collect(ref);
+		synchronized ( unwound ) {
+			for ( int i=0; i<100 && ! unwound[0]; i++ )
+				unwound.wait(50);
+		}
+		assertTrue(unwound[0]);
+	}
+
+	private void doTestOrphanedLuaBody(LuaThread.CoroutineFactory factory) throws Exception {
+		String script = 
+			"local ok = pcall(coroutine.yield, 1)\n" +
+			"reached = true\n";
+		LuaValue body = load(script);
+		LuaThread t = new LuaThread(_G, body, _G, factory);
+		Varargs v = t.resume(LuaValue.NONE);
+		assertEquals(LuaValue.TRUE, v.arg1());
+		assertEquals(1, v.arg(2).toint());
+		WeakReference ref = new WeakReference(t);
+		t = null;
+		collect(ref);
+		Thread.sleep(100);
+		assertEquals(LuaValue.NIL, _G.get("reached"));
+		assertSame(_G.main_thread, _G.running_thread);
+		assertEquals(0, _G.main_thread.getCallstackDepth());
+	}
+
+	private LuaValue load(String script) throws IOException {
+		return LoadState.load(new ByteArrayInputStream(script.getBytes()), "script", _G);
+	}
+
+	private static void collect(WeakReference ref) throws InterruptedException {
+		for ( int i=0; i<100 && ref.get() != null; i++ ) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		assertNull(ref.get());
+	}
+}
@@ -1,5 +1,6 @@
 package org.luaj.vm2;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
@@ -114,4 +115,125 @@ public class StringTest extends TestCase {
 		assertEquals( userFriendly( "abc\0def" ), userFriendly( after ) );
 		
 	}
+
+	public void testInternShortStrings() {
+		LuaString a = LuaString.valueOf("short");
+		LuaString b = LuaString.valueOf("sh".getBytes(), 0, 2).concat(LuaString.valueOf("ort")).strvalue();
+		byte[] buf = "xxshortxx".getBytes();
+		LuaString c = LuaString.valueOf(buf, 2, 5);
+		assertSame(a, b);
+		assertSame(a, c);
+		buf[2] = 'S';
+		assertEquals("short", c.tojstring());
+	}
+	
+	public void testLongStringsNotInterned() {
+		StringBuffer sb = new StringBuffer();
+		for ( int i=0; i<=LuaString.INTERN_MAX_LENGTH; i++ )
+			sb.append((char) ('a' + i % 26));
+		String s = sb.toString();
+		LuaString a = LuaString.valueOf(s);
+		LuaString b = LuaString.valueOf(s);
+		assertNotSame(a, b);
+		assertTrue(a.raweq(b));
+		assertEquals(a.hashCode(), b.hashCode());
+		assertEquals(a.hashCode(), LuaString.hashCode(a.m_bytes, a.m_offset, a.m_length));
+	}
+	
+	public void testInternTableDisabled() {
+		try {
+			LuaString.setInternTableSize(0);
+			LuaString a = LuaString.valueOf("abc");
+			LuaString b = LuaString.valueOf("abc");
+			assertNotSame(a, b);
+			assertTrue(a.raweq(b));
+			assertEquals(a, b);
+			assertEquals(a.hashCode(), b.hashCode());
+		} finally {
+			LuaString.setInternTableSize(LuaString.INTERN_TABLE_SIZE);
+		}
+		assertSame(LuaString.valueOf("abc"), LuaString.valueOf("abc"));
+	}
+
+	public void testIndexOfSubstring() {
+		LuaString s = LuaString.valueOf("xxabcabcxx").substring(2, 8);
+		assertEquals(0, s.indexOf((byte) 'a', 0));
+		assertEquals(3, s.indexOf((byte) 'a', 1));
+		assertEquals(-1, s.indexOf((byte) 'x', 0));
+		assertEquals(1, s.indexOf(LuaString.valueOf("bc"), 0));
+		assertEquals(4, s.indexOf(LuaString.valueOf("bc"), 2));
+		assertEquals(-1, s.indexOf(LuaString.valueOf("cx"), 0));
+		assertEquals(3, s.indexOf(LuaString.valueOf(""), 3));
+		assertEquals(-1, s.indexOf(LuaString.valueOf(""), 7));
+	}
+
+	private static String eval(String script) throws IOException {
+		LuaValue chunk = LoadState.load(new ByteArrayInputStream(script.getBytes()), "pattern", JsePlatform.standardGlobals());
+		return chunk.call().tojstring();
+	}
+
+	public void testCompiledPatterns() throws IOException {
+		for ( int i=0; i<2; i++ ) {
+			assertEquals("6 8 c", eval("return table.concat({string.find('xy.z abc d', 'ab(c)')}, ' ')"));
+			assertEquals("key=42", eval("return string.match('  key=42;', '%a+=%d+')"));
+			assertEquals("nil", eval("return tostring(string.match('x key', '^key'))"));
+			assertEquals("key", eval("return string.match('key x', '^(k%a*)')"));
+			assertEquals("a.b.c 2", eval("return table.concat({string.gsub('a b c', ' ', '.')}, ' ')"));
+			assertEquals("[a] [bb] [ccc]", eval("return (string.gsub('a bb ccc', '%a+', '[%0]'))"));
+			assertEquals("a=1,b=2,", eval("local t='' for k,v in string.gmatch('a=1, b=2', '(%w+)=(%w+)') do t=t..k..'='..v..',' end return t"));
+			assertEquals("1 3", eval("return table.concat({string.find('a+b', 'a+b', 1, true)}, ' ')"));
+			assertEquals("nil", eval("return tostring(string.find('abc', 'x%d'))"));
+		}
+	}
+
+	public void testMalformedPatterns() throws IOException {
+		assertEquals("1", eval("return tostring(string.find('(abc', '(', 1, true))"));
+		assertEquals("nil", eval("return tostring(string.find('abc', 'x[a'))"));
+		assertEquals("false", eval("return tostring((pcall(string.find, 'abc', 'a[b')))"));
+		assertTrue(eval("return select(2, pcall(string.find, 'abc', 'b%'))").indexOf("malformed pattern") >= 0);
+	}
+
+	private static LuaString repeat(String s, int n) {
+		StringBuffer sb = new StringBuffer();
+		for ( int i=0; i<n; i++ )
+			sb.append(s);
+		return LuaString.valueOf(sb.toString());
+	}
+
+	public void testConcatExtendsInPlace() {
+		LuaString a = repeat("a", LuaString.EXTEND_MIN_LENGTH);
+		LuaString x = LuaString.valueOf("x");
+		LuaString y = LuaString.valueOf("y");
+		LuaString b = a.concat(x).strvalue();
+		LuaString c = b.concat(x).strvalue();
+		LuaString d = b.concat(y).strvalue();
+		assertNotSame(a.m_bytes, b.m_bytes);
+		assertSame(b.m_bytes, c.m_bytes);
+		assertNotSame(b.m_bytes, d.m_bytes);
+		assertEquals(a.tojstring()+"x", b.tojstring());
+		assertEquals(a.tojstring()+"xx", c.tojstring());
+		assertEquals(a.tojstring()+"xy", d.tojstring());
+		LuaString e = c.substring(0, 10);
+		assertSame(c.m_bytes, e.m_bytes);
+		assertSame(c.m_bytes, c.concat(y).strvalue().m_bytes);
+		assertEquals("aaaaaaaaaa", e.tojstring());
+	}
+
+	public void testBufferSharesBytes() {
+		LuaString a = repeat("ab", LuaString.EXTEND_MIN_LENGTH);
+		Buffer sb = new Buffer();
+		sb.append(a);
+		sb.append("b");
+		LuaString b = sb.tostring();
+		assertSame(b, sb.tostring());
+		sb.append("c");
+		LuaString c = sb.tostring();
+		assertSame(b.m_bytes, c.m_bytes);
+		assertEquals(a.tojstring()+"b", b.tojstring());
+		assertEquals(a.tojstring()+"bc", c.tojstring());
+		LuaString d = c.concat(LuaString.valueOf("d").buffer()).value().strvalue();
+		assertSame(c.m_bytes, d.m_bytes);
+		assertEquals(a.tojstring()+"bcd", d.tojstring());
+		assertEquals("xy", LuaString.valueOf("x").concat(LuaString.valueOf("y").buffer()).tojstring());
+	}
 }
@@ -352,4 +352,112 @@ public class TableArrayTest extends TestCase {
 		}
 	}
 	
+	public void testIntegerArray() {
+		LuaTable t = new_Table();
+		for ( int i = 1; i <= 100; ++i )
+			t.set( i, LuaValue.valueOf( i * 1000 ) );
+		assertNull( t.array );
+		assertNotNull( t.intArray );
+		assertEquals( 100, t.length() );
+		assertEquals( 0, t.getHashLength() );
+		for ( int i = 1; i <= 100; ++i )
+			assertEquals( LuaValue.valueOf( i * 1000 ), t.get( i ) );
+		assertEquals( LuaValue.NIL, t.get( 101 ) );
+	}
+
+	public void testDoubleArray() {
+		LuaTable t = new_Table(4, 0);
+		t.set( 1, LuaValue.valueOf( 1 ) );
+		t.set( 2, LuaValue.valueOf( 2.5 ) );
+		t.set( 3, LuaValue.valueOf( 3 ) );
+		assertNull( t.array );
+		assertNull( t.intArray );
+		assertNotNull( t.doubleArray );
+		assertEquals( LuaInteger.valueOf( 1 ), t.get( 1 ) );
+		assertEquals( LuaValue.valueOf( 2.5 ), t.get( 2 ) );
+		assertTrue( t.get( 3 ).isinttype() );
+		assertEquals( 3, t.length() );
+	}
+
+	public void testNumericArrayReadsStoredValues() {
+		LuaTable t = new_Table();
+		LuaValue[] v = new LuaValue[6];
+		for ( int i = 0; i < 6; ++i ) {
+			v[i] = i < 3? LuaValue.valueOf( (i+1) * 1000 ): LuaValue.valueOf( i + 0.5 );
+			t.set( i+1, v[i] );
+		}
+		t.set( 2, LuaValue.valueOf( 2 ) );
+		assertNull( t.array );
+		assertNotNull( t.doubleArray );
+		assertSame( LuaValue.valueOf( 2 ), t.get( 2 ) );
+		for ( int i = 0; i < 6; ++i )
+			if ( i != 1 )
+				assertSame( v[i], t.get( i+1 ) );
+		t.sort( LuaValue.NIL );
+		assertNull( t.array );
+		assertSame( LuaValue.valueOf( 2 ), t.get( 1 ) );
+		assertSame( v[3], t.get( 2 ) );
+		assertSame( v[5], t.get( 4 ) );
+		assertSame( v[0], t.get( 5 ) );
+		assertSame( v[2], t.get( 6 ) );
+	}
+
+	public void testNumericArrayBoxed() {
+		LuaTable t = new_Table();
+		for ( int i = 1; i <= 8; ++i )
+			t.set( i, LuaValue.valueOf( i ) );
+		t.set( 8, LuaValue.NIL );
+		t.set( 7, LuaValue.NIL );
+		assertNull( t.array );
+		assertEquals( 6, t.length() );
+		t.set( 7, LuaValue.valueOf( 7 ) );
+		assertNull( t.array );
+		t.set( 3, LuaValue.NIL );
+		assertNotNull( t.array );
+		assertEquals( LuaValue.NIL, t.get( 3 ) );
+		assertEquals( LuaValue.valueOf( 7 ), t.get( 7 ) );
+
+		t = new_Table();
+		t.set( 1, LuaValue.valueOf( 1.5 ) );
+		t.set( 2, LuaValue.valueOf( "two" ) );
+		assertNotNull( t.array );
+		assertEquals( LuaValue.valueOf( 1.5 ), t.get( 1 ) );
+		assertEquals( "two", t.get( 2 ).tojstring() );
+
+		t = new_Table(4, 0);
+		t.set( 1, LuaValue.valueOf( "one" ) );
+		assertNotNull( t.array );
+		assertEquals( 4, t.getArrayLength() );
+	}
+
+	public void testNumericArrayFromHash() {
+		LuaTable t = new_Table();
+		t.set( 3, LuaValue.valueOf( 3 ) );
+		t.set( 2, LuaValue.valueOf( 2 ) );
+		t.set( 1, LuaValue.valueOf( 1 ) );
+		assertEquals( 3, t.length() );
+		for ( int i = 1; i <= 3; ++i )
+			assertEquals( LuaValue.valueOf( i ), t.get( i ) );
+		int n = 0;
+		for ( Varargs e = t.next( LuaValue.NIL ); !e.isnil(1); e = t.next( e.arg1() ) ) {
+			assertEquals( e.arg1(), e.arg(2) );
+			++n;
+		}
+		assertEquals( 3, n );
+	}
+
+	public void testSortNumericArray() {
+		LuaTable t = new_Table();
+		for ( int i = 1; i <= 20; ++i )
+			t.set( i, LuaValue.valueOf( (i * 7) % 20 ) );
+		t.sort( LuaValue.NIL );
+		for ( int i = 1; i <= 20; ++i )
+			assertEquals( i-1, t.get( i ).toint() );
+		t.set( 21, LuaValue.valueOf( 0.5 ) );
+		t.sort( LuaValue.NIL );
+		assertEquals( LuaValue.valueOf( 0.5 ), t.get( 2 ) );
+		assertEquals( 19, t.get( 21 ).toint() );
+		assertNull( t.array );
+	}
+
 }
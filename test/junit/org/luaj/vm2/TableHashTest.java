@@ -50,7 +50,7 @@ public class TableHashTest extends TestCase {
 		
 		String[] keys = { "abc", "def", "ghi", "jkl", "mno", "pqr", "stu", "wxy", "z01",
 				"cd", "ef", "g", "hi", "jk", "lm", "no", "pq", "rs", };		
-		int[] capacities = { 0, 2, 4, 4, 7, 7, 7, 10, 10, 14, 14, 14, 14, 19, 19, 19, 19, 25, 25, 25 };
+		int[] capacities = { 0, 2, 4, 8, 8, 8, 16, 16, 16, 16, 16, 16, 32, 32, 32, 32, 32, 32, 32, 32 };
 		for ( int i = 0; i < keys.length; ++i ) {
 			assertEquals( capacities[i], t.getHashLength() );
 			String si = "Test Value! "+i;
@@ -94,6 +94,40 @@ public class TableHashTest extends TestCase {
 		}
 	}
 	
+	public void testManyKeys() {
+		LuaTable t = new_Table();
+		final int n = 5000;
+		for ( int i = 0; i < n; ++i ) {
+			t.set( "key"+i, LuaValue.valueOf(i) );
+			t.set( LuaValue.valueOf(i+0.5), LuaValue.valueOf(-i) );
+		}
+		assertEquals( 2*n, t.keyCount() );
+		int capacity = t.getHashLength();
+		assertEquals( 0, capacity & (capacity-1) );
+		assertTrue( capacity > 2*n );
+		for ( int i = 0; i < n; ++i ) {
+			assertEquals( i, t.get( "key"+i ).toint() );
+			assertEquals( -i, t.get( LuaValue.valueOf(i+0.5) ).toint() );
+		}
+
+		// remove every other key, remaining keys must still be found
+		for ( int i = 0; i < n; i += 2 ) {
+			t.set( "key"+i, LuaValue.NIL );
+			t.set( LuaValue.valueOf(i+0.5), LuaValue.NIL );
+		}
+		assertEquals( n, t.keyCount() );
+		assertEquals( capacity, t.getHashLength() );
+		for ( int i = 0; i < n; ++i ) {
+			if ( (i & 1) == 0 ) {
+				assertEquals( LuaValue.NIL, t.get( "key"+i ) );
+				assertEquals( LuaValue.NIL, t.get( LuaValue.valueOf(i+0.5) ) );
+			} else {
+				assertEquals( i, t.get( "key"+i ).toint() );
+				assertEquals( -i, t.get( LuaValue.valueOf(i+0.5) ).toint() );
+			}
+		}
+	}
+	
 	public void testIndexMetatag() {
 		LuaTable t = new_Table();
 		LuaTable mt = new_Table();
@@ -236,10 +270,16 @@ public class TableHashTest extends TestCase {
 		assertEquals( LuaValue.valueOf("one"), t.next(LuaValue.NIL).arg(2) );
 		assertEquals( LuaValue.valueOf(2),     t.next(LuaValue.ONE).arg(1) );
 		assertEquals( LuaValue.valueOf("two"), t.next(LuaValue.ONE).arg(2) );
-		assertEquals( LuaValue.valueOf("aa"),  t.next(LuaValue.valueOf(2)).arg(1) );
-		assertEquals( LuaValue.valueOf("aaa"), t.next(LuaValue.valueOf(2)).arg(2) );
-		assertEquals( LuaValue.valueOf("bb"),  t.next(LuaValue.valueOf("aa")).arg(1) );
-		assertEquals( LuaValue.valueOf("bbb"), t.next(LuaValue.valueOf("aa")).arg(2) );
-		assertEquals( LuaValue.NIL, t.next(LuaValue.valueOf("bb")) );
+		
+		// order of hash keys depends on their hashes
+		Varargs first = t.next(LuaValue.valueOf(2));
+		Varargs second = t.next(first.arg(1));
+		Varargs a = first.arg(1).equals(LuaValue.valueOf("aa"))? first: second;
+		Varargs b = first.arg(1).equals(LuaValue.valueOf("aa"))? second: first;
+		assertEquals( LuaValue.valueOf("aa"),  a.arg(1) );
+		assertEquals( LuaValue.valueOf("aaa"), a.arg(2) );
+		assertEquals( LuaValue.valueOf("bb"),  b.arg(1) );
+		assertEquals( LuaValue.valueOf("bbb"), b.arg(2) );
+		assertEquals( LuaValue.NIL, t.next(second.arg(1)) );
 	}
 }
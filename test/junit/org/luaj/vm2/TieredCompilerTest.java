@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Luaj.org. All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package org.luaj.vm2;
+
+import java.io.ByteArrayInputStream;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.lib.DebugLib;
+import org.luaj.vm2.lib.ZeroArgFunction;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.luaj.vm2.luajc.TieredCompiler;
+
+/**
+ * Tests that hot prototypes are compiled by {@link TieredCompiler} 
+ * and that compiled and interpreted closures share upvalues.
+ */
+public class TieredCompilerTest extends TestCase {
+
+	private static final String SCRIPT = 
+		"local n = 0\n" +
+		"local M = {}\n" +
+		"function M.add(a, b)\n" +
+		"  n = n + 1\n" +
+		"  return a + b, compiled()\n" +
+		"end\n" +
+		"function M.count() return n end\n" +
+		"function M.getx() return x, compiled() end\n" +
+		"function M.sum(k)\n" +
+		"  local s = 0\n" +
+		"  for i=1,k do s = s + i end\n" +
+		"  return s, compiled()\n" +
+		"end\n" +
+		"function M.counter()\n" +
+		"  local c = 0\n" +
+		"  return function() c = c + 1; return c end, compiled()\n" +
+		"end\n" +
+		"return M\n";
+	
+	private LuaValue m;
+	private boolean debugEnabled;
+	
+	protected void setUp() throws Exception {
+		// prototypes are not compiled while the debug library is in use
+		debugEnabled = DebugLib.DEBUG_ENABLED;
+		DebugLib.DEBUG_ENABLED = false;
+		TieredCompiler.install(10);
+		Globals _G = JsePlatform.standardGlobals();
+		_G.set("compiled", new ZeroArgFunction() {
+			public LuaValue call() {
+				// true if the calling lua function is running as a compiled class 
+				StackTraceElement[] st = new Throwable().getStackTrace();
+				for ( int i=0; i<st.length; i++ )
+					if ( st[i].getClassName().startsWith("tiered$") )
+						return TRUE;
+				return FALSE;
+			}
+		});
+		m = LoadState.load(new ByteArrayInputStream(SCRIPT.getBytes()), "tiered", _G).call();
+	}
+	
+	protected void tearDown() {
+		LuaClosure.hotspot = null;
+		LuaClosure.hotspotThreshold = TieredCompiler.DEFAULT_THRESHOLD;
+		DebugLib.DEBUG_ENABLED = debugEnabled;
+	}
+	
+	private static void awaitCompiled(LuaValue f) throws InterruptedException {
+		Prototype p = ((LuaClosure) f).p;
+		for ( int i=0; i<1000 && p.compiled == null; i++ )
+			Thread.sleep(10);
+		assertNotNull(p.compiled);
+	}
+	
+	public void testHotFunctionCompiled() throws Exception {
+		LuaValue add = m.get("add");
+		assertEquals(LuaValue.FALSE, add.invoke(LuaValue.valueOf(1), LuaValue.valueOf(2)).arg(2));
+		for ( int i=0; i<20; i++ )
+			add.call(LuaValue.valueOf(i), LuaValue.valueOf(i));
+		awaitCompiled(add);
+		Varargs v = add.invoke(LuaValue.valueOf(3), LuaValue.valueOf(4));
+		assertEquals(7, v.arg1().toint());
+		assertEquals(LuaValue.TRUE, v.arg(2));
+		assertNull(((LuaClosure) m.get("count")).p.compiled);
+	}
+	
+	public void testUpvaluesShared() throws Exception {
+		LuaValue add = m.get("add");
+		for ( int i=0; i<20; i++ )
+			add.call(LuaValue.valueOf(i), LuaValue.valueOf(i));
+		awaitCompiled(add);
+		add.call(LuaValue.ONE, LuaValue.ONE);
+		assertEquals(21, m.get("count").call().toint());
+	}
+	
+	public void testLoopCompiled() throws Exception {
+		LuaValue sum = m.get("sum");
+		assertEquals(5050, sum.call(LuaValue.valueOf(100)).toint());
+		awaitCompiled(sum);
+		Varargs v = sum.invoke(LuaValue.valueOf(100));
+		assertEquals(5050, v.arg1().toint());
+		assertEquals(LuaValue.TRUE, v.arg(2));
+	}
+	
+	public void testInnerClosures() throws Exception {
+		LuaValue counter = m.get("counter");
+		for ( int i=0; i<20; i++ )
+			counter.call();
+		awaitCompiled(counter);
+		Varargs v = counter.invoke();
+		assertEquals(LuaValue.TRUE, v.arg(2));
+		LuaValue c = v.arg1();
+		assertTrue(c instanceof LuaClosure);
+		for ( int i=1; i<=30; i++ )
+			assertEquals(i, c.call().toint());
+		awaitCompiled(c);
+		assertEquals(31, c.call().toint());
+	}
+	
+	public void testEnvironment() throws Exception {
+		LuaValue getx = m.get("getx");
+		for ( int i=0; i<20; i++ )
+			assertEquals(LuaValue.NIL, getx.call());
+		awaitCompiled(getx);
+		assertEquals(LuaValue.TRUE, getx.invoke().arg(2));
+		LuaTable env = new LuaTable();
+		env.set("x", LuaValue.valueOf(5));
+		env.set("compiled", new ZeroArgFunction() {
+			public LuaValue call() {
+				return valueOf("env");
+			}
+		});
+		getx.setfenv(env);
+		Varargs v = getx.invoke();
+		assertEquals(5, v.arg1().toint());
+		assertEquals("env", v.arg(2).tojstring());
+	}
+}
@@ -8,6 +8,7 @@ import java.io.InputStream;
 import java.io.PrintStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 
 import junit.framework.TestCase;
 
@@ -16,6 +17,7 @@ import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.Print;
 import org.luaj.vm2.Prototype;
 import org.luaj.vm2.lib.jse.JsePlatform;
+import org.luaj.vm2.lib.jse.MappedChunk;
 
 abstract public class AbstractUnitTests extends TestCase {
 
@@ -65,6 +67,10 @@ abstract public class AbstractUnitTests extends TestCase {
             // compare results
             assertEquals(expected, actual);
 
+            // compile directly from the bytes, in a stream delivering a byte at a time, and compare
+            assertEquals(actual, protoToString(LuaC.compile(lua, 0, lua.length, "@" + dir + "/" + file)));
+            assertEquals(actual, protoToString(LuaC.compile(new TrickleInputStream(lua), "@" + dir + "/" + file)));
+
             // dump into memory
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             DumpState.dump(p, baos, false);
@@ -77,6 +83,24 @@ abstract public class AbstractUnitTests extends TestCase {
             // compare again
             assertEquals(actual, actual2);
 
+            // re-undump directly from the bytes, and from a stream delivering a byte at a time
+            assertEquals(actual, protoToString(LoadState.loadBinaryChunk(dumped, 0, dumped.length, file)));
+            InputStream ts = new TrickleInputStream(dumped);
+            assertEquals(actual, protoToString(LoadState.loadBinaryChunk(ts.read(), ts, file)));
+
+            // dump in indexed format, and load from the bytes, a stream, and a buffer
+            baos = new ByteArrayOutputStream();
+            DumpState.dumpIndexed(p, baos, false);
+            byte[] indexed = baos.toByteArray();
+            assertEquals(actual, protoToString(LoadState.loadBinaryChunk(indexed, 0, indexed.length, file)));
+            assertEquals(actual, protoToString(loadFromBytes(indexed, file)));
+            assertEquals(actual, protoToString(LoadState.loadBinaryChunk(new MappedChunk(ByteBuffer.wrap(indexed)), file)));
+
+            // re-dump an indexed chunk before any nested function is decoded
+            baos = new ByteArrayOutputStream();
+            DumpState.dump(LoadState.loadBinaryChunk(new MappedChunk(ByteBuffer.wrap(indexed)), file), baos, false);
+            assertEquals(actual, protoToString(loadFromBytes(baos.toByteArray(), file)));
+
         } catch (IOException e) {
             fail(e.toString());
         }
@@ -100,6 +124,16 @@ abstract public class AbstractUnitTests extends TestCase {
         return LoadState.loadBinaryChunk(is.read(), is, script);
     }
 
+    /** Stream returning at most one byte from each read, to exercise buffer refills */
+    protected static class TrickleInputStream extends ByteArrayInputStream {
+        public TrickleInputStream(byte[] bytes) {
+            super(bytes);
+        }
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, 1));
+        }
+    }
+
     protected String protoToString(Prototype p) {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         PrintStream ps = new PrintStream(baos);
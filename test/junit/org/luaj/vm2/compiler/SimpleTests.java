@@ -7,7 +7,9 @@ import junit.framework.TestCase;
 
 import org.luaj.vm2.LuaDouble;
 import org.luaj.vm2.LuaFunction;
+import org.luaj.vm2.LuaClosure;
 import org.luaj.vm2.LuaInteger;
+import org.luaj.vm2.LuaString;
 import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.lib.jse.JsePlatform;
@@ -98,4 +100,23 @@ public class SimpleTests extends TestCase {
 			assertTrue("hash codes are same: "+hc,hc!=hd);
 		}
 	}
+
+	public void testCompileFromString() throws Exception {
+		String script = "return 'a'..'b', ...";
+		LuaString src = LuaValue.valueOf("xx"+script+"xx").substring(2, 2+script.length());
+		LuaFunction c = new LuaClosure(LuaC.compile(src, "script"), _G);
+		assertEquals("ab", c.call(LuaValue.valueOf(3)).tojstring());
+		assertEquals(3, c.invoke(LuaValue.valueOf(3)).arg(2).toint());
+	}
+
+	public void testLoadFromPieces() {
+		String s = "local function reader(parts)\n" +
+			"  local i = 0\n" +
+			"  return function() i = i + 1 return parts[i] end\n" +
+			"end\n" +
+			"assert(load(reader{ 'ret', 'urn ', '1', ' + 2' })() == 3, 'joins pieces')\n" +
+			"assert(load(reader{ 'return 1', '', 'error()' })() == 1, 'stops at empty piece')\n" +
+			"assert(not load(function() return {} end), 'rejects non-string piece')\n";
+		doTest( s );
+	}
 }
@@ -359,6 +359,55 @@ public class LuaJavaCoercionTest extends TestCase {
 		assertEquals( "setr("+typename+") "+value, sc );
 	}
 
+	public void testOverloadCache() {
+		String[] typenames = { "Object", "String", "A", "B", "C", "byte", "char", "short", "int", "long", "float", "double" };
+		String[] values = { "", "abc", "", "", "", "1", "65000", "-32000", "100000", "50000000000", "6.5", "3.141592653589793" };
+		String script = 
+			"local a = luajava.newInstance('"+B.class.getName()+"')\n" +
+			"local t = {}\n" +
+			"for i=1,3 do\n" +
+			"  for j,typename in ipairs({...}) do\n" +
+			"    local v = a['get'..typename](a)\n" +
+			"    t[#t+1] = a:set(v)\n" +
+			"    t[#t+1] = a:setr(v)\n" +
+			"  end\n" +
+			"end\n" +
+			"return t";
+		LuaValue chunk = _G.get("loadstring").call(LuaValue.valueOf(script));
+		LuaValue[] args = new LuaValue[typenames.length];
+		for ( int i=0; i<typenames.length; i++ )
+			args[i] = LuaValue.valueOf(typenames[i]);
+		LuaValue t = chunk.invoke(LuaValue.varargsOf(args)).arg1();
+		assertEquals( 6*typenames.length, t.length() );
+		for ( int i=0; i<t.length(); i++ ) {
+			int k = (i/2) % typenames.length;
+			String name = (i%2==0? "set(": "setr(")+typenames[k]+") "+values[k];
+			assertEquals( name, t.get(i+1).tojstring() );
+		}
+	}
+	
+	public void testSignatures() {
+		assertSame( CoerceLuaToJava.signature(LuaValue.valueOf(1))[0], CoerceLuaToJava.signature(LuaValue.valueOf(2))[0] );
+		assertSame( CoerceLuaToJava.signature(LuaValue.valueOf(2.5))[0], CoerceLuaToJava.signature(LuaValue.valueOf(-0.5))[0] );
+		assertSame( CoerceLuaToJava.signature(LuaValue.valueOf("a"))[0], CoerceLuaToJava.signature(LuaValue.valueOf("b"))[0] );
+		assertSame( CoerceLuaToJava.signature(LuaValue.userdataOf("a"))[0], CoerceLuaToJava.signature(LuaValue.userdataOf("b"))[0] );
+		LuaValue[] distinct = { 
+			LuaValue.NIL, LuaValue.TRUE, LuaValue.valueOf(1), LuaValue.valueOf(-1), LuaValue.valueOf(200), LuaValue.valueOf(40000), 
+			LuaValue.valueOf(-200), LuaValue.valueOf(100000), LuaValue.valueOf(2.5), LuaValue.valueOf(1e10), LuaValue.valueOf(Math.PI), 
+			LuaValue.valueOf("abc"), LuaValue.valueOf("1"), LuaValue.valueOf("2.5"), LuaValue.valueOf(new byte[] { (byte) 0xff }), 
+			new LuaTable(), LuaValue.listOf(new LuaValue[] { ONE }), LuaValue.listOf(new LuaValue[] { LuaValue.valueOf("a") }), 
+			LuaValue.userdataOf("a"), LuaValue.userdataOf(new int[0]), _G.get("print") };
+		for ( int i=0; i<distinct.length; i++ ) {
+			assertNotNull( distinct[i].toString(), CoerceLuaToJava.signature(distinct[i]) );
+			for ( int j=0; j<i; j++ )
+				assertNotSame( distinct[i]+" "+distinct[j], 
+						CoerceLuaToJava.signature(distinct[i])[0], CoerceLuaToJava.signature(distinct[j])[0] );
+		}
+		assertEquals( 2, CoerceLuaToJava.signature(LuaValue.varargsOf(ONE, TWO)).length );
+		assertEquals( 0, CoerceLuaToJava.signature(LuaValue.NONE).length );
+		assertNull( CoerceLuaToJava.signature(LuaValue.listOf(new LuaValue[] { new LuaTable() })) );
+	}
+
 	public void testClassInheritanceLevels() {
 		assertEquals( 0, CoerceLuaToJava.inheritanceLevels(Object.class, Object.class) );
 		assertEquals( 1, CoerceLuaToJava.inheritanceLevels(Object.class, String.class) );
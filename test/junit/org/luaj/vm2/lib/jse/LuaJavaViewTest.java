@@ -0,0 +1,318 @@
+package org.luaj.vm2.lib.jse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+
+/**
+ * Tests lua tables viewing Java lists, maps, and arrays,
+ * Java lists and maps viewing lua tables, and how they are coerced.
+ */
+public class LuaJavaViewTest extends TestCase {
+
+	public static class V {
+		public int size(Collection c)             { return c.size(); }
+		public void append(List l, Object o)      { l.add(o); }
+		public Object lookup(Map m, Object k)     { return m.get(k); }
+		public void store(Map m, Object k, Object v) { m.put(k, v); }
+		public int sum(int[] a)                   { int s = 0; for ( int i=0; i<a.length; i++ ) s += a[i]; return s; }
+	}
+
+	private LuaValue _G;
+
+	protected void setUp() throws Exception {
+		_G = JsePlatform.standardGlobals();
+		_G.set("v", CoerceJavaToLua.coerce(new V()));
+	}
+
+	private Varargs eval(String script, LuaValue arg) {
+		return _G.get("loadstring").call(LuaValue.valueOf(script)).checkfunction().invoke(arg);
+	}
+
+	public void testListTable() {
+		List list = new ArrayList(Arrays.asList(new Object[] { "b", new Integer(2) }));
+		LuaTable t = CoerceJavaToLua.tableView(list);
+		assertEquals( 2, t.length() );
+		assertEquals( "b", t.get(1).tojstring() );
+		assertEquals( LuaValue.valueOf(2), t.get(2) );
+		assertEquals( LuaValue.NIL, t.get(3) );
+		Varargs r = eval(
+			"local t = ...\n" +
+			"t[#t+1] = 'c'\n" +
+			"table.insert(t, 1, 'a')\n" +
+			"local s = ''\n" +
+			"for i,v in ipairs(t) do s = s..v end\n" +
+			"for k,v in pairs(t) do s = s..k end\n" +
+			"t[#t] = nil\n" +
+			"t[2] = 'x'\n" +
+			"return s, #t, table.remove(t, 1), table.concat(t, ',')", t);
+		assertEquals( "ab2c1234", r.arg(1).tojstring() );
+		assertEquals( 3, r.arg(2).toint() );
+		assertEquals( "a", r.arg(3).tojstring() );
+		assertEquals( "x,2", r.arg(4).tojstring() );
+		assertEquals( Arrays.asList(new Object[] { "x", new Integer(2) }), list );
+		try {
+			t.set(5, LuaValue.ONE);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+		try {
+			t.set("key", LuaValue.ONE);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+		try {
+			CoerceJavaToLua.tableView(Arrays.asList(new Object[] { "a" })).set(2, LuaValue.ONE);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {
+			assertEquals( UnsupportedOperationException.class, e.getCause().getClass() );
+		}
+	}
+
+	public void testLuaValuesStored() {
+		List list = new ArrayList();
+		Map map = new HashMap();
+		LuaTable inner = new LuaTable();
+		CoerceJavaToLua.tableView(list).set(1, inner);
+		CoerceJavaToLua.tableView(map).set("t", inner);
+		assertSame( inner, list.get(0) );
+		assertSame( inner, map.get("t") );
+		assertSame( inner, CoerceJavaToLua.tableView(list).get(1) );
+		assertSame( inner, CoerceJavaToLua.tableView(map).get("t") );
+		List view = CoerceLuaToJava.listView(new LuaTable());
+		view.add(list.get(0));
+		assertSame( inner, view.get(0) );
+
+		LuaValue f = eval("return function() end", LuaValue.NIL).arg1();
+		Object[] a = new Object[1];
+		CoerceJavaToLua.tableView(a).set(1, f);
+		assertSame( f, a[0] );
+		assertSame( f, CoerceJavaToLua.tableView(a).get(1) );
+		assertSame( f, CoerceJavaToLua.coerce(a).get(1) );
+		Map m = CoerceLuaToJava.mapView(new LuaTable());
+		m.put("f", f);
+		m.put(inner, "t");
+		assertSame( f, m.get("f") );
+		assertEquals( "t", m.get(inner) );
+		LuaTable copy = CoerceJavaToLua.tableView(new HashMap(m));
+		assertSame( f, eval("local t = ... for k,v in pairs(t) do if k == 'f' then return v end end", copy).arg1() );
+	}
+
+	public void testSortListTable() {
+		List list = new ArrayList(Arrays.asList(new Object[] { "c", "a", "b" }));
+		eval("table.sort(...)", CoerceJavaToLua.tableView(list));
+		assertEquals( Arrays.asList(new Object[] { "a", "b", "c" }), list );
+	}
+
+	public void testArrayTable() {
+		int[] a = { 3, 1, 2 };
+		LuaTable t = CoerceJavaToLua.tableView(a);
+		assertEquals( 3, t.length() );
+		Varargs r = eval(
+			"local t = ...\n" +
+			"t[1] = t[1] * 2\n" +
+			"local s = 0\n" +
+			"for i,v in ipairs(t) do s = s + v end\n" +
+			"table.sort(t)\n" +
+			"return s, #t, v:sum(t)", t);
+		assertEquals( 9, r.arg(1).toint() );
+		assertEquals( 3, r.arg(2).toint() );
+		assertEquals( 9, r.arg(3).toint() );
+		assertEquals( 1, a[0] );
+		assertEquals( 2, a[1] );
+		assertEquals( 6, a[2] );
+		try {
+			t.set(4, LuaValue.ONE);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+		try {
+			t.insert(0, LuaValue.ONE);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+
+		String[] s = { "b", "a" };
+		eval("local t = ... t[2] = 'c' table.sort(t, function(a,b) return a > b end)", CoerceJavaToLua.tableView(s));
+		assertEquals( "c", s[0] );
+		assertEquals( "b", s[1] );
+	}
+
+	public void testPrimitiveArrayElements() {
+		long[] l = { 5000000000L };
+		double[] d = { 0.5 };
+		char[] c = { 'a' };
+		boolean[] b = { false };
+		LuaTable tl = CoerceJavaToLua.tableView(l);
+		LuaTable td = CoerceJavaToLua.tableView(d);
+		LuaTable tc = CoerceJavaToLua.tableView(c);
+		LuaTable tb = CoerceJavaToLua.tableView(b);
+		assertEquals( LuaValue.valueOf(5e9), tl.get(1) );
+		assertEquals( LuaValue.valueOf(0.5), td.get(1) );
+		assertEquals( LuaValue.valueOf('a'), tc.get(1) );
+		assertEquals( LuaValue.FALSE, tb.get(1) );
+		tl.set(1, LuaValue.valueOf(6e9));
+		td.set(1, LuaValue.valueOf(1.25));
+		tc.set(1, LuaValue.valueOf('b'));
+		tb.set(1, LuaValue.TRUE);
+		assertEquals( 6000000000L, l[0] );
+		assertEquals( 1.25, d[0], 0 );
+		assertEquals( 'b', c[0] );
+		assertTrue( b[0] );
+		JavaArray ja = (JavaArray) CoerceJavaToLua.coerce(l);
+		assertEquals( LuaValue.valueOf(6e9), ja.get(1) );
+		ja.set(LuaValue.ONE, LuaValue.valueOf(7));
+		assertEquals( 7L, l[0] );
+	}
+
+	public void testMapTable() {
+		Map map = new LinkedHashMap();
+		map.put("a", new Integer(1));
+		map.put(new Integer(1), "one");
+		map.put("b", new Integer(2));
+		map.put("c", new Integer(3));
+		map.put("d", new Integer(4));
+		LuaTable t = CoerceJavaToLua.tableView(map);
+		assertEquals( LuaValue.valueOf(1), t.get("a") );
+		assertEquals( "one", t.get(1).tojstring() );
+		assertEquals( LuaValue.NIL, t.get("x") );
+		Varargs r = eval(
+			"local t = ...\n" +
+			"local s, n = '', 0\n" +
+			"for k,v in pairs(t) do\n" +
+			"  s = s..k\n" +
+			"  if v == 2 or v == 4 then t[k] = nil end\n" +
+			"end\n" +
+			"t.e = 5\n" +
+			"return s, #t, table.maxn(t)", t);
+		assertEquals( "a1bcd", r.arg(1).tojstring() );
+		assertEquals( 1, r.arg(2).toint() );
+		assertEquals( 1, r.arg(3).toint() );
+		assertEquals( 4, map.size() );
+		assertEquals( new Integer(5), map.get("e") );
+		assertFalse( map.containsKey("b") );
+		assertFalse( map.containsKey("d") );
+		try {
+			t.next(LuaValue.valueOf("x"));
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+		assertEquals( "c", t.next(LuaValue.valueOf(1)).arg1().tojstring() );
+	}
+
+	public void testListView() {
+		LuaTable t = LuaValue.listOf(new LuaValue[] { LuaValue.valueOf("a"), LuaValue.valueOf(2) });
+		List list = CoerceLuaToJava.listView(t);
+		assertEquals( 2, list.size() );
+		assertEquals( "a", list.get(0) );
+		assertEquals( new Integer(2), list.get(1) );
+		list.add("c");
+		list.add(0, new Double(0.5));
+		list.set(2, "b");
+		assertEquals( Arrays.asList(new Object[] { new Double(0.5), "a", "b", "c" }), list );
+		assertEquals( 4, t.length() );
+		assertEquals( LuaValue.valueOf(0.5), t.get(1) );
+		assertEquals( "c", t.get(4).tojstring() );
+		assertEquals( "a", list.remove(1) );
+		assertEquals( "b", t.get(2).tojstring() );
+		for ( Iterator i = list.iterator(); i.hasNext(); )
+			if ( "b".equals(i.next()) )
+				i.remove();
+		assertEquals( 2, t.length() );
+		try {
+			list.get(2);
+			fail( "did not throw exception as expected" );
+		} catch ( IndexOutOfBoundsException e ) {}
+		assertSame( t, CoerceJavaToLua.coerce(list) );
+		list.clear();
+		assertEquals( 0, t.length() );
+	}
+
+	public void testMapView() {
+		LuaTable t = new LuaTable();
+		t.set("a", LuaValue.valueOf(1));
+		t.set(1, LuaValue.valueOf("one"));
+		Map map = CoerceLuaToJava.mapView(t);
+		assertEquals( 2, map.size() );
+		assertEquals( new Integer(1), map.get("a") );
+		assertEquals( "one", map.get(new Integer(1)) );
+		assertNull( map.get("x") );
+		assertTrue( map.containsKey("a") );
+		assertNull( map.put("b", new Double(2.5)) );
+		assertEquals( LuaValue.valueOf(2.5), t.get("b") );
+		assertEquals( new Integer(1), map.put("a", "x") );
+		assertEquals( "x", map.remove("a") );
+		assertEquals( LuaValue.NIL, t.get("a") );
+		Map copy = new HashMap(map);
+		assertEquals( 2, copy.size() );
+		assertEquals( new Double(2.5), copy.get("b") );
+		for ( Iterator i = map.entrySet().iterator(); i.hasNext(); ) {
+			Map.Entry e = (Map.Entry) i.next();
+			if ( "b".equals(e.getKey()) )
+				e.setValue("y");
+			else
+				i.remove();
+		}
+		assertEquals( 1, t.keyCount() );
+		assertEquals( "y", t.get("b").tojstring() );
+		assertSame( t, CoerceJavaToLua.coerce(map) );
+	}
+
+	public void testCoercion() {
+		List list = new ArrayList();
+		int[] a = { 1, 2 };
+		Map map = new HashMap();
+		LuaTable lt = CoerceJavaToLua.tableView(list);
+		LuaTable at = CoerceJavaToLua.tableView(a);
+		LuaTable mt = CoerceJavaToLua.tableView(map);
+		assertSame( list, CoerceLuaToJava.coerce(lt, List.class) );
+		assertSame( list, CoerceLuaToJava.coerce(lt, Object.class) );
+		assertSame( list, CoerceLuaToJava.coerce(lt, ArrayList.class) );
+		assertSame( list, CoerceLuaToJava.listView(lt) );
+		assertSame( a, CoerceLuaToJava.coerce(at, int[].class) );
+		assertSame( a, CoerceLuaToJava.coerce(at, Object.class) );
+		assertSame( map, CoerceLuaToJava.coerce(mt, Map.class) );
+		assertSame( map, CoerceLuaToJava.mapView(mt) );
+		assertSame( lt, CoerceLuaToJava.coerce(lt, LuaTable.class) );
+
+		LuaTable t = new LuaTable();
+		assertSame( t, CoerceLuaToJava.coerce(t, Object.class) );
+		assertEquals( LuaTableList.class, CoerceLuaToJava.coerce(t, List.class).getClass() );
+		assertEquals( LuaTableList.class, CoerceLuaToJava.coerce(t, Collection.class).getClass() );
+		assertEquals( LuaTableMap.class, CoerceLuaToJava.coerce(t, Map.class).getClass() );
+		assertEquals( LuaTableList.class, CoerceLuaToJava.coerce(at, List.class).getClass() );
+		assertNull( CoerceLuaToJava.coerce(LuaValue.NIL, List.class) );
+
+		try {
+			CoerceJavaToLua.tableView("abc");
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+	}
+
+	public void testPassedToJava() {
+		Varargs r = eval(
+			"local t = {'a', 'b'}\n" +
+			"v:append(t, 'c')\n" +
+			"local m = {}\n" +
+			"v:store(m, 'k', 5)\n" +
+			"return #t, t[3], v:size(t), m.k, v:lookup(m, 'k'), v:sum({1, 2, 3})", LuaValue.NIL);
+		assertEquals( 3, r.arg(1).toint() );
+		assertEquals( "c", r.arg(2).tojstring() );
+		assertEquals( 3, r.arg(3).toint() );
+		assertEquals( 5, r.arg(4).toint() );
+		assertEquals( 5, r.arg(5).toint() );
+		assertEquals( 6, r.arg(6).toint() );
+
+		List list = new ArrayList();
+		LuaValue t = CoerceJavaToLua.tableView(list);
+		eval("local t = ... v:append(t, 'x') t[#t+1] = 'y' return v:size(t)", t);
+		assertEquals( Arrays.asList(new Object[] { "x", "y" }), list );
+	}
+}
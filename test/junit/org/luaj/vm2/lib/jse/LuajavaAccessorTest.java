@@ -0,0 +1,180 @@
+package org.luaj.vm2.lib.jse;
+
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+
+/**
+ * Runs the {@link LuajavaClassMembersTest} tests with accessors generated for members on first use,
+ * and checks that generated accessors convert values as reflection does.
+ */
+public class LuajavaAccessorTest extends LuajavaClassMembersTest {
+
+	public static class D {
+		public long m_long_field;
+		public float m_float_field;
+		public char m_char_field;
+		public boolean m_boolean_field;
+		public Object m_object_field;
+		public Runnable m_runnable_field;
+		public final int m_final_field = 7;
+		public static short s_short_field;
+
+		public D() {}
+		public D(long l, String s) { m_long_field = l; m_object_field = s; }
+
+		public long addlong(long a, long b) { return a + b; }
+		public float half(float f)          { return f / 2; }
+		public char next(char c)            { return (char) (c + 1); }
+		public boolean not(boolean b)       { return !b; }
+		public byte neg(byte b)             { return (byte) -b; }
+		public static short twice(short s)  { return (short) (s * 2); }
+		public void clear()                 { m_object_field = null; }
+		public String concat(String s, Object o) { return s + o; }
+		public Object echo(Object o)        { return o; }
+		public int[] range(int n)           { int[] a = new int[n]; for ( int i=0; i<n; i++ ) a[i] = i+1; return a; }
+		public int sum(int[] a)             { int s = 0; for ( int i=0; i<a.length; i++ ) s += a[i]; return s; }
+		public void fail()                  { throw new IllegalStateException("boom"); }
+	}
+
+	static class Hidden {
+		public int value() { return 42; }
+	}
+
+	private int threshold;
+
+	protected void setUp() throws Exception {
+		threshold = JavaAccessor.threshold;
+		JavaAccessor.threshold = 1;
+	}
+
+	protected void tearDown() throws Exception {
+		JavaAccessor.threshold = threshold;
+	}
+
+	private static LuaValue call(LuaValue instance, String name, LuaValue arg) {
+		JavaMethod m = (JavaMethod) instance.get(name);
+		LuaValue r = m.call(instance, arg);
+		assertNotNull( name, m.accessor() );
+		return r;
+	}
+
+	public void testPrimitiveMethods() {
+		LuaValue d = CoerceJavaToLua.coerce(new D());
+		assertEquals( LuaValue.valueOf(5000000000.), ((JavaMethod) d.get("addlong")).call(d, LuaValue.valueOf(4000000000.), LuaValue.valueOf(1000000000)) );
+		assertNotNull( ((JavaMethod) d.get("addlong")).accessor() );
+		assertEquals( LuaValue.valueOf(1.25), call(d, "half", LuaValue.valueOf(2.5)) );
+		assertEquals( LuaValue.valueOf('b'), call(d, "next", LuaValue.valueOf('a')) );
+		assertEquals( LuaValue.FALSE, call(d, "not", LuaValue.TRUE) );
+		assertEquals( LuaValue.TRUE, call(d, "not", LuaValue.NIL) );
+		assertEquals( LuaValue.valueOf(-3), call(d, "neg", LuaValue.valueOf(3)) );
+		assertEquals( LuaValue.valueOf(8), call(d, "twice", LuaValue.valueOf(4)) );
+		assertEquals( LuaValue.valueOf(0), call(d, "neg", LuaValue.valueOf("abc")) );
+	}
+
+	public void testObjectMethods() {
+		D o = new D();
+		LuaValue d = CoerceJavaToLua.coerce(o);
+		o.m_object_field = "x";
+		assertEquals( LuaValue.NIL, call(d, "clear", LuaValue.NONE) );
+		assertNull( o.m_object_field );
+		JavaMethod concat = (JavaMethod) d.get("concat");
+		assertEquals( "abc123", concat.call(d, LuaValue.valueOf("abc"), LuaValue.valueOf(123)).tojstring() );
+		assertEquals( "nullnull", concat.invoke(LuaValue.varargsOf(new LuaValue[] { d })).tojstring() );
+		assertNotNull( concat.accessor() );
+		assertEquals( LuaValue.valueOf(2.5), call(d, "echo", LuaValue.valueOf(2.5)) );
+		LuaValue a = call(d, "range", LuaValue.valueOf(3));
+		assertEquals( JavaArray.class, a.getClass() );
+		assertEquals( LuaValue.valueOf(6), call(d, "sum", a) );
+		assertEquals( LuaValue.valueOf(6), call(d, "sum", LuaValue.listOf(new LuaValue[] { ONE, ONE, LuaValue.valueOf(4) })) );
+	}
+
+	public void testConstructor() {
+		JavaClass c = JavaClass.forClass(D.class);
+		Varargs v = c.get("new").call(LuaValue.valueOf(12), ABC);
+		D d = (D) v.touserdata(1);
+		assertEquals( 12L, d.m_long_field );
+		assertEquals( "abc", d.m_object_field );
+		JavaConstructor.Overload constr = (JavaConstructor.Overload) c.get("new");
+		for ( int i=0; i<constr.constructors.length; i++ )
+			assertNotNull( constr.constructors[i].accessor() );
+	}
+
+	public void testFields() {
+		D o = new D();
+		JavaInstance d = new JavaInstance(o);
+		d.set("m_long_field", LuaValue.valueOf(1e10));  assertEquals( 10000000000L, o.m_long_field ); assertEquals( LuaValue.valueOf(1e10), d.get("m_long_field") );
+		d.set("m_float_field", LuaValue.valueOf(0.5));  assertEquals( 0.5f, o.m_float_field, 0 ); assertEquals( LuaValue.valueOf(0.5), d.get("m_float_field") );
+		d.set("m_char_field", LuaValue.valueOf(65));    assertEquals( 'A', o.m_char_field ); assertEquals( LuaValue.valueOf(65), d.get("m_char_field") );
+		d.set("m_boolean_field", LuaValue.TRUE);        assertTrue( o.m_boolean_field ); assertEquals( LuaValue.TRUE, d.get("m_boolean_field") );
+		d.set("m_object_field", ABC);                   assertEquals( "abc", o.m_object_field ); assertEquals( ABC, d.get("m_object_field") );
+		d.set("s_short_field", LuaValue.valueOf(-2));   assertEquals( -2, D.s_short_field ); assertEquals( LuaValue.valueOf(-2), d.get("s_short_field") );
+		assertEquals( LuaValue.valueOf(7), d.get("m_final_field") );
+		assertNotNull( JavaClass.forClass(D.class).getField(LuaValue.valueOf("m_long_field")).accessor() );
+		try {
+			d.set("m_final_field", ONE);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+		try {
+			d.set("m_runnable_field", ONE);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+		assertNull( o.m_runnable_field );
+	}
+
+	public void testErrors() {
+		LuaValue d = CoerceJavaToLua.coerce(new D());
+		JavaMethod fail = (JavaMethod) d.get("fail");
+		try {
+			fail.call(d);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {
+			assertEquals( IllegalStateException.class, e.getCause().getClass() );
+		}
+		assertNotNull( fail.accessor() );
+		try {
+			fail.call(SOMEB);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {
+			assertTrue( e.getMessage(), e.getMessage().startsWith("coercion error") );
+		}
+		try {
+			call(d, "sum", LuaValue.userdataOf(new Object()));
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {
+			assertTrue( e.getMessage(), e.getMessage().startsWith("coercion error") );
+		}
+	}
+
+	public void testInapplicableAccessorMethods() throws Exception {
+		JavaAccessor m = JavaAccessor.forMethod(D.class.getMethod("not", new Class[] { Boolean.TYPE }), new CoerceLuaToJava.Coercion[1]);
+		JavaAccessor f = JavaAccessor.forField(D.class.getField("m_final_field"));
+		D o = new D();
+		assertEquals( LuaValue.valueOf(7), f.get(o) );
+		try {
+			m.get(o);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+		try {
+			m.set(o, ONE);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+		try {
+			f.set(o, ONE);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+		try {
+			f.invoke(o, LuaValue.NONE);
+			fail( "did not throw lua error as expected" );
+		} catch ( LuaError e ) {}
+		assertEquals( 7, o.m_final_field );
+	}
+
+	public void testReflectionFallback() {
+		LuaValue h = CoerceJavaToLua.coerce(new Hidden());
+		JavaMethod value = (JavaMethod) h.get("value");
+		assertEquals( 42, value.call(h).toint() );
+		assertEquals( 42, value.call(h).toint() );
+		assertNull( value.accessor() );
+	}
+}
@@ -223,4 +223,36 @@ public class LuajavaClassMembersTest extends TestCase {
 		assertEquals( "static-pick(int:1,string:abc)", p.call(SOMEB,ONE,ABC).tojstring() );
 		assertEquals( "static-pick(int:1,string:abc)", p.invoke(LuaValue.varargsOf(new LuaValue[] {SOMEB,ONE,ABC,ONE})).arg1().tojstring() );
 	}
+	public void testClassesSharedBetweenThreads() throws InterruptedException {
+		final Class[] classes = { java.util.ArrayList.class, java.util.HashMap.class, StringBuffer.class, java.util.Random.class };
+		final JavaClass[][] found = new JavaClass[4][classes.length];
+		final LuaValue[][] methods = new LuaValue[4][classes.length];
+		Thread[] threads = new Thread[found.length];
+		for ( int t=0; t<threads.length; t++ ) {
+			final int index = t;
+			threads[t] = new Thread() {
+				public void run() {
+					for ( int i=0; i<classes.length; i++ ) {
+						found[index][i] = JavaClass.forClass(classes[i]);
+						methods[index][i] = found[index][i].getMethod(LuaValue.valueOf("toString"));
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for ( int t=0; t<threads.length; t++ )
+			threads[t].join();
+		for ( int i=0; i<classes.length; i++ ) {
+			assertSame( JavaClass.forClass(classes[i]), found[0][i] );
+			assertNotNull( methods[0][i] );
+			for ( int t=1; t<threads.length; t++ ) {
+				assertSame( found[0][i], found[t][i] );
+				assertSame( methods[0][i], methods[t][i] );
+			}
+		}
+		assertNotNull( JavaClass.forClass(B.class).getField(LuaValue.valueOf("m_int_field")) );
+		assertNull( JavaClass.forClass(B.class).getField(LuaValue.valueOf("uniq")) );
+		assertNotNull( JavaClass.forClass(B.class).getMethod(LuaValue.valueOf("uniq")) );
+		assertNotNull( JavaClass.forClass(B.class).getConstructor() );
+	}
 }
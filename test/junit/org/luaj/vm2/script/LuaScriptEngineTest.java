@@ -0,0 +1,102 @@
+package org.luaj.vm2.script;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import junit.framework.TestCase;
+
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+
+/**
+ * Tests that scripts evaluated by {@link LuaScriptEngine} read and write their {@link Bindings} directly.
+ */
+public class LuaScriptEngineTest extends TestCase {
+
+	public static class Probe {
+		private final Bindings b;
+		public Probe(Bindings b) { this.b = b; }
+		public Object get(String key) { return b.get(key); }
+		public void put(String key, Object value) { b.put(key, value); }
+	}
+
+	private LuaScriptEngine engine;
+
+	protected void setUp() throws Exception {
+		engine = new LuaScriptEngine();
+	}
+
+	public void testEngineScope() throws ScriptException {
+		engine.put("a", new Integer(1));
+		engine.eval("b = a + 1");
+		assertEquals( new Integer(2), engine.get("b") );
+		assertEquals( new Integer(1), engine.get("a") );
+	}
+
+	public void testReadsAndWritesBindings() throws ScriptException {
+		Bindings b = new SimpleBindings();
+		Long big = new Long(1L << 40);
+		b.put("x", new Integer(3));
+		b.put("big", big);
+		b.put("w", "gone");
+		b.put("probe", new Probe(b));
+		Object r = engine.eval(
+			"y = x * 2\n" +
+			"w = nil\n" +
+			"probe:put('x', 10)\n" +
+			"return probe:get('y') + x", b);
+		assertEquals( LuaValue.valueOf(16), r );
+		assertEquals( new Integer(6), b.get("y") );
+		assertSame( big, b.get("big") );
+		assertFalse( b.containsKey("w") );
+	}
+
+	public void testGlobals() throws ScriptException {
+		Bindings b = new SimpleBindings();
+		assertEquals( "function", engine.eval("return type(print)", b).toString() );
+		b.put("print", "shadowed");
+		assertEquals( "shadowed", engine.eval("return print", b).toString() );
+		engine.eval("print = nil", b);
+		assertFalse( b.containsKey("print") );
+		assertEquals( "function", engine.eval("return type(print)", b).toString() );
+	}
+
+	public void testLuaValuesKept() throws ScriptException {
+		Bindings b = new SimpleBindings();
+		CompiledScript set = engine.compile("t = {1, 2}\nfunction f(n) return n + #t end");
+		CompiledScript use = engine.compile("return f(t[2])");
+		set.eval(b);
+		assertTrue( b.get("t") instanceof LuaTable );
+		assertEquals( LuaValue.valueOf(4), use.eval(b) );
+	}
+
+	public void testTraversal() throws ScriptException {
+		Bindings b = new SimpleBindings();
+		b.put("a", new Integer(1));
+		b.put("b", new Integer(2));
+		b.put("c", null);
+		Object r = engine.eval(
+			"local env = getfenv(function() end)\n" +
+			"env[1] = 'one'\n" +
+			"local n, s = 0, 0\n" +
+			"for k,v in pairs(env) do\n" +
+			"  n = n + 1\n" +
+			"  if type(v) == 'number' then s = s + v end\n" +
+			"end\n" +
+			"return n * 100 + s", b);
+		assertEquals( LuaValue.valueOf(303), r );
+		assertFalse( b.containsKey("1") );
+	}
+
+	public void testContextBindings() throws ScriptException {
+		ScriptContext c = engine.getContext();
+		Bindings b = engine.createBindings();
+		b.put("x", "abc");
+		c.setBindings(b, ScriptContext.ENGINE_SCOPE);
+		engine.eval("y = x:upper()");
+		assertEquals( "ABC", b.get("y") );
+	}
+}